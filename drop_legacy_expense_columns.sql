@@ -0,0 +1,60 @@
+-- Drop the free-text expense_type and payment_method columns of expenses
+-- Run once every instance stores categories and payment methods as ids (category_id,
+-- payment_method_id; see DictionaryEncodingMigration) and the "dictionary-encode" startup
+-- task has completed. Safe to re-run: it does nothing once the columns are gone.
+--
+-- Instances still on the old version during a rolling deploy keep writing only the text
+-- columns after the startup task has finished its pass. Those rows are encoded here first,
+-- under a table lock so no new ones slip in before the drop; the check afterwards only
+-- guards against values the lookup tables could not take.
+
+DO $$
+DECLARE
+    pending BIGINT;
+    encoded BIGINT;
+BEGIN
+    LOCK TABLE expenses IN ACCESS EXCLUSIVE MODE;
+
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_name = 'expenses' AND column_name = 'expense_type') THEN
+        INSERT INTO categories (name)
+        SELECT DISTINCT e.expense_type FROM expenses e
+         WHERE e.expense_type IS NOT NULL AND e.category_id IS NULL
+           AND NOT EXISTS (SELECT 1 FROM categories d WHERE d.name = e.expense_type);
+        UPDATE expenses SET category_id = (SELECT d.id FROM categories d WHERE d.name = expenses.expense_type)
+         WHERE category_id IS NULL AND expense_type IS NOT NULL;
+        GET DIAGNOSTICS encoded = ROW_COUNT;
+        RAISE NOTICE 'Encoded % remaining expenses.expense_type values', encoded;
+
+        SELECT COUNT(*) INTO pending FROM expenses
+         WHERE expense_type IS NOT NULL AND category_id IS NULL;
+        IF pending > 0 THEN
+            RAISE EXCEPTION '% expenses still have no category_id', pending;
+        END IF;
+        ALTER TABLE expenses DROP COLUMN expense_type;
+        RAISE NOTICE 'Dropped expenses.expense_type';
+    END IF;
+
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_name = 'expenses' AND column_name = 'payment_method') THEN
+        INSERT INTO payment_methods (name)
+        SELECT DISTINCT e.payment_method FROM expenses e
+         WHERE e.payment_method IS NOT NULL AND e.payment_method_id IS NULL
+           AND NOT EXISTS (SELECT 1 FROM payment_methods d WHERE d.name = e.payment_method);
+        UPDATE expenses SET payment_method_id = (SELECT d.id FROM payment_methods d WHERE d.name = expenses.payment_method)
+         WHERE payment_method_id IS NULL AND payment_method IS NOT NULL;
+        GET DIAGNOSTICS encoded = ROW_COUNT;
+        RAISE NOTICE 'Encoded % remaining expenses.payment_method values', encoded;
+
+        SELECT COUNT(*) INTO pending FROM expenses
+         WHERE payment_method IS NOT NULL AND payment_method_id IS NULL;
+        IF pending > 0 THEN
+            RAISE EXCEPTION '% expenses still have no payment_method_id', pending;
+        END IF;
+        ALTER TABLE expenses DROP COLUMN payment_method;
+        RAISE NOTICE 'Dropped expenses.payment_method';
+    END IF;
+END $$;
+
+-- Reclaim the space of the dropped columns (rewrites the table; run off-peak):
+-- VACUUM FULL expenses;
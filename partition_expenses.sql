@@ -0,0 +1,96 @@
+-- Convert the expenses table into a table range-partitioned by month on "date"
+-- Run once against PostgreSQL 12+ during a maintenance window (it takes an exclusive lock
+-- on expenses while rows are copied). Safe to re-run: it does nothing if already partitioned.
+--
+-- Run drop_legacy_expense_columns.sql first, so the free-text expense_type and payment_method
+-- columns are not carried over; the script refuses to start while they exist.
+--
+-- The new table copies the old one's columns, defaults and NOT NULL/CHECK constraints, so the
+-- Expense entity mapping keeps working. Because the partition key must be part of the primary
+-- key, the key becomes (id, date); ids still come from expenses_seq and stay unique. Rows
+-- without a date cannot be partitioned: the script refuses to start while any exist, so give
+-- them a date of your choosing first.
+--
+-- After this script the application creates upcoming monthly partitions itself
+-- (ExpensePartitionMaintenance), and set
+--   spring.jpa.properties.hibernate.hbm2ddl.extra_physical_table_types=PARTITIONED TABLE
+-- so Hibernate's schema update recognises the partitioned table (already in application.properties).
+
+DO $$
+DECLARE
+    first_month DATE;
+    last_month  DATE;
+    m           DATE;
+    null_dates  BIGINT;
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_partitioned_table pt
+               JOIN pg_class c ON c.oid = pt.partrelid
+               WHERE c.relname = 'expenses') THEN
+        RAISE NOTICE 'expenses is already partitioned, skipping migration.';
+        RETURN;
+    END IF;
+
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_name = 'expenses' AND column_name IN ('expense_type', 'payment_method')) THEN
+        RAISE EXCEPTION 'expenses still has the expense_type/payment_method columns; run drop_legacy_expense_columns.sql first';
+    END IF;
+
+    LOCK TABLE expenses IN ACCESS EXCLUSIVE MODE;
+
+    -- Step 1: the partition key cannot be NULL, and inventing dates would change the data
+    SELECT COUNT(*) INTO null_dates FROM expenses WHERE date IS NULL;
+    IF null_dates > 0 THEN
+        RAISE EXCEPTION '% expenses have no date; set one (UPDATE expenses SET date = ... WHERE date IS NULL) and re-run', null_dates;
+    END IF;
+
+    -- Step 2: keep the old table around until the copy is verified
+    ALTER TABLE expenses RENAME TO expenses_unpartitioned;
+    IF EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'expenses_pkey') THEN
+        ALTER TABLE expenses_unpartitioned RENAME CONSTRAINT expenses_pkey TO expenses_unpartitioned_pkey;
+    END IF;
+    -- Free the names of ExpenseArchiveIndexes' indexes for the new table
+    ALTER INDEX IF EXISTS idx_expenses_deleted_id RENAME TO idx_expenses_unpartitioned_deleted_id;
+    ALTER INDEX IF EXISTS idx_expenses_date RENAME TO idx_expenses_unpartitioned_date;
+
+    -- Step 3: partitioned parent with the same columns and constraints
+    CREATE TABLE expenses (LIKE expenses_unpartitioned INCLUDING DEFAULTS INCLUDING CONSTRAINTS)
+        PARTITION BY RANGE (date);
+    ALTER TABLE expenses ADD CONSTRAINT expenses_pkey PRIMARY KEY (id, date);
+    ALTER TABLE expenses ADD FOREIGN KEY (user_id) REFERENCES users(id);
+
+    CREATE INDEX idx_expenses_user_date ON expenses (user_id, date);
+    CREATE INDEX idx_expenses_deleted_id ON expenses (id) WHERE deleted_at IS NOT NULL;
+
+    -- Step 4: one partition per month covering existing data plus three months ahead,
+    -- and a default partition as a safety net for out-of-range dates
+    SELECT date_trunc('month', COALESCE(MIN(date), CURRENT_DATE))::date,
+           date_trunc('month', GREATEST(COALESCE(MAX(date), CURRENT_DATE), CURRENT_DATE))::date
+      INTO first_month, last_month
+      FROM expenses_unpartitioned;
+
+    m := first_month;
+    WHILE m <= (last_month + INTERVAL '3 months')::date LOOP
+        EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF expenses FOR VALUES FROM (%L) TO (%L)',
+                       'expenses_p' || to_char(m, 'YYYY_MM'), m, (m + INTERVAL '1 month')::date);
+        m := (m + INTERVAL '1 month')::date;
+    END LOOP;
+
+    CREATE TABLE expenses_default PARTITION OF expenses DEFAULT;
+
+    -- Step 5: copy the rows
+    INSERT INTO expenses SELECT * FROM expenses_unpartitioned;
+
+    RAISE NOTICE 'Partitioned expenses into monthly partitions from % to %',
+                 first_month, (last_month + INTERVAL '3 months')::date;
+END $$;
+
+-- Verify the migration (partition sizes)
+SELECT c.relname AS partition, pg_size_pretty(pg_relation_size(c.oid)) AS size
+FROM pg_inherits i
+JOIN pg_class c ON c.oid = i.inhrelid
+JOIN pg_class p ON p.oid = i.inhparent
+WHERE p.relname = 'expenses'
+ORDER BY c.relname;
+
+-- Once verified, drop the old table:
+-- DROP TABLE expenses_unpartitioned;
@@ -0,0 +1,32 @@
+package org.learnspring.expensetracker.reactive.Controllers;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Heap and thread counts in the same shape as the servlet app's /admin/jvm, so the load test
+ * can sample either stack.
+ */
+@RestController
+@RequestMapping("/admin")
+public class AdminController {
+
+    @GetMapping("/jvm")
+    public Map<String, Object> jvm() {
+        Runtime runtime = Runtime.getRuntime();
+        Map<String, Object> heap = new LinkedHashMap<>();
+        heap.put("usedMb", (runtime.totalMemory() - runtime.freeMemory()) / (1024 * 1024));
+        heap.put("committedMb", runtime.totalMemory() / (1024 * 1024));
+        heap.put("maxMb", runtime.maxMemory() / (1024 * 1024));
+
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("heap", heap);
+        snapshot.put("threads", ManagementFactory.getThreadMXBean().getThreadCount());
+        return snapshot;
+    }
+}
@@ -0,0 +1,73 @@
+package org.learnspring.expensetracker.reactive.Controllers;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+import org.learnspring.expensetracker.reactive.Model.AccountPrincipal;
+import org.learnspring.expensetracker.reactive.Model.ExpenseView;
+import org.learnspring.expensetracker.reactive.Model.SpendingTrend;
+import org.learnspring.expensetracker.reactive.Model.TrendGranularity;
+import org.learnspring.expensetracker.reactive.Service.ReactiveExpenseService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * The servlet app's read endpoints with the same paths and JSON. Lists are written as they
+ * stream from the database, as a JSON array by default or one object per line with
+ * Accept: application/x-ndjson; either way rows are only read as fast as the client takes them.
+ */
+@RestController
+public class ReactiveExpenseController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveExpenseController.class);
+
+    @Autowired
+    private ReactiveExpenseService service;
+
+    @GetMapping(path = "/all", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<ExpenseView> getAll(@AuthenticationPrincipal AccountPrincipal user){
+        logger.debug("Fetching all expenses for user: {}", user.getUsername());
+        return service.getExpensesByUser(user.getId());
+    }
+
+    @GetMapping(path = "/by-month/{yearMonth}", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<ExpenseView> getByMonth(@PathVariable String yearMonth, @AuthenticationPrincipal AccountPrincipal user){
+        logger.debug("Fetching expenses for month {} for user: {}", yearMonth, user.getUsername());
+        return service.getByMonthForUser(yearMonth, user.getId());
+    }
+
+    /**
+     * Same defaults as the servlet /trends: the last twelve months by month.
+     */
+    @GetMapping("/trends")
+    public Mono<SpendingTrend> getTrends(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "month") String granularity,
+            @RequestParam(required = false) String type,
+            @AuthenticationPrincipal AccountPrincipal user){
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusYears(1).plusDays(1);
+        logger.debug("Fetching {} trends from {} to {} for user: {}", granularity, start, end, user.getUsername());
+        return Mono.defer(() -> service.getTrends(user.getId(), start, end,
+                TrendGranularity.parse(granularity), type == null || type.isBlank() ? null : type));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> badRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+}
@@ -0,0 +1,45 @@
+package org.learnspring.expensetracker.reactive.Model;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+/**
+ * The authenticated user, carrying the id the expense queries filter on. Authorities as in the
+ * servlet app: the stored role as a single ROLE_ authority.
+ */
+public class AccountPrincipal implements UserDetails {
+
+    private final UserAccount account;
+
+    public AccountPrincipal(UserAccount account) {
+        this.account = account;
+    }
+
+    public Integer getId() {
+        return account.id();
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        String role = account.role();
+        if (role == null || role.isBlank()) {
+            return List.of();
+        }
+        return List.of(new SimpleGrantedAuthority("ROLE_" + role.trim().toUpperCase(Locale.ROOT)));
+    }
+
+    @Override
+    public String getPassword() {
+        return account.password();
+    }
+
+    @Override
+    public String getUsername() {
+        return account.username();
+    }
+}
@@ -0,0 +1,10 @@
+package org.learnspring.expensetracker.reactive.Model;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * One non-empty date_trunc bucket of a user's spending, as summed in SQL.
+ */
+public record BucketSum(LocalDate bucket, BigDecimal total, long expenseCount) {
+}
@@ -0,0 +1,16 @@
+package org.learnspring.expensetracker.reactive.Model;
+
+import java.time.LocalDate;
+
+/**
+ * Same JSON as the servlet app's ExpenseView. Read straight from the query's columns
+ * (expense_type and payment_method are the dictionary names, not ids).
+ */
+public record ExpenseView(
+        int id,
+        String expense,
+        String expenseType,
+        String expenseAmount,
+        String paymentMethod,
+        LocalDate date) {
+}
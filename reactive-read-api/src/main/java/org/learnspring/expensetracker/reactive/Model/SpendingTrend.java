@@ -0,0 +1,22 @@
+package org.learnspring.expensetracker.reactive.Model;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Same JSON as the servlet app's SpendingTrend: every bucket in the range, empty ones with zero.
+ */
+public record SpendingTrend(
+        LocalDate from,
+        LocalDate to,
+        String type,
+        TrendGranularity requestedGranularity,
+        TrendGranularity granularity,
+        int bucketsPerPoint,
+        boolean downsampled,
+        List<Point> points) {
+
+    public record Point(LocalDate bucket, BigDecimal total, long count) {
+    }
+}
@@ -0,0 +1,11 @@
+package org.learnspring.expensetracker.reactive.Model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * A row of the servlet app's users table; this module only reads it to authenticate.
+ */
+@Table("users")
+public record UserAccount(@Id Integer id, String username, String password, String role) {
+}
@@ -0,0 +1,115 @@
+package org.learnspring.expensetracker.reactive.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.learnspring.expensetracker.reactive.Model.BucketSum;
+import org.learnspring.expensetracker.reactive.Model.ExpenseView;
+import org.learnspring.expensetracker.reactive.Model.SpendingTrend;
+import org.learnspring.expensetracker.reactive.Model.TrendGranularity;
+import org.learnspring.expensetracker.reactive.repo.ExpenseReadRepo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * The servlet app's expense reads without blocking a thread per request. Lists are passed
+ * through as they stream from the database, never collected; only /trends, which needs every
+ * bucket before it can fill the gaps, collects its (at most a few hundred) bucket sums.
+ *
+ * There is no cache or single-flight here: each request is its own query, which is the point
+ * of comparing this path with the servlet one under load.
+ */
+@Service
+public class ReactiveExpenseService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveExpenseService.class);
+
+    @Autowired
+    private ExpenseReadRepo expenseReadRepo;
+
+    @Value("${trends.max-points:366}")
+    private int trendsMaxPoints = 366;
+
+    public Flux<ExpenseView> getExpensesByUser(Integer userId) {
+        return expenseReadRepo.findViewsByUserId(userId);
+    }
+
+    public Flux<ExpenseView> getByMonthForUser(String yearMonth, Integer userId) {
+        YearMonth ym;
+        try {
+            ym = YearMonth.parse(yearMonth); // expects YYYY-MM
+        } catch (DateTimeParseException e) {
+            return Flux.error(new IllegalArgumentException("yearMonth must be YYYY-MM"));
+        }
+        logger.debug("Fetching expenses for user {} between {} and {}", userId, ym.atDay(1), ym.atEndOfMonth());
+        return expenseReadRepo.findViewsByUserIdAndDateBetween(userId, ym.atDay(1), ym.atEndOfMonth());
+    }
+
+    /**
+     * Same series as the servlet app's expenseService.getTrends: the granularity is coarsened
+     * until the range fits in trends.max-points, then neighbouring buckets are merged if it
+     * still does not, and empty buckets are filled with zero.
+     */
+    public Mono<SpendingTrend> getTrends(Integer userId, LocalDate from, LocalDate to, TrendGranularity requested, String type) {
+        if (from.isAfter(to)) {
+            return Mono.error(new IllegalArgumentException("from must not be after to"));
+        }
+        TrendGranularity coarsened = requested;
+        while (bucketCount(from, to, coarsened) > trendsMaxPoints && coarsened.coarser() != null) {
+            coarsened = coarsened.coarser();
+        }
+        TrendGranularity granularity = coarsened;
+        int buckets = bucketCount(from, to, granularity);
+        int bucketsPerPoint = (buckets + trendsMaxPoints - 1) / trendsMaxPoints;
+        logger.debug("Trends for user {} from {} to {} by {} ({} buckets)", userId, from, to, granularity, buckets);
+
+        return expenseReadRepo.sumByBucket(userId, granularity.sqlUnit(), from, to, type)
+                .collectMap(BucketSum::bucket)
+                .map(sums -> {
+                    List<SpendingTrend.Point> points = densify(sums, from, to, granularity, bucketsPerPoint);
+                    boolean downsampled = granularity != requested || bucketsPerPoint > 1;
+                    return new SpendingTrend(from, to, type, requested, granularity, bucketsPerPoint, downsampled, points);
+                });
+    }
+
+    // One point per bucket (or per group of bucketsPerPoint buckets)
+    private static List<SpendingTrend.Point> densify(Map<LocalDate, BucketSum> sums, LocalDate from, LocalDate to,
+                                                     TrendGranularity granularity, int bucketsPerPoint) {
+        List<SpendingTrend.Point> points = new ArrayList<>();
+        LocalDate bucket = granularity.truncate(from);
+        while (!bucket.isAfter(to)) {
+            LocalDate pointStart = bucket;
+            BigDecimal total = BigDecimal.ZERO;
+            long count = 0;
+            for (int i = 0; i < bucketsPerPoint && !bucket.isAfter(to); i++) {
+                BucketSum sum = sums.get(bucket);
+                if (sum != null) {
+                    total = total.add(sum.total() == null ? BigDecimal.ZERO : sum.total());
+                    count += sum.expenseCount();
+                }
+                bucket = granularity.next(bucket);
+            }
+            points.add(new SpendingTrend.Point(pointStart, total, count));
+        }
+        return points;
+    }
+
+    private static int bucketCount(LocalDate from, LocalDate to, TrendGranularity granularity) {
+        int count = 0;
+        for (LocalDate bucket = granularity.truncate(from); !bucket.isAfter(to); bucket = granularity.next(bucket)) {
+            count++;
+        }
+        return count;
+    }
+}
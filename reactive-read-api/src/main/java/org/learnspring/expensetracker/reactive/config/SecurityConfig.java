@@ -0,0 +1,59 @@
+package org.learnspring.expensetracker.reactive.config;
+
+import java.util.Map;
+
+import org.learnspring.expensetracker.reactive.Model.AccountPrincipal;
+import org.learnspring.expensetracker.reactive.repo.UserAccountRepo;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.authentication.HttpStatusServerEntryPoint;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+
+/**
+ * HTTP Basic against the servlet app's users table, stateless, /admin/** for ADMIN only. The
+ * BCrypt check runs on the bounded elastic scheduler (the default of the reactive
+ * authentication manager), never on an event-loop thread. Read-only: no rate limiting,
+ * registration or hash upgrades here; the servlet app keeps those.
+ */
+@Configuration
+@EnableWebFluxSecurity
+public class SecurityConfig {
+
+    @Bean
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http) {
+        return http
+                .csrf(ServerHttpSecurity.CsrfSpec::disable)
+                .authorizeExchange(exchanges -> exchanges
+                        .pathMatchers("/admin/**").hasRole("ADMIN")
+                        .anyExchange().authenticated())
+                .httpBasic(httpBasic -> httpBasic
+                        .authenticationEntryPoint(new HttpStatusServerEntryPoint(HttpStatus.UNAUTHORIZED)))
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+                .build();
+    }
+
+    @Bean
+    public ReactiveUserDetailsService userDetailsService(UserAccountRepo userAccountRepo) {
+        return username -> userAccountRepo.findByUsername(username).map(AccountPrincipal::new);
+    }
+
+    /**
+     * Verifies the hashes the servlet app writes: {bcrypt}-prefixed, or bare BCrypt from
+     * before the prefix was added.
+     */
+    @Bean
+    public PasswordEncoder passwordEncoder() {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder();
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder("bcrypt", Map.of("bcrypt", bcrypt));
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return encoder;
+    }
+}
@@ -0,0 +1,51 @@
+package org.learnspring.expensetracker.reactive.repo;
+
+import java.time.LocalDate;
+
+import org.learnspring.expensetracker.reactive.Model.BucketSum;
+import org.learnspring.expensetracker.reactive.Model.ExpenseView;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * The read queries of the servlet app's expenseRepo, over R2DBC. There is no entity mapping
+ * here, so the dictionary names are joined in and soft-deleted rows are filtered explicitly.
+ * Rows are emitted as they arrive and only as fast as they are requested.
+ */
+public interface ExpenseReadRepo extends Repository<ExpenseView, Integer> {
+
+    String SELECT_VIEWS = "SELECT e.id, e.expense, c.name AS expense_type, e.expense_amount, "
+            + "p.name AS payment_method, e.date "
+            + "FROM expenses e "
+            + "LEFT JOIN categories c ON c.id = e.category_id "
+            + "LEFT JOIN payment_methods p ON p.id = e.payment_method_id ";
+
+    @Query(SELECT_VIEWS + "WHERE e.user_id = :userId AND e.deleted_at IS NULL")
+    Flux<ExpenseView> findViewsByUserId(@Param("userId") Integer userId);
+
+    @Query(SELECT_VIEWS + "WHERE e.user_id = :userId AND e.date BETWEEN :start AND :end AND e.deleted_at IS NULL")
+    Flux<ExpenseView> findViewsByUserIdAndDateBetween(@Param("userId") Integer userId,
+                                                      @Param("start") LocalDate start,
+                                                      @Param("end") LocalDate end);
+
+    /**
+     * As expenseRepo.sumByBucket: non-empty date_trunc buckets, oldest first (PostgreSQL only).
+     */
+    @Query("SELECT CAST(date_trunc(:unit, CAST(e.date AS timestamp)) AS date) AS bucket, "
+            + "SUM(CASE WHEN e.expense_amount ~ '^(-|)[0-9]+([.][0-9]+|)$' "
+            + "THEN CAST(e.expense_amount AS numeric) ELSE 0 END) AS total, "
+            + "COUNT(*) AS expense_count "
+            + "FROM expenses e "
+            + "WHERE e.user_id = :userId AND e.date BETWEEN :start AND :end AND e.deleted_at IS NULL "
+            + "AND (CAST(:type AS varchar) IS NULL "
+            + "OR e.category_id = (SELECT c.id FROM categories c WHERE c.name = :type)) "
+            + "GROUP BY 1 ORDER BY 1")
+    Flux<BucketSum> sumByBucket(@Param("userId") Integer userId,
+                                @Param("unit") String unit,
+                                @Param("start") LocalDate start,
+                                @Param("end") LocalDate end,
+                                @Param("type") String type);
+}
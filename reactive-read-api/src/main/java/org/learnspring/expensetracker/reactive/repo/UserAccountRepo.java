@@ -0,0 +1,10 @@
+package org.learnspring.expensetracker.reactive.repo;
+
+import org.learnspring.expensetracker.reactive.Model.UserAccount;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+
+import reactor.core.publisher.Mono;
+
+public interface UserAccountRepo extends ReactiveCrudRepository<UserAccount, Integer> {
+    Mono<UserAccount> findByUsername(String username);
+}
@@ -0,0 +1,129 @@
+package org.learnspring.expensetracker.reactive.Controllers;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.learnspring.expensetracker.reactive.Model.ExpenseView;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@SpringBootTest
+@AutoConfigureWebTestClient
+@ActiveProfiles("test")
+class ReactiveExpenseControllerIntegrationTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @BeforeEach
+    void setUp() {
+        Flux.concat(
+                sql("DELETE FROM expenses"),
+                sql("DELETE FROM users"),
+                sql("DELETE FROM categories"),
+                sql("DELETE FROM payment_methods"),
+                sql("INSERT INTO categories (id, name) VALUES (1, 'Food')"),
+                sql("INSERT INTO payment_methods (id, name) VALUES (1, 'Card')"),
+                databaseClient.sql("INSERT INTO users (id, username, password, role) VALUES (1, 'alice', :password, 'USER')")
+                        .bind("password", passwordEncoder.encode("secret")).then(),
+                sql("INSERT INTO users (id, username, password, role) VALUES (2, 'bob', 'x', 'USER')"),
+                insertExpense(1, 1, "Lunch", LocalDate.of(2025, 2, 3), false),
+                insertExpense(2, 1, "Dinner", LocalDate.of(2025, 3, 4), false),
+                insertExpense(3, 1, "Deleted", LocalDate.of(2025, 2, 5), true),
+                insertExpense(4, 2, "Not alice's", LocalDate.of(2025, 2, 6), false))
+                .blockLast();
+    }
+
+    private Mono<Void> sql(String sql) {
+        return databaseClient.sql(sql).then();
+    }
+
+    private Mono<Void> insertExpense(int id, int userId, String name, LocalDate date, boolean deleted) {
+        return databaseClient.sql("INSERT INTO expenses (id, user_id, expense, category_id, expense_amount, payment_method_id, date, deleted_at) "
+                        + "VALUES (:id, :userId, :name, 1, '12.50', 1, :date, " + (deleted ? "CURRENT_TIMESTAMP" : "NULL") + ")")
+                .bind("id", id)
+                .bind("userId", userId)
+                .bind("name", name)
+                .bind("date", date)
+                .then();
+    }
+
+    @Test
+    @DisplayName("Should stream the user's live expenses as a JSON array with dictionary names")
+    void getAll_ShouldReturnOwnExpenses() {
+        // Act
+        List<ExpenseView> views = webTestClient.get().uri("/all")
+                .headers(headers -> headers.setBasicAuth("alice", "secret"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(ExpenseView.class)
+                .returnResult()
+                .getResponseBody();
+
+        // Assert
+        assertEquals(2, views.size());
+        assertEquals("Food", views.get(0).expenseType());
+        assertEquals("Card", views.get(0).paymentMethod());
+    }
+
+    @Test
+    @DisplayName("Should stream one expense per line for application/x-ndjson")
+    void getByMonth_Ndjson_ShouldReturnMonth() {
+        // Act
+        String body = webTestClient.get().uri("/by-month/2025-02")
+                .headers(headers -> headers.setBasicAuth("alice", "secret"))
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class)
+                .returnResult()
+                .getResponseBody();
+
+        // Assert
+        assertEquals(1, body.strip().lines().count());
+        assertTrue(body.contains("\"expense\":\"Lunch\""));
+    }
+
+    @Test
+    @DisplayName("Should return 400 for a malformed month")
+    void getByMonth_BadMonth_ShouldReturnBadRequest() {
+        webTestClient.get().uri("/by-month/2025-13")
+                .headers(headers -> headers.setBasicAuth("alice", "secret"))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.error").isEqualTo("yearMonth must be YYYY-MM");
+    }
+
+    @Test
+    @DisplayName("Should require authentication, and the admin role for /admin")
+    void security_ShouldMatchServletApp() {
+        webTestClient.get().uri("/all").exchange().expectStatus().isUnauthorized();
+        webTestClient.get().uri("/all")
+                .headers(headers -> headers.setBasicAuth("alice", "wrong"))
+                .exchange().expectStatus().isUnauthorized();
+        webTestClient.get().uri("/admin/jvm")
+                .headers(headers -> headers.setBasicAuth("alice", "secret"))
+                .exchange().expectStatus().isForbidden();
+    }
+}
@@ -0,0 +1,119 @@
+package org.learnspring.expensetracker.reactive.Service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.learnspring.expensetracker.reactive.Model.BucketSum;
+import org.learnspring.expensetracker.reactive.Model.ExpenseView;
+import org.learnspring.expensetracker.reactive.Model.TrendGranularity;
+import org.learnspring.expensetracker.reactive.repo.ExpenseReadRepo;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveExpenseServiceTest {
+
+    @Mock
+    private ExpenseReadRepo expenseReadRepo;
+
+    @InjectMocks
+    private ReactiveExpenseService service;
+
+    private static ExpenseView view(int id, LocalDate date) {
+        return new ExpenseView(id, "Lunch", "Food", "12.50", "Card", date);
+    }
+
+    @Test
+    @DisplayName("Should query the whole month and pass rows through only as they are requested")
+    void getByMonthForUser_ShouldStreamMonthWithBackpressure() {
+        // Arrange
+        LocalDate start = LocalDate.of(2025, 2, 1);
+        LocalDate end = LocalDate.of(2025, 2, 28);
+        when(expenseReadRepo.findViewsByUserIdAndDateBetween(7, start, end))
+                .thenReturn(Flux.range(1, 100).map(i -> view(i, start)));
+
+        // Act & Assert
+        StepVerifier.create(service.getByMonthForUser("2025-02", 7), 0)
+                .thenRequest(2)
+                .expectNextCount(2)
+                .expectNoEvent(Duration.ofMillis(10))
+                .thenRequest(98)
+                .expectNextCount(98)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Should reject a malformed month without querying")
+    void getByMonthForUser_WithBadMonth_ShouldError() {
+        // Act & Assert
+        StepVerifier.create(service.getByMonthForUser("Feb 2025", 7))
+                .expectErrorMessage("yearMonth must be YYYY-MM")
+                .verify();
+        verifyNoInteractions(expenseReadRepo);
+    }
+
+    @Test
+    @DisplayName("Should fill empty buckets with zero, as the servlet /trends does")
+    void getTrends_ShouldReturnDenseSeries() {
+        // Arrange
+        LocalDate from = LocalDate.of(2025, 1, 1);
+        LocalDate to = LocalDate.of(2025, 4, 30);
+        when(expenseReadRepo.sumByBucket(7, "month", from, to, null)).thenReturn(Flux.just(
+                new BucketSum(LocalDate.of(2025, 1, 1), new BigDecimal("10.00"), 2),
+                new BucketSum(LocalDate.of(2025, 3, 1), new BigDecimal("5.50"), 1)));
+
+        // Act & Assert
+        StepVerifier.create(service.getTrends(7, from, to, TrendGranularity.MONTH, null))
+                .assertNext(trend -> {
+                    assertEquals(4, trend.points().size());
+                    assertEquals(new BigDecimal("10.00"), trend.points().get(0).total());
+                    assertEquals(BigDecimal.ZERO, trend.points().get(1).total());
+                    assertEquals(1, trend.points().get(2).count());
+                    assertFalse(trend.downsampled());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Should coarsen the granularity when the range has more buckets than max points")
+    void getTrends_LongDailyRange_ShouldCoarsen() {
+        // Arrange
+        LocalDate from = LocalDate.of(2020, 1, 1);
+        LocalDate to = LocalDate.of(2024, 12, 31);
+        when(expenseReadRepo.sumByBucket(any(), any(), any(), any(), isNull())).thenReturn(Flux.empty());
+
+        // Act & Assert
+        StepVerifier.create(service.getTrends(7, from, to, TrendGranularity.DAY, null))
+                .assertNext(trend -> {
+                    assertEquals(TrendGranularity.WEEK, trend.granularity());
+                    assertTrue(trend.downsampled());
+                    assertTrue(trend.points().size() <= 366);
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Should reject a range that ends before it starts")
+    void getTrends_FromAfterTo_ShouldError() {
+        // Act & Assert
+        StepVerifier.create(service.getTrends(7, LocalDate.of(2025, 2, 1), LocalDate.of(2025, 1, 1), TrendGranularity.MONTH, null))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+    }
+}
@@ -0,0 +1,6 @@
+-- The columns of the servlet app's tables that this module reads
+CREATE TABLE IF NOT EXISTS users (id INT AUTO_INCREMENT PRIMARY KEY, username VARCHAR(100), password VARCHAR(100), role VARCHAR(20));
+CREATE TABLE IF NOT EXISTS categories (id INT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(100));
+CREATE TABLE IF NOT EXISTS payment_methods (id INT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(100));
+CREATE TABLE IF NOT EXISTS expenses (id INT AUTO_INCREMENT PRIMARY KEY, user_id INT, expense VARCHAR(255),
+    category_id INT, expense_amount VARCHAR(50), payment_method_id INT, date DATE, deleted_at TIMESTAMP);
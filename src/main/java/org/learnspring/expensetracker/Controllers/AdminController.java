@@ -0,0 +1,268 @@
+package org.learnspring.expensetracker.Controllers;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+
+import org.learnspring.expensetracker.Model.TrendGranularity;
+import org.learnspring.expensetracker.Service.AnomalyDetectionService;
+import org.learnspring.expensetracker.Service.CacheInvalidationBus;
+import org.learnspring.expensetracker.Service.DictionaryService;
+import org.learnspring.expensetracker.Service.ExpenseArchiveService;
+import org.learnspring.expensetracker.Service.ExpenseEventHub;
+import org.learnspring.expensetracker.Service.ExpenseGroupCommitService;
+import org.learnspring.expensetracker.Service.GcTelemetryService;
+import org.learnspring.expensetracker.Service.IdempotencyService;
+import org.learnspring.expensetracker.Service.InsightsService;
+import org.learnspring.expensetracker.Service.JfrRecordingService;
+import org.learnspring.expensetracker.Service.LoadSheddingService;
+import org.learnspring.expensetracker.Service.PasswordHashingService;
+import org.learnspring.expensetracker.Service.PlatformStatsService;
+import org.learnspring.expensetracker.Service.RateLimiterService;
+import org.learnspring.expensetracker.Service.SuggestionService;
+import org.learnspring.expensetracker.Service.expenseService;
+import org.learnspring.expensetracker.config.StartupTimingReport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Operational endpoints. SecurityConfig restricts /admin/** to users with the ADMIN role.
+ */
+@RestController
+@RequestMapping("/admin")
+public class AdminController {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdminController.class);
+
+    @Autowired
+    private GcTelemetryService gcTelemetryService;
+
+    @Autowired
+    private JfrRecordingService jfrRecordingService;
+
+    @Autowired
+    private RateLimiterService rateLimiterService;
+
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private StartupTimingReport startupTimingReport;
+
+    @Autowired
+    private ExpenseEventHub expenseEventHub;
+
+    @Autowired
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    @Autowired
+    private AnomalyDetectionService anomalyDetectionService;
+
+    @Autowired
+    private InsightsService insightsService;
+
+    @Autowired
+    private SuggestionService suggestionService;
+
+    @Autowired
+    private DictionaryService dictionaryService;
+
+    @Autowired
+    private PlatformStatsService platformStatsService;
+
+    @Autowired
+    private ExpenseArchiveService expenseArchiveService;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private expenseService expenseService;
+
+    @Autowired
+    private ExpenseGroupCommitService expenseGroupCommitService;
+
+    @Autowired
+    private LoadSheddingService loadSheddingService;
+
+    @GetMapping("/jvm")
+    public ResponseEntity<Object> jvm() {
+        return ResponseEntity.ok(gcTelemetryService.snapshot());
+    }
+
+    @GetMapping("/rate-limits")
+    public ResponseEntity<Object> rateLimits() {
+        return ResponseEntity.ok(rateLimiterService.snapshot());
+    }
+
+    @GetMapping("/password-hashing")
+    public ResponseEntity<Object> passwordHashing() {
+        return ResponseEntity.ok(passwordHashingService.snapshot());
+    }
+
+    @GetMapping("/events")
+    public ResponseEntity<Object> events() {
+        return ResponseEntity.ok(expenseEventHub.snapshot());
+    }
+
+    @GetMapping("/caches")
+    public ResponseEntity<Object> caches() {
+        return ResponseEntity.ok(cacheInvalidationBus.snapshot());
+    }
+
+    @GetMapping("/anomalies")
+    public ResponseEntity<Object> anomalies() {
+        return ResponseEntity.ok(anomalyDetectionService.snapshot());
+    }
+
+    @GetMapping("/insights")
+    public ResponseEntity<Object> insights() {
+        return ResponseEntity.ok(insightsService.snapshot());
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<Object> suggest() {
+        return ResponseEntity.ok(suggestionService.snapshot());
+    }
+
+    @GetMapping("/dictionaries")
+    public ResponseEntity<Object> dictionaries() {
+        return ResponseEntity.ok(dictionaryService.snapshot());
+    }
+
+    @GetMapping("/idempotency")
+    public ResponseEntity<Object> idempotency() {
+        return ResponseEntity.ok(idempotencyService.snapshot());
+    }
+
+    @GetMapping("/single-flight")
+    public ResponseEntity<Object> singleFlight() {
+        return ResponseEntity.ok(expenseService.singleFlightSnapshot());
+    }
+
+    @GetMapping("/group-commit")
+    public ResponseEntity<Object> groupCommit() {
+        return ResponseEntity.ok(expenseGroupCommitService.snapshot());
+    }
+
+    @GetMapping("/load-shedding")
+    public ResponseEntity<Object> loadShedding() {
+        return ResponseEntity.ok(loadSheddingService.snapshot());
+    }
+
+    @GetMapping("/archive")
+    public ResponseEntity<Object> archive() {
+        return ResponseEntity.ok(expenseArchiveService.snapshot());
+    }
+
+    /**
+     * Platform-wide active users, expense volume and spend per category per bucket. Defaults
+     * to the last twelve months by month.
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<Object> stats(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "month") String granularity) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusYears(1).plusDays(1);
+        try {
+            return ResponseEntity.ok(platformStatsService.compute(start, end, TrendGranularity.parse(granularity)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (RejectedExecutionException | TimeoutException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(Map.of("error", "Statistics are busy, try again shortly"));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("error", "Interrupted"));
+        } catch (Exception e) {
+            logger.error("Failed to compute platform statistics: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Failed to compute statistics"));
+        }
+    }
+
+    @GetMapping("/stats/pool")
+    public ResponseEntity<Object> statsPool() {
+        return ResponseEntity.ok(platformStatsService.snapshot());
+    }
+
+    @GetMapping("/startup")
+    public ResponseEntity<Object> startup() {
+        return ResponseEntity.ok(startupTimingReport.getReport());
+    }
+
+    @GetMapping("/jfr")
+    public ResponseEntity<Object> jfrStatus() {
+        return ResponseEntity.ok(jfrRecordingService.status());
+    }
+
+    @PostMapping("/jfr/start")
+    public ResponseEntity<Object> startRecording(@RequestParam(defaultValue = "profile") String settings) {
+        try {
+            Map<String, Object> status = jfrRecordingService.start(settings);
+            return ResponseEntity.ok(status);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Failed to start JFR recording: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Failed to start recording"));
+        }
+    }
+
+    /**
+     * Stops the running recording and streams the .jfr file back, deleting it afterwards.
+     */
+    @PostMapping("/jfr/stop")
+    public ResponseEntity<StreamingResponseBody> stopRecording() {
+        Path file;
+        try {
+            file = jfrRecordingService.stop();
+        } catch (IllegalStateException e) {
+            return jsonError(HttpStatus.CONFLICT, e.getMessage());
+        } catch (Exception e) {
+            logger.error("Failed to stop JFR recording: {}", e.getMessage(), e);
+            return jsonError(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to stop recording");
+        }
+
+        StreamingResponseBody body = out -> {
+            try (InputStream in = Files.newInputStream(file)) {
+                in.transferTo(out);
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        };
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + file.getFileName() + "\"")
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .body(body);
+    }
+
+    private static ResponseEntity<StreamingResponseBody> jsonError(HttpStatus status, String message) {
+        byte[] json = ("{\"error\":\"" + message.replace("\"", "'") + "\"}").getBytes(StandardCharsets.UTF_8);
+        return ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> out.write(json));
+    }
+}
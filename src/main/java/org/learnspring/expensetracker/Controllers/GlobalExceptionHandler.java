@@ -3,10 +3,15 @@ package org.learnspring.expensetracker.Controllers;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.learnspring.expensetracker.Service.PasswordHashingCapacityException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -31,4 +36,35 @@ public class GlobalExceptionHandler {
         logger.info("Returning validation errors: {}", errors);
         return new ResponseEntity<>(errors, HttpStatus.BAD_REQUEST);
     }
-}
\ No newline at end of file
+
+    @ExceptionHandler(PasswordHashingCapacityException.class)
+    public ResponseEntity<Map<String, String>> handleHashingCapacity(PasswordHashingCapacityException ex) {
+        logger.warn("Rejecting request, password hashing queue full");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(ex.getRetryAfterSeconds()))
+                .body(Map.of("error", "Server busy, please retry"));
+    }
+
+    /**
+     * A statement ran past its endpoint's timeout (see LoadSheddingService) or a coalesced
+     * read waited too long: the database is slow, so ask the client to come back.
+     */
+    @ExceptionHandler(QueryTimeoutException.class)
+    public ResponseEntity<Map<String, String>> handleQueryTimeout(QueryTimeoutException ex) {
+        logger.warn("Query timed out: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of("error", "Server busy, please retry"));
+    }
+
+    /**
+     * No pooled connection became free within the acquire timeout: same as a slow query.
+     */
+    @ExceptionHandler({CannotCreateTransactionException.class, CannotGetJdbcConnectionException.class})
+    public ResponseEntity<Map<String, String>> handleNoConnection(RuntimeException ex) {
+        logger.warn("No database connection available: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of("error", "Server busy, please retry"));
+    }
+}
@@ -1,16 +1,35 @@
 package org.learnspring.expensetracker.Controllers;
 
+import static org.learnspring.expensetracker.config.SampledLogFilter.SAMPLED;
+
+import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import org.learnspring.expensetracker.Model.Expense;
+import org.learnspring.expensetracker.Model.ExpenseAnomalyView;
+import org.learnspring.expensetracker.Model.ExpenseView;
+import org.learnspring.expensetracker.Model.ScoredExpenseView;
+import org.learnspring.expensetracker.Model.TrendGranularity;
 import org.learnspring.expensetracker.Model.Users;
+import org.learnspring.expensetracker.Service.DictionaryService;
+import org.learnspring.expensetracker.Service.ExpenseEventHub;
+import org.learnspring.expensetracker.Service.ExpenseGroupCommitService;
+import org.learnspring.expensetracker.Service.InsightsService;
+import org.learnspring.expensetracker.Service.SuggestionService;
+import org.learnspring.expensetracker.Service.UserLookupService;
 import org.learnspring.expensetracker.Service.expenseService;
-import org.learnspring.expensetracker.repo.UserRepo;
+import org.learnspring.expensetracker.config.StartupTaskRunner;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.csrf.CsrfToken;
@@ -21,7 +40,10 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
@@ -36,17 +58,34 @@ public class HomeController {
     private expenseService service;
 
     @Autowired
-    private UserRepo userRepo;
+    private ExpenseGroupCommitService groupCommitService;
+
+    @Autowired
+    private DictionaryService dictionaryService;
+
+    @Autowired
+    private UserLookupService userLookupService;
+
+    @Autowired
+    private StartupTaskRunner startupTaskRunner;
+
+    @Autowired
+    private ExpenseEventHub expenseEventHub;
+
+    @Autowired
+    private InsightsService insightsService;
+
+    @Autowired
+    private SuggestionService suggestionService;
 
     private Users getCurrentUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String username = authentication.getName();
-        return userRepo.findByUsername(username);
+        return userLookupService.findByUsername(username);
     }
 
     private boolean isExpenseOwnedByUser(Integer expenseId, Users user) {
-        Expense expense = service.getExpenseById(expenseId);
-        return expense != null && expense.getUser() != null && expense.getUser().getId().equals(user.getId());
+        return service.isOwnedBy(expenseId, user);
     }
 
     @GetMapping("/")
@@ -79,8 +118,8 @@ public class HomeController {
         
         // Database connectivity check
         try {
-            // Simple database connectivity test
-            service.getExpenses();
+            // Simple database connectivity test; cheap, so it still answers while lists are shed
+            service.pingDatabase();
             health.put("database", "CONNECTED");
         } catch (Exception e) {
             health.put("database", "ERROR");
@@ -91,35 +130,140 @@ public class HomeController {
         return health;
     }
 
+    /**
+     * Readiness probe: 503 until every critical startup task has completed.
+     */
+    @GetMapping("/health/readiness")
+    public ResponseEntity<Map<String, Object>> readiness(){
+        Map<String, Object> readiness = startupTaskRunner.snapshot();
+        HttpStatus status = startupTaskRunner.isReady() ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE;
+        return ResponseEntity.status(status).body(readiness);
+    }
+
     @GetMapping("/test-auth")
     public String testAuth() {
         logger.info("Test auth endpoint called - authentication successful");
         return "Authentication successful";
     }
 
+    /**
+     * The current user's expenses; with includeArchived=true also those moved to the archive
+     * (old ones, see ExpenseArchiveService), which is slower.
+     */
     @GetMapping("/all")
-    public List<Expense> getAllExpenses(){
+    public List<ExpenseView> getAllExpenses(@RequestParam(defaultValue = "false") boolean includeArchived){
         Users currentUser = getCurrentUser();
-        logger.info("Fetching all expenses for user: {}", currentUser.getUsername());
-        return service.getExpensesByUser(currentUser);
+        logger.info(SAMPLED, "Fetching all expenses for user: {}", currentUser.getUsername());
+        return service.getExpensesByUser(currentUser, includeArchived);
     }
 
     @GetMapping("/by-month/{yearMonth}")
-    public List<Expense> getByMonth(@PathVariable String yearMonth){
+    public List<ExpenseView> getByMonth(@PathVariable String yearMonth){
         Users currentUser = getCurrentUser();
-        logger.info("Fetching expenses for month {} for user: {}", yearMonth, currentUser.getUsername());
+        logger.info(SAMPLED, "Fetching expenses for month {} for user: {}", yearMonth, currentUser.getUsername());
         return service.getByMonthForUser(yearMonth, currentUser);
     }
 
+    /**
+     * Feed of the current user's expenses flagged as unusual, newest first.
+     */
+    @GetMapping("/anomalies")
+    public List<ExpenseAnomalyView> getAnomalies(@RequestParam(defaultValue = "50") int limit){
+        Users currentUser = getCurrentUser();
+        return service.getAnomalies(currentUser, Math.max(1, Math.min(limit, 200)));
+    }
+
+    /**
+     * Autocomplete for the expense form: the current user's past expense names or types that
+     * start with the prefix, most used (recently) first. Answered from memory.
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<?> suggest(@RequestParam String field,
+            @RequestParam(defaultValue = "") String prefix,
+            @RequestParam(defaultValue = "10") int limit){
+        Users currentUser = getCurrentUser();
+        try {
+            return ResponseEntity.ok(suggestionService.suggest(currentUser, SuggestionService.Field.parse(field), prefix, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * The current user's most frequent and most expensive expense names this month, this year
+     * or over all time. Served from in-memory sketches, so counts and amounts are estimates
+     * with the error bound given in the response.
+     */
+    @GetMapping("/insights/top")
+    public ResponseEntity<?> getTopInsights(@RequestParam(defaultValue = "month") String period,
+            @RequestParam(defaultValue = "10") int limit){
+        Users currentUser = getCurrentUser();
+        try {
+            return ResponseEntity.ok(insightsService.getTop(currentUser, InsightsService.Period.parse(period), limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Spending per day/week/month bucket for charts, aggregated in the database. Defaults to
+     * the last twelve months by month. Long ranges are downsampled (see expenseService.getTrends).
+     */
+    @GetMapping("/trends")
+    public ResponseEntity<?> getTrends(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "month") String granularity,
+            @RequestParam(required = false) String type){
+        Users currentUser = getCurrentUser();
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusYears(1).plusDays(1);
+        try {
+            logger.info(SAMPLED, "Fetching {} trends from {} to {} for user: {}", granularity, start, end, currentUser.getUsername());
+            return ResponseEntity.ok(service.getTrends(currentUser, start, end,
+                    TrendGranularity.parse(granularity), type == null || type.isBlank() ? null : type));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Server-Sent Events stream of the current user's expense changes (expense-created,
+     * expense-updated, expense-deleted), so other devices need not poll /all.
+     */
+    @GetMapping(path = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> events(){
+        Users currentUser = getCurrentUser();
+        SseEmitter emitter = expenseEventHub.subscribe(currentUser.getId());
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "30")
+                    .build();
+        }
+        logger.debug("Opened event stream for user: {}", currentUser.getUsername());
+        // Stop nginx-style proxies from buffering the stream
+        return ResponseEntity.ok()
+                .header("X-Accel-Buffering", "no")
+                .body(emitter);
+    }
+
+    /**
+     * Saves the expense; the response carries an "anomaly" object when the amount is unusual
+     * for the user's history in that category.
+     */
     @PostMapping("/add")
-    public Expense addExpenses(@Valid @RequestBody Expense exp){
+    public ScoredExpenseView addExpenses(@Valid @RequestBody Expense exp){
         Users currentUser = getCurrentUser();
         exp.setUser(currentUser);
-        logger.info("Adding new expense: {} for user: {}", exp, currentUser.getUsername());
+        logger.debug("Adding new expense of type {} for user: {}", exp.getExpenseType(), currentUser.getUsername());
         try {
-            Expense savedExpense = service.addExpense(exp);
-            logger.info("Successfully added expense with ID: {} for user: {}", savedExpense.getId(), currentUser.getUsername());
-            return savedExpense;
+            expenseService.AddedExpense added = groupCommitService.addAndScore(exp);
+            Expense savedExpense = added.expense();
+            logger.info(SAMPLED, "Successfully added expense with ID: {} for user: {}", savedExpense.getId(), currentUser.getUsername());
+            return new ScoredExpenseView(ExpenseView.from(savedExpense),
+                    added.anomaly() != null ? ExpenseAnomalyView.from(added.anomaly()) : null);
+        } catch (QueryTimeoutException e) {
+            throw e; // 503 from GlobalExceptionHandler
         } catch (RuntimeException e) {
             logger.error("Failed to add expense for user: {} - Error: {}", currentUser.getUsername(), e.getMessage(), e);
             throw new RuntimeException("Failed to save expense. Please try again.", e);
@@ -131,23 +275,28 @@ public class HomeController {
 
    }
     @PutMapping("/updateExpense")
-    public Expense updateExpenses(@Valid @RequestBody Expense exp){
+    public ExpenseView updateExpenses(@Valid @RequestBody Expense exp){
         Users currentUser = getCurrentUser();
-        
+
+        // Check if the expense belongs to the current user; 404 either way, so ids of other
+        // users' expenses are not revealed
+        if (!isExpenseOwnedByUser(exp.getId(), currentUser)) {
+            logger.warn("User {} attempted to update expense {} that is not theirs",
+                       currentUser.getUsername(), exp.getId());
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Expense not found");
+        }
+
         try {
-            // Check if the expense belongs to the current user
-            if (!isExpenseOwnedByUser(exp.getId(), currentUser)) {
-                logger.warn("User {} attempted to update expense {} owned by another user", 
-                           currentUser.getUsername(), exp.getId());
-                throw new RuntimeException("You can only update your own expenses");
-            }
-            
             // Ensure the user is set correctly (prevent user switching)
             exp.setUser(currentUser);
-            logger.info("Updating expense with ID: {} for user: {}", exp.getId(), currentUser.getUsername());
+            logger.debug("Updating expense with ID: {} for user: {}", exp.getId(), currentUser.getUsername());
+            // New names are created before the update's transaction holds a connection
+            dictionaryService.resolve(exp);
             service.updateExpenses(exp);
-            logger.info("Successfully updated expense with ID: {} for user: {}", exp.getId(), currentUser.getUsername());
-            return exp;
+            logger.info(SAMPLED, "Successfully updated expense with ID: {} for user: {}", exp.getId(), currentUser.getUsername());
+            return ExpenseView.from(exp);
+        } catch (QueryTimeoutException e) {
+            throw e; // 503 from GlobalExceptionHandler
         } catch (Exception e) {
             logger.error("Failed to update expense {} for user: {} - Error: {}", exp.getId(), currentUser.getUsername(), e.getMessage(), e);
             throw new RuntimeException("Failed to update expense. Please try again.", e);
@@ -157,27 +306,44 @@ public class HomeController {
     @DeleteMapping("/delete/{id}")
     public String deleteExpenses(@PathVariable Integer id){
         Users currentUser = getCurrentUser();
-        
+
+        if (!isExpenseOwnedByUser(id, currentUser)) {
+            logger.warn("User {} attempted to delete expense {} that is not theirs",
+                       currentUser.getUsername(), id);
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Expense not found");
+        }
+
         try {
-            // Check if the expense belongs to the current user
-            if (!isExpenseOwnedByUser(id, currentUser)) {
-                logger.warn("User {} attempted to delete expense {} owned by another user", 
-                           currentUser.getUsername(), id);
-                throw new RuntimeException("You can only delete your own expenses");
-            }
-            
-            logger.info("Deleting expense with ID: {} for user: {}", id, currentUser.getUsername());
+            logger.debug("Deleting expense with ID: {} for user: {}", id, currentUser.getUsername());
             Expense exp = new Expense();
             exp.setId(id);
+            exp.setUser(currentUser);
             service.deleteExpenses(exp);
-            logger.info("Successfully deleted expense with ID: {} for user: {}", id, currentUser.getUsername());
+            logger.info(SAMPLED, "Successfully deleted expense with ID: {} for user: {}", id, currentUser.getUsername());
             return "Expense with ID " + id + " deleted successfully";
+        } catch (QueryTimeoutException e) {
+            throw e; // 503 from GlobalExceptionHandler
         } catch (RuntimeException e) {
             logger.error("Failed to delete expense {} for user: {} - Error: {}", id, currentUser.getUsername(), e.getMessage(), e);
             throw new RuntimeException("Failed to delete expense. Please try again.", e);
         }
     }
 
+    /**
+     * Undoes a delete made within the last expenses.restore-days days.
+     */
+    @PostMapping("/restore/{id}")
+    public ResponseEntity<?> restoreExpense(@PathVariable Integer id){
+        Users currentUser = getCurrentUser();
+        Expense restored = service.restoreExpense(id, currentUser);
+        if (restored == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("error", "No deleted expense " + id + " that can still be restored"));
+        }
+        logger.info(SAMPLED, "Restored expense with ID: {} for user: {}", id, currentUser.getUsername());
+        return ResponseEntity.ok(ExpenseView.from(restored));
+    }
+
     /**
      * API Documentation endpoint
      * Returns a simple JSON documentation of all available endpoints
@@ -205,7 +371,8 @@ public class HomeController {
         getAll.put("method", "GET");
         getAll.put("path", "/all");
         getAll.put("description", "Get all expenses");
-        getAll.put("response", "List<Expense>");
+        getAll.put("queryParams", "includeArchived (boolean, default false)");
+        getAll.put("response", "List<ExpenseView>");
         endpoints.put("getAllExpenses", getAll);
 
         // GET /by-month/{yearMonth}
@@ -214,8 +381,52 @@ public class HomeController {
         byMonth.put("path", "/by-month/{yearMonth}");
         byMonth.put("description", "Get expenses for a given month (YYYY-MM)");
         byMonth.put("pathVariable", "yearMonth (String)");
-        byMonth.put("response", "List<Expense>");
+        byMonth.put("response", "List<ExpenseView>");
         endpoints.put("getByMonth", byMonth);
+
+        // GET /anomalies
+        Map<String, Object> anomalies = new HashMap<>();
+        anomalies.put("method", "GET");
+        anomalies.put("path", "/anomalies");
+        anomalies.put("description", "Expenses flagged as unusually high for their category, newest first");
+        anomalies.put("queryParams", "limit (default 50, max 200)");
+        anomalies.put("response", "List<ExpenseAnomalyView>");
+        endpoints.put("anomalies", anomalies);
+
+        // GET /suggest
+        Map<String, Object> suggest = new HashMap<>();
+        suggest.put("method", "GET");
+        suggest.put("path", "/suggest");
+        suggest.put("description", "Autocomplete from the current user's past expense names or types");
+        suggest.put("queryParams", "field (expense|expenseType), prefix, limit (default 10)");
+        suggest.put("response", "List<String>");
+        endpoints.put("suggest", suggest);
+
+        // GET /insights/top
+        Map<String, Object> insights = new HashMap<>();
+        insights.put("method", "GET");
+        insights.put("path", "/insights/top");
+        insights.put("description", "Most frequent and most expensive expense names (approximate, with error bound)");
+        insights.put("queryParams", "period (month|year|all, default month), limit (default 10)");
+        insights.put("response", "ExpenseInsights");
+        endpoints.put("insightsTop", insights);
+
+        // GET /trends
+        Map<String, Object> trends = new HashMap<>();
+        trends.put("method", "GET");
+        trends.put("path", "/trends");
+        trends.put("description", "Spending per bucket for the current user; long ranges are downsampled");
+        trends.put("queryParams", "from, to (YYYY-MM-DD), granularity (day|week|month|quarter|year), type");
+        trends.put("response", "SpendingTrend");
+        endpoints.put("trends", trends);
+
+        // GET /events
+        Map<String, Object> events = new HashMap<>();
+        events.put("method", "GET");
+        events.put("path", "/events");
+        events.put("description", "Server-Sent Events stream of the current user's expense changes");
+        events.put("response", "text/event-stream (expense-created, expense-updated, expense-deleted)");
+        endpoints.put("events", events);
         
         // POST /add
         Map<String, Object> add = new HashMap<>();
@@ -223,7 +434,7 @@ public class HomeController {
         add.put("path", "/add");
         add.put("description", "Create a new expense");
         add.put("requestBody", "Expense object (JSON)");
-        add.put("response", "Expense");
+        add.put("response", "ExpenseView, plus an anomaly object when the amount is unusual");
         add.put("validation", "All fields are required");
         endpoints.put("addExpense", add);
         
@@ -233,7 +444,7 @@ public class HomeController {
         update.put("path", "/updateExpense");
         update.put("description", "Update an existing expense");
         update.put("requestBody", "Expense object with ID (JSON)");
-        update.put("response", "Expense");
+        update.put("response", "ExpenseView");
         update.put("validation", "All fields are required");
         endpoints.put("updateExpense", update);
         
@@ -241,10 +452,19 @@ public class HomeController {
         Map<String, Object> delete = new HashMap<>();
         delete.put("method", "DELETE");
         delete.put("path", "/delete/{id}");
-        delete.put("description", "Delete an expense by ID");
+        delete.put("description", "Delete an expense by ID (restorable for a while, see /restore/{id})");
         delete.put("pathVariable", "id (Integer)");
         delete.put("response", "String");
         endpoints.put("deleteExpense", delete);
+
+        // POST /restore/{id}
+        Map<String, Object> restore = new HashMap<>();
+        restore.put("method", "POST");
+        restore.put("path", "/restore/{id}");
+        restore.put("description", "Restore a recently deleted expense");
+        restore.put("pathVariable", "id (Integer)");
+        restore.put("response", "ExpenseView, or 404 when the restore window has passed");
+        endpoints.put("restoreExpense", restore);
         
         apiDocs.put("endpoints", endpoints);
         
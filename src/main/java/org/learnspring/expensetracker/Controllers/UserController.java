@@ -1,11 +1,16 @@
 package org.learnspring.expensetracker.Controllers;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
 import org.learnspring.expensetracker.Model.Users;
+import org.learnspring.expensetracker.Service.PasswordHashingCapacityException;
 import org.learnspring.expensetracker.Service.UserService;
 import org.learnspring.expensetracker.repo.UserRepo;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -16,38 +21,49 @@ import jakarta.validation.Valid;
 
 @RestController
 public class UserController {
-    
+
     private static final Logger logger = LoggerFactory.getLogger(UserController.class);
-    
+
     @Autowired
     private UserService service;
-    
+
     @Autowired
     private UserRepo userRepo;
-    
+
+    /**
+     * Registration is asynchronous: the Tomcat worker is released while the password
+     * is hashed on the hashing pool and the user is saved.
+     */
     @PostMapping("/register")
-    public ResponseEntity<?> register(@Valid @RequestBody Users user){
-        try {
-            logger.info("Registration attempt for username: {}", user.getUsername());
-            
-            // Check if username already exists
-            if (userRepo.findByUsername(user.getUsername()) != null) {
-                logger.warn("Registration failed - username already exists: {}", user.getUsername());
-                return ResponseEntity.status(HttpStatus.CONFLICT)
-                    .body("{\"error\":\"Username already exists\"}");
-            }
-            
-            Users registeredUser = service.register(user);
-            logger.info("User registered successfully: {}", registeredUser.getUsername());
-            
-            // Don't return password in response
-            registeredUser.setPassword(null);
-            return ResponseEntity.ok(registeredUser);
-            
-        } catch (Exception e) {
-            logger.error("Registration failed for username: {}, error: {}", user.getUsername(), e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body("{\"error\":\"Registration failed\"}");
+    public CompletableFuture<ResponseEntity<?>> register(@Valid @RequestBody Users user){
+        logger.info("Registration attempt for username: {}", user.getUsername());
+
+        // Check if username already exists
+        if (userRepo.findByUsername(user.getUsername()) != null) {
+            logger.warn("Registration failed - username already exists: {}", user.getUsername());
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.CONFLICT)
+                .body("{\"error\":\"Username already exists\"}"));
         }
+
+        return service.registerAsync(user)
+            .<ResponseEntity<?>>thenApply(registeredUser -> {
+                logger.info("User registered successfully: {}", registeredUser.getUsername());
+
+                // Don't return password in response
+                registeredUser.setPassword(null);
+                return ResponseEntity.ok(registeredUser);
+            })
+            .exceptionally(ex -> {
+                Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                if (cause instanceof PasswordHashingCapacityException overloaded) {
+                    logger.warn("Registration rejected for username: {}, hashing queue full", user.getUsername());
+                    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, Long.toString(overloaded.getRetryAfterSeconds()))
+                        .body("{\"error\":\"Server busy, please retry\"}");
+                }
+                logger.error("Registration failed for username: {}, error: {}", user.getUsername(), cause.getMessage());
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("{\"error\":\"Registration failed\"}");
+            });
     }
 }
@@ -2,12 +2,16 @@ package org.learnspring.expensetracker;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 
 @SpringBootApplication
 public class ExpenseTrackerApplication {
 
     public static void main(String[] args) {
-        SpringApplication.run(ExpenseTrackerApplication.class, args);
+        SpringApplication application = new SpringApplication(ExpenseTrackerApplication.class);
+        // Records startup steps for the timing report (StartupTimingReport, GET /admin/startup)
+        application.setApplicationStartup(new BufferingApplicationStartup(4096));
+        application.run(args);
     }
 
 }
@@ -0,0 +1,59 @@
+package org.learnspring.expensetracker.Model;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+import org.learnspring.expensetracker.config.CategoryConverter;
+import org.learnspring.expensetracker.config.PaymentMethodConverter;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * An expense moved out of the expenses table by ExpenseArchiveService, either because it is
+ * old or because it was deleted longer ago than the restore window. Keeps the original id,
+ * only the encoded columns and a plain user id, and is never updated.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "expenses_archive", indexes = @Index(name = "idx_expenses_archive_user", columnList = "user_id, date"))
+public class ArchivedExpense {
+
+    @Id
+    private Integer id;
+
+    @Column(name = "user_id")
+    private Integer userId;
+
+    @Column(length = 100)
+    private String expense;
+
+    @Convert(converter = CategoryConverter.class)
+    @Column(name = "category_id")
+    private String expenseType;
+
+    @Column(length = 20)
+    private String expenseAmount;
+
+    @Convert(converter = PaymentMethodConverter.class)
+    @Column(name = "payment_method_id")
+    private String paymentMethod;
+
+    private LocalDate date;
+
+    // Set for expenses that were deleted; those are kept but never listed
+    @Column(name = "deleted_at")
+    private Instant deletedAt;
+
+    @Column(name = "archived_at", nullable = false)
+    private Instant archivedAt;
+}
@@ -1,9 +1,18 @@
 package org.learnspring.expensetracker.Model;
 
 
+import java.time.Instant;
 import java.time.LocalDate;
 
+import org.hibernate.annotations.SQLDelete;
+import org.hibernate.annotations.SQLRestriction;
+import org.learnspring.expensetracker.config.CategoryConverter;
+import org.learnspring.expensetracker.config.PaymentMethodConverter;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
@@ -17,13 +26,19 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
 @Table(name = "expenses")
+// Soft delete: deleting sets deleted_at, and entity reads never see such rows. They can be
+// restored for a while (see expenseService.restoreExpense) before ExpenseArchiveService moves them out.
+@SQLDelete(sql = "UPDATE expenses SET deleted_at = CURRENT_TIMESTAMP WHERE id = ?")
+@SQLRestriction("deleted_at IS NULL")
 public class Expense {
     
     @Id
@@ -34,24 +49,44 @@ public class Expense {
     @Size(max = 100, message = "Expense name must be at most 100 characters")
     private String expense;
 
+    // Stored as an id into categories (see DictionaryService)
     @NotBlank(message = "Expense type is required")
     @Size(max = 50, message = "Expense type must be at most 50 characters")
+    @Convert(converter = CategoryConverter.class)
+    @Column(name = "category_id")
     private String expenseType;
 
     @NotBlank(message = "Expense amount is required")
     @Size(max = 20, message = "Expense amount must be at most 20 characters")
     private String expenseAmount;
 
-    @Column(name = "payment_method")
+    // Stored as an id into payment_methods
+    @Size(max = 255, message = "Payment method must be at most 255 characters")
+    @Convert(converter = PaymentMethodConverter.class)
+    @Column(name = "payment_method_id")
     private String paymentMethod;
 
     @Column(name = "date")
     private LocalDate date;
 
+    @JsonIgnore
+    @Column(name = "deleted_at")
+    private Instant deletedAt;
+
+    // Excluded so logging, comparing or serializing an expense never initializes the lazy proxy
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = true)
     private Users user;
 
+    // A live expense; deletedAt is only ever set by a delete
+    public Expense(int id, String expense, String expenseType, String expenseAmount, String paymentMethod,
+                   LocalDate date, Users user) {
+        this(id, expense, expenseType, expenseAmount, paymentMethod, date, null, user);
+    }
+
     @PrePersist
     public void prePersist() {
         if (this.date == null) {
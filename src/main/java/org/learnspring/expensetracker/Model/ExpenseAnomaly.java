@@ -0,0 +1,56 @@
+package org.learnspring.expensetracker.Model;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * An expense whose amount was unusually high for the user's history in its category,
+ * as flagged by AnomalyDetectionService. Plain ids instead of associations: the feed
+ * never needs the expense or user entities.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "expense_anomalies", indexes = @Index(name = "idx_expense_anomalies_user", columnList = "user_id, id"))
+public class ExpenseAnomaly {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE)
+    private Integer id;
+
+    @Column(name = "user_id", nullable = false)
+    private int userId;
+
+    @Column(name = "expense_id", nullable = false)
+    private int expenseId;
+
+    @Column(length = 50)
+    private String category;
+
+    @Column(length = 20)
+    private String amount;
+
+    @Column(name = "z_score")
+    private double zScore;
+
+    // Geometric mean of the category's amounts when the expense was scored
+    @Column(name = "typical_amount")
+    private double typicalAmount;
+
+    // Number of earlier expenses in the category the score was based on
+    private long samples;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+}
@@ -0,0 +1,23 @@
+package org.learnspring.expensetracker.Model;
+
+import java.time.Instant;
+
+/**
+ * Client-facing form of an {@link ExpenseAnomaly}, returned by /anomalies and with /add.
+ */
+public record ExpenseAnomalyView(
+        int expenseId,
+        String category,
+        String amount,
+        double zScore,
+        double typicalAmount,
+        long samples,
+        Instant flaggedAt) {
+
+    public static ExpenseAnomalyView from(ExpenseAnomaly anomaly) {
+        return new ExpenseAnomalyView(anomaly.getExpenseId(), anomaly.getCategory(), anomaly.getAmount(),
+                Math.round(anomaly.getZScore() * 100) / 100.0,
+                Math.round(anomaly.getTypicalAmount() * 100) / 100.0,
+                anomaly.getSamples(), anomaly.getCreatedAt());
+    }
+}
@@ -0,0 +1,29 @@
+package org.learnspring.expensetracker.Model;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * A user's most frequent and most expensive expense names in a period, as returned by
+ * /insights/top. Counts and amounts are sketch estimates: never below the true value and,
+ * with the given confidence, at most countErrorBound / amountErrorBound above it.
+ *
+ * @param from first day of the period, or null for all time
+ * @param to last day of the period, or null for all time
+ */
+public record ExpenseInsights(
+        String period,
+        LocalDate from,
+        LocalDate to,
+        long expenses,
+        BigDecimal total,
+        List<Item> mostFrequent,
+        List<Item> mostExpensive,
+        long countErrorBound,
+        BigDecimal amountErrorBound,
+        double confidence) {
+
+    public record Item(String name, long count, BigDecimal amount) {
+    }
+}
@@ -0,0 +1,22 @@
+package org.learnspring.expensetracker.Model;
+
+import java.time.LocalDate;
+
+/**
+ * Read-side projection of an {@link Expense} with only the columns the clients display.
+ * Selected directly by JPQL constructor expressions, so no entity or user proxy is
+ * materialized on the read path.
+ */
+public record ExpenseView(
+        int id,
+        String expense,
+        String expenseType,
+        String expenseAmount,
+        String paymentMethod,
+        LocalDate date) {
+
+    public static ExpenseView from(Expense exp) {
+        return new ExpenseView(exp.getId(), exp.getExpense(), exp.getExpenseType(),
+                exp.getExpenseAmount(), exp.getPaymentMethod(), exp.getDate());
+    }
+}
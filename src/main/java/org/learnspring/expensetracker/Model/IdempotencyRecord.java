@@ -0,0 +1,52 @@
+package org.learnspring.expensetracker.Model;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A request made with an Idempotency-Key and, once it finished, its response (see
+ * IdempotencyService). Mapped so the schema is managed with the rest; read and written
+ * with plain SQL, because claiming a key relies on the primary key rejecting a second insert.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "idempotency_keys", indexes = @Index(name = "idx_idempotency_keys_created", columnList = "created_at"))
+public class IdempotencyRecord {
+
+    // username:key
+    @Id
+    @Column(length = 320)
+    private String id;
+
+    // SHA-256 of method, path and body; a key reused for a different request is refused
+    @Column(length = 64, nullable = false)
+    private String fingerprint;
+
+    // HTTP status of the stored response, or 0 while the first request is still running
+    @Column(nullable = false)
+    private int status;
+
+    @Column(name = "content_type", length = 100)
+    private String contentType;
+
+    // Raw response bytes (bytea), so binary content types replay unchanged
+    @Column(name = "response_body", length = 65536)
+    private byte[] responseBody;
+
+    // Text column written by earlier versions; read only, for keys stored before the upgrade
+    @Column(length = 65536)
+    private String body;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+}
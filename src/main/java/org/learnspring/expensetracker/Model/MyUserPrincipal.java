@@ -2,8 +2,10 @@ package org.learnspring.expensetracker.Model;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Locale;
 
 import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 public class MyUserPrincipal implements UserDetails {
@@ -14,9 +16,17 @@ public class MyUserPrincipal implements UserDetails {
         this.users = users;
     }
 
+    /**
+     * The stored role as a single ROLE_ authority (e.g. "ADMIN" becomes ROLE_ADMIN), so that
+     * hasRole checks in SecurityConfig apply.
+     */
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        return List.of();
+        String role = users.getRole();
+        if (role == null || role.isBlank()) {
+            return List.of();
+        }
+        return List.of(new SimpleGrantedAuthority("ROLE_" + role.trim().toUpperCase(Locale.ROOT)));
     }
 
     @Override
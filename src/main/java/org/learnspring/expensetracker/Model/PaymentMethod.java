@@ -0,0 +1,32 @@
+package org.learnspring.expensetracker.Model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A payment method (Expense.paymentMethod), stored once and referenced from expenses by id.
+ * Rows are only ever added, so an id always names the same value. Read and written through
+ * DictionaryService.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "payment_methods")
+public class PaymentMethod {
+
+    // Identity so that DictionaryService can insert with plain JDBC
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(nullable = false, unique = true, length = 255)
+    private String name;
+}
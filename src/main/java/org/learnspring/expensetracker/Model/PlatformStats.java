@@ -0,0 +1,36 @@
+package org.learnspring.expensetracker.Model;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Platform-wide activity for /admin/stats: how many users were active and how much was spent
+ * per category, per time bucket. Only buckets with expenses are listed, oldest first.
+ *
+ * @param users registered users
+ * @param activeUsers users with at least one expense in the range
+ * @param partitions how many user-id ranges were aggregated separately
+ */
+public record PlatformStats(
+        LocalDate from,
+        LocalDate to,
+        TrendGranularity granularity,
+        long users,
+        long activeUsers,
+        long expenses,
+        BigDecimal total,
+        List<Bucket> buckets,
+        int partitions,
+        long durationMs) {
+
+    public record Bucket(LocalDate bucket, long activeUsers, long expenses, BigDecimal total,
+                         List<CategoryTotal> categories) {
+    }
+
+    /**
+     * @param category the category name, or null for expenses without one
+     */
+    public record CategoryTotal(String category, long expenses, BigDecimal total) {
+    }
+}
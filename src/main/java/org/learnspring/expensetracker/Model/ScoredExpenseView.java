@@ -0,0 +1,13 @@
+package org.learnspring.expensetracker.Model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+
+/**
+ * Response of /add: the usual {@link ExpenseView} fields plus an "anomaly" object when the
+ * amount was unusual for its category. Clients that ignore unknown fields see no change.
+ */
+public record ScoredExpenseView(
+        @JsonUnwrapped ExpenseView expense,
+        @JsonInclude(JsonInclude.Include.NON_NULL) ExpenseAnomalyView anomaly) {
+}
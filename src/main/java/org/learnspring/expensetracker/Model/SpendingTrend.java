@@ -0,0 +1,27 @@
+package org.learnspring.expensetracker.Model;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Spending per time bucket for one user, as returned by /trends. Every bucket in the range is
+ * present (empty ones with zero), so clients can chart the points directly.
+ *
+ * @param granularity the bucket size actually used; coarser than requested when downsampled
+ * @param bucketsPerPoint how many buckets of that size each point covers (1 unless a range
+ *                        is so long that even yearly buckets exceed the point limit)
+ */
+public record SpendingTrend(
+        LocalDate from,
+        LocalDate to,
+        String type,
+        TrendGranularity requestedGranularity,
+        TrendGranularity granularity,
+        int bucketsPerPoint,
+        boolean downsampled,
+        List<Point> points) {
+
+    public record Point(LocalDate bucket, BigDecimal total, long count) {
+    }
+}
@@ -0,0 +1,56 @@
+package org.learnspring.expensetracker.Model;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Locale;
+
+/**
+ * Bucket sizes for spending trends. The names match the PostgreSQL date_trunc units and
+ * {@link #truncate} mirrors date_trunc on the Java side (weeks start on Monday).
+ */
+public enum TrendGranularity {
+    DAY, WEEK, MONTH, QUARTER, YEAR;
+
+    public static TrendGranularity parse(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("granularity must be one of day, week, month, quarter, year");
+        }
+    }
+
+    public String sqlUnit() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    public LocalDate truncate(LocalDate date) {
+        return switch (this) {
+            case DAY -> date;
+            case WEEK -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> date.withDayOfMonth(1);
+            case QUARTER -> date.withDayOfMonth(1).withMonth((date.getMonthValue() - 1) / 3 * 3 + 1);
+            case YEAR -> date.withDayOfYear(1);
+        };
+    }
+
+    /**
+     * Start of the bucket after the one starting at {@code bucketStart}.
+     */
+    public LocalDate next(LocalDate bucketStart) {
+        return switch (this) {
+            case DAY -> bucketStart.plusDays(1);
+            case WEEK -> bucketStart.plusWeeks(1);
+            case MONTH -> bucketStart.plusMonths(1);
+            case QUARTER -> bucketStart.plusMonths(3);
+            case YEAR -> bucketStart.plusYears(1);
+        };
+    }
+
+    /**
+     * The next larger bucket size, or null for YEAR.
+     */
+    public TrendGranularity coarser() {
+        return this == YEAR ? null : values()[ordinal() + 1];
+    }
+}
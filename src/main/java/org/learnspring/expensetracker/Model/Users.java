@@ -1,5 +1,7 @@
 package org.learnspring.expensetracker.Model;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -9,6 +11,7 @@ import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 @Data
 @AllArgsConstructor
@@ -16,13 +19,19 @@ import lombok.NoArgsConstructor;
 @Entity
 @Table(name = "Users")
 public class Users {
+    // Id and Role are never taken from a request body: a client-sent id would make save()
+    // overwrite that user, a client-sent role would grant it
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE)
+    @JsonProperty(value = "id", access = JsonProperty.Access.READ_ONLY)
     private Integer Id;
     @NotBlank(message = "UserName is required")
     private String username;
+    @ToString.Exclude
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     @NotBlank(message = "Password is required")
     private String password;
 
+    @JsonProperty(value = "role", access = JsonProperty.Access.READ_ONLY)
     private String Role;
 }
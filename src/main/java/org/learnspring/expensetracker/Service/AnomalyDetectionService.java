@@ -0,0 +1,334 @@
+package org.learnspring.expensetracker.Service;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.learnspring.expensetracker.Model.Expense;
+import org.learnspring.expensetracker.Model.ExpenseAnomaly;
+import org.learnspring.expensetracker.config.LatencyStats;
+import org.learnspring.expensetracker.config.RunningStats;
+import org.learnspring.expensetracker.config.StartupTaskRunner;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Scores new expenses against the user's history in the same category.
+ *
+ * Per (user, category) it keeps running count/mean/M2 of ln(amount) (spending is roughly
+ * log-normal, so a z-score on the log scale treats "3x the usual" alike in every category)
+ * and flags an expense whose z-score reaches the threshold once enough history exists. Only
+ * unusually high amounts are flagged.
+ *
+ * The statistics live in memory: scoring and updating are O(1) and touch no database. A
+ * user's rows are loaded from expense_category_stats on first use; increments since the last
+ * flush are merged into those rows every few seconds with the parallel-variance formula, so
+ * several instances can write the same rows without losing updates. Entries are reloaded
+ * after a while to pick up other instances' increments.
+ *
+ * An expense is scored inside the transaction that saves it (the anomaly is saved with it),
+ * but only added to the statistics once that transaction commits, so a rolled-back save
+ * leaves no trace. Nothing is flushed while the anomaly-stats startup task is still seeding
+ * the table from existing expenses; see {@link #resetForBackfill}.
+ */
+@Service
+public class AnomalyDetectionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnomalyDetectionService.class);
+
+    static final String STATS_TABLE = "expense_category_stats";
+
+    public static final String BACKFILL_TASK = "anomaly-stats";
+
+    /**
+     * Merges the inserted (n, mean, m2) into an existing row of the table aliased s; every SET
+     * reads the old row values. Also used by AnomalyStatsBackfill.
+     */
+    public static final String MERGE_ON_CONFLICT = "ON CONFLICT (user_id, category) DO UPDATE SET "
+            + "n = s.n + EXCLUDED.n, "
+            + "mean = s.mean + (EXCLUDED.mean - s.mean) * EXCLUDED.n / (s.n + EXCLUDED.n), "
+            + "m2 = s.m2 + EXCLUDED.m2 + (EXCLUDED.mean - s.mean) * (EXCLUDED.mean - s.mean) "
+            + "* s.n * EXCLUDED.n / (s.n + EXCLUDED.n)";
+
+    private static final String MERGE_SQL = "INSERT INTO " + STATS_TABLE + " AS s (user_id, category, n, mean, m2) "
+            + "VALUES (?, ?, ?, ?, ?) " + MERGE_ON_CONFLICT;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Looked up lazily: the runner's tasks include AnomalyStatsBackfill, which uses this service
+    @Autowired
+    private ObjectProvider<StartupTaskRunner> startupTaskRunner;
+
+    @Value("${anomaly.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${anomaly.z-threshold:3.0}")
+    private double zThreshold = 3.0;
+
+    @Value("${anomaly.min-samples:8}")
+    private int minSamples = 8;
+
+    @Value("${anomaly.max-cached-users:10000}")
+    private int maxCachedUsers = 10_000;
+
+    @Value("${anomaly.reload-ms:600000}")
+    private long reloadMillis = 600_000;
+
+    private final Map<Integer, UserStats> users = new ConcurrentHashMap<>();
+    private final LatencyStats scoreStats = new LatencyStats();
+    private final LongAdder scored = new LongAdder();
+    private final LongAdder flagged = new LongAdder();
+    private final LongAdder flushFailures = new LongAdder();
+
+    public AnomalyDetectionService() {
+    }
+
+    public AnomalyDetectionService(JdbcTemplate jdbcTemplate, double zThreshold, int minSamples) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.zThreshold = zThreshold;
+        this.minSamples = minSamples;
+    }
+
+    /**
+     * Scores a saved expense and adds it to the category's statistics once the current
+     * transaction commits (at once without one). Expenses saved in the same transaction are
+     * therefore all scored against the statistics from before it.
+     *
+     * @return the anomaly to record, or null if the amount is not unusual (or not scorable)
+     */
+    public ExpenseAnomaly observe(Expense expense) {
+        if (!enabled || expense.getUser() == null || expense.getUser().getId() == null
+                || expense.getExpenseType() == null) {
+            return null;
+        }
+        double amount = parseAmount(expense.getExpenseAmount());
+        if (!(amount > 0)) {
+            return null;
+        }
+        long start = System.nanoTime();
+        double value = Math.log(amount);
+        int userId = expense.getUser().getId();
+        String category = expense.getExpenseType();
+
+        RunningStats before = null;
+        while (before == null) {
+            UserStats stats = statsFor(userId);
+            synchronized (stats) {
+                if (stats.evicted) {
+                    continue; // lost a race with evictClean; load again
+                }
+                CategoryStats categoryStats = stats.categories.get(category);
+                before = categoryStats != null ? categoryStats.total.copy() : new RunningStats();
+            }
+        }
+        double zScore = before.getCount() >= minSamples ? before.zScore(value) : Double.NaN;
+        afterCommit(() -> record(userId, category, value));
+        scored.increment();
+        scoreStats.recordNanos(System.nanoTime() - start);
+
+        if (!(zScore >= zThreshold)) {
+            return null;
+        }
+        flagged.increment();
+        logger.debug("Expense {} of {} in {} is unusual for user {} (z={})", expense.getId(),
+                expense.getExpenseAmount(), category, expense.getUser().getId(), zScore);
+        return new ExpenseAnomaly(null, expense.getUser().getId(), expense.getId(), category,
+                expense.getExpenseAmount(), zScore, Math.exp(before.getMean()), before.getCount(), Instant.now());
+    }
+
+    private void record(int userId, String category, double value) {
+        while (true) {
+            UserStats stats = statsFor(userId);
+            synchronized (stats) {
+                if (stats.evicted) {
+                    continue;
+                }
+                CategoryStats categoryStats = stats.categories.computeIfAbsent(category, c -> new CategoryStats());
+                categoryStats.total.add(value);
+                categoryStats.pending.add(value);
+                stats.dirty = true;
+                return;
+            }
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Called by AnomalyStatsBackfill right before it aggregates the existing expenses: drops
+     * every cached user with their unflushed increments. Those expenses were committed before
+     * the aggregate starts, so it counts them, and flushing them as well would count them
+     * twice. Users are loaded again, with the seeded history, when next scored.
+     */
+    public void resetForBackfill() {
+        users.entrySet().removeIf(entry -> {
+            synchronized (entry.getValue()) {
+                entry.getValue().evicted = true;
+                return true;
+            }
+        });
+        logger.info("Dropped cached expense statistics ahead of the backfill");
+    }
+
+    /**
+     * Merges increments since the last flush into expense_category_stats and drops cached
+     * users that are clean and old enough to be reloaded. Waits while the backfill is pending.
+     */
+    @Scheduled(fixedDelayString = "${anomaly.flush-ms:10000}", initialDelayString = "${anomaly.flush-ms:10000}")
+    public void flush() {
+        if (backfillPending()) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>();
+        Map<Integer, Map<String, RunningStats>> taken = new HashMap<>();
+        users.forEach((userId, stats) -> {
+            synchronized (stats) {
+                if (!stats.dirty) {
+                    return;
+                }
+                Map<String, RunningStats> pending = new HashMap<>();
+                stats.categories.forEach((category, categoryStats) -> {
+                    if (categoryStats.pending.getCount() > 0) {
+                        RunningStats delta = categoryStats.pending;
+                        pending.put(category, delta);
+                        rows.add(new Object[] {userId, category, delta.getCount(), delta.getMean(), delta.getM2()});
+                        categoryStats.pending = new RunningStats();
+                    }
+                });
+                stats.dirty = false;
+                taken.put(userId, pending);
+            }
+        });
+        if (!rows.isEmpty()) {
+            try {
+                jdbcTemplate.batchUpdate(MERGE_SQL, rows);
+                logger.debug("Flushed {} category statistics", rows.size());
+            } catch (Exception e) {
+                // Put the increments back so the next flush retries them
+                flushFailures.increment();
+                logger.warn("Could not flush expense statistics ({} rows): {}", rows.size(), e.getMessage());
+                taken.forEach((userId, pending) -> {
+                    UserStats stats = users.get(userId);
+                    if (stats != null) {
+                        synchronized (stats) {
+                            pending.forEach((category, delta) -> stats.categories
+                                    .computeIfAbsent(category, c -> new CategoryStats()).pending.merge(delta));
+                            stats.dirty = true;
+                        }
+                    }
+                });
+            }
+        }
+        evictClean();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private boolean backfillPending() {
+        StartupTaskRunner runner = startupTaskRunner != null ? startupTaskRunner.getIfAvailable() : null;
+        StartupTaskRunner.Status status = runner != null ? runner.getStatus(BACKFILL_TASK) : null;
+        return status == StartupTaskRunner.Status.PENDING || status == StartupTaskRunner.Status.RUNNING;
+    }
+
+    private void evictClean() {
+        long now = System.nanoTime();
+        boolean overCapacity = users.size() > maxCachedUsers;
+        users.entrySet().removeIf(entry -> {
+            UserStats stats = entry.getValue();
+            synchronized (stats) {
+                stats.evicted = !stats.dirty && (overCapacity || now - stats.loadedAt > reloadMillis * 1_000_000L);
+                return stats.evicted;
+            }
+        });
+    }
+
+    private UserStats statsFor(int userId) {
+        UserStats stats = users.get(userId);
+        if (stats != null) {
+            return stats;
+        }
+        // First expense of this user since startup (or since eviction): one indexed lookup
+        UserStats loaded = new UserStats();
+        try {
+            jdbcTemplate.query("SELECT category, n, mean, m2 FROM " + STATS_TABLE + " WHERE user_id = ?",
+                    rs -> {
+                        CategoryStats categoryStats = new CategoryStats();
+                        categoryStats.total = new RunningStats(rs.getLong("n"), rs.getDouble("mean"), rs.getDouble("m2"));
+                        loaded.categories.put(rs.getString("category"), categoryStats);
+                    }, userId);
+        } catch (Exception e) {
+            logger.debug("Could not load expense statistics for user {}: {}", userId, e.getMessage());
+        }
+        UserStats existing = users.putIfAbsent(userId, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    private static double parseAmount(String amount) {
+        if (amount == null) {
+            return Double.NaN;
+        }
+        try {
+            return new BigDecimal(amount.trim()).doubleValue();
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("enabled", enabled);
+        snapshot.put("zThreshold", zThreshold);
+        snapshot.put("minSamples", minSamples);
+        snapshot.put("cachedUsers", users.size());
+        snapshot.put("scored", scored.sum());
+        snapshot.put("flagged", flagged.sum());
+        snapshot.put("flushFailures", flushFailures.sum());
+        snapshot.put("score", scoreStats.snapshot());
+        return snapshot;
+    }
+
+    private static final class UserStats {
+        final Map<String, CategoryStats> categories = new HashMap<>();
+        final long loadedAt = System.nanoTime();
+        boolean dirty;
+        boolean evicted;
+    }
+
+    private static final class CategoryStats {
+        // Everything known: loaded row plus local increments; used for scoring
+        RunningStats total = new RunningStats();
+        // Local increments not yet merged into the table
+        RunningStats pending = new RunningStats();
+    }
+}
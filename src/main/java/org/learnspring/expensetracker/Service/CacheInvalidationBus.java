@@ -0,0 +1,258 @@
+package org.learnspring.expensetracker.Service;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.sql.DataSource;
+
+import org.learnspring.expensetracker.config.LocalCache;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Keeps the {@link LocalCache}s of all app instances coherent through Postgres LISTEN/NOTIFY.
+ *
+ * Writers call {@link #invalidate}: inside a transaction the NOTIFY is issued on the
+ * transaction's connection, so Postgres delivers it only if and when the transaction commits,
+ * and the local entry is dropped after commit; outside a transaction both happen at once.
+ * Every instance (the sender included) listens on one dedicated connection and drops the
+ * named key when a notification arrives, normally within milliseconds of the commit.
+ *
+ * Staleness stays bounded when notifications are lost: the caches are disabled and emptied
+ * whenever the listening connection is down, the connection is pinged every heartbeat so a
+ * silently dead socket is noticed within heartbeat + socket timeout, and after reconnecting
+ * the caches are emptied once more before being re-enabled. Entry TTLs are a last backstop.
+ * On databases other than PostgreSQL the bus runs local-only.
+ */
+@Service
+public class CacheInvalidationBus {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationBus.class);
+
+    static final String CHANNEL = "cache_invalidation";
+    private static final char SEPARATOR = ':';
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${spring.datasource.url}")
+    private String databaseUrl;
+
+    @Value("${spring.datasource.username}")
+    private String username;
+
+    @Value("${spring.datasource.password}")
+    private String password;
+
+    @Value("${cache.invalidation.enabled:true}")
+    private boolean enabled;
+
+    @Value("${cache.invalidation.heartbeat-ms:5000}")
+    private long heartbeatMillis;
+
+    @Value("${cache.invalidation.reconnect-max-ms:30000}")
+    private long reconnectMaxMillis;
+
+    private final Map<String, LocalCache<?>> caches = new ConcurrentHashMap<>();
+    private volatile boolean postgres;
+    private volatile boolean listening;
+    private volatile boolean running = true;
+    private volatile Instant lastHeartbeat;
+    private Thread listener;
+
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder received = new LongAdder();
+    private final LongAdder reconnects = new LongAdder();
+
+    /**
+     * Registers a cache so notifications for its name reach it. The cache stays disabled
+     * until the bus is listening (or is known to run local-only).
+     */
+    public <V> LocalCache<V> register(LocalCache<V> cache) {
+        caches.put(cache.getName(), cache);
+        cache.setEnabled(!enabled);
+        return cache;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            logger.info("Cache invalidation bus disabled; caches are local to this instance");
+            return;
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            postgres = "PostgreSQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName());
+        } catch (SQLException e) {
+            logger.warn("Cannot determine database type, assuming PostgreSQL: {}", e.getMessage());
+            postgres = true;
+        }
+        if (!postgres) {
+            logger.info("Database is not PostgreSQL; cache invalidation is local-only");
+            setCachesEnabled(true);
+            return;
+        }
+        listener = new Thread(this::listenLoop, "cache-invalidation-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (listener != null) {
+            listener.interrupt();
+        }
+    }
+
+    /**
+     * Drops the key from the named cache on every instance once the current transaction
+     * (if any) commits.
+     */
+    public void invalidate(String cacheName, String key) {
+        if (enabled && postgres) {
+            // NOTIFY is transactional: issued on the transaction's connection it is sent at commit
+            jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> null, CHANNEL, cacheName + SEPARATOR + key);
+            sent.increment();
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidateLocal(cacheName, key);
+                }
+            });
+        } else {
+            invalidateLocal(cacheName, key);
+        }
+    }
+
+    private void invalidateLocal(String cacheName, String key) {
+        LocalCache<?> cache = caches.get(cacheName);
+        if (cache != null) {
+            cache.invalidate(key);
+        }
+    }
+
+    void onNotification(String payload) {
+        received.increment();
+        int separator = payload.indexOf(SEPARATOR);
+        if (separator < 0) {
+            logger.warn("Ignoring malformed cache invalidation: {}", payload);
+            return;
+        }
+        invalidateLocal(payload.substring(0, separator), payload.substring(separator + 1));
+    }
+
+    private void listenLoop() {
+        long backoffMillis = 500;
+        while (running) {
+            try (Connection connection = openListenConnection()) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                // Anything changed while we were not listening is unknown: start empty
+                listening = true;
+                setCachesEnabled(true);
+                reconnects.increment();
+                backoffMillis = 500;
+                logger.info("Listening for cache invalidations on channel {}", CHANNEL);
+
+                long lastPing = System.nanoTime();
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications((int) heartbeatMillis);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            onNotification(notification.getParameter());
+                        }
+                    }
+                    if (System.nanoTime() - lastPing >= heartbeatMillis * 1_000_000L) {
+                        // getNotifications does not notice a dead socket on its own
+                        try (Statement statement = connection.createStatement()) {
+                            statement.execute("SELECT 1");
+                        }
+                        lastPing = System.nanoTime();
+                        lastHeartbeat = Instant.now();
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    break;
+                }
+                listening = false;
+                setCachesEnabled(false);
+                logger.warn("Cache invalidation listener lost its connection ({}); caches disabled, retrying in {} ms",
+                        e.getMessage(), backoffMillis);
+                try {
+                    Thread.sleep(backoffMillis);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                backoffMillis = Math.min(backoffMillis * 2, reconnectMaxMillis);
+            }
+        }
+        listening = false;
+    }
+
+    /**
+     * Dedicated connection outside the pool: it is held for the life of the instance.
+     */
+    private Connection openListenConnection() throws SQLException {
+        Properties properties = new Properties();
+        properties.setProperty("user", username);
+        properties.setProperty("password", password);
+        properties.setProperty("tcpKeepAlive", "true");
+        properties.setProperty("socketTimeout", Long.toString(Math.max(10, heartbeatMillis * 2 / 1000)));
+        properties.setProperty("ApplicationName", "expense-tracker-cache-invalidation");
+        Connection connection = DriverManager.getConnection(databaseUrl, properties);
+        connection.setAutoCommit(true);
+        return connection;
+    }
+
+    private void setCachesEnabled(boolean cachesEnabled) {
+        caches.values().forEach(cache -> cache.setEnabled(cachesEnabled));
+    }
+
+    public boolean isListening() {
+        return listening;
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("enabled", enabled);
+        snapshot.put("mode", !enabled ? "disabled" : postgres ? "listen-notify" : "local-only");
+        snapshot.put("listening", listening);
+        snapshot.put("lastHeartbeat", lastHeartbeat != null ? lastHeartbeat.toString() : null);
+        snapshot.put("sent", sent.sum());
+        snapshot.put("received", received.sum());
+        snapshot.put("connects", reconnects.sum());
+        Map<String, Object> cacheStats = new LinkedHashMap<>();
+        caches.forEach((name, cache) -> cacheStats.put(name, cache.snapshot()));
+        snapshot.put("caches", cacheStats);
+        return snapshot;
+    }
+}
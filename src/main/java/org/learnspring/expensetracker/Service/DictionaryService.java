@@ -0,0 +1,72 @@
+package org.learnspring.expensetracker.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.learnspring.expensetracker.Model.Expense;
+import org.learnspring.expensetracker.config.Dictionary;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * The categories and payment_methods lookup tables. Expenses store their ids; the API keeps
+ * using the names, which the converters on {@link Expense} map at the persistence edge.
+ */
+@Service
+public class DictionaryService {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Dictionary categories;
+    private Dictionary paymentMethods;
+
+    public DictionaryService() {
+    }
+
+    public DictionaryService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionManager = transactionManager;
+        init();
+    }
+
+    @PostConstruct
+    public void init() {
+        categories = new Dictionary("categories", jdbcTemplate, transactionManager);
+        paymentMethods = new Dictionary("payment_methods", jdbcTemplate, transactionManager);
+    }
+
+    public Dictionary categories() {
+        return categories;
+    }
+
+    public Dictionary paymentMethods() {
+        return paymentMethods;
+    }
+
+    /**
+     * Makes sure the expense's category and payment method have ids, so that saving it does
+     * not insert lookup rows in the middle of a flush. Call it before the transaction that
+     * saves the expense starts: a new name is inserted in a transaction of its own, which
+     * inside another one needs a second pooled connection while the first is held, and
+     * enough concurrent writes doing that exhaust the pool.
+     */
+    public void resolve(Expense expense) {
+        categories.idFor(expense.getExpenseType());
+        paymentMethods.idFor(expense.getPaymentMethod());
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("categories", categories.snapshot());
+        snapshot.put("paymentMethods", paymentMethods.snapshot());
+        return snapshot;
+    }
+}
@@ -0,0 +1,237 @@
+package org.learnspring.expensetracker.Service;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.learnspring.expensetracker.config.LatencyStats;
+import org.learnspring.expensetracker.config.StartupTaskRunner;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Moves cold rows out of the expenses table into expenses_archive (see ArchivedExpense):
+ * deleted expenses whose restore window (expenses.restore-days) has passed and, if
+ * archive.max-age-days is set, expenses dated more than that many days ago.
+ *
+ * Live rows are only archived on request (max-age-days defaults to 0, never): only the
+ * expense lists can include the archive (includeArchived), so once they are moved, trends,
+ * months before the cut-off, all-time insights, suggestions and platform stats no longer
+ * count them.
+ *
+ * Runs in the background in batches of archive.batch-size rows, each copied and deleted in
+ * its own short transaction with the rows locked, so a concurrent restore or update either
+ * happens before the move or waits for it. Between batches it rests at least archive.pause-ms
+ * and at least as long as the batch took, which keeps it to half of one connection at most.
+ * Deleted rows and old rows are found in separate passes, each walking the ids in order.
+ * Starts only once the startup tasks have completed (category ids must be encoded).
+ */
+@Service
+public class ExpenseArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExpenseArchiveService.class);
+
+    private static final String COLUMNS = "id, user_id, expense, category_id, expense_amount, payment_method_id, date, deleted_at";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private CacheInvalidationBus invalidationBus;
+
+    @Autowired
+    private StartupTaskRunner startupTaskRunner;
+
+    @Value("${archive.enabled:true}")
+    private boolean enabled = true;
+
+    // 0 = never archive live expenses
+    @Value("${archive.max-age-days:0}")
+    private int maxAgeDays = 0;
+
+    @Value("${expenses.restore-days:30}")
+    private int restoreDays = 30;
+
+    @Value("${archive.batch-size:500}")
+    private int batchSize = 500;
+
+    @Value("${archive.pause-ms:200}")
+    private long pauseMillis = 200;
+
+    // Per run; the next run continues with whatever is left
+    @Value("${archive.max-batches:200}")
+    private int maxBatches = 200;
+
+    private TransactionTemplate transactionTemplate;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final LatencyStats batchLatency = new LatencyStats();
+    private final LongAdder runs = new LongAdder();
+    private final LongAdder archived = new LongAdder();
+    private final LongAdder archivedDeleted = new LongAdder();
+    private volatile Instant lastRun;
+
+    public ExpenseArchiveService() {
+    }
+
+    public ExpenseArchiveService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                 CacheInvalidationBus invalidationBus, int batchSize, long pauseMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionManager = transactionManager;
+        this.invalidationBus = invalidationBus;
+        this.batchSize = batchSize;
+        this.pauseMillis = pauseMillis;
+        init();
+    }
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(fixedDelayString = "${archive.interval-ms:3600000}", initialDelayString = "${archive.initial-delay-ms:600000}")
+    public void archiveScheduled() {
+        if (!enabled || !startupTaskRunner.isReady()) {
+            return;
+        }
+        try {
+            archive(maxAgeDays > 0 ? LocalDate.now().minusDays(maxAgeDays) : null,
+                    Instant.now().minus(Duration.ofDays(restoreDays)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            logger.error("Expense archiving failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Archives expenses dated before {@code datedBefore} (if not null) and expenses deleted
+     * before {@code deletedBefore}, up to archive.max-batches batches. Does nothing if a run is
+     * already in progress.
+     *
+     * @return the number of expenses archived
+     */
+    public int archive(LocalDate datedBefore, Instant deletedBefore) throws InterruptedException {
+        if (!running.compareAndSet(false, true)) {
+            return 0;
+        }
+        try {
+            runs.increment();
+            int[] budget = {maxBatches};
+            // Two passes, so each predicate can use its own index (see ExpenseArchiveIndexes)
+            int moved = movePass("deleted_at IS NOT NULL AND deleted_at < ?", Timestamp.from(deletedBefore), budget);
+            if (datedBefore != null) {
+                moved += movePass("date < ?", Date.valueOf(datedBefore), budget);
+            }
+            lastRun = Instant.now();
+            if (moved > 0) {
+                logger.info("Archived {} expenses dated before {} or deleted before {}", moved,
+                        datedBefore != null ? datedBefore : "(never)", deletedBefore);
+            }
+            return moved;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Moves the rows matching {@code predicate} in id order, batch by batch, until none are
+     * left or the run's batch budget is spent.
+     */
+    private int movePass(String predicate, Object bound, int[] budget) throws InterruptedException {
+        int moved = 0;
+        int afterId = Integer.MIN_VALUE;
+        while (budget[0] > 0) {
+            budget[0]--;
+            long start = System.nanoTime();
+            int from = afterId;
+            Batch result = transactionTemplate.execute(status -> moveBatch(from, predicate, bound));
+            long elapsed = System.nanoTime() - start;
+            batchLatency.recordNanos(elapsed);
+            if (result == null || result.rows() == 0) {
+                break;
+            }
+            moved += result.rows();
+            archived.add(result.rows());
+            archivedDeleted.add(result.deletedRows());
+            afterId = result.lastId();
+            if (result.rows() < batchSize) {
+                break;
+            }
+            Thread.sleep(Math.max(pauseMillis, TimeUnit.NANOSECONDS.toMillis(elapsed)));
+        }
+        return moved;
+    }
+
+    private Batch moveBatch(int afterId, String predicate, Object bound) {
+        // Locked until commit, so nobody restores or edits a row between the copy and the delete
+        List<Candidate> candidates = jdbcTemplate.query("SELECT id, user_id, deleted_at FROM expenses "
+                        + "WHERE id > ? AND " + predicate + " ORDER BY id LIMIT ? FOR UPDATE",
+                (rs, rowNum) -> new Candidate(rs.getInt("id"), rs.getObject("user_id", Integer.class),
+                        rs.getTimestamp("deleted_at") != null),
+                afterId, bound, batchSize);
+        if (candidates.isEmpty()) {
+            return new Batch(0, 0, afterId);
+        }
+        List<Object> ids = new ArrayList<>(candidates.size());
+        candidates.forEach(candidate -> ids.add(candidate.id()));
+        String in = String.join(", ", Collections.nCopies(ids.size(), "?"));
+
+        List<Object> insertArgs = new ArrayList<>(ids.size() + 1);
+        insertArgs.add(Timestamp.from(Instant.now()));
+        insertArgs.addAll(ids);
+        jdbcTemplate.update("INSERT INTO expenses_archive (" + COLUMNS + ", archived_at) "
+                + "SELECT " + COLUMNS + ", ? FROM expenses WHERE id IN (" + in + ")", insertArgs.toArray());
+        int rows = jdbcTemplate.update("DELETE FROM expenses WHERE id IN (" + in + ")", ids.toArray());
+
+        // Only live rows were in anyone's cached list; drop those lists once this commits
+        candidates.stream()
+                .filter(candidate -> !candidate.deleted() && candidate.userId() != null)
+                .map(candidate -> String.valueOf(candidate.userId()))
+                .distinct()
+                .forEach(userId -> invalidationBus.invalidate(expenseService.EXPENSES_CACHE, userId));
+        long deletedRows = candidates.stream().filter(Candidate::deleted).count();
+        return new Batch(rows, deletedRows, candidates.get(candidates.size() - 1).id());
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("enabled", enabled);
+        snapshot.put("maxAgeDays", maxAgeDays);
+        snapshot.put("restoreDays", restoreDays);
+        snapshot.put("running", running.get());
+        snapshot.put("runs", runs.sum());
+        snapshot.put("archived", archived.sum());
+        snapshot.put("archivedDeleted", archivedDeleted.sum());
+        snapshot.put("lastRun", lastRun);
+        snapshot.put("batch", batchLatency.snapshot());
+        return snapshot;
+    }
+
+    private record Candidate(int id, Integer userId, boolean deleted) {
+    }
+
+    private record Batch(int rows, long deletedRows, int lastId) {
+    }
+}
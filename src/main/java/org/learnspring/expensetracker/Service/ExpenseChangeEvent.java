@@ -0,0 +1,32 @@
+package org.learnspring.expensetracker.Service;
+
+import org.learnspring.expensetracker.Model.ExpenseView;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * Published by {@link expenseService} when an expense is created, updated or deleted.
+ * Listeners that push it to clients run after the transaction commits.
+ *
+ * @param expense  the new state, or null for deletions
+ * @param previous the state before an update or deletion, if known; for listeners that keep
+ *                 aggregates, not sent to clients
+ */
+public record ExpenseChangeEvent(Type type, int userId, int expenseId, ExpenseView expense,
+                                 @JsonIgnore ExpenseView previous) {
+
+    public ExpenseChangeEvent(Type type, int userId, int expenseId, ExpenseView expense) {
+        this(type, userId, expenseId, expense, null);
+    }
+
+    public enum Type {
+        CREATED, UPDATED, DELETED;
+
+        /**
+         * SSE event name, e.g. "expense-created".
+         */
+        public String eventName() {
+            return "expense-" + name().toLowerCase();
+        }
+    }
+}
@@ -0,0 +1,379 @@
+package org.learnspring.expensetracker.Service;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * In-process fan-out of {@link ExpenseChangeEvent}s to the user's open /events streams.
+ *
+ * Each stream is an async {@link SseEmitter}, so an idle subscriber holds a socket but no
+ * Tomcat thread. Events are serialized once per change and queued per subscriber in a small
+ * bounded buffer; a few dispatch threads drain the buffers. A subscriber whose buffer is full
+ * (client not reading) is disconnected rather than slowing down everyone else; EventSource
+ * clients reconnect on their own and should re-fetch /all when they do, since missed events
+ * are not replayed.
+ *
+ * Writes to the emitter block while the client's socket buffer is full. A write still running
+ * after events.write-timeout-ms marks the subscriber as a slow consumer too, and the pool gets
+ * an extra thread until that write returns (Tomcat fails it after its connection timeout), so
+ * one stuck socket cannot hold a dispatch thread that other streams need.
+ */
+@Service
+public class ExpenseEventHub {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExpenseEventHub.class);
+
+    private static final long RECONNECT_MILLIS = 5_000;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${events.timeout-ms:1800000}")
+    private long timeoutMillis = 1_800_000;
+
+    @Value("${events.buffer-size:32}")
+    private int bufferSize = 32;
+
+    @Value("${events.max-connections:5000}")
+    private int maxConnections = 5000;
+
+    @Value("${events.dispatch-threads:4}")
+    private int dispatchThreads = 4;
+
+    @Value("${events.write-timeout-ms:5000}")
+    private long writeTimeoutMillis = 5000;
+
+    private final Map<Integer, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final AtomicLong sequence = new AtomicLong();
+    private final LongAdder published = new LongAdder();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder slowConsumersDropped = new LongAdder();
+    private final LongAdder rejectedConnections = new LongAdder();
+    private final Set<Subscriber> writing = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger stalledWrites = new AtomicInteger();
+
+    private ThreadPoolExecutor dispatcher;
+
+    public ExpenseEventHub() {
+    }
+
+    public ExpenseEventHub(ObjectMapper objectMapper, int bufferSize, int maxConnections, int dispatchThreads) {
+        this.objectMapper = objectMapper;
+        this.bufferSize = bufferSize;
+        this.maxConnections = maxConnections;
+        this.dispatchThreads = dispatchThreads;
+    }
+
+    public ExpenseEventHub(ObjectMapper objectMapper, int bufferSize, int maxConnections, int dispatchThreads,
+                           long writeTimeoutMillis) {
+        this(objectMapper, bufferSize, maxConnections, dispatchThreads);
+        this.writeTimeoutMillis = writeTimeoutMillis;
+    }
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        // Unbounded queue is fine: each subscriber has at most one drain task queued at a time
+        dispatcher = new ThreadPoolExecutor(dispatchThreads, dispatchThreads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "sse-dispatch-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (dispatcher != null) {
+            dispatcher.shutdownNow();
+        }
+    }
+
+    /**
+     * Opens an event stream for the user.
+     *
+     * @return the emitter to return from the controller, or null if the connection limit is reached
+     */
+    public SseEmitter subscribe(int userId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = register(userId, new Sink() {
+            @Override
+            public void send(Set<DataWithMediaType> event) throws IOException {
+                emitter.send(event);
+            }
+
+            @Override
+            public void complete() {
+                emitter.complete();
+            }
+        });
+        if (subscriber == null) {
+            return null;
+        }
+        emitter.onCompletion(() -> unregister(subscriber));
+        emitter.onTimeout(() -> close(subscriber));
+        emitter.onError(error -> unregister(subscriber));
+        return emitter;
+    }
+
+    /**
+     * Registers a subscriber writing to the given sink and queues the "connected" event.
+     * Returns null when the connection limit is reached.
+     */
+    Subscriber register(int userId, Sink sink) {
+        int current;
+        do {
+            current = connections.get();
+            if (current >= maxConnections) {
+                rejectedConnections.increment();
+                logger.warn("Rejecting event stream for user {}: {} connections open", userId, current);
+                return null;
+            }
+        } while (!connections.compareAndSet(current, current + 1));
+
+        Subscriber subscriber = new Subscriber(userId, sink, bufferSize);
+        subscribers.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        enqueue(subscriber, SseEmitter.event()
+                .name("connected")
+                .reconnectTime(RECONNECT_MILLIS)
+                .data(toJson(Map.of("userId", userId)), MediaType.APPLICATION_JSON)
+                .build());
+        return subscriber;
+    }
+
+    /**
+     * Fans a committed change out to the owner's streams. Runs on the committing thread and
+     * only enqueues; writes happen on the dispatch threads.
+     */
+    @TransactionalEventListener
+    public void onExpenseChanged(ExpenseChangeEvent event) {
+        published.increment();
+        Set<Subscriber> targets = subscribers.get(event.userId());
+        if (targets == null || targets.isEmpty()) {
+            return;
+        }
+        Set<DataWithMediaType> payload = SseEmitter.event()
+                .id(Long.toString(sequence.incrementAndGet()))
+                .name(event.type().eventName())
+                .data(toJson(event), MediaType.APPLICATION_JSON)
+                .build();
+        for (Subscriber subscriber : targets) {
+            enqueue(subscriber, payload);
+        }
+    }
+
+    /**
+     * Comment line on every stream so proxies keep idle connections open and dead clients
+     * are detected by the failed write.
+     */
+    @Scheduled(fixedRateString = "${events.heartbeat-ms:25000}", initialDelayString = "${events.heartbeat-ms:25000}")
+    public void heartbeat() {
+        Set<DataWithMediaType> ping = SseEmitter.event().comment("ping").build();
+        subscribers.values().forEach(targets -> targets.forEach(subscriber -> enqueue(subscriber, ping)));
+    }
+
+    /**
+     * Drops subscribers whose current write has been blocked longer than the write timeout and
+     * gives the dispatch pool a thread in place of each blocked one.
+     */
+    @Scheduled(fixedDelayString = "${events.write-check-ms:1000}", initialDelayString = "${events.write-check-ms:1000}")
+    public void checkStalledWrites() {
+        long now = System.nanoTime();
+        for (Subscriber subscriber : writing) {
+            long started = subscriber.writeStartedNanos;
+            if (started == 0 || now - started < TimeUnit.MILLISECONDS.toNanos(writeTimeoutMillis)
+                    || !subscriber.stalled.compareAndSet(false, true)) {
+                continue;
+            }
+            slowConsumersDropped.increment();
+            logger.info("Disconnecting slow event stream for user {} (write blocked for {} ms)",
+                    subscriber.userId, TimeUnit.NANOSECONDS.toMillis(now - started));
+            close(subscriber);
+            resizeDispatcher(stalledWrites.incrementAndGet());
+        }
+    }
+
+    private synchronized void resizeDispatcher(int extraThreads) {
+        int size = dispatchThreads + Math.max(0, extraThreads);
+        if (size > dispatcher.getMaximumPoolSize()) {
+            dispatcher.setMaximumPoolSize(size);
+            dispatcher.setCorePoolSize(size);
+        } else {
+            dispatcher.setCorePoolSize(size);
+            dispatcher.setMaximumPoolSize(size);
+        }
+    }
+
+    /**
+     * Ends every stream when the application shuts down; otherwise graceful shutdown would
+     * wait for the open streams until its timeout.
+     */
+    @EventListener(ContextClosedEvent.class)
+    public void closeAll() {
+        subscribers.values().forEach(targets -> targets.forEach(this::close));
+    }
+
+    // Serialized once here rather than by the emitter on every subscriber's write
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize event " + value, e);
+        }
+    }
+
+    private void enqueue(Subscriber subscriber, Set<DataWithMediaType> event) {
+        if (subscriber.closed.get()) {
+            return;
+        }
+        if (!subscriber.buffer.offer(event)) {
+            slowConsumersDropped.increment();
+            logger.info("Disconnecting slow event stream for user {} ({} events buffered)",
+                    subscriber.userId, subscriber.buffer.size());
+            close(subscriber);
+            return;
+        }
+        schedule(subscriber);
+    }
+
+    /**
+     * Marks the subscriber closed; the emitter itself is completed on its dispatch task so it
+     * never races a write in progress.
+     */
+    private void close(Subscriber subscriber) {
+        if (subscriber.closed.compareAndSet(false, true)) {
+            unregister(subscriber);
+            schedule(subscriber);
+        }
+    }
+
+    private void unregister(Subscriber subscriber) {
+        Set<Subscriber> targets = subscribers.get(subscriber.userId);
+        if (targets != null && targets.remove(subscriber)) {
+            connections.decrementAndGet();
+            subscribers.computeIfPresent(subscriber.userId, (id, set) -> set.isEmpty() ? null : set);
+        }
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.scheduled.compareAndSet(false, true)) {
+            dispatcher.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            Set<DataWithMediaType> event;
+            while (!subscriber.closed.get() && (event = subscriber.buffer.poll()) != null) {
+                send(subscriber, event);
+                delivered.increment();
+            }
+            if (subscriber.closed.get()) {
+                subscriber.buffer.clear();
+                subscriber.sink.complete();
+            }
+        } catch (Exception e) {
+            // Client went away; the container also reports it through onError/onCompletion
+            logger.debug("Event stream for user {} failed: {}", subscriber.userId, e.getMessage());
+            subscriber.closed.set(true);
+            subscriber.buffer.clear();
+            unregister(subscriber);
+        } finally {
+            if (subscriber.stalled.compareAndSet(true, false)) {
+                resizeDispatcher(stalledWrites.decrementAndGet());
+            }
+            subscriber.scheduled.set(false);
+            if (!subscriber.buffer.isEmpty() && !subscriber.closed.get()) {
+                schedule(subscriber);
+            }
+        }
+    }
+
+    private void send(Subscriber subscriber, Set<DataWithMediaType> event) throws IOException {
+        subscriber.writeStartedNanos = System.nanoTime();
+        writing.add(subscriber);
+        try {
+            subscriber.sink.send(event);
+        } finally {
+            writing.remove(subscriber);
+            subscriber.writeStartedNanos = 0;
+        }
+    }
+
+    public int getConnectionCount() {
+        return connections.get();
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("connections", connections.get());
+        snapshot.put("maxConnections", maxConnections);
+        snapshot.put("usersConnected", subscribers.size());
+        snapshot.put("bufferSize", bufferSize);
+        snapshot.put("published", published.sum());
+        snapshot.put("delivered", delivered.sum());
+        snapshot.put("slowConsumersDropped", slowConsumersDropped.sum());
+        snapshot.put("rejectedConnections", rejectedConnections.sum());
+        snapshot.put("stalledWrites", stalledWrites.get());
+        snapshot.put("dispatchQueue", dispatcher.getQueue().size());
+        return snapshot;
+    }
+
+    /**
+     * Where a subscriber's events are written; the SSE emitter in production.
+     */
+    interface Sink {
+        void send(Set<DataWithMediaType> event) throws IOException;
+
+        void complete();
+    }
+
+    static final class Subscriber {
+        final int userId;
+        final Sink sink;
+        final ArrayBlockingQueue<Set<DataWithMediaType>> buffer;
+        final AtomicBoolean scheduled = new AtomicBoolean();
+        final AtomicBoolean closed = new AtomicBoolean();
+        // Set by checkStalledWrites while the subscriber's thread is replaced in the pool
+        final AtomicBoolean stalled = new AtomicBoolean();
+        volatile long writeStartedNanos;
+
+        Subscriber(int userId, Sink sink, int bufferSize) {
+            this.userId = userId;
+            this.sink = sink;
+            this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        }
+    }
+}
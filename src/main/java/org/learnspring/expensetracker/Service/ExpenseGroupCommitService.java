@@ -0,0 +1,92 @@
+package org.learnspring.expensetracker.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.learnspring.expensetracker.Model.Expense;
+import org.learnspring.expensetracker.config.GroupCommitter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Opt-in group commit for POST /add (group-commit.enabled). Concurrent adds are queued and
+ * saved together by {@link expenseService#addAllAndScore}: one multi-row insert and one commit
+ * per batch of up to group-commit.max-batch, each add waiting at most group-commit.max-wait-ms
+ * for others to join. Every caller still gets its own id and anomaly; if a batch fails, its
+ * expenses are saved one by one with {@link expenseService#addAndScore}, so only the bad one
+ * fails.
+ *
+ * Batches are written by one thread, so bursts of adds hold one connection instead of
+ * competing for the pool. Worth it when commits are what limits /add throughput; under light
+ * load it only adds up to max-wait-ms per add.
+ */
+@Service
+public class ExpenseGroupCommitService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExpenseGroupCommitService.class);
+
+    @Autowired
+    private expenseService expenseService;
+
+    @Autowired
+    private DictionaryService dictionaryService;
+
+    @Value("${group-commit.enabled:false}")
+    private boolean enabled;
+
+    @Value("${group-commit.max-batch:64}")
+    private int maxBatch = 64;
+
+    @Value("${group-commit.max-wait-ms:5}")
+    private long maxWaitMillis = 5;
+
+    @Value("${group-commit.queue-capacity:1000}")
+    private int queueCapacity = 1000;
+
+    private GroupCommitter<Expense, expenseService.AddedExpense> committer;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        committer = new GroupCommitter<>("expense-group-commit", maxBatch, maxWaitMillis, queueCapacity,
+                expenseService::addAllAndScore, expenseService::addAndScore);
+        logger.info("Group commit for /add: batches of up to {}, waiting up to {} ms", maxBatch, maxWaitMillis);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (committer != null) {
+            committer.close();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Same as {@link expenseService#addAndScore}, batched with concurrent adds when enabled.
+     * New category and payment method names are created first, outside the transaction.
+     */
+    public expenseService.AddedExpense addAndScore(Expense exp) {
+        dictionaryService.resolve(exp);
+        return committer != null ? committer.submit(exp) : expenseService.addAndScore(exp);
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("enabled", enabled);
+        if (committer != null) {
+            snapshot.putAll(committer.snapshot());
+        }
+        return snapshot;
+    }
+}
@@ -0,0 +1,208 @@
+package org.learnspring.expensetracker.Service;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+
+import org.learnspring.expensetracker.config.LatencyStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Passive heap and GC monitoring.
+ * Listens for GC notifications to record pause times per collector and samples
+ * the allocation rate and old-gen occupancy, so we can watch memory behaviour
+ * in production without forcing collections.
+ */
+@Service
+public class GcTelemetryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(GcTelemetryService.class);
+
+    private final Map<String, LatencyStats> pausesByCollector = new ConcurrentHashMap<>();
+    private final LatencyStats allPauses = new LatencyStats();
+    private final List<Registration> registrations = new ArrayList<>();
+
+    private final AtomicLong allocatedBeforeLastGc = new AtomicLong();
+    private volatile long edenUsedAfterLastGc;
+    private volatile long lastAllocatedBytes = -1;
+    private volatile long lastSampleNanos;
+    private volatile double allocationRateBytesPerSec;
+
+    @PostConstruct
+    public void start() {
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (!(gc instanceof NotificationEmitter emitter)) {
+                continue;
+            }
+            NotificationListener listener = this::handleNotification;
+            emitter.addNotificationListener(listener, null, null);
+            registrations.add(new Registration(emitter, listener));
+        }
+        sampleAllocationRate();
+        logger.info("GC telemetry listening on {} collectors", registrations.size());
+    }
+
+    @PreDestroy
+    public void stop() {
+        for (Registration registration : registrations) {
+            try {
+                registration.emitter().removeNotificationListener(registration.listener());
+            } catch (ListenerNotFoundException e) {
+                logger.debug("GC listener already removed: {}", e.getMessage());
+            }
+        }
+        registrations.clear();
+    }
+
+    private void handleNotification(Notification notification, Object handback) {
+        if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+            return;
+        }
+        GarbageCollectionNotificationInfo info =
+                GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+        // Concurrent cycle collectors (e.g. "ZGC Cycles") report cycle time, not stop-the-world pauses
+        if (isConcurrentCycle(info.getGcName())) {
+            return;
+        }
+        info.getGcInfo().getMemoryUsageBeforeGc().forEach((pool, before) -> {
+            if (isEden(pool)) {
+                allocatedBeforeLastGc.addAndGet(Math.max(0, before.getUsed() - edenUsedAfterLastGc));
+                MemoryUsage after = info.getGcInfo().getMemoryUsageAfterGc().get(pool);
+                edenUsedAfterLastGc = after != null ? after.getUsed() : 0;
+            }
+        });
+
+        long durationMs = info.getGcInfo().getDuration();
+        pausesByCollector.computeIfAbsent(info.getGcName(), name -> new LatencyStats()).recordMillis(durationMs);
+        allPauses.recordMillis(durationMs);
+        logger.debug("GC pause: {} ({}, cause: {}) took {} ms",
+                info.getGcName(), info.getGcAction(), info.getGcCause(), durationMs);
+    }
+
+    private static boolean isConcurrentCycle(String gcName) {
+        return gcName.contains("Cycles") || gcName.contains("Concurrent");
+    }
+
+    /**
+     * Samples total allocated bytes to derive an allocation rate.
+     * Runs every 30 seconds.
+     */
+    @Scheduled(fixedRate = 30000)
+    public void sampleAllocationRate() {
+        long allocated = totalAllocatedBytes();
+        long now = System.nanoTime();
+        if (allocated < 0) {
+            return;
+        }
+        if (lastAllocatedBytes >= 0 && now > lastSampleNanos) {
+            double seconds = (now - lastSampleNanos) / 1_000_000_000.0;
+            allocationRateBytesPerSec = Math.max(0, allocated - lastAllocatedBytes) / seconds;
+        }
+        lastAllocatedBytes = allocated;
+        lastSampleNanos = now;
+    }
+
+    /**
+     * Bytes allocated since startup, derived from eden growth: everything collected
+     * out of eden by past GCs plus what eden has accumulated since the last one.
+     */
+    private long totalAllocatedBytes() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (isEden(pool.getName())) {
+                long sinceLastGc = Math.max(0, pool.getUsage().getUsed() - edenUsedAfterLastGc);
+                return allocatedBeforeLastGc.get() + sinceLastGc;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isEden(String poolName) {
+        return poolName.contains("Eden");
+    }
+
+    public double getAllocationRateMbPerSec() {
+        return allocationRateBytesPerSec / (1024 * 1024);
+    }
+
+    public LatencyStats getPauseStats() {
+        return allPauses;
+    }
+
+    /**
+     * Old generation usage right now and as of the end of the last collection.
+     * The after-GC figure approximates the live set and is the better leak signal.
+     */
+    public Map<String, Object> getOldGenOccupancy() {
+        Map<String, Object> occupancy = new LinkedHashMap<>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() != MemoryType.HEAP || !isOldGen(pool.getName())) {
+                continue;
+            }
+            MemoryUsage usage = pool.getUsage();
+            MemoryUsage afterGc = pool.getCollectionUsage();
+            occupancy.put("pool", pool.getName());
+            occupancy.put("usedMb", usage.getUsed() / (1024 * 1024));
+            occupancy.put("maxMb", usage.getMax() < 0 ? -1 : usage.getMax() / (1024 * 1024));
+            occupancy.put("usedPercent", percent(usage.getUsed(), usage.getMax()));
+            if (afterGc != null) {
+                occupancy.put("usedAfterLastGcMb", afterGc.getUsed() / (1024 * 1024));
+                occupancy.put("usedAfterLastGcPercent", percent(afterGc.getUsed(), usage.getMax()));
+            }
+            break;
+        }
+        return occupancy;
+    }
+
+    private static boolean isOldGen(String poolName) {
+        return poolName.contains("Old Gen") || poolName.contains("Tenured");
+    }
+
+    private static double percent(long used, long max) {
+        return max <= 0 ? -1 : Math.round(used * 1000.0 / max) / 10.0;
+    }
+
+    public Map<String, Object> snapshot() {
+        Runtime runtime = Runtime.getRuntime();
+        Map<String, Object> heap = new LinkedHashMap<>();
+        heap.put("usedMb", (runtime.totalMemory() - runtime.freeMemory()) / (1024 * 1024));
+        heap.put("committedMb", runtime.totalMemory() / (1024 * 1024));
+        heap.put("maxMb", runtime.maxMemory() / (1024 * 1024));
+
+        Map<String, Object> collectors = new LinkedHashMap<>();
+        pausesByCollector.forEach((name, stats) -> collectors.put(name, stats.snapshot()));
+
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("heap", heap);
+        snapshot.put("threads", ManagementFactory.getThreadMXBean().getThreadCount());
+        snapshot.put("oldGen", getOldGenOccupancy());
+        snapshot.put("allocationRateMbPerSec", Math.round(getAllocationRateMbPerSec() * 100) / 100.0);
+        snapshot.put("pauses", allPauses.snapshot());
+        snapshot.put("pausesByCollector", collectors);
+        return snapshot;
+    }
+
+    private record Registration(NotificationEmitter emitter, NotificationListener listener) {
+    }
+}
@@ -0,0 +1,316 @@
+package org.learnspring.expensetracker.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.learnspring.expensetracker.config.LocalCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Makes mutations with an Idempotency-Key header run at most once per user and key (see
+ * IdempotencyFilter). The first request claims the key by inserting an in-progress row into
+ * idempotency_keys; when it finishes, its response is stored there and in a bounded local
+ * cache, and repeats get that response back without the request being run again.
+ *
+ * A repeat that arrives while the first is still running waits for it (up to
+ * idempotency.wait-ms): on the same instance through an in-memory future, on other instances
+ * by polling the row. Only then does it give up with IN_PROGRESS. A claim whose request
+ * failed with a 5xx or an exception is released so that a retry runs it again; a claim older
+ * than idempotency.lease-ms that never finished (its instance died) is taken over. Keys
+ * expire after idempotency.ttl-hours.
+ */
+@Service
+public class IdempotencyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final int MAX_KEY_LENGTH = 255;
+
+    private static final int IN_PROGRESS = 0;
+    private static final long POLL_MILLIS = 50;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${idempotency.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${idempotency.ttl-hours:24}")
+    private long ttlHours = 24;
+
+    @Value("${idempotency.cache-max-entries:10000}")
+    private int cacheMaxEntries = 10000;
+
+    @Value("${idempotency.cache-ttl-ms:600000}")
+    private long cacheTtlMillis = 600_000;
+
+    @Value("${idempotency.wait-ms:10000}")
+    private long waitMillis = 10_000;
+
+    @Value("${idempotency.lease-ms:60000}")
+    private long leaseMillis = 60_000;
+
+    // Larger responses are not stored (a repeat of such a request runs again), larger
+    // requests are refused; in bytes
+    @Value("${idempotency.max-body-chars:65536}")
+    private int maxBodyChars = 65536;
+
+    private LocalCache<StoredResponse> completed;
+    private final ConcurrentHashMap<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder replayed = new LongAdder();
+    private final LongAdder waited = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+    private final LongAdder mismatches = new LongAdder();
+    private final LongAdder released = new LongAdder();
+    private final LongAdder purged = new LongAdder();
+
+    public IdempotencyService() {
+    }
+
+    public IdempotencyService(JdbcTemplate jdbcTemplate, long waitMillis, long leaseMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.waitMillis = waitMillis;
+        this.leaseMillis = leaseMillis;
+        init();
+    }
+
+    @PostConstruct
+    public void init() {
+        completed = new LocalCache<>("idempotency", cacheMaxEntries, cacheTtlMillis);
+        // Stored responses never change, so the cache needs no invalidation
+        completed.setEnabled(true);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Largest request body, in bytes, that IdempotencyFilter reads to fingerprint.
+     */
+    public int getMaxBodyBytes() {
+        return maxBodyChars;
+    }
+
+    /**
+     * A finished request's response, as replayed to repeats. The body is kept as raw bytes,
+     * since it need not be text (CBOR, Smile).
+     */
+    public record StoredResponse(String fingerprint, int status, String contentType, byte[] body) {
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof StoredResponse that && status == that.status
+                    && Objects.equals(fingerprint, that.fingerprint) && Objects.equals(contentType, that.contentType)
+                    && Arrays.equals(body, that.body);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(fingerprint, status, contentType, Arrays.hashCode(body));
+        }
+
+        @Override
+        public String toString() {
+            return "StoredResponse[status=" + status + ", contentType=" + contentType
+                    + ", bytes=" + (body != null ? body.length : 0) + "]";
+        }
+    }
+
+    public enum Outcome {
+        /** The caller owns the key: run the request, then {@link #complete} or {@link #release}. */
+        EXECUTE,
+        /** Already done: answer with the stored response. */
+        REPLAY,
+        /** Still running elsewhere after waiting idempotency.wait-ms. */
+        IN_PROGRESS,
+        /** The key was used for a different request. */
+        MISMATCH
+    }
+
+    public record Claim(Outcome outcome, StoredResponse response) {
+    }
+
+    /**
+     * Claims the key for a request with the given fingerprint, waiting for a concurrent
+     * request with the same key to finish.
+     */
+    public Claim claim(String owner, String key, String fingerprint) throws InterruptedException {
+        String id = owner + ':' + key;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitMillis);
+        while (true) {
+            StoredResponse done = completed.getIfPresent(id);
+            if (done != null) {
+                return replay(done, fingerprint);
+            }
+            CompletableFuture<StoredResponse> mine = new CompletableFuture<>();
+            CompletableFuture<StoredResponse> running = inFlight.putIfAbsent(id, mine);
+            if (running != null) {
+                // Same key already running on this instance: answer with its response
+                waited.increment();
+                StoredResponse result;
+                try {
+                    result = running.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                } catch (TimeoutException e) {
+                    conflicts.increment();
+                    return new Claim(Outcome.IN_PROGRESS, null);
+                } catch (ExecutionException e) {
+                    result = null;
+                }
+                if (result != null) {
+                    return replay(result, fingerprint);
+                }
+                continue;
+            }
+            Claim claim = claimInDatabase(id, fingerprint, mine);
+            if (claim != null) {
+                return claim;
+            }
+            // Running on another instance
+            if (System.nanoTime() - deadline >= 0) {
+                conflicts.increment();
+                return new Claim(Outcome.IN_PROGRESS, null);
+            }
+            Thread.sleep(POLL_MILLIS);
+        }
+    }
+
+    /**
+     * @return the claim, or null if another instance is running the request
+     */
+    private Claim claimInDatabase(String id, String fingerprint, CompletableFuture<StoredResponse> mine) {
+        Timestamp now = Timestamp.from(Instant.now());
+        try {
+            jdbcTemplate.update("INSERT INTO idempotency_keys (id, fingerprint, status, created_at) VALUES (?, ?, ?, ?)",
+                    id, fingerprint, IN_PROGRESS, now);
+            executed.increment();
+            return new Claim(Outcome.EXECUTE, null);
+        } catch (DuplicateKeyException e) {
+            // Claimed before, here or on another instance
+        }
+        List<StoredResponse> found = jdbcTemplate.query(
+                "SELECT fingerprint, status, content_type, response_body, body FROM idempotency_keys WHERE id = ?",
+                (rs, rowNum) -> {
+                    byte[] body = rs.getBytes("response_body");
+                    String legacyBody = rs.getString("body");
+                    if (body == null && legacyBody != null) {
+                        body = legacyBody.getBytes(StandardCharsets.UTF_8);
+                    }
+                    return new StoredResponse(rs.getString("fingerprint"), rs.getInt("status"),
+                            rs.getString("content_type"), body);
+                },
+                id);
+        if (!found.isEmpty() && found.get(0).status() != IN_PROGRESS) {
+            StoredResponse stored = found.get(0);
+            completed.get(id, k -> stored);
+            finish(id, mine, stored);
+            return replay(stored, fingerprint);
+        }
+        if (!found.isEmpty()) {
+            Timestamp leaseExpired = Timestamp.from(Instant.now().minusMillis(leaseMillis));
+            int taken = jdbcTemplate.update("UPDATE idempotency_keys SET fingerprint = ?, created_at = ? "
+                    + "WHERE id = ? AND status = ? AND created_at < ?", fingerprint, now, id, IN_PROGRESS, leaseExpired);
+            if (taken == 1) {
+                logger.warn("Took over abandoned idempotency key {}", id);
+                executed.increment();
+                return new Claim(Outcome.EXECUTE, null);
+            }
+        }
+        finish(id, mine, null);
+        return null;
+    }
+
+    private Claim replay(StoredResponse stored, String fingerprint) {
+        if (!stored.fingerprint().equals(fingerprint)) {
+            mismatches.increment();
+            return new Claim(Outcome.MISMATCH, null);
+        }
+        replayed.increment();
+        return new Claim(Outcome.REPLAY, stored);
+    }
+
+    /**
+     * Stores the response of a request that was claimed with {@link Outcome#EXECUTE}.
+     * Server errors and oversized bodies are not stored; the claim is released instead.
+     */
+    public void complete(String owner, String key, StoredResponse response) {
+        String id = owner + ':' + key;
+        if (response.status() >= 500 || (response.body() != null && response.body().length > maxBodyChars)) {
+            release(owner, key);
+            return;
+        }
+        jdbcTemplate.update("UPDATE idempotency_keys SET status = ?, content_type = ?, response_body = ? WHERE id = ?",
+                response.status(), response.contentType(), response.body(), id);
+        completed.get(id, k -> response);
+        finish(id, inFlight.get(id), response);
+    }
+
+    /**
+     * Gives up a claim, so that the next request with the key runs.
+     */
+    public void release(String owner, String key) {
+        String id = owner + ':' + key;
+        jdbcTemplate.update("DELETE FROM idempotency_keys WHERE id = ? AND status = ?", id, IN_PROGRESS);
+        released.increment();
+        finish(id, inFlight.get(id), null);
+    }
+
+    private void finish(String id, CompletableFuture<StoredResponse> future, StoredResponse result) {
+        if (future != null) {
+            inFlight.remove(id, future);
+            future.complete(result);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.purge-ms:600000}", initialDelayString = "${idempotency.purge-ms:600000}")
+    public void purgeExpired() {
+        try {
+            int deleted = jdbcTemplate.update("DELETE FROM idempotency_keys WHERE created_at < ?",
+                    Timestamp.from(Instant.now().minus(Duration.ofHours(ttlHours))));
+            purged.add(deleted);
+            logger.debug("Purged {} expired idempotency keys", deleted);
+        } catch (Exception e) {
+            logger.warn("Failed to purge idempotency keys: {}", e.getMessage());
+        }
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("enabled", enabled);
+        snapshot.put("inFlight", inFlight.size());
+        snapshot.put("executed", executed.sum());
+        snapshot.put("replayed", replayed.sum());
+        snapshot.put("waited", waited.sum());
+        snapshot.put("conflicts", conflicts.sum());
+        snapshot.put("mismatches", mismatches.sum());
+        snapshot.put("released", released.sum());
+        snapshot.put("purged", purged.sum());
+        snapshot.put("cache", completed.snapshot());
+        return snapshot;
+    }
+}
@@ -0,0 +1,266 @@
+package org.learnspring.expensetracker.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.learnspring.expensetracker.Model.ExpenseInsights;
+import org.learnspring.expensetracker.Model.ExpenseView;
+import org.learnspring.expensetracker.Model.Users;
+import org.learnspring.expensetracker.config.LatencyStats;
+import org.learnspring.expensetracker.config.LocalCache;
+import org.learnspring.expensetracker.config.TopKSketch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Most frequent and most expensive expense names per user, from streaming sketches instead of
+ * GROUP BY scans.
+ *
+ * Each cached user has a {@link TopKSketch} pair (count and amount) for the current month, the
+ * current year and all time, so memory per user is fixed (see {@link #snapshot()}) however long
+ * the history. A user's sketches are built by one pass over their rows on first use; after that
+ * every change is applied as it commits: a created expense is added, and an edit or deletion
+ * removes the previous state (and adds the new one). Only a change whose previous state is
+ * unknown drops the user's sketches for a rebuild. Writes on other instances are picked up when
+ * the entry expires (insights.ttl-ms).
+ */
+@Service
+public class InsightsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InsightsService.class);
+
+    public enum Period {
+        MONTH, YEAR, ALL;
+
+        public static Period parse(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown period '" + value + "'; use month, year or all");
+            }
+        }
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${insights.sketch-width:128}")
+    private int width = 128;
+
+    @Value("${insights.sketch-depth:4}")
+    private int depth = 4;
+
+    // Largest limit a query may ask for; each sketch keeps twice as many candidates
+    @Value("${insights.max-results:25}")
+    private int maxResults = 25;
+
+    @Value("${insights.max-cached-users:1000}")
+    private int maxCachedUsers = 1000;
+
+    @Value("${insights.ttl-ms:300000}")
+    private long ttlMillis = 300_000;
+
+    private LocalCache<UserSketches> cache;
+    private final LatencyStats buildStats = new LatencyStats();
+    private final LongAdder rowsScanned = new LongAdder();
+    private final LongAdder incrementalUpdates = new LongAdder();
+
+    public InsightsService() {
+    }
+
+    public InsightsService(JdbcTemplate jdbcTemplate, int width, int depth, int maxResults) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.width = width;
+        this.depth = depth;
+        this.maxResults = maxResults;
+        init();
+    }
+
+    @PostConstruct
+    public void init() {
+        cache = new LocalCache<>("insights", maxCachedUsers, ttlMillis);
+        cache.setEnabled(true);
+    }
+
+    /**
+     * The user's top expense names in the period, at most limit per list.
+     */
+    public ExpenseInsights getTop(Users user, Period period, int limit) {
+        String key = String.valueOf(user.getId());
+        UserSketches sketches = cache.get(key, this::build);
+        if (!sketches.month.equals(YearMonth.now())) {
+            // Built last month: "this month" and maybe "this year" have moved on
+            cache.invalidate(key);
+            sketches = cache.get(key, this::build);
+        }
+        int k = Math.max(1, Math.min(limit, maxResults));
+        synchronized (sketches) {
+            return sketches.insights(period, k);
+        }
+    }
+
+    @TransactionalEventListener
+    public void onExpenseChanged(ExpenseChangeEvent event) {
+        String key = String.valueOf(event.userId());
+        ExpenseView added = event.type() == ExpenseChangeEvent.Type.DELETED ? null : event.expense();
+        ExpenseView removed = event.previous();
+        boolean known = event.type() == ExpenseChangeEvent.Type.CREATED ? added != null : removed != null;
+        UserSketches sketches = known ? cache.getIfPresent(key) : null;
+        if (sketches == null) {
+            // Also keeps a build that is running right now from caching a result without this change
+            cache.invalidate(key);
+            return;
+        }
+        synchronized (sketches) {
+            if (removed != null) {
+                sketches.remove(removed.expense(), removed.expenseAmount(), removed.date());
+            }
+            if (added != null) {
+                sketches.add(added.expense(), added.expenseAmount(), added.date());
+            }
+        }
+        incrementalUpdates.increment();
+    }
+
+    private UserSketches build(String userId) {
+        long start = System.nanoTime();
+        UserSketches sketches = new UserSketches(YearMonth.now());
+        long[] rows = {0};
+        jdbcTemplate.query("SELECT expense, expense_amount, date FROM expenses WHERE user_id = ? AND deleted_at IS NULL", rs -> {
+            Date date = rs.getDate("date");
+            sketches.add(rs.getString("expense"), rs.getString("expense_amount"),
+                    date != null ? date.toLocalDate() : null);
+            rows[0]++;
+        }, Integer.valueOf(userId));
+        rowsScanned.add(rows[0]);
+        buildStats.recordNanos(System.nanoTime() - start);
+        logger.debug("Built expense sketches for user {} from {} rows", userId, rows[0]);
+        return sketches;
+    }
+
+    private static long toCents(String amount) {
+        if (amount == null) {
+            return 0;
+        }
+        try {
+            BigDecimal value = new BigDecimal(amount.trim());
+            return value.signum() > 0 ? value.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValue() : 0;
+        } catch (NumberFormatException | ArithmeticException e) {
+            return 0;
+        }
+    }
+
+    public Map<String, Object> snapshot() {
+        TopKSketch probe = new TopKSketch(width, depth, 2 * maxResults);
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("sketchWidth", width);
+        snapshot.put("sketchDepth", depth);
+        snapshot.put("relativeError", Math.E / width);
+        snapshot.put("confidence", probe.getConfidence());
+        snapshot.put("bytesPerUser", Period.values().length * 2 * probe.getMemoryBytes());
+        snapshot.put("rowsScanned", rowsScanned.sum());
+        snapshot.put("incrementalUpdates", incrementalUpdates.sum());
+        snapshot.put("build", buildStats.snapshot());
+        snapshot.put("cache", cache.snapshot());
+        return snapshot;
+    }
+
+    private final class UserSketches {
+        final YearMonth month;
+        final Map<Period, PeriodSketches> periods = new EnumMap<>(Period.class);
+
+        UserSketches(YearMonth month) {
+            this.month = month;
+            for (Period period : Period.values()) {
+                periods.put(period, new PeriodSketches());
+            }
+        }
+
+        void add(String name, String amount, LocalDate date) {
+            if (name == null || name.isBlank()) {
+                return;
+            }
+            String label = name.trim();
+            String key = label.toLowerCase(Locale.ROOT);
+            long cents = toCents(amount);
+            for (Period period : periodsOf(date)) {
+                periods.get(period).add(key, label, cents);
+            }
+        }
+
+        void remove(String name, String amount, LocalDate date) {
+            if (name == null || name.isBlank()) {
+                return;
+            }
+            String key = name.trim().toLowerCase(Locale.ROOT);
+            long cents = toCents(amount);
+            for (Period period : periodsOf(date)) {
+                periods.get(period).remove(key, cents);
+            }
+        }
+
+        private List<Period> periodsOf(LocalDate date) {
+            if (date == null || date.getYear() != month.getYear()) {
+                return List.of(Period.ALL);
+            }
+            return date.getMonth() == month.getMonth() ? List.of(Period.values()) : List.of(Period.ALL, Period.YEAR);
+        }
+
+        ExpenseInsights insights(Period period, int k) {
+            PeriodSketches sketches = periods.get(period);
+            LocalDate from = switch (period) {
+                case MONTH -> month.atDay(1);
+                case YEAR -> LocalDate.of(month.getYear(), 1, 1);
+                case ALL -> null;
+            };
+            LocalDate to = switch (period) {
+                case MONTH -> month.atEndOfMonth();
+                case YEAR -> LocalDate.of(month.getYear(), 12, 31);
+                case ALL -> null;
+            };
+            List<ExpenseInsights.Item> mostFrequent = sketches.counts.top(k).stream()
+                    .map(entry -> new ExpenseInsights.Item(entry.label(), entry.estimate(),
+                            BigDecimal.valueOf(sketches.amounts.estimate(entry.key()), 2)))
+                    .toList();
+            List<ExpenseInsights.Item> mostExpensive = sketches.amounts.top(k).stream()
+                    .map(entry -> new ExpenseInsights.Item(entry.label(), sketches.counts.estimate(entry.key()),
+                            BigDecimal.valueOf(entry.estimate(), 2)))
+                    .toList();
+            return new ExpenseInsights(period.name().toLowerCase(Locale.ROOT), from, to,
+                    sketches.counts.getTotal(), BigDecimal.valueOf(sketches.amounts.getTotal(), 2),
+                    mostFrequent, mostExpensive, sketches.counts.getErrorBound(),
+                    BigDecimal.valueOf(sketches.amounts.getErrorBound(), 2), sketches.counts.getConfidence());
+        }
+    }
+
+    private final class PeriodSketches {
+        final TopKSketch counts = new TopKSketch(width, depth, 2 * maxResults);
+        final TopKSketch amounts = new TopKSketch(width, depth, 2 * maxResults);
+
+        void add(String key, String label, long cents) {
+            counts.add(key, label, 1);
+            amounts.add(key, label, cents);
+        }
+
+        void remove(String key, long cents) {
+            counts.remove(key, 1);
+            amounts.remove(key, cents);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package org.learnspring.expensetracker.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+
+/**
+ * Starts and stops a single on-demand Java Flight Recorder session.
+ * Recordings are capped in duration and size so a forgotten recording
+ * cannot fill the disk.
+ */
+@Service
+public class JfrRecordingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(JfrRecordingService.class);
+
+    private static final Set<String> SETTINGS = Set.of("default", "profile");
+
+    @Value("${jfr.max-duration:PT15M}")
+    private Duration maxDuration = Duration.ofMinutes(15);
+
+    @Value("${jfr.max-size-mb:100}")
+    private long maxSizeMb = 100;
+
+    private Recording recording;
+    private Instant startedAt;
+
+    /**
+     * Starts a recording using one of the JDK's built-in settings ("default" or "profile").
+     *
+     * @throws IllegalArgumentException for any other settings name
+     */
+    public synchronized Map<String, Object> start(String settings) throws IOException, ParseException {
+        if (!SETTINGS.contains(settings)) {
+            throw new IllegalArgumentException("settings must be \"default\" or \"profile\"");
+        }
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            throw new IllegalStateException("A JFR recording is already running");
+        }
+        closeCurrent();
+
+        Recording newRecording = new Recording(Configuration.getConfiguration(settings));
+        newRecording.setName("expense-tracker-" + System.currentTimeMillis());
+        newRecording.setToDisk(true);
+        newRecording.setDuration(maxDuration);
+        newRecording.setMaxSize(maxSizeMb * 1024 * 1024);
+        newRecording.start();
+
+        recording = newRecording;
+        startedAt = Instant.now();
+        logger.info("Started JFR recording '{}' with '{}' settings (max {} / {} MB)",
+                newRecording.getName(), settings, maxDuration, maxSizeMb);
+        return status();
+    }
+
+    /**
+     * Stops the current recording (if still running) and dumps it to a temporary file.
+     * The caller owns the returned file and must delete it.
+     */
+    public synchronized Path stop() throws IOException {
+        if (recording == null) {
+            throw new IllegalStateException("No JFR recording has been started");
+        }
+        if (recording.getState() == RecordingState.RUNNING) {
+            recording.stop();
+        }
+        Path file = Files.createTempFile("expense-tracker-", ".jfr");
+        recording.dump(file);
+        logger.info("Stopped JFR recording '{}', dumped {} bytes to {}",
+                recording.getName(), Files.size(file), file);
+        closeCurrent();
+        return file;
+    }
+
+    public synchronized Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        if (recording == null) {
+            status.put("state", "NONE");
+            return status;
+        }
+        status.put("name", recording.getName());
+        status.put("state", recording.getState().name());
+        status.put("startedAt", startedAt.toString());
+        status.put("maxDuration", maxDuration.toString());
+        status.put("maxSizeMb", maxSizeMb);
+        return status;
+    }
+
+    @PreDestroy
+    public synchronized void closeCurrent() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+            startedAt = null;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package org.learnspring.expensetracker.Service;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.learnspring.expensetracker.config.AdaptiveConcurrencyLimiter;
+import org.learnspring.expensetracker.config.LatencyStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Holds the adaptive concurrency limit used by ConcurrencyLimitFilter and decides, per
+ * endpoint class, whether a request may use it and how long its SQL statements may run.
+ *
+ * When the database slows down, latency rises, the limit falls, and the excess is answered
+ * with an immediate 503 instead of every Tomcat thread waiting on the pool. Expensive reads
+ * (lists and aggregates) may only use load-shedding.expensive-share of the limit, so they are
+ * shed first and cheaper requests keep the rest; health probes and the admin endpoints are
+ * never shed, so the instance can still be observed while it sheds.
+ */
+@Service
+public class LoadSheddingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadSheddingService.class);
+
+    /**
+     * Endpoint classes, by cost and by how much they matter under overload.
+     */
+    public enum RequestClass {
+        /** Health probes and admin endpoints: never shed. */
+        CRITICAL,
+        /** Point reads and writes. */
+        STANDARD,
+        /** Whole-list and aggregate reads: shed first. */
+        EXPENSIVE
+    }
+
+    @Value("${load-shedding.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${load-shedding.initial-limit:20}")
+    private int initialLimit = 20;
+
+    @Value("${load-shedding.min-limit:4}")
+    private int minLimit = 4;
+
+    @Value("${load-shedding.max-limit:40}")
+    private int maxLimit = 40;
+
+    @Value("${load-shedding.latency-tolerance:1.5}")
+    private double latencyTolerance = 1.5;
+
+    @Value("${load-shedding.backoff-ratio:0.9}")
+    private double backoffRatio = 0.9;
+
+    @Value("${load-shedding.expensive-share:0.6}")
+    private double expensiveShare = 0.6;
+
+    @Value("${load-shedding.statement-timeout-s.critical:2}")
+    private int criticalTimeoutSeconds = 2;
+
+    @Value("${load-shedding.statement-timeout-s.standard:5}")
+    private int standardTimeoutSeconds = 5;
+
+    @Value("${load-shedding.statement-timeout-s.expensive:15}")
+    private int expensiveTimeoutSeconds = 15;
+
+    private AdaptiveConcurrencyLimiter limiter;
+    private final Map<RequestClass, LatencyStats> latency = new EnumMap<>(RequestClass.class);
+    private final Map<RequestClass, LongAdder> shed = new EnumMap<>(RequestClass.class);
+
+    @PostConstruct
+    public void init() {
+        limiter = new AdaptiveConcurrencyLimiter("requests", initialLimit, minLimit, maxLimit,
+                latencyTolerance, backoffRatio);
+        for (RequestClass requestClass : RequestClass.values()) {
+            latency.put(requestClass, new LatencyStats());
+            shed.put(requestClass, new LongAdder());
+        }
+        logger.info("Load shedding {}: limit {} ({}..{}), expensive reads up to {}% of it; statement timeouts {}s/{}s/{}s",
+                enabled ? "enabled" : "disabled", initialLimit, minLimit, maxLimit, Math.round(expensiveShare * 100),
+                criticalTimeoutSeconds, standardTimeoutSeconds, expensiveTimeoutSeconds);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @param path request path without the context path
+     */
+    public RequestClass classify(String path) {
+        if (path.equals("/health") || path.startsWith("/health/")) {
+            return RequestClass.CRITICAL;
+        }
+        if (path.equals("/admin/stats")) {
+            return RequestClass.EXPENSIVE;
+        }
+        if (path.startsWith("/admin/")) {
+            return RequestClass.CRITICAL;
+        }
+        if (path.equals("/all") || path.startsWith("/by-month/") || path.equals("/trends")
+                || path.startsWith("/insights/") || path.equals("/anomalies")) {
+            return RequestClass.EXPENSIVE;
+        }
+        return RequestClass.STANDARD;
+    }
+
+    /**
+     * @return the statement timeout for the class in seconds, 0 for none
+     */
+    public int statementTimeoutSeconds(RequestClass requestClass) {
+        return switch (requestClass) {
+            case CRITICAL -> criticalTimeoutSeconds;
+            case STANDARD -> standardTimeoutSeconds;
+            case EXPENSIVE -> expensiveTimeoutSeconds;
+        };
+    }
+
+    /**
+     * @return true if the request may run; then {@link #release} must follow
+     */
+    public boolean tryAcquire(RequestClass requestClass) {
+        if (!enabled || requestClass == RequestClass.CRITICAL) {
+            return true;
+        }
+        boolean admitted = limiter.tryAcquire(requestClass == RequestClass.EXPENSIVE ? expensiveShare : 1.0);
+        if (!admitted) {
+            shed.get(requestClass).increment();
+        }
+        return admitted;
+    }
+
+    /**
+     * @param overloaded true if the request failed because of overload (e.g. a statement or
+     *                   connection-acquire timeout), which lowers the limit
+     */
+    public void release(RequestClass requestClass, long latencyNanos, boolean overloaded) {
+        latency.get(requestClass).recordNanos(latencyNanos);
+        if (enabled && requestClass != RequestClass.CRITICAL) {
+            limiter.release(latencyNanos, overloaded);
+        }
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("enabled", enabled);
+        snapshot.put("limiter", limiter.snapshot());
+        snapshot.put("expensiveShare", expensiveShare);
+        for (RequestClass requestClass : RequestClass.values()) {
+            Map<String, Object> stats = new LinkedHashMap<>(latency.get(requestClass).snapshot());
+            stats.put("shed", shed.get(requestClass).sum());
+            stats.put("statementTimeoutS", statementTimeoutSeconds(requestClass));
+            snapshot.put(requestClass.name().toLowerCase(Locale.ROOT), stats);
+        }
+        return snapshot;
+    }
+}
@@ -3,26 +3,51 @@ package org.learnspring.expensetracker.Service;
 import org.learnspring.expensetracker.Model.MyUserPrincipal;
 import org.learnspring.expensetracker.Model.Users;
 import org.learnspring.expensetracker.repo.UserRepo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
 @Service
-public class MyUserDetailService implements UserDetailsService {
+public class MyUserDetailService implements UserDetailsService, UserDetailsPasswordService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MyUserDetailService.class);
+
     @Autowired
     private UserRepo repo;
 
+    @Autowired
+    private UserLookupService userLookupService;
+
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        System.out.println("Loading user: " + username);
-        Users users = repo.findByUsername(username);
+        Users users = userLookupService.findByUsername(username);
         if(users == null){
-            System.out.println("No user found with username: " + username);
+            logger.debug("No user found with username: {}", username);
             throw new UsernameNotFoundException("no user found");
         }
-        System.out.println("User found: " + users.getUsername() + " with encoded password");
+        logger.trace("Loaded user: {}", username);
+        return new MyUserPrincipal(users);
+    }
+
+    /**
+     * Called by DaoAuthenticationProvider after a successful login when the stored hash
+     * was made at a different BCrypt cost; stores the hash of the just-verified password.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        Users users = repo.findByUsername(user.getUsername());
+        if (users == null) {
+            return user;
+        }
+        users.setPassword(newPassword);
+        repo.save(users);
+        userLookupService.evict(user.getUsername());
+        logger.debug("Re-hashed password for user: {}", user.getUsername());
         return new MyUserPrincipal(users);
     }
 }
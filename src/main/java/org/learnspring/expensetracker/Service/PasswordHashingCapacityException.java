@@ -0,0 +1,19 @@
+package org.learnspring.expensetracker.Service;
+
+/**
+ * Thrown when the password hashing queue is full. Mapped to 503 Service Unavailable
+ * so clients back off instead of piling more BCrypt work onto a saturated server.
+ */
+public class PasswordHashingCapacityException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public PasswordHashingCapacityException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
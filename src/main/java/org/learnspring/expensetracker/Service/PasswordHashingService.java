@@ -0,0 +1,181 @@
+package org.learnspring.expensetracker.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.learnspring.expensetracker.config.LatencyStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Runs password hashing and verification on a small dedicated pool sized to the CPU count,
+ * so a burst of registrations or logins cannot occupy the Tomcat workers serving cheap reads.
+ *
+ * The queue is bounded: when it is full new work is rejected with
+ * {@link PasswordHashingCapacityException} (503) instead of queueing indefinitely.
+ * The pool is internal on purpose; exposing it as an Executor bean would replace
+ * Boot's applicationTaskExecutor.
+ */
+@Service
+public class PasswordHashingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordHashingService.class);
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Value("${password-hashing.threads:0}")
+    private int threads;
+
+    @Value("${password-hashing.queue-capacity:64}")
+    private int queueCapacity = 64;
+
+    private ThreadPoolExecutor executor;
+
+    private final LatencyStats encodeStats = new LatencyStats();
+    private final LatencyStats matchStats = new LatencyStats();
+    private final LatencyStats queueWaitStats = new LatencyStats();
+    private final LongAdder rejected = new LongAdder();
+
+    public PasswordHashingService() {
+    }
+
+    public PasswordHashingService(PasswordEncoder passwordEncoder, int threads, int queueCapacity) {
+        this.passwordEncoder = passwordEncoder;
+        this.threads = threads;
+        this.queueCapacity = queueCapacity;
+    }
+
+    @PostConstruct
+    public void init() {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        logger.info("Password hashing pool: {} thread(s), queue capacity {}", poolSize, queueCapacity);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Hashes a password on the hashing pool.
+     *
+     * @return a future that fails with {@link PasswordHashingCapacityException} if the queue is full
+     */
+    public CompletableFuture<String> encodeAsync(CharSequence rawPassword) {
+        return submit(() -> passwordEncoder.encode(rawPassword), encodeStats);
+    }
+
+    /**
+     * Hashes a password on the hashing pool, blocking the caller until it is done.
+     */
+    public String encode(CharSequence rawPassword) {
+        return await(encodeAsync(rawPassword));
+    }
+
+    /**
+     * Verifies a password on the hashing pool, blocking the caller until it is done.
+     * The calling thread still waits, but the number of concurrent BCrypt computations
+     * stays bounded by the pool size and excess attempts fail fast.
+     */
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return await(submit(() -> passwordEncoder.matches(rawPassword, encodedPassword), matchStats));
+    }
+
+    public boolean upgradeEncoding(String encodedPassword) {
+        return passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * True when the queue has no free slot, so the next submission would be rejected.
+     */
+    public boolean isSaturated() {
+        return executor.getQueue().remainingCapacity() == 0;
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> work, LatencyStats stats) {
+        long submitted = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                long started = System.nanoTime();
+                queueWaitStats.recordNanos(started - submitted);
+                try {
+                    return work.get();
+                } finally {
+                    stats.recordNanos(System.nanoTime() - started);
+                }
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            logger.warn("Password hashing queue full ({} waiting), rejecting request", executor.getQueue().size());
+            return CompletableFuture.failedFuture(
+                    new PasswordHashingCapacityException("Password hashing capacity exceeded", retryAfterSeconds()));
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() instanceof CompletionException && e.getCause().getCause() != null
+                    ? e.getCause().getCause() : e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", cause);
+        }
+    }
+
+    /**
+     * Rough time for the current backlog to drain, based on the average hash time.
+     */
+    private long retryAfterSeconds() {
+        double avgMs = Math.max(encodeStats.getAverageMillis(), matchStats.getAverageMillis());
+        double drainMs = avgMs * (executor.getQueue().size() + executor.getActiveCount()) / executor.getMaximumPoolSize();
+        return Math.max(1, (long) Math.ceil(drainMs / 1000.0));
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("poolSize", executor.getMaximumPoolSize());
+        stats.put("activeThreads", executor.getActiveCount());
+        stats.put("queueDepth", executor.getQueue().size());
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("rejected", rejected.sum());
+        stats.put("encode", encodeStats.snapshot());
+        stats.put("matches", matchStats.snapshot());
+        stats.put("queueWait", queueWaitStats.snapshot());
+        return stats;
+    }
+}
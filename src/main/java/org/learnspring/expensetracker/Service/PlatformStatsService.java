@@ -0,0 +1,275 @@
+package org.learnspring.expensetracker.Service;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.learnspring.expensetracker.Model.PlatformStats;
+import org.learnspring.expensetracker.Model.TrendGranularity;
+import org.learnspring.expensetracker.config.LatencyStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Platform-wide statistics for admins, computed without one giant query.
+ *
+ * The user-id range is split into admin-stats.partitions slices, each aggregated by its own
+ * query on a pool of admin-stats.threads threads, so at most that many connections are ever
+ * busy with statistics (however many admins ask at once) and the rest of the pool keeps
+ * serving requests. Each query has a statement timeout. Because the slices hold disjoint sets
+ * of users, per-slice distinct-user counts simply add up.
+ */
+@Service
+public class PlatformStatsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PlatformStatsService.class);
+
+    // One scan per slice: GROUPING SETS give (bucket, category), (bucket) and overall rows.
+    // GROUPING() is 0, 1 and 3 for them respectively.
+    private static final String SLICE_SQL = "SELECT bucket, category_id, GROUPING(bucket, category_id) AS level, "
+            + "COUNT(*) AS expense_count, COALESCE(SUM(amount), 0) AS total, COUNT(DISTINCT user_id) AS active_users "
+            + "FROM (SELECT CAST(date_trunc(?, CAST(date AS timestamp)) AS date) AS bucket, category_id, user_id, "
+            + "CASE WHEN expense_amount ~ '^(-|)[0-9]+([.][0-9]+|)$' "
+            + "THEN CAST(expense_amount AS numeric) ELSE 0 END AS amount "
+            + "FROM expenses WHERE user_id BETWEEN ? AND ? AND date BETWEEN ? AND ? AND deleted_at IS NULL) e "
+            + "GROUP BY GROUPING SETS ((bucket, category_id), (bucket), ())";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DictionaryService dictionaryService;
+
+    @Value("${admin-stats.threads:2}")
+    private int threads = 2;
+
+    @Value("${admin-stats.partitions:8}")
+    private int partitions = 8;
+
+    @Value("${admin-stats.queue-capacity:64}")
+    private int queueCapacity = 64;
+
+    @Value("${admin-stats.query-timeout-s:30}")
+    private int queryTimeoutSeconds = 30;
+
+    @Value("${admin-stats.timeout-ms:120000}")
+    private long timeoutMillis = 120_000;
+
+    @Value("${admin-stats.max-buckets:366}")
+    private int maxBuckets = 366;
+
+    private JdbcTemplate sliceTemplate;
+    private ThreadPoolExecutor executor;
+    private final AtomicInteger threadNumber = new AtomicInteger();
+    private final LatencyStats statsLatency = new LatencyStats();
+    private final LatencyStats sliceLatency = new LatencyStats();
+    private final LongAdder rejected = new LongAdder();
+
+    public PlatformStatsService() {
+    }
+
+    public PlatformStatsService(JdbcTemplate jdbcTemplate, DictionaryService dictionaryService, int threads, int partitions) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dictionaryService = dictionaryService;
+        this.threads = threads;
+        this.partitions = partitions;
+        init();
+    }
+
+    @PostConstruct
+    public void init() {
+        sliceTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        sliceTemplate.setQueryTimeout(queryTimeoutSeconds);
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "admin-stats-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        logger.info("Admin statistics pool: {} thread(s), {} user-id slices", threads, partitions);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Statistics for expenses dated from..to, bucketed by granularity.
+     *
+     * @throws IllegalArgumentException for an empty range or too many buckets
+     * @throws RejectedExecutionException if the pool's queue is full
+     */
+    public PlatformStats compute(LocalDate from, LocalDate to, TrendGranularity granularity)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        int buckets = 0;
+        for (LocalDate bucket = granularity.truncate(from); !bucket.isAfter(to); bucket = granularity.next(bucket)) {
+            if (++buckets > maxBuckets) {
+                throw new IllegalArgumentException("More than " + maxBuckets + " buckets; use a coarser granularity");
+            }
+        }
+        long start = System.nanoTime();
+        Map<String, Object> users = jdbcTemplate.queryForMap(
+                "SELECT MIN(id) AS min_id, MAX(id) AS max_id, COUNT(*) AS user_count FROM users");
+        long userCount = ((Number) users.get("user_count")).longValue();
+        List<Row> rows = new ArrayList<>();
+        List<long[]> slices = users.get("min_id") == null ? List.of()
+                : split(((Number) users.get("min_id")).longValue(), ((Number) users.get("max_id")).longValue(), partitions);
+
+        List<Future<List<Row>>> futures = new ArrayList<>(slices.size());
+        try {
+            for (long[] slice : slices) {
+                futures.add(executor.submit(() -> timedAggregate(slice[0], slice[1], from, to, granularity)));
+            }
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+            for (Future<List<Row>> future : futures) {
+                rows.addAll(future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+            }
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw e;
+        } finally {
+            // Leave no slice queued or running for a failed or abandoned request
+            futures.forEach(future -> future.cancel(true));
+        }
+
+        PlatformStats stats = merge(rows, from, to, granularity, userCount, slices.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        statsLatency.recordNanos(System.nanoTime() - start);
+        logger.info("Computed platform statistics {}..{} by {} over {} slices in {} ms", from, to,
+                granularity.sqlUnit(), slices.size(), stats.durationMs());
+        return stats;
+    }
+
+    /**
+     * Splits [min, max] into at most n contiguous, non-overlapping inclusive ranges.
+     */
+    static List<long[]> split(long min, long max, int n) {
+        long size = Math.max(1, (max - min + n) / n);
+        List<long[]> slices = new ArrayList<>(n);
+        for (long lo = min; lo <= max; lo += size) {
+            slices.add(new long[] {lo, Math.min(max, lo + size - 1)});
+        }
+        return slices;
+    }
+
+    private List<Row> timedAggregate(long fromId, long toId, LocalDate from, LocalDate to, TrendGranularity granularity) {
+        long start = System.nanoTime();
+        try {
+            return aggregate(fromId, toId, from, to, granularity);
+        } finally {
+            sliceLatency.recordNanos(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Aggregates the expenses of users fromId..toId. Package-private for tests.
+     */
+    List<Row> aggregate(long fromId, long toId, LocalDate from, LocalDate to, TrendGranularity granularity) {
+        return sliceTemplate.query(SLICE_SQL, (rs, rowNum) -> {
+            Date bucket = rs.getDate("bucket");
+            return new Row(rs.getInt("level"),
+                    bucket != null ? bucket.toLocalDate() : null,
+                    rs.getObject("category_id", Integer.class),
+                    rs.getLong("expense_count"),
+                    rs.getBigDecimal("total"),
+                    rs.getLong("active_users"));
+        }, granularity.sqlUnit(), fromId, toId, Date.valueOf(from), Date.valueOf(to));
+    }
+
+    private PlatformStats merge(List<Row> rows, LocalDate from, LocalDate to, TrendGranularity granularity,
+                                long userCount, int slices, long durationMs) {
+        long activeUsers = 0;
+        long expenses = 0;
+        BigDecimal total = BigDecimal.ZERO;
+        Map<LocalDate, BucketTotals> buckets = new TreeMap<>();
+        for (Row row : rows) {
+            switch (row.level()) {
+                case 0 -> buckets.computeIfAbsent(row.bucket(), b -> new BucketTotals())
+                        .categories.computeIfAbsent(row.categoryId(), c -> new Totals())
+                        .add(row.expenses(), row.total());
+                case 1 -> {
+                    BucketTotals bucket = buckets.computeIfAbsent(row.bucket(), b -> new BucketTotals());
+                    bucket.add(row.expenses(), row.total());
+                    bucket.activeUsers += row.activeUsers();
+                }
+                default -> {
+                    activeUsers += row.activeUsers();
+                    expenses += row.expenses();
+                    total = total.add(row.total());
+                }
+            }
+        }
+        List<PlatformStats.Bucket> result = new ArrayList<>(buckets.size());
+        buckets.forEach((bucket, totals) -> {
+            List<PlatformStats.CategoryTotal> categories = new ArrayList<>(totals.categories.size());
+            totals.categories.forEach((categoryId, category) -> categories.add(new PlatformStats.CategoryTotal(
+                    dictionaryService.categories().nameFor(categoryId), category.expenses, category.total)));
+            categories.sort(Comparator.comparing(PlatformStats.CategoryTotal::total).reversed());
+            result.add(new PlatformStats.Bucket(bucket, totals.activeUsers, totals.expenses, totals.total, categories));
+        });
+        return new PlatformStats(from, to, granularity, userCount, activeUsers, expenses, total, result,
+                slices, durationMs);
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("threads", threads);
+        snapshot.put("partitions", partitions);
+        snapshot.put("active", executor.getActiveCount());
+        snapshot.put("queued", executor.getQueue().size());
+        snapshot.put("rejected", rejected.sum());
+        snapshot.put("stats", statsLatency.snapshot());
+        snapshot.put("slice", sliceLatency.snapshot());
+        return snapshot;
+    }
+
+    /**
+     * One result row of a slice: level 0 is (bucket, category), 1 is (bucket), 3 is the slice total.
+     */
+    record Row(int level, LocalDate bucket, Integer categoryId, long expenses, BigDecimal total, long activeUsers) {
+    }
+
+    private static class Totals {
+        long expenses;
+        BigDecimal total = BigDecimal.ZERO;
+
+        void add(long expenses, BigDecimal total) {
+            this.expenses += expenses;
+            this.total = this.total.add(total);
+        }
+    }
+
+    private static final class BucketTotals extends Totals {
+        final Map<Integer, Totals> categories = new HashMap<>();
+        long activeUsers;
+    }
+}
@@ -0,0 +1,153 @@
+package org.learnspring.expensetracker.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.learnspring.expensetracker.config.TokenBucketRateLimiter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Holds the per-user and per-IP token buckets used by RateLimitFilter.
+ * Authentication attempts (register/login and failed credentials) and normal API calls
+ * draw from separate budgets, so a brute-force attempt is throttled long before it can
+ * tie up the CPU with BCrypt work, while regular traffic keeps its own allowance.
+ *
+ * The username in a request is not verified when the budgets are checked, so nothing keyed
+ * on it alone may be charged before authentication: failed authentications count per
+ * (IP, username), so guessing someone's password from one address cannot lock them out
+ * everywhere, and the per-user API budget is only charged once the request authenticated.
+ */
+@Service
+public class RateLimiterService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimiterService.class);
+
+    @Value("${rate-limit.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${rate-limit.auth.capacity:10}")
+    private int authCapacity = 10;
+
+    @Value("${rate-limit.auth.refill-per-minute:10}")
+    private double authRefillPerMinute = 10;
+
+    @Value("${rate-limit.api.capacity:60}")
+    private int apiCapacity = 60;
+
+    @Value("${rate-limit.api.refill-per-second:20}")
+    private double apiRefillPerSecond = 20;
+
+    @Value("${rate-limit.max-keys:100000}")
+    private int maxKeys = 100_000;
+
+    @Value("${rate-limit.idle-evict-ms:600000}")
+    private long idleEvictMillis = 600_000;
+
+    private TokenBucketRateLimiter authByIp;
+    private TokenBucketRateLimiter authByUser;
+    private TokenBucketRateLimiter apiByIp;
+    private TokenBucketRateLimiter apiByUser;
+
+    @PostConstruct
+    public void init() {
+        double authRefillPerSecond = authRefillPerMinute / 60.0;
+        // Several users can share one IP (NAT, offices), so IP budgets are twice the per-user ones
+        authByUser = new TokenBucketRateLimiter("auth-user", authCapacity, authRefillPerSecond, maxKeys, idleEvictMillis);
+        authByIp = new TokenBucketRateLimiter("auth-ip", authCapacity * 2, authRefillPerSecond * 2, maxKeys, idleEvictMillis);
+        apiByUser = new TokenBucketRateLimiter("api-user", apiCapacity, apiRefillPerSecond, maxKeys, idleEvictMillis);
+        apiByIp = new TokenBucketRateLimiter("api-ip", apiCapacity * 2, apiRefillPerSecond * 2, maxKeys, idleEvictMillis);
+        logger.info("Rate limiting {}: auth {} burst / {} per minute, api {} burst / {} per second",
+                enabled ? "enabled" : "disabled", authCapacity, authRefillPerMinute, apiCapacity, apiRefillPerSecond);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Charges an explicit authentication request (register/login).
+     *
+     * @return 0 if allowed, otherwise milliseconds to wait
+     */
+    public long acquireAuth(String ip, String username) {
+        long wait = authByIp.tryAcquire(ip);
+        if (wait == 0 && username != null) {
+            wait = authByUser.tryAcquire(authKey(ip, username));
+        }
+        return wait;
+    }
+
+    /**
+     * Checks, without charging, whether the caller is locked out by earlier failed authentications.
+     *
+     * @return 0 if not locked out, otherwise milliseconds to wait
+     */
+    public long authLockout(String ip, String username) {
+        long wait = authByIp.peek(ip);
+        if (wait == 0 && username != null) {
+            wait = authByUser.peek(authKey(ip, username));
+        }
+        return wait;
+    }
+
+    /**
+     * Records a failed authentication against the auth budgets.
+     */
+    public void recordAuthFailure(String ip, String username) {
+        authByIp.tryAcquire(ip);
+        if (username != null) {
+            authByUser.tryAcquire(authKey(ip, username));
+        }
+    }
+
+    /**
+     * Charges a normal API call to the IP budget and checks, without charging, the user's.
+     *
+     * @return 0 if allowed, otherwise milliseconds to wait
+     */
+    public long acquireApi(String ip, String username) {
+        long wait = apiByIp.tryAcquire(ip);
+        if (wait == 0 && username != null) {
+            wait = apiByUser.peek(username);
+        }
+        return wait;
+    }
+
+    /**
+     * Charges an API call that authenticated as the user to the user's budget.
+     */
+    public void recordApiCall(String username) {
+        apiByUser.tryAcquire(username);
+    }
+
+    private static String authKey(String ip, String username) {
+        return ip + '|' + username;
+    }
+
+    /**
+     * Drops buckets idle long enough to have refilled completely.
+     * Runs every minute.
+     */
+    @Scheduled(fixedRate = 60000)
+    public void evictIdleBuckets() {
+        int removed = authByIp.evictIdle() + authByUser.evictIdle() + apiByIp.evictIdle() + apiByUser.evictIdle();
+        if (removed > 0) {
+            logger.debug("Evicted {} idle rate-limit buckets", removed);
+        }
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        for (TokenBucketRateLimiter limiter : new TokenBucketRateLimiter[] {authByIp, authByUser, apiByIp, apiByUser}) {
+            stats.put(limiter.getName(), limiter.snapshot());
+        }
+        return stats;
+    }
+}
@@ -0,0 +1,192 @@
+package org.learnspring.expensetracker.Service;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.learnspring.expensetracker.Model.ExpenseView;
+import org.learnspring.expensetracker.Model.Users;
+import org.learnspring.expensetracker.config.LatencyStats;
+import org.learnspring.expensetracker.config.PrefixIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Autocomplete for expense names and types from the user's own history.
+ *
+ * A user's {@link PrefixIndex}es are built by one query on their first /suggest call and then
+ * answer from memory. Created and edited expenses are added as their transaction commits;
+ * deletions are not subtracted (the value was still typed), they drop out at the next rebuild.
+ * Indexes unused for suggest.idle-ms are evicted, and live ones are rebuilt after
+ * suggest.max-age-ms to pick up writes made on other instances.
+ */
+@Service
+public class SuggestionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SuggestionService.class);
+
+    public enum Field {
+        EXPENSE, EXPENSE_TYPE;
+
+        public static Field parse(String value) {
+            return switch (value.trim().toLowerCase(Locale.ROOT)) {
+                case "expense" -> EXPENSE;
+                case "expensetype", "expense_type" -> EXPENSE_TYPE;
+                default -> throw new IllegalArgumentException("Unknown field '" + value + "'; use expense or expenseType");
+            };
+        }
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DictionaryService dictionaryService;
+
+    @Value("${suggest.half-life-days:30}")
+    private double halfLifeDays = 30;
+
+    @Value("${suggest.max-results:20}")
+    private int maxResults = 20;
+
+    @Value("${suggest.max-cached-users:20000}")
+    private int maxCachedUsers = 20_000;
+
+    @Value("${suggest.idle-ms:1800000}")
+    private long idleMillis = 1_800_000;
+
+    @Value("${suggest.max-age-ms:1800000}")
+    private long maxAgeMillis = 1_800_000;
+
+    private final Map<Integer, UserIndex> users = new ConcurrentHashMap<>();
+    private final LatencyStats suggestStats = new LatencyStats();
+    private final LatencyStats buildStats = new LatencyStats();
+    private final LongAdder incrementalUpdates = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public SuggestionService() {
+    }
+
+    public SuggestionService(JdbcTemplate jdbcTemplate, DictionaryService dictionaryService,
+                             double halfLifeDays, int maxResults) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dictionaryService = dictionaryService;
+        this.halfLifeDays = halfLifeDays;
+        this.maxResults = maxResults;
+    }
+
+    /**
+     * Up to limit past values of the field starting with the prefix, most used (recently) first.
+     */
+    public List<String> suggest(Users user, Field field, String prefix, int limit) {
+        UserIndex index = users.computeIfAbsent(user.getId(), id -> new UserIndex());
+        index.lastAccess = System.nanoTime();
+        synchronized (index) {
+            if (!index.built) {
+                build(user.getId(), index);
+            }
+            long start = System.nanoTime();
+            List<String> suggestions = index.get(field).suggest(prefix, Math.max(1, Math.min(limit, maxResults)),
+                    LocalDate.now().toEpochDay());
+            suggestStats.recordNanos(System.nanoTime() - start);
+            return suggestions;
+        }
+    }
+
+    @TransactionalEventListener
+    public void onExpenseChanged(ExpenseChangeEvent event) {
+        ExpenseView expense = event.expense();
+        UserIndex index = expense != null ? users.get(event.userId()) : null;
+        if (index == null) {
+            return;
+        }
+        long day = (expense.date() != null ? expense.date() : LocalDate.now()).toEpochDay();
+        synchronized (index) {
+            // Before the build the row is read from the table instead
+            if (index.built) {
+                index.expenses.add(expense.expense(), day);
+                index.types.add(expense.expenseType(), day);
+                incrementalUpdates.increment();
+            }
+        }
+    }
+
+    /**
+     * Drops indexes that have been idle or alive too long, then the least recently used ones
+     * if more users than suggest.max-cached-users remain.
+     */
+    @Scheduled(fixedDelayString = "${suggest.sweep-ms:60000}", initialDelayString = "${suggest.sweep-ms:60000}")
+    public void evictIdle() {
+        long now = System.nanoTime();
+        users.entrySet().removeIf(entry -> {
+            UserIndex index = entry.getValue();
+            boolean expired = now - index.lastAccess > idleMillis * 1_000_000L
+                    || (index.built && now - index.builtAt > maxAgeMillis * 1_000_000L);
+            if (expired) {
+                evictions.increment();
+            }
+            return expired;
+        });
+        int excess = users.size() - maxCachedUsers;
+        if (excess > 0) {
+            List<Map.Entry<Integer, UserIndex>> entries = new ArrayList<>(users.entrySet());
+            entries.sort(Comparator.comparingLong(entry -> entry.getValue().lastAccess));
+            for (int i = 0; i < excess; i++) {
+                users.remove(entries.get(i).getKey(), entries.get(i).getValue());
+                evictions.increment();
+            }
+        }
+    }
+
+    private void build(int userId, UserIndex index) {
+        long start = System.nanoTime();
+        long today = LocalDate.now().toEpochDay();
+        jdbcTemplate.query("SELECT expense, category_id, date FROM expenses WHERE user_id = ? AND deleted_at IS NULL", rs -> {
+            Date date = rs.getDate("date");
+            long day = date != null ? date.toLocalDate().toEpochDay() : today;
+            index.expenses.add(rs.getString("expense"), day);
+            index.types.add(dictionaryService.categories().nameFor(rs.getObject("category_id", Integer.class)), day);
+        }, userId);
+        index.built = true;
+        index.builtAt = System.nanoTime();
+        buildStats.recordNanos(index.builtAt - start);
+        logger.debug("Built suggestion index for user {}: {} names, {} types", userId,
+                index.expenses.size(), index.types.size());
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("cachedUsers", users.size());
+        snapshot.put("maxCachedUsers", maxCachedUsers);
+        snapshot.put("incrementalUpdates", incrementalUpdates.sum());
+        snapshot.put("evictions", evictions.sum());
+        snapshot.put("suggest", suggestStats.snapshot());
+        snapshot.put("build", buildStats.snapshot());
+        return snapshot;
+    }
+
+    private final class UserIndex {
+        final PrefixIndex expenses = new PrefixIndex(halfLifeDays);
+        final PrefixIndex types = new PrefixIndex(halfLifeDays);
+        volatile long lastAccess = System.nanoTime();
+        volatile boolean built;
+        volatile long builtAt;
+
+        PrefixIndex get(Field field) {
+            return field == Field.EXPENSE ? expenses : types;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package org.learnspring.expensetracker.Service;
+
+import org.learnspring.expensetracker.Model.Users;
+import org.learnspring.expensetracker.config.LocalCache;
+import org.learnspring.expensetracker.repo.UserRepo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Cached {@code findByUsername}: every authenticated request looks its user up at least twice
+ * (authentication and the controller), and the row rarely changes. Writers to a user call
+ * {@link #evict} so the entry is dropped on every instance (see CacheInvalidationBus).
+ */
+@Service
+public class UserLookupService {
+
+    static final String CACHE_NAME = "users";
+
+    @Autowired
+    private UserRepo repo;
+
+    @Autowired
+    private CacheInvalidationBus invalidationBus;
+
+    @Value("${cache.users.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${cache.users.ttl-ms:300000}")
+    private long ttlMillis;
+
+    private LocalCache<Users> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = invalidationBus.register(new LocalCache<>(CACHE_NAME, maxEntries, ttlMillis));
+    }
+
+    /**
+     * The user with this name, or null. The returned entity is detached and shared; treat it
+     * as read-only and load a fresh copy from the repository before modifying it.
+     */
+    public Users findByUsername(String username) {
+        return cache.get(username, repo::findByUsername);
+    }
+
+    /**
+     * Drops the user from the cache on all instances once the current transaction commits.
+     */
+    public void evict(String username) {
+        invalidationBus.invalidate(CACHE_NAME, username);
+    }
+}
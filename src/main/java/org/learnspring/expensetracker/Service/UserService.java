@@ -1,24 +1,44 @@
 package org.learnspring.expensetracker.Service;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
 import org.learnspring.expensetracker.Model.Users;
 import org.learnspring.expensetracker.repo.UserRepo;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
 @Service
 public class UserService {
     @Autowired
     private UserRepo repo;
-    
+
+    @Autowired
+    private PasswordHashingService hashingService;
+
     @Autowired
-    private BCryptPasswordEncoder encoder;
-    public Users register(Users user){
-        user.setPassword(encoder.encode(user.getPassword()));
-        // Set default role as USER for new registrations
-        if (user.getRole() == null || user.getRole().isEmpty()) {
-            user.setRole("USER");
-        }
-        return repo.save(user);
+    private UserLookupService userLookupService;
+
+    // Boot's general-purpose pool; the save is I/O and must not occupy a hashing thread
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private Executor taskExecutor;
+
+    /**
+     * Hashes the password on the hashing pool, then saves the user on the task executor,
+     * so neither step holds a Tomcat worker. Fails with {@link PasswordHashingCapacityException}
+     * when the hashing queue is full. New accounts are always plain users.
+     */
+    public CompletableFuture<Users> registerAsync(Users user){
+        user.setId(null);
+        user.setRole("USER");
+        return hashingService.encodeAsync(user.getPassword())
+                .thenApplyAsync(hash -> {
+                    user.setPassword(hash);
+                    Users saved = repo.save(user);
+                    userLookupService.evict(saved.getUsername());
+                    return saved;
+                }, taskExecutor);
     }
 }
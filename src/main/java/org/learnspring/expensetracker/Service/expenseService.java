@@ -1,17 +1,44 @@
 package org.learnspring.expensetracker.Service;
 
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
+import org.hibernate.Session;
 import org.learnspring.expensetracker.Model.Expense;
+import org.learnspring.expensetracker.Model.ExpenseAnomaly;
+import org.learnspring.expensetracker.Model.ExpenseAnomalyView;
+import org.learnspring.expensetracker.Model.ExpenseView;
+import org.learnspring.expensetracker.Model.SpendingTrend;
+import org.learnspring.expensetracker.Model.TrendGranularity;
 import org.learnspring.expensetracker.Model.Users;
+import org.learnspring.expensetracker.config.LocalCache;
+import org.learnspring.expensetracker.config.SingleFlight;
+import org.learnspring.expensetracker.repo.ArchivedExpenseRepo;
+import org.learnspring.expensetracker.repo.ExpenseAnomalyRepo;
 import org.learnspring.expensetracker.repo.expenseRepo;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 
 @Service
 public class expenseService {
@@ -21,6 +48,63 @@ public class expenseService {
     @Autowired
     private expenseRepo expenseRepo;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private CacheInvalidationBus invalidationBus;
+
+    @Autowired
+    private AnomalyDetectionService anomalyDetectionService;
+
+    @Autowired
+    private ExpenseAnomalyRepo anomalyRepo;
+
+    @Autowired
+    private DictionaryService dictionaryService;
+
+    @Autowired
+    private ArchivedExpenseRepo archivedExpenseRepo;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    static final String EXPENSES_CACHE = "expenses-by-user";
+
+    @Value("${cache.expenses.max-entries:1000}")
+    private int expensesCacheEntries;
+
+    @Value("${cache.expenses.ttl-ms:60000}")
+    private long expensesCacheTtlMillis;
+
+    // Larger lists are not cached; they would crowd out everyone else's
+    @Value("${cache.expenses.max-rows:2000}")
+    private int expensesCacheMaxRows;
+
+    private LocalCache<List<ExpenseView>> expensesByUser;
+
+    // How long a caller waits for an identical read already running before giving up
+    @Value("${single-flight.timeout-ms:5000}")
+    private long singleFlightTimeoutMillis = 5000;
+
+    private SingleFlight<List<ExpenseView>> expensesFlight;
+    private SingleFlight<List<ExpenseView>> monthFlight;
+
+    @Value("${trends.max-points:366}")
+    private int trendsMaxPoints = 366;
+
+    // Deleted expenses can be restored for this long, then ExpenseArchiveService moves them out
+    @Value("${expenses.restore-days:30}")
+    private int restoreDays = 30;
+
+    @PostConstruct
+    public void init() {
+        expensesByUser = invalidationBus.register(
+                new LocalCache<>(EXPENSES_CACHE, expensesCacheEntries, expensesCacheTtlMillis));
+        expensesFlight = new SingleFlight<>("expenses-by-user", singleFlightTimeoutMillis);
+        monthFlight = new SingleFlight<>("expenses-by-month", singleFlightTimeoutMillis);
+    }
+
     @Transactional(readOnly = true)
     public List<Expense> getExpenses(){
         logger.debug("Retrieving all expenses from database");
@@ -29,51 +113,176 @@ public class expenseService {
         return expenses;
     }
 
-    @Transactional(readOnly = true)
-    public List<Expense> getExpensesByUser(Users user){
+    /**
+     * Round trip to the database without touching any table, for health checks.
+     */
+    public void pingDatabase() {
+        entityManager.createNativeQuery("SELECT 1").getSingleResult();
+    }
+
+    /**
+     * Served from the per-user cache when possible. Not @Transactional so that a cache hit
+     * does not take a connection; the repository query runs in its own read-only transaction.
+     * Concurrent misses for the same user share one query.
+     */
+    public List<ExpenseView> getExpensesByUser(Users user){
         logger.debug("Retrieving expenses for user: {}", user.getUsername());
-        List<Expense> expenses = expenseRepo.findByUser(user);
+        List<ExpenseView> expenses = expensesByUser.get(String.valueOf(user.getId()),
+                key -> expensesFlight.execute(key, () -> List.copyOf(expenseRepo.findViewsByUserId(user.getId()))),
+                views -> views.size() <= expensesCacheMaxRows);
         logger.debug("Found {} expenses for user: {}", expenses.size(), user.getUsername());
         return expenses;
     }
 
+    /**
+     * The user's expenses, followed by their archived ones (see ExpenseArchiveService) if
+     * {@code includeArchived}. Archived expenses are read from the archive table every time.
+     */
+    public List<ExpenseView> getExpensesByUser(Users user, boolean includeArchived) {
+        List<ExpenseView> expenses = getExpensesByUser(user);
+        if (!includeArchived) {
+            return expenses;
+        }
+        List<ExpenseView> archived = archivedExpenseRepo.findViewsByUserId(user.getId());
+        logger.debug("Found {} archived expenses for user: {}", archived.size(), user.getUsername());
+        List<ExpenseView> all = new ArrayList<>(expenses.size() + archived.size());
+        all.addAll(expenses);
+        all.addAll(archived);
+        return all;
+    }
+
+    /**
+     * A saved expense and, if its amount was unusual for the category, the recorded anomaly.
+     */
+    public record AddedExpense(Expense expense, ExpenseAnomaly anomaly) {
+    }
+
     @Transactional
     public Expense addExpense(Expense exp) {
+        return addAndScore(exp).expense();
+    }
+
+    /**
+     * Saves the expense and scores its amount against the user's history in the category
+     * (in memory, see AnomalyDetectionService). Only a flagged expense costs an extra insert.
+     */
+    @Transactional
+    public AddedExpense addAndScore(Expense exp) {
         logger.debug("Saving expense to database: {}", exp);
         try {
+            dictionaryService.resolve(exp);
             Expense savedExpense = expenseRepo.save(exp);
             logger.debug("Successfully saved expense with ID: {}", savedExpense.getId());
-            return savedExpense;
+            ExpenseAnomaly anomaly = anomalyDetectionService.observe(savedExpense);
+            if (anomaly != null) {
+                anomalyRepo.save(anomaly);
+            }
+            publishChange(ExpenseChangeEvent.Type.CREATED, savedExpense);
+            return new AddedExpense(savedExpense, anomaly);
         } catch (Exception e) {
             logger.error("Error saving expense: {}", e.getMessage(), e);
             throw e;
         }
     }
 
+    /**
+     * Saves the expenses in one transaction, with their inserts sent as one JDBC batch (a
+     * multi-row insert with reWriteBatchedInserts), then scores each like {@link #addAndScore}.
+     * Used by ExpenseGroupCommitService; if anything fails, nothing is saved and nothing is
+     * scored, and the expenses get their ids back, so the caller can save them one by one
+     * instead (ids assigned by the rolled-back inserts would make those saves merges of rows
+     * that do not exist).
+     */
+    @Transactional
+    public List<AddedExpense> addAllAndScore(List<Expense> expenses) {
+        logger.debug("Saving {} expenses in one batch", expenses.size());
+        expenses.forEach(dictionaryService::resolve);
+        Session session = entityManager.unwrap(Session.class);
+        Integer batchSize = session.getJdbcBatchSize();
+        session.setJdbcBatchSize(expenses.size());
+        int[] ids = expenses.stream().mapToInt(Expense::getId).toArray();
+        List<Expense> saved;
+        try {
+            saved = expenseRepo.saveAllAndFlush(expenses);
+        } catch (RuntimeException e) {
+            for (int i = 0; i < ids.length; i++) {
+                expenses.get(i).setId(ids[i]);
+            }
+            throw e;
+        } finally {
+            session.setJdbcBatchSize(batchSize);
+        }
+        // Scored only once the inserts went through, so a failed batch leaves the statistics alone
+        List<AddedExpense> added = new ArrayList<>(saved.size());
+        List<ExpenseAnomaly> anomalies = new ArrayList<>();
+        for (Expense savedExpense : saved) {
+            ExpenseAnomaly anomaly = anomalyDetectionService.observe(savedExpense);
+            if (anomaly != null) {
+                anomalies.add(anomaly);
+            }
+            publishChange(ExpenseChangeEvent.Type.CREATED, savedExpense);
+            added.add(new AddedExpense(savedExpense, anomaly));
+        }
+        if (!anomalies.isEmpty()) {
+            anomalyRepo.saveAll(anomalies);
+        }
+        logger.debug("Saved batch of {} expenses", saved.size());
+        return added;
+    }
+
     @Transactional
     public void updateExpenses(Expense exp) {
         logger.debug("Updating expense in database: {}", exp);
         try {
+            dictionaryService.resolve(exp);
+            // Loaded anyway by the merge below, which then finds it in the persistence context
+            ExpenseView previous = expenseRepo.findById(exp.getId()).map(ExpenseView::from).orElse(null);
             expenseRepo.save(exp);
             logger.debug("Successfully updated expense with ID: {}", exp.getId());
+            publishChange(ExpenseChangeEvent.Type.UPDATED, exp, previous);
         } catch (Exception e) {
             logger.error("Error updating expense: {}", e.getMessage(), e);
             throw e;
         }
     }
 
+    /**
+     * Soft delete (see {@link Expense}): the row stays until ExpenseArchiveService moves it
+     * out, and {@link #restoreExpense} brings it back within expenses.restore-days.
+     */
     @Transactional
     public void deleteExpenses(Expense exp) {
         logger.debug("Deleting expense from database: {}", exp);
         try {
+            ExpenseView previous = expenseRepo.findById(exp.getId()).map(ExpenseView::from).orElse(null);
             expenseRepo.delete(exp);
             logger.debug("Successfully deleted expense with ID: {}", exp.getId());
+            publishChange(ExpenseChangeEvent.Type.DELETED, exp, previous);
         } catch (Exception e) {
             logger.error("Error deleting expense: {}", e.getMessage(), e);
             throw e;
         }
     }
 
+    /**
+     * Restores the user's expense if it was deleted within expenses.restore-days.
+     *
+     * @return the restored expense, or null if there is no such deleted expense of the user
+     *         or its restore window has passed
+     */
+    @Transactional
+    public Expense restoreExpense(Integer id, Users user) {
+        Instant deletedSince = Instant.now().minus(Duration.ofDays(restoreDays));
+        if (expenseRepo.restore(id, user.getId(), deletedSince) == 0) {
+            return null;
+        }
+        Expense restored = expenseRepo.findById(id).orElseThrow();
+        logger.debug("Restored expense with ID: {}", id);
+        // Announced as created: to caches and other devices it is a new expense again
+        publishChange(ExpenseChangeEvent.Type.CREATED, restored);
+        return restored;
+    }
+
     @Transactional(readOnly = true)
     public List<Expense> getByMonth(String yearMonth) {
         YearMonth ym = YearMonth.parse(yearMonth); // expects YYYY-MM
@@ -83,13 +292,124 @@ public class expenseService {
         return expenseRepo.findByDateBetween(start, end);
     }
 
-    @Transactional(readOnly = true)
-    public List<Expense> getByMonthForUser(String yearMonth, Users user) {
+    /**
+     * Concurrent identical calls share one query. Not @Transactional, so callers waiting for
+     * that query do not hold a connection meanwhile.
+     */
+    public List<ExpenseView> getByMonthForUser(String yearMonth, Users user) {
         YearMonth ym = YearMonth.parse(yearMonth); // expects YYYY-MM
         LocalDate start = ym.atDay(1);
         LocalDate end = ym.atEndOfMonth();
         logger.debug("Fetching expenses for user {} between {} and {}", user.getUsername(), start, end);
-        return expenseRepo.findByUserAndDateBetween(user, start, end);
+        return monthFlight.execute(user.getId() + ":" + ym,
+                () -> List.copyOf(expenseRepo.findViewsByUserIdAndDateBetween(user.getId(), start, end)));
+    }
+
+    /**
+     * Callers arriving after a committed change start a fresh query instead of joining one
+     * that may have read the data before it.
+     */
+    @TransactionalEventListener
+    public void onExpenseChanged(ExpenseChangeEvent event) {
+        String userKey = String.valueOf(event.userId());
+        expensesFlight.forget(userKey);
+        monthFlight.forgetAll(key -> key.startsWith(userKey + ":"));
+    }
+
+    public Map<String, Object> singleFlightSnapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put(expensesFlight.getName(), expensesFlight.snapshot());
+        snapshot.put(monthFlight.getName(), monthFlight.snapshot());
+        return snapshot;
+    }
+
+    /**
+     * Spending per bucket between {@code from} and {@code to} (inclusive), optionally for one
+     * expense type. Aggregated in SQL; if the range would produce more than trends.max-points
+     * buckets the granularity is coarsened (day, week, month, quarter, year) until it fits,
+     * and beyond that consecutive years are merged.
+     */
+    @Transactional(readOnly = true)
+    public SpendingTrend getTrends(Users user, LocalDate from, LocalDate to, TrendGranularity requested, String type) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        TrendGranularity granularity = requested;
+        while (bucketCount(from, to, granularity) > trendsMaxPoints && granularity.coarser() != null) {
+            granularity = granularity.coarser();
+        }
+        int buckets = bucketCount(from, to, granularity);
+        int bucketsPerPoint = (buckets + trendsMaxPoints - 1) / trendsMaxPoints;
+        logger.debug("Trends for user {} from {} to {} by {} ({} buckets)", user.getUsername(), from, to, granularity, buckets);
+
+        Map<LocalDate, SpendingTrend.Point> sums = new HashMap<>();
+        for (Object[] row : expenseRepo.sumByBucket(user.getId(), granularity.sqlUnit(), from, to, type)) {
+            LocalDate bucket = toLocalDate(row[0]);
+            sums.put(bucket, new SpendingTrend.Point(bucket, toBigDecimal(row[1]), ((Number) row[2]).longValue()));
+        }
+
+        // Dense series: one point per bucket (or per group of bucketsPerPoint buckets)
+        List<SpendingTrend.Point> points = new ArrayList<>();
+        LocalDate bucket = granularity.truncate(from);
+        while (!bucket.isAfter(to)) {
+            LocalDate pointStart = bucket;
+            BigDecimal total = BigDecimal.ZERO;
+            long count = 0;
+            for (int i = 0; i < bucketsPerPoint && !bucket.isAfter(to); i++) {
+                SpendingTrend.Point sum = sums.get(bucket);
+                if (sum != null) {
+                    total = total.add(sum.total());
+                    count += sum.count();
+                }
+                bucket = granularity.next(bucket);
+            }
+            points.add(new SpendingTrend.Point(pointStart, total, count));
+        }
+        boolean downsampled = granularity != requested || bucketsPerPoint > 1;
+        return new SpendingTrend(from, to, type, requested, granularity, bucketsPerPoint, downsampled, points);
+    }
+
+    private static int bucketCount(LocalDate from, LocalDate to, TrendGranularity granularity) {
+        int count = 0;
+        for (LocalDate bucket = granularity.truncate(from); !bucket.isAfter(to); bucket = granularity.next(bucket)) {
+            count++;
+        }
+        return count;
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        if (value instanceof LocalDate date) {
+            return date;
+        }
+        if (value instanceof Date date) {
+            return date.toLocalDate();
+        }
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime().toLocalDate();
+        }
+        return LocalDate.parse(value.toString().substring(0, 10));
+    }
+
+    private static BigDecimal toBigDecimal(Object value) {
+        if (value == null) {
+            return BigDecimal.ZERO;
+        }
+        return value instanceof BigDecimal decimal ? decimal : new BigDecimal(value.toString());
+    }
+
+    /**
+     * The user's most recently flagged expenses, newest first.
+     */
+    @Transactional(readOnly = true)
+    public List<ExpenseAnomalyView> getAnomalies(Users user, int limit) {
+        return anomalyRepo.findByUserIdOrderByIdDesc(user.getId(), PageRequest.of(0, limit)).stream()
+                .map(ExpenseAnomalyView::from)
+                .toList();
+    }
+
+    @Transactional(readOnly = true)
+    public boolean isOwnedBy(Integer expenseId, Users user) {
+        return expenseId != null && expenseRepo.existsByIdAndUser_Id(expenseId, user.getId());
     }
 
     @Transactional(readOnly = true)
@@ -97,4 +417,22 @@ public class expenseService {
         logger.debug("Retrieving expense with ID: {}", id);
         return expenseRepo.findById(id).orElse(null);
     }
+
+    /**
+     * Invalidates the owner's cached expense list and announces the change to their other
+     * devices (see ExpenseEventHub). Both take effect only if the surrounding transaction commits.
+     */
+    private void publishChange(ExpenseChangeEvent.Type type, Expense exp) {
+        publishChange(type, exp, null);
+    }
+
+    private void publishChange(ExpenseChangeEvent.Type type, Expense exp, ExpenseView previous) {
+        if (exp.getUser() == null || exp.getUser().getId() == null) {
+            return;
+        }
+        // Other instances drop their copy when this transaction commits (see CacheInvalidationBus)
+        invalidationBus.invalidate(EXPENSES_CACHE, String.valueOf(exp.getUser().getId()));
+        ExpenseView view = type == ExpenseChangeEvent.Type.DELETED ? null : ExpenseView.from(exp);
+        eventPublisher.publishEvent(new ExpenseChangeEvent(type, exp.getUser().getId(), exp.getId(), view, previous));
+    }
 }
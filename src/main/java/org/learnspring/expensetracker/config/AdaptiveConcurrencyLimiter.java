@@ -0,0 +1,138 @@
+package org.learnspring.expensetracker.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrency limit that adapts to measured latency (gradient style): requests above the limit
+ * are rejected at once instead of queueing behind a slow dependency.
+ *
+ * Every completed request is a latency sample. A long-term average stands for the latency the
+ * system normally has, a short-term one for what it has now; while now stays within tolerance
+ * times normal the limit grows by about sqrt(limit), beyond that it shrinks in proportion
+ * (at most halving per sample, smoothed). A dropped request (timed out or failed downstream)
+ * cuts the limit by backoffRatio, as in AIMD. The limit does not grow while less than half of
+ * it is in use, so a quiet period cannot leave it far above what was ever tested.
+ *
+ * Callers pass the share of the limit they may use: low-priority work can be held to part of
+ * it so the rest stays free for cheap requests.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double SMOOTHING = 0.2;
+    private static final double SHORT_ALPHA = 2.0 / (10 + 1);
+    private static final double LONG_ALPHA = 2.0 / (600 + 1);
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double backoffRatio;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    // Guarded by this
+    private double limit;
+    private double shortRttNanos;
+    private double longRttNanos;
+
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    public AdaptiveConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit,
+                                      double tolerance, double backoffRatio) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Need 1 <= minLimit <= maxLimit");
+        }
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.backoffRatio = backoffRatio;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    /**
+     * Admits the request if fewer than share x limit (at least one) are in flight. Every
+     * admitted request must be followed by exactly one {@link #release}.
+     */
+    public boolean tryAcquire(double share) {
+        int allowed = Math.max(1, (int) (getLimit() * share));
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                rejected.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                admitted.increment();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @param latencyNanos time from {@link #tryAcquire} to completion
+     * @param drop         true if the request timed out or failed because of overload
+     */
+    public void release(long latencyNanos, boolean drop) {
+        int current = inFlight.getAndDecrement();
+        if (drop) {
+            dropped.increment();
+        }
+        synchronized (this) {
+            if (drop) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+                return;
+            }
+            if (longRttNanos == 0) {
+                shortRttNanos = latencyNanos;
+                longRttNanos = latencyNanos;
+                return;
+            }
+            shortRttNanos += SHORT_ALPHA * (latencyNanos - shortRttNanos);
+            longRttNanos += LONG_ALPHA * (latencyNanos - longRttNanos);
+            // Recovering from a slow period: let the baseline come back down quickly
+            if (longRttNanos > 2 * shortRttNanos) {
+                longRttNanos *= 0.95;
+            }
+            if (current < limit / 2) {
+                return;
+            }
+            double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRttNanos / shortRttNanos));
+            double target = limit * gradient + Math.sqrt(limit);
+            double next = limit * (1 - SMOOTHING) + target * SMOOTHING;
+            limit = Math.max(minLimit, Math.min(maxLimit, next));
+        }
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        synchronized (this) {
+            snapshot.put("limit", (int) limit);
+            snapshot.put("shortRttMs", Math.round(shortRttNanos / 10_000.0) / 100.0);
+            snapshot.put("longRttMs", Math.round(longRttNanos / 10_000.0) / 100.0);
+        }
+        snapshot.put("inFlight", inFlight.get());
+        snapshot.put("admitted", admitted.sum());
+        snapshot.put("rejected", rejected.sum());
+        snapshot.put("dropped", dropped.sum());
+        snapshot.put("minLimit", minLimit);
+        snapshot.put("maxLimit", maxLimit);
+        return snapshot;
+    }
+}
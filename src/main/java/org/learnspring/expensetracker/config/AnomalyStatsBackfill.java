@@ -0,0 +1,66 @@
+package org.learnspring.expensetracker.config;
+
+import java.util.Set;
+
+import org.learnspring.expensetracker.Service.AnomalyDetectionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates expense_category_stats (see AnomalyDetectionService) and seeds it once from the
+ * existing expenses in a single aggregate query, so anomaly scoring has history from day one.
+ * The aggregates are merged into rows that already exist (e.g. from other instances) with the
+ * same parallel-variance formula as the live flushes. This instance flushes nothing until the
+ * seeding is done, and drops its unflushed increments first, as the aggregate includes them.
+ */
+@Component
+public class AnomalyStatsBackfill implements StartupTask {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnomalyStatsBackfill.class);
+
+    // Same definition as the scorer: ln(amount) for plain positive decimal amounts
+    private static final String LN_AMOUNT = "LN(CAST(expense_amount AS numeric))";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AnomalyDetectionService anomalyDetectionService;
+
+    @Override
+    public String getName() {
+        return AnomalyDetectionService.BACKFILL_TASK;
+    }
+
+    // Orphaned expenses get their owner first, and categories are read through category_id
+    @Override
+    public Set<String> getDependsOn() {
+        return Set.of("assign-orphan-expenses", "dictionary-encode");
+    }
+
+    @Override
+    public boolean isRunOnce() {
+        return true;
+    }
+
+    @Override
+    public void run() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS expense_category_stats ("
+                + "user_id INTEGER NOT NULL, category VARCHAR(50) NOT NULL, n BIGINT NOT NULL, "
+                + "mean DOUBLE PRECISION NOT NULL, m2 DOUBLE PRECISION NOT NULL, PRIMARY KEY (user_id, category))");
+        anomalyDetectionService.resetForBackfill();
+        // CASE rather than AND: PostgreSQL does not promise to test the pattern before the cast
+        int rows = jdbcTemplate.update("INSERT INTO expense_category_stats AS s (user_id, category, n, mean, m2) "
+                + "SELECT e.user_id, c.name, COUNT(*), AVG(" + LN_AMOUNT + "), "
+                + "COALESCE(VAR_POP(" + LN_AMOUNT + "), 0) * COUNT(*) "
+                + "FROM expenses e JOIN categories c ON c.id = e.category_id "
+                + "WHERE e.user_id IS NOT NULL AND e.deleted_at IS NULL AND CASE WHEN e.expense_amount ~ '^[0-9]+([.][0-9]+|)$' "
+                + "THEN CAST(e.expense_amount AS numeric) > 0 ELSE false END "
+                + "GROUP BY e.user_id, c.name "
+                + AnomalyDetectionService.MERGE_ON_CONFLICT);
+        logger.info("Seeded expense statistics for {} user categories", rows);
+    }
+}
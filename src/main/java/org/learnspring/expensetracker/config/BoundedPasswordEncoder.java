@@ -0,0 +1,49 @@
+package org.learnspring.expensetracker.config;
+
+import org.learnspring.expensetracker.Service.PasswordHashingCapacityException;
+import org.learnspring.expensetracker.Service.PasswordHashingService;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * PasswordEncoder for the authentication provider that runs BCrypt on the bounded
+ * hashing pool. A full queue surfaces as an authentication service failure, which the
+ * entry point in SecurityConfig turns into 503 rather than 401.
+ *
+ * The provider re-hashes the password after a successful login when the stored hash is
+ * weaker than the current cost. That upgrade is optional, so it is skipped while the
+ * queue is full instead of failing a login whose password was already verified.
+ *
+ * Not a bean, so it does not compete with the real encoder for PasswordEncoder injection.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordHashingService hashingService;
+
+    public BoundedPasswordEncoder(PasswordHashingService hashingService) {
+        this.hashingService = hashingService;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        try {
+            return hashingService.encode(rawPassword);
+        } catch (PasswordHashingCapacityException e) {
+            throw new InternalAuthenticationServiceException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        try {
+            return hashingService.matches(rawPassword, encodedPassword);
+        } catch (PasswordHashingCapacityException e) {
+            throw new InternalAuthenticationServiceException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return !hashingService.isSaturated() && hashingService.upgradeEncoding(encodedPassword);
+    }
+}
@@ -0,0 +1,100 @@
+package org.learnspring.expensetracker.config;
+
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * BCrypt encoder at a deployment-wide cost, with {@link #calibrate} to suggest the cost that
+ * matches a target verification time on the current hardware.
+ *
+ * Unlike the stock encoder, {@link #upgradeEncoding(String)} reports any stored hash whose cost
+ * differs from the configured one, lower or higher, so DaoAuthenticationProvider re-hashes it on
+ * the user's next successful login. Changing the cost therefore needs no migration.
+ */
+public class CalibratedBCryptPasswordEncoder extends BCryptPasswordEncoder {
+
+    private static final Logger logger = LoggerFactory.getLogger(CalibratedBCryptPasswordEncoder.class);
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[abyx]?\\$(\\d{2})\\$");
+
+    /** Cost used to time the hardware; cheap enough to run a few times at startup. */
+    static final int PROBE_COST = 8;
+
+    public static final String ENCODING_ID = "bcrypt";
+
+    private final int cost;
+
+    public CalibratedBCryptPasswordEncoder(int cost) {
+        super(cost);
+        this.cost = cost;
+    }
+
+    public int getCost() {
+        return cost;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        int storedCost = costOf(encodedPassword);
+        return storedCost > 0 && storedCost != cost;
+    }
+
+    /**
+     * @return the cost of a BCrypt hash, or -1 if it is not a BCrypt hash
+     */
+    static int costOf(String encodedPassword) {
+        if (encodedPassword == null) {
+            return -1;
+        }
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        return matcher.find() ? Integer.parseInt(matcher.group(1)) : -1;
+    }
+
+    /**
+     * Wraps the encoder in a DelegatingPasswordEncoder so stored hashes carry a {@code {bcrypt}}
+     * prefix. Hashes written before the prefix existed are still verified with BCrypt, and are
+     * reported for upgrade so they gain the prefix on the next login.
+     */
+    public static PasswordEncoder delegating(CalibratedBCryptPasswordEncoder bcrypt) {
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(ENCODING_ID, Map.of(ENCODING_ID, bcrypt));
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return encoder;
+    }
+
+    /**
+     * Measures BCrypt on this machine and returns the cost whose verification time is closest
+     * to the target, within [minCost, maxCost]. Each cost step doubles the work, so one
+     * measurement at a cheap probe cost is enough to extrapolate. The result is logged as a
+     * suggestion for password-hashing.bcrypt.cost.
+     */
+    public static int calibrate(long targetMillis, int minCost, int maxCost) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(PROBE_COST);
+        String hash = probe.encode("calibration");
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            long start = System.nanoTime();
+            probe.matches("calibration", hash);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        double probeMillis = best / 1_000_000.0;
+        int cost = chooseCost(probeMillis, PROBE_COST, targetMillis, minCost, maxCost);
+        logger.info("BCrypt calibration: cost {} takes {} ms; target {} ms -> suggested cost {} (~{} ms)",
+                PROBE_COST, String.format("%.2f", probeMillis), targetMillis, cost,
+                Math.round(probeMillis * Math.pow(2, cost - PROBE_COST)));
+        return cost;
+    }
+
+    static int chooseCost(double probeMillis, int probeCost, long targetMillis, int minCost, int maxCost) {
+        if (probeMillis <= 0) {
+            return maxCost;
+        }
+        int cost = probeCost + (int) Math.round(Math.log(targetMillis / probeMillis) / Math.log(2));
+        return Math.max(minCost, Math.min(maxCost, cost));
+    }
+}
@@ -0,0 +1,30 @@
+package org.learnspring.expensetracker.config;
+
+import org.learnspring.expensetracker.Service.DictionaryService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Maps category names to the ids stored in expenses.category_id. Created by Hibernate through
+ * Spring, which injects the provider; looked up lazily because the converter is built
+ * together with the EntityManagerFactory that DictionaryService's transactions depend on.
+ */
+@Converter
+public class CategoryConverter implements AttributeConverter<String, Integer> {
+
+    @Autowired
+    private ObjectProvider<DictionaryService> dictionaries;
+
+    @Override
+    public Integer convertToDatabaseColumn(String name) {
+        return name == null ? null : dictionaries.getObject().categories().idFor(name);
+    }
+
+    @Override
+    public String convertToEntityAttribute(Integer id) {
+        return id == null ? null : dictionaries.getObject().categories().nameFor(id);
+    }
+}
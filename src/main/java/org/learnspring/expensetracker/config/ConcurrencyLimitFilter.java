@@ -0,0 +1,141 @@
+package org.learnspring.expensetracker.config;
+
+import java.io.IOException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransientConnectionException;
+
+import org.learnspring.expensetracker.Service.LoadSheddingService;
+import org.learnspring.expensetracker.Service.LoadSheddingService.RequestClass;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Adaptive concurrency limiting right in front of the controllers (see LoadSheddingService):
+ * requests over the limit get 503 with Retry-After at once, admitted ones run with their
+ * class's statement timeout and report their latency back to the limiter. Runs after
+ * authorization, so rejected credentials never take a slot.
+ *
+ * Only overload lowers the limit outright: a 503 (statement or connection-acquire timeouts
+ * are answered with one) or an escaping timeout. Any other error is an ordinary latency
+ * sample, so failing requests (or a client provoking them) cannot pin the limit down.
+ *
+ * /events is left out: a stream stays open for minutes and holds no connection. Other
+ * requests that go async keep their slot until the async processing completes.
+ *
+ * Not a Spring bean on purpose: it is added by SecurityConfig only.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConcurrencyLimitFilter.class);
+
+    private final LoadSheddingService loadSheddingService;
+
+    public ConcurrencyLimitFilter(LoadSheddingService loadSheddingService) {
+        this.loadSheddingService = loadSheddingService;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return path(request).equals("/events");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestClass requestClass = loadSheddingService.classify(path(request));
+        if (!loadSheddingService.tryAcquire(requestClass)) {
+            // Sampled: while shedding this fires for most requests
+            logger.info(SampledLogFilter.SAMPLED, "Shedding {} request to {}", requestClass, request.getRequestURI());
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.setContentType("application/json");
+            response.getWriter().write("{\"error\":\"Service Unavailable\",\"message\":\"Server busy, please retry\"}");
+            return;
+        }
+        StatementTimeoutDataSource.setTimeout(loadSheddingService.statementTimeoutSeconds(requestClass));
+        long start = System.nanoTime();
+        boolean overloaded = false;
+        try {
+            chain.doFilter(request, response);
+            overloaded = response.getStatus() == HttpStatus.SERVICE_UNAVAILABLE.value();
+        } catch (IOException | ServletException | RuntimeException e) {
+            overloaded = isOverload(e);
+            throw e;
+        } finally {
+            StatementTimeoutDataSource.clearTimeout();
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleaseOnComplete(requestClass, start));
+            } else {
+                loadSheddingService.release(requestClass, System.nanoTime() - start, overloaded);
+            }
+        }
+    }
+
+    /**
+     * True for failures that mean the database is saturated rather than that the request is bad.
+     */
+    static boolean isOverload(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof QueryTimeoutException || cause instanceof SQLTimeoutException
+                    || cause instanceof SQLTransientConnectionException) {
+                return true;
+            }
+            if (cause.getCause() == cause) {
+                break;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Releases an async request's slot when its processing ends, with its full latency.
+     */
+    private final class ReleaseOnComplete implements AsyncListener {
+
+        private final RequestClass requestClass;
+        private final long start;
+        private volatile boolean overloaded;
+
+        ReleaseOnComplete(RequestClass requestClass, long start) {
+            this.requestClass = requestClass;
+            this.start = start;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            boolean unavailable = event.getSuppliedResponse() instanceof HttpServletResponse response
+                    && response.getStatus() == HttpStatus.SERVICE_UNAVAILABLE.value();
+            loadSheddingService.release(requestClass, System.nanoTime() - start, overloaded || unavailable);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            overloaded = true;
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            overloaded |= isOverload(event.getThrowable());
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+}
@@ -1,41 +1,78 @@
 package org.learnspring.expensetracker.config;
 
+import java.util.concurrent.CompletableFuture;
+
 import org.learnspring.expensetracker.Model.Users;
+import org.learnspring.expensetracker.Service.PasswordHashingService;
 import org.learnspring.expensetracker.repo.UserRepo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.CommandLineRunner;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+/**
+ * Seeds the admin and test users. Runs once (see StartupTask); deleting a seed user later
+ * does not recreate it unless the seed-users row in startup_task_marker is removed too.
+ *
+ * The admin is only created with a configured password (seed.admin-password, from
+ * ADMIN_PASSWORD); production has no default, so it gets no admin/admin account.
+ */
 @Component
-public class DataInitializer implements CommandLineRunner {
+public class DataInitializer implements StartupTask {
+
+    public static final String TASK_NAME = "seed-users";
+
+    private static final Logger logger = LoggerFactory.getLogger(DataInitializer.class);
 
     @Autowired
     private UserRepo userRepo;
 
     @Autowired
-    private BCryptPasswordEncoder encoder;
+    private PasswordHashingService hashingService;
+
+    @Value("${seed.admin-password:}")
+    private String adminPassword = "";
+
+    @Override
+    public String getName() {
+        return TASK_NAME;
+    }
+
+    @Override
+    public boolean isRunOnce() {
+        return true;
+    }
 
     @Override
-    public void run(String... args) throws Exception {
+    public void run() throws Exception {
+        // Hash both passwords in parallel on the hashing pool instead of one after another
+        if (adminPassword.isBlank()) {
+            logger.info("No seed.admin-password configured, not creating the admin user");
+        }
+        CompletableFuture<String> adminHash = !adminPassword.isBlank() && userRepo.findByUsername("admin") == null
+                ? hashingService.encodeAsync(adminPassword) : null;
+        CompletableFuture<String> testHash = userRepo.findByUsername("test") == null
+                ? hashingService.encodeAsync("test") : null;
+
         // Create admin user if it doesn't exist
-        if (userRepo.findByUsername("admin") == null) {
+        if (adminHash != null) {
             Users admin = new Users();
             admin.setUsername("admin");
-            admin.setPassword(encoder.encode("admin"));
+            admin.setPassword(adminHash.join());
             admin.setRole("ADMIN");
             userRepo.save(admin);
-            System.out.println("Created admin user: admin/admin");
+            logger.info("Created admin user: admin");
         }
 
         // Create test user if it doesn't exist
-        if (userRepo.findByUsername("test") == null) {
+        if (testHash != null) {
             Users test = new Users();
             test.setUsername("test");
-            test.setPassword(encoder.encode("test"));
+            test.setPassword(testHash.join());
             test.setRole("USER");
             userRepo.save(test);
-            System.out.println("Created test user: test/test");
+            logger.info("Created test user: test");
         }
     }
 }
@@ -31,6 +31,14 @@ public class DatabaseConfig {
     @Value("${spring.datasource.password}")
     private String password;
 
+    // -1 lets the pool start without a database (used by the AppCDS training run in Dockerfile.fast-start)
+    @Value("${spring.datasource.hikari.initialization-fail-timeout:1}")
+    private long initializationFailTimeout;
+
+    // How long a request waits for a pooled connection before failing
+    @Value("${spring.datasource.hikari.connection-timeout:20000}")
+    private long connectionTimeoutMillis;
+
     @Bean
     @Primary
     public DataSource dataSource() {
@@ -47,9 +55,10 @@ public class DatabaseConfig {
         config.setMinimumIdle(2);
         config.setIdleTimeout(300000); // 5 minutes
         config.setMaxLifetime(600000); // 10 minutes
-        config.setConnectionTimeout(20000); // 20 seconds
+        config.setConnectionTimeout(connectionTimeoutMillis);
         config.setValidationTimeout(3000); // 3 seconds
         config.setLeakDetectionThreshold(60000); // 1 minute
+        config.setInitializationFailTimeout(initializationFailTimeout);
         
         // PostgreSQL specific settings
         config.addDataSourceProperty("cachePrepStmts", "true");
@@ -62,12 +71,15 @@ public class DatabaseConfig {
         config.addDataSourceProperty("cacheServerConfiguration", "true");
         config.addDataSourceProperty("elideSetAutoCommits", "true");
         config.addDataSourceProperty("maintainTimeStats", "false");
+        // Lets the driver send a JDBC batch of inserts as one multi-row INSERT
+        config.addDataSourceProperty("reWriteBatchedInserts", "true");
         
         // Connection validation
         config.setConnectionTestQuery("SELECT 1");
         
         logger.info("Database connection pool configured successfully");
-        return new HikariDataSource(config);
+        // Per-request statement timeouts, see LoadSheddingService
+        return new StatementTimeoutDataSource(new HikariDataSource(config));
     }
 
     @Bean
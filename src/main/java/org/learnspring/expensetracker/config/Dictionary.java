@@ -0,0 +1,138 @@
+package org.learnspring.expensetracker.config;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * In-memory id/name mapping for a lookup table with columns (id, name), such as categories.
+ *
+ * Rows are only ever added and never renamed, so cached entries never go stale and instances
+ * need no invalidation: a miss is looked up in the table, and an unknown name is inserted in
+ * its own short transaction (committed even if the caller's rolls back; an unused row is
+ * harmless). Concurrent inserts of the same name are resolved by the unique constraint.
+ *
+ * That insert takes a connection of its own, so new names should be resolved before the
+ * caller's transaction starts (see DictionaryService.resolve); inserts that still happen inside
+ * one are counted as nestedInserts.
+ */
+public class Dictionary {
+
+    private final String table;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate newTransaction;
+    private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, String> names = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder inserts = new LongAdder();
+    private final LongAdder nestedInserts = new LongAdder();
+
+    public Dictionary(String table, JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.table = table;
+        this.jdbcTemplate = jdbcTemplate;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public String getTable() {
+        return table;
+    }
+
+    /**
+     * The id for the name, creating the row if the name is new. Null for null.
+     */
+    public Integer idFor(String name) {
+        if (name == null) {
+            return null;
+        }
+        Integer id = ids.get(name);
+        if (id != null) {
+            hits.increment();
+            return id;
+        }
+        misses.increment();
+        id = select(name);
+        if (id == null) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                nestedInserts.increment();
+            }
+            try {
+                newTransaction.executeWithoutResult(status ->
+                        jdbcTemplate.update("INSERT INTO " + table + " (name) VALUES (?)", name));
+                inserts.increment();
+            } catch (DuplicateKeyException e) {
+                // Another request or instance inserted it first
+            }
+            id = select(name);
+            if (id == null) {
+                throw new IllegalStateException("Could not create " + table + " entry '" + name + "'");
+            }
+        }
+        remember(id, name);
+        return id;
+    }
+
+    /**
+     * The name for the id, or null if there is no such row. Null for null.
+     */
+    public String nameFor(Integer id) {
+        if (id == null) {
+            return null;
+        }
+        String name = names.get(id);
+        if (name != null) {
+            hits.increment();
+            return name;
+        }
+        misses.increment();
+        List<String> found = jdbcTemplate.queryForList("SELECT name FROM " + table + " WHERE id = ?", String.class, id);
+        if (found.isEmpty()) {
+            return null;
+        }
+        remember(id, found.get(0));
+        return found.get(0);
+    }
+
+    /**
+     * Loads every row, so later lookups are all hits.
+     *
+     * @return the number of entries
+     */
+    public int loadAll() {
+        jdbcTemplate.query("SELECT id, name FROM " + table, rs -> {
+            remember(rs.getInt("id"), rs.getString("name"));
+        });
+        return ids.size();
+    }
+
+    private Integer select(String name) {
+        List<Integer> found = jdbcTemplate.queryForList("SELECT id FROM " + table + " WHERE name = ?", Integer.class, name);
+        return found.isEmpty() ? null : found.get(0);
+    }
+
+    private void remember(int id, String name) {
+        ids.put(name, id);
+        names.put(id, name);
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("entries", ids.size());
+        snapshot.put("hits", hits.sum());
+        snapshot.put("misses", misses.sum());
+        snapshot.put("inserts", inserts.sum());
+        snapshot.put("nestedInserts", nestedInserts.sum());
+        return snapshot;
+    }
+}
@@ -0,0 +1,155 @@
+package org.learnspring.expensetracker.config;
+
+import java.util.List;
+
+import org.learnspring.expensetracker.Service.DictionaryService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves expenses from the free-text expense_type and payment_method columns to ids into the
+ * categories and payment_methods tables (see DictionaryService).
+ *
+ * Online: the lookup tables are filled with the distinct values first, then expenses are
+ * updated in id ranges of migration.dictionary.chunk-size rows, each its own short
+ * transaction, with a pause in between. Critical, because an expense read before its row is
+ * migrated shows no category; run once, and a restart resumes where it stopped. The old
+ * columns are left in place for drop_legacy_expense_columns.sql once every instance runs
+ * this version. Rows that old instances wrote during a rolling deploy after this pass have
+ * no id yet; that script encodes them before dropping the columns. Fresh databases have no
+ * old columns and nothing to do.
+ */
+@Component
+public class DictionaryEncodingMigration implements StartupTask {
+
+    private static final Logger logger = LoggerFactory.getLogger(DictionaryEncodingMigration.class);
+
+    private static final List<Encoding> ENCODINGS = List.of(
+            new Encoding("expense_type", "category_id", "categories", "fk_expenses_category"),
+            new Encoding("payment_method", "payment_method_id", "payment_methods", "fk_expenses_payment_method"));
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DictionaryService dictionaryService;
+
+    @Autowired
+    private ExpensePartitionMaintenance partitionMaintenance;
+
+    @Value("${migration.dictionary.chunk-size:5000}")
+    private int chunkSize = 5000;
+
+    @Value("${migration.dictionary.pause-ms:20}")
+    private long pauseMillis = 20;
+
+    public DictionaryEncodingMigration() {
+    }
+
+    public DictionaryEncodingMigration(JdbcTemplate jdbcTemplate, DictionaryService dictionaryService,
+                                       ExpensePartitionMaintenance partitionMaintenance, int chunkSize, long pauseMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dictionaryService = dictionaryService;
+        this.partitionMaintenance = partitionMaintenance;
+        this.chunkSize = chunkSize;
+        this.pauseMillis = pauseMillis;
+    }
+
+    @Override
+    public String getName() {
+        return "dictionary-encode";
+    }
+
+    @Override
+    public boolean isCritical() {
+        return true;
+    }
+
+    @Override
+    public boolean isRunOnce() {
+        return true;
+    }
+
+    @Override
+    public void run() throws InterruptedException {
+        for (Encoding encoding : ENCODINGS) {
+            if (columnExists(encoding.legacyColumn())) {
+                migrate(encoding);
+            } else {
+                logger.debug("expenses.{} does not exist; nothing to migrate", encoding.legacyColumn());
+            }
+        }
+        addForeignKeys();
+        int categories = dictionaryService.categories().loadAll();
+        int paymentMethods = dictionaryService.paymentMethods().loadAll();
+        logger.info("Loaded {} categories and {} payment methods", categories, paymentMethods);
+    }
+
+    private void migrate(Encoding encoding) throws InterruptedException {
+        String legacy = encoding.legacyColumn();
+        // New rows no longer write the old column
+        jdbcTemplate.execute("ALTER TABLE expenses ALTER COLUMN " + legacy + " DROP NOT NULL");
+        int added = jdbcTemplate.update("INSERT INTO " + encoding.table() + " (name) "
+                + "SELECT DISTINCT e." + legacy + " FROM expenses e WHERE e." + legacy + " IS NOT NULL "
+                + "AND NOT EXISTS (SELECT 1 FROM " + encoding.table() + " d WHERE d.name = e." + legacy + ")");
+        logger.info("Added {} distinct {} values to {}", added, legacy, encoding.table());
+
+        Long minId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM expenses", Long.class);
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM expenses", Long.class);
+        if (minId == null || maxId == null) {
+            return;
+        }
+        String update = "UPDATE expenses SET " + encoding.idColumn() + " = "
+                + "(SELECT d.id FROM " + encoding.table() + " d WHERE d.name = expenses." + legacy + ") "
+                + "WHERE id >= ? AND id < ? AND " + encoding.idColumn() + " IS NULL AND " + legacy + " IS NOT NULL";
+        long migrated = 0;
+        for (long from = minId; from <= maxId; from += chunkSize) {
+            migrated += jdbcTemplate.update(update, from, from + chunkSize);
+            if (pauseMillis > 0) {
+                Thread.sleep(pauseMillis);
+            }
+        }
+        logger.info("Encoded expenses.{} as {} for {} rows", legacy, encoding.idColumn(), migrated);
+    }
+
+    /**
+     * Foreign keys on PostgreSQL, added NOT VALID and then validated so the table is not
+     * locked against writes during the check. Skipped for a partitioned expenses table, which
+     * does not support NOT VALID foreign keys.
+     */
+    private void addForeignKeys() {
+        if (!isPostgres() || partitionMaintenance.isPartitioned()) {
+            return;
+        }
+        for (Encoding encoding : ENCODINGS) {
+            Integer existing = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM pg_constraint WHERE conname = ?", Integer.class, encoding.foreignKey());
+            if (existing != null && existing > 0) {
+                continue;
+            }
+            jdbcTemplate.execute("ALTER TABLE expenses ADD CONSTRAINT " + encoding.foreignKey()
+                    + " FOREIGN KEY (" + encoding.idColumn() + ") REFERENCES " + encoding.table() + " (id) NOT VALID");
+            jdbcTemplate.execute("ALTER TABLE expenses VALIDATE CONSTRAINT " + encoding.foreignKey());
+        }
+    }
+
+    private boolean columnExists(String column) {
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM information_schema.columns "
+                + "WHERE LOWER(table_name) = 'expenses' AND LOWER(column_name) = ?", Integer.class, column);
+        return count != null && count > 0;
+    }
+
+    private boolean isPostgres() {
+        String product = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        return "PostgreSQL".equalsIgnoreCase(product);
+    }
+
+    private record Encoding(String legacyColumn, String idColumn, String table, String foreignKey) {
+    }
+}
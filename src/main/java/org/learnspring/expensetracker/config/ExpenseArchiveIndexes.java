@@ -0,0 +1,68 @@
+package org.learnspring.expensetracker.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Indexes for the two ExpenseArchiveService passes on PostgreSQL: a partial index on id over
+ * deleted rows only (few, so it stays small and lets the tombstone pass walk ids without
+ * touching live rows) and, once archive.max-age-days enables the age pass, an index on date.
+ *
+ * Built CONCURRENTLY so writes are not blocked; a partitioned expenses table does not support
+ * that, so there the index is created on the parent and cascades to the partitions. Cheap on
+ * later startups (IF NOT EXISTS); a concurrent build that failed half-way leaves an invalid
+ * index behind, which is dropped and built again.
+ */
+@Component
+public class ExpenseArchiveIndexes implements StartupTask {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExpenseArchiveIndexes.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ExpensePartitionMaintenance partitionMaintenance;
+
+    @Value("${archive.max-age-days:0}")
+    private int maxAgeDays = 0;
+
+    @Override
+    public String getName() {
+        return "expense-archive-indexes";
+    }
+
+    @Override
+    public void run() {
+        if (!isPostgres()) {
+            return;
+        }
+        createIndex("idx_expenses_deleted_id", "(id) WHERE deleted_at IS NOT NULL");
+        if (maxAgeDays > 0) {
+            createIndex("idx_expenses_date", "(date)");
+        }
+    }
+
+    private void createIndex(String name, String definition) {
+        String concurrently = partitionMaintenance.isPartitioned() ? "" : "CONCURRENTLY ";
+        Integer invalid = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM pg_index i "
+                + "JOIN pg_class c ON c.oid = i.indexrelid WHERE c.relname = ? AND NOT i.indisvalid", Integer.class, name);
+        if (invalid != null && invalid > 0) {
+            logger.warn("Index {} on expenses is invalid (interrupted build); rebuilding it", name);
+            jdbcTemplate.execute("DROP INDEX " + concurrently + "IF EXISTS " + name);
+        }
+        jdbcTemplate.execute("CREATE INDEX " + concurrently + "IF NOT EXISTS " + name + " ON expenses " + definition);
+        logger.info("Index {} on expenses is in place", name);
+    }
+
+    private boolean isPostgres() {
+        String product = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        return "PostgreSQL".equalsIgnoreCase(product);
+    }
+}
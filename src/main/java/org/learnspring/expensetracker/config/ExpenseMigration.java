@@ -1,16 +1,22 @@
 package org.learnspring.expensetracker.config;
 
+import java.util.Set;
+
 import org.learnspring.expensetracker.Model.Users;
 import org.learnspring.expensetracker.repo.UserRepo;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.CommandLineRunner;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
 
+/**
+ * Assigns expenses created before per-user ownership to the first user. Critical, because
+ * such expenses are invisible until migrated, and run once: the COUNT(*) scan is skipped on
+ * later startups.
+ */
 @Component
-public class ExpenseMigration implements CommandLineRunner {
+public class ExpenseMigration implements StartupTask {
 
     private static final Logger logger = LoggerFactory.getLogger(ExpenseMigration.class);
 
@@ -21,35 +27,55 @@ public class ExpenseMigration implements CommandLineRunner {
     private UserRepo userRepo;
 
     @Override
-    public void run(String... args) throws Exception {
-        try {
-            // Check if migration is needed
-            boolean migrationNeeded = checkIfMigrationNeeded();
-            
-            if (migrationNeeded) {
-                logger.info("Starting expense migration to assign user_id to existing expenses...");
-                
-                // Get the first user to assign to existing expenses
-                Users firstUser = userRepo.findAll().stream().findFirst().orElse(null);
-                
-                if (firstUser != null) {
-                    // Update existing expenses that don't have a user_id
-                    int updatedRows = jdbcTemplate.update(
-                        "UPDATE expenses SET user_id = ? WHERE user_id IS NULL", 
-                        firstUser.getId()
-                    );
-                    
-                    logger.info("Migration completed! Updated {} expenses to belong to user: {}", 
-                               updatedRows, firstUser.getUsername());
-                } else {
-                    logger.warn("No users found in database. Please create a user first.");
-                }
+    public String getName() {
+        return "assign-orphan-expenses";
+    }
+
+    // Needs a user to assign the expenses to
+    @Override
+    public Set<String> getDependsOn() {
+        return Set.of(DataInitializer.TASK_NAME);
+    }
+
+    @Override
+    public boolean isCritical() {
+        return true;
+    }
+
+    @Override
+    public boolean isRunOnce() {
+        return true;
+    }
+
+    /**
+     * Failures propagate to StartupTaskRunner, which records them without failing startup
+     * and does not write the completion marker, so the migration is retried next start.
+     */
+    @Override
+    public void run() throws Exception {
+        // Check if migration is needed
+        boolean migrationNeeded = checkIfMigrationNeeded();
+
+        if (migrationNeeded) {
+            logger.info("Starting expense migration to assign user_id to existing expenses...");
+
+            // Get the first user to assign to existing expenses
+            Users firstUser = userRepo.findAll().stream().findFirst().orElse(null);
+
+            if (firstUser != null) {
+                // Update existing expenses that don't have a user_id
+                int updatedRows = jdbcTemplate.update(
+                    "UPDATE expenses SET user_id = ? WHERE user_id IS NULL",
+                    firstUser.getId()
+                );
+
+                logger.info("Migration completed! Updated {} expenses to belong to user: {}",
+                           updatedRows, firstUser.getUsername());
             } else {
-                logger.info("No migration needed - all expenses already have user assignments.");
+                throw new IllegalStateException("No users found in database to assign existing expenses to");
             }
-        } catch (Exception e) {
-            logger.error("Migration failed: {}", e.getMessage());
-            // Don't fail the application startup, just log the error
+        } else {
+            logger.info("No migration needed - all expenses already have user assignments.");
         }
     }
 
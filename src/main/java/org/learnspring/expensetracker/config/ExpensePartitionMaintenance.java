@@ -0,0 +1,144 @@
+package org.learnspring.expensetracker.config;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps monthly partitions of the expenses table created ahead of time.
+ * Only active once the table has been converted with partition_expenses.sql;
+ * on an unpartitioned table (or a non-PostgreSQL database) it does nothing.
+ */
+@Component
+public class ExpensePartitionMaintenance implements StartupTask {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExpensePartitionMaintenance.class);
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${expenses.partitions.months-ahead:3}")
+    private int monthsAhead = 3;
+
+    public ExpensePartitionMaintenance() {
+    }
+
+    public ExpensePartitionMaintenance(JdbcTemplate jdbcTemplate, int monthsAhead) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.monthsAhead = monthsAhead;
+    }
+
+    @Override
+    public String getName() {
+        return "expense-partitions";
+    }
+
+    // Startup run of the daily job; not critical, the default partition catches any gap
+    @Override
+    public void run() {
+        ensureUpcomingPartitions();
+    }
+
+    /**
+     * Creates partitions for the current month and the configured number of months ahead.
+     * Runs daily at 03:15.
+     */
+    @Scheduled(cron = "${expenses.partitions.cron:0 15 3 * * *}")
+    public void ensureUpcomingPartitions() {
+        try {
+            if (!isPartitioned()) {
+                logger.debug("expenses table is not partitioned; skipping partition maintenance");
+                return;
+            }
+            YearMonth current = YearMonth.now();
+            int created = 0;
+            for (int i = 0; i <= monthsAhead; i++) {
+                if (ensurePartition(current.plusMonths(i))) {
+                    created++;
+                }
+            }
+            logger.info("Partition maintenance complete: {} new partition(s), covering through {}",
+                    created, current.plusMonths(monthsAhead));
+        } catch (Exception e) {
+            logger.error("Partition maintenance failed: {}", e.getMessage());
+        }
+    }
+
+    public boolean isPartitioned() {
+        try {
+            Integer count = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM pg_partitioned_table pt "
+                            + "JOIN pg_class c ON c.oid = pt.partrelid WHERE c.relname = 'expenses'",
+                    Integer.class);
+            return count != null && count > 0;
+        } catch (Exception e) {
+            // Not PostgreSQL (e.g. H2 in tests)
+            return false;
+        }
+    }
+
+    /**
+     * Creates the partition for one month if it does not exist yet.
+     *
+     * PostgreSQL refuses to create a partition while the default partition holds rows that
+     * belong in it (e.g. an expense dated far ahead, or a gap after failed maintenance runs).
+     * Those rows are then moved into the new table before it is attached, all in one
+     * statement, with the default partition locked against inserts meanwhile.
+     *
+     * @return true if a new partition was created
+     */
+    public boolean ensurePartition(YearMonth month) {
+        String name = partitionName(month);
+        Integer exists = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM pg_class WHERE relname = ?", Integer.class, name);
+        if (exists != null && exists > 0) {
+            return false;
+        }
+        LocalDate from = month.atDay(1);
+        LocalDate to = month.plusMonths(1).atDay(1);
+        String defaultPartition = defaultPartition();
+        Integer stranded = defaultPartition == null ? Integer.valueOf(0) : jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM " + defaultPartition + " WHERE date >= ? AND date < ?", Integer.class,
+                Date.valueOf(from), Date.valueOf(to));
+        if (stranded == null || stranded == 0) {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + name
+                    + " PARTITION OF expenses FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+            logger.info("Created partition {} for [{}, {})", name, from, to);
+            return true;
+        }
+        String range = "date >= '" + from + "' AND date < '" + to + "'";
+        jdbcTemplate.execute("DO $$ BEGIN "
+                + "LOCK TABLE " + defaultPartition + " IN EXCLUSIVE MODE; "
+                + "CREATE TABLE " + name + " (LIKE expenses INCLUDING DEFAULTS INCLUDING CONSTRAINTS); "
+                + "WITH moved AS (DELETE FROM " + defaultPartition + " WHERE " + range + " RETURNING *) "
+                + "INSERT INTO " + name + " SELECT * FROM moved; "
+                + "ALTER TABLE expenses ATTACH PARTITION " + name
+                + " FOR VALUES FROM ('" + from + "') TO ('" + to + "'); "
+                + "END $$");
+        logger.info("Created partition {} for [{}, {}) and moved {} row(s) into it from {}",
+                name, from, to, stranded, defaultPartition);
+        return true;
+    }
+
+    private String defaultPartition() {
+        List<String> names = jdbcTemplate.queryForList("SELECT c.relname FROM pg_inherits i "
+                + "JOIN pg_class c ON c.oid = i.inhrelid JOIN pg_class p ON p.oid = i.inhparent "
+                + "WHERE p.relname = 'expenses' AND pg_get_expr(c.relpartbound, c.oid) = 'DEFAULT'", String.class);
+        return names.isEmpty() ? null : names.get(0);
+    }
+
+    public static String partitionName(YearMonth month) {
+        return "expenses_p" + month.format(PARTITION_SUFFIX);
+    }
+}
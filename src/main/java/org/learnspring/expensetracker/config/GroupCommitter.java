@@ -0,0 +1,219 @@
+package org.learnspring.expensetracker.config;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Group commit: writes submitted concurrently are queued and written together by one flusher
+ * thread, so a burst costs one transaction (one commit) per batch instead of one per write.
+ * The flusher takes what is queued and, while the batch is below maxBatch and other callers
+ * have submitted but are not in it yet, waits up to maxWaitMillis for them; it never waits
+ * when every caller is already in the batch. The batch writer must return one result per item
+ * in order.
+ *
+ * Each caller blocks until its own item is written and gets its own result. If the batch
+ * write fails, every item is written again on its own with the single writer, so one bad item
+ * fails only its caller. When the queue is full, or after {@link #close}, callers write
+ * directly with the single writer instead of waiting for room.
+ */
+public class GroupCommitter<T, R> implements AutoCloseable {
+
+    private final String name;
+    private final int maxBatch;
+    private final long maxWaitNanos;
+    private final Function<List<T>, List<R>> batchWriter;
+    private final Function<T, R> singleWriter;
+    private final BlockingQueue<Pending<T, R>> queue;
+    private final Thread flusher;
+    private volatile boolean closed;
+    // Submitted to the queue and not answered yet, whether queued, about to be, or in a batch
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder batchedItems = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+    private final LongAdder bypassed = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private volatile int largestBatch;
+
+    private record Pending<T, R>(T item, CompletableFuture<R> result) {
+    }
+
+    public GroupCommitter(String name, int maxBatch, long maxWaitMillis, int queueCapacity,
+                          Function<List<T>, List<R>> batchWriter, Function<T, R> singleWriter) {
+        if (maxBatch < 1) {
+            throw new IllegalArgumentException("maxBatch must be at least 1");
+        }
+        this.name = name;
+        this.maxBatch = maxBatch;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        this.batchWriter = batchWriter;
+        this.singleWriter = singleWriter;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.flusher = new Thread(this::run, name + "-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * Writes the item as part of the next batch and returns its result, or throws the
+     * exception its write failed with.
+     */
+    public R submit(T item) {
+        submitted.increment();
+        Pending<T, R> pending = new Pending<>(item, new CompletableFuture<>());
+        waiting.incrementAndGet();
+        if (closed || !queue.offer(pending)) {
+            waiting.decrementAndGet();
+            bypassed.increment();
+            return singleWriter.apply(item);
+        }
+        if (closed && queue.remove(pending)) {
+            // Closed while queueing; the flusher may already be gone
+            waiting.decrementAndGet();
+            bypassed.increment();
+            return singleWriter.apply(item);
+        }
+        try {
+            return pending.result().get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            // The write still happens; only this caller stops waiting for it
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for " + name + " write", e);
+        }
+    }
+
+    private void run() {
+        List<Pending<T, R>> batch = new ArrayList<>(maxBatch);
+        while (!closed || !queue.isEmpty()) {
+            try {
+                Pending<T, R> first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatch - batch.size());
+                long deadline = System.nanoTime() + maxWaitNanos;
+                while (batch.size() < maxBatch && batch.size() < waiting.get() && !closed) {
+                    Pending<T, R> next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    queue.drainTo(batch, maxBatch - batch.size());
+                }
+            } catch (InterruptedException e) {
+                // Not interrupted by close(); stop batching and write what is left one by one
+                closed = true;
+                batch.forEach(this::writeAlone);
+                Pending<T, R> left;
+                while ((left = queue.poll()) != null) {
+                    writeAlone(left);
+                }
+                return;
+            }
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<Pending<T, R>> batch) {
+        List<T> items = new ArrayList<>(batch.size());
+        for (Pending<T, R> pending : batch) {
+            items.add(pending.item());
+        }
+        List<R> results;
+        try {
+            results = batchWriter.apply(items);
+            if (results.size() != items.size()) {
+                throw new IllegalStateException("Batch writer returned " + results.size() + " results for " + items.size() + " items");
+            }
+        } catch (RuntimeException | Error e) {
+            if (batch.size() == 1) {
+                failures.increment();
+                waiting.decrementAndGet();
+                batch.get(0).result().completeExceptionally(e);
+                return;
+            }
+            fallbacks.increment();
+            for (Pending<T, R> pending : batch) {
+                writeAlone(pending);
+            }
+            return;
+        }
+        batches.increment();
+        batchedItems.add(batch.size());
+        largestBatch = Math.max(largestBatch, batch.size());
+        waiting.addAndGet(-batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).result().complete(results.get(i));
+        }
+    }
+
+    private void writeAlone(Pending<T, R> pending) {
+        try {
+            R result = singleWriter.apply(pending.item());
+            waiting.decrementAndGet();
+            pending.result().complete(result);
+        } catch (RuntimeException | Error e) {
+            failures.increment();
+            waiting.decrementAndGet();
+            pending.result().completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Stops batching: queued items are still written, new ones are written directly.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        Pending<T, R> left;
+        while ((left = queue.poll()) != null) {
+            writeAlone(left);
+        }
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        long batchCount = batches.sum();
+        snapshot.put("queued", queue.size());
+        snapshot.put("submitted", submitted.sum());
+        snapshot.put("batches", batchCount);
+        snapshot.put("batchedItems", batchedItems.sum());
+        snapshot.put("averageBatch", batchCount == 0 ? 0.0 : (double) batchedItems.sum() / batchCount);
+        snapshot.put("largestBatch", largestBatch);
+        snapshot.put("fallbacks", fallbacks.sum());
+        snapshot.put("bypassed", bypassed.sum());
+        snapshot.put("failures", failures.sum());
+        snapshot.put("maxBatch", maxBatch);
+        snapshot.put("maxWaitMs", TimeUnit.NANOSECONDS.toMillis(maxWaitNanos));
+        return snapshot;
+    }
+}
@@ -0,0 +1,318 @@
+package org.learnspring.expensetracker.config;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.learnspring.expensetracker.Service.IdempotencyService;
+import org.learnspring.expensetracker.Service.IdempotencyService.Claim;
+import org.learnspring.expensetracker.Service.IdempotencyService.StoredResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.WebUtils;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Honours the Idempotency-Key header on POST, PUT, PATCH and DELETE (see IdempotencyService).
+ * Runs after authorization, so keys are per user and a repeat is answered before the
+ * controller, i.e. without validating or saving anything again. Replays carry
+ * Idempotent-Replayed: true; a key still in use gets 409, a key reused for a different
+ * method, path or body gets 422.
+ *
+ * Async handlers write their response on a later async dispatch; the claim is completed
+ * there, or released if the request times out or fails before it.
+ *
+ * The request body is read up front to fingerprint it, so it is capped at
+ * idempotency.max-body-chars bytes; larger requests get 413. Responses are stored and
+ * replayed as raw bytes.
+ *
+ * Not a Spring bean on purpose: it is added by SecurityConfig only.
+ */
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyFilter.class);
+
+    static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final String PENDING_ATTRIBUTE = IdempotencyFilter.class.getName() + ".pending";
+
+    private final IdempotencyService idempotencyService;
+
+    public IdempotencyFilter(IdempotencyService idempotencyService) {
+        this.idempotencyService = idempotencyService;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String method = request.getMethod();
+        boolean mutation = "POST".equals(method) || "PUT".equals(method)
+                || "PATCH".equals(method) || "DELETE".equals(method);
+        return !mutation || !idempotencyService.isEnabled() || request.getHeader(IdempotencyService.HEADER) == null;
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (isAsyncDispatch(request)) {
+            chain.doFilter(request, response);
+            if (request.getAttribute(PENDING_ATTRIBUTE) instanceof PendingClaim pending && !request.isAsyncStarted()) {
+                pending.complete(response);
+            }
+            return;
+        }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken) {
+            chain.doFilter(request, response);
+            return;
+        }
+        String key = request.getHeader(IdempotencyService.HEADER).trim();
+        if (key.isEmpty() || key.length() > IdempotencyService.MAX_KEY_LENGTH) {
+            writeError(response, HttpStatus.BAD_REQUEST,
+                    "Idempotency-Key must be 1 to " + IdempotencyService.MAX_KEY_LENGTH + " characters");
+            return;
+        }
+        String owner = authentication.getName();
+        int maxBodyBytes = idempotencyService.getMaxBodyBytes();
+        byte[] body = readBody(request, maxBodyBytes);
+        if (body == null) {
+            writeError(response, HttpStatus.PAYLOAD_TOO_LARGE,
+                    "Requests with an Idempotency-Key may have at most " + maxBodyBytes + " bytes of body");
+            return;
+        }
+        CachedBodyRequest cachedRequest = new CachedBodyRequest(request, body);
+        String fingerprint = fingerprint(request, cachedRequest.body);
+
+        Claim claim;
+        try {
+            claim = idempotencyService.claim(owner, key, fingerprint);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            writeError(response, HttpStatus.SERVICE_UNAVAILABLE, "Interrupted");
+            return;
+        }
+        switch (claim.outcome()) {
+            case REPLAY -> replay(response, claim.response());
+            case IN_PROGRESS -> {
+                response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+                writeError(response, HttpStatus.CONFLICT, "A request with this Idempotency-Key is still in progress");
+            }
+            case MISMATCH -> writeError(response, HttpStatus.UNPROCESSABLE_ENTITY,
+                    "This Idempotency-Key was already used for a different request");
+            case EXECUTE -> execute(cachedRequest, response, chain, owner, key, fingerprint);
+        }
+    }
+
+    private void execute(HttpServletRequest request, HttpServletResponse response, FilterChain chain,
+                         String owner, String key, String fingerprint) throws ServletException, IOException {
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        try {
+            chain.doFilter(request, wrapper);
+        } catch (IOException | ServletException | RuntimeException e) {
+            idempotencyService.release(owner, key);
+            throw e;
+        }
+        if (request.isAsyncStarted()) {
+            // Nothing written yet: the async dispatch writes into the wrapper and completes the claim
+            PendingClaim pending = new PendingClaim(owner, key, fingerprint, wrapper);
+            request.setAttribute(PENDING_ATTRIBUTE, pending);
+            request.getAsyncContext().addListener(pending);
+            return;
+        }
+        store(wrapper, owner, key, fingerprint);
+    }
+
+    /**
+     * @return the body, or null if it is longer than maxBytes
+     */
+    private static byte[] readBody(HttpServletRequest request, int maxBytes) throws IOException {
+        if (request.getContentLengthLong() > maxBytes) {
+            return null;
+        }
+        byte[] body = request.getInputStream().readNBytes(maxBytes + 1);
+        return body.length > maxBytes ? null : body;
+    }
+
+    /**
+     * Stores the response for repeats, and sends it in any case: the request itself has
+     * already run, so a failure to store must not cost the client its response.
+     */
+    private void store(ContentCachingResponseWrapper wrapper, String owner, String key, String fingerprint)
+            throws IOException {
+        try {
+            idempotencyService.complete(owner, key, new StoredResponse(fingerprint, wrapper.getStatus(),
+                    wrapper.getContentType(), wrapper.getContentAsByteArray()));
+        } catch (RuntimeException e) {
+            logger.warn("Could not store response for idempotency key {}:{}, releasing it: {}", owner, key, e.getMessage());
+            try {
+                idempotencyService.release(owner, key);
+            } catch (RuntimeException releaseError) {
+                logger.debug("Could not release idempotency key {}:{}: {}", owner, key, releaseError.getMessage());
+            }
+        } finally {
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    /**
+     * A claim whose request went async. Completed on the async dispatch, released if the
+     * request ends without one (timeout, error).
+     */
+    private final class PendingClaim implements AsyncListener {
+
+        private final String owner;
+        private final String key;
+        private final String fingerprint;
+        private final ContentCachingResponseWrapper wrapper;
+        private final AtomicBoolean done = new AtomicBoolean();
+
+        PendingClaim(String owner, String key, String fingerprint, ContentCachingResponseWrapper wrapper) {
+            this.owner = owner;
+            this.key = key;
+            this.fingerprint = fingerprint;
+            this.wrapper = wrapper;
+        }
+
+        void complete(HttpServletResponse response) throws IOException {
+            ContentCachingResponseWrapper dispatched =
+                    WebUtils.getNativeResponse(response, ContentCachingResponseWrapper.class);
+            if (done.compareAndSet(false, true)) {
+                store(dispatched != null ? dispatched : wrapper, owner, key, fingerprint);
+            }
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            if (done.compareAndSet(false, true)) {
+                idempotencyService.release(owner, key);
+            }
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+
+    private static void replay(HttpServletResponse response, StoredResponse stored) throws IOException {
+        response.setStatus(stored.status());
+        response.setHeader(REPLAYED_HEADER, "true");
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        if (stored.body() != null) {
+            response.getOutputStream().write(stored.body());
+        }
+    }
+
+    private static void writeError(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType("application/json");
+        response.getWriter().write("{\"error\":\"" + status.getReasonPhrase() + "\",\"message\":\"" + message + "\"}");
+    }
+
+    static String fingerprint(HttpServletRequest request, byte[] body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((request.getMethod() + ' ' + request.getRequestURI() + '?' + request.getQueryString() + '\n')
+                    .getBytes(StandardCharsets.UTF_8));
+            digest.update(body);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * The request with its body read up front, so it can be fingerprinted and still be read
+     * by the controller.
+     */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                // Everything is in memory already: all data is available at once
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    try {
+                        listener.onDataAvailable();
+                        listener.onAllDataRead();
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+        }
+    }
+}
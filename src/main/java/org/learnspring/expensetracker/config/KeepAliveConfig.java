@@ -1,7 +1,9 @@
 package org.learnspring.expensetracker.config;
 
+import org.learnspring.expensetracker.Service.GcTelemetryService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableScheduling;
@@ -17,6 +19,9 @@ public class KeepAliveConfig {
     @Value("${server.port:8080}")
     private String port;
 
+    @Autowired
+    private GcTelemetryService gcTelemetryService;
+
     private final RestTemplate restTemplate = new RestTemplate();
 
     /**
@@ -38,30 +43,6 @@ public class KeepAliveConfig {
         }
     }
 
-    /**
-     * Memory cleanup task to prevent memory leaks
-     * Runs every 30 minutes
-     */
-    @Scheduled(fixedRate = 1800000) // 30 minutes
-    public void memoryCleanup() {
-        try {
-            Runtime runtime = Runtime.getRuntime();
-            long beforeMemory = runtime.totalMemory() - runtime.freeMemory();
-            
-            // Suggest garbage collection
-            System.gc();
-            
-            long afterMemory = runtime.totalMemory() - runtime.freeMemory();
-            long cleaned = beforeMemory - afterMemory;
-            
-            logger.debug("Memory cleanup: {} bytes freed. Used memory: {} MB", 
-                        cleaned, afterMemory / (1024 * 1024));
-                        
-        } catch (Exception e) {
-            logger.warn("Memory cleanup failed: {}", e.getMessage());
-        }
-    }
-
     /**
      * Application status logger
      * Logs application status every hour for monitoring
@@ -73,9 +54,13 @@ public class KeepAliveConfig {
             long uptime = java.lang.management.ManagementFactory.getRuntimeMXBean().getUptime();
             long usedMemory = (runtime.totalMemory() - runtime.freeMemory()) / (1024 * 1024);
             long maxMemory = runtime.maxMemory() / (1024 * 1024);
+            LatencyStats pauses = gcTelemetryService.getPauseStats();
             
-            logger.info("Application Status - Uptime: {} ms, Memory: {}/{} MB", 
-                       uptime, usedMemory, maxMemory);
+            logger.info("Application Status - Uptime: {} ms, Memory: {}/{} MB, Old gen: {}, "
+                       + "Allocation: {} MB/s, GC pauses: {} (avg {} ms, max {} ms)",
+                       uptime, usedMemory, maxMemory, gcTelemetryService.getOldGenOccupancy().get("usedPercent") + "%",
+                       String.format("%.2f", gcTelemetryService.getAllocationRateMbPerSec()),
+                       pauses.getCount(), String.format("%.1f", pauses.getAverageMillis()), pauses.getMaxMillis());
                        
         } catch (Exception e) {
             logger.warn("Status logging failed: {}", e.getMessage());
@@ -0,0 +1,147 @@
+package org.learnspring.expensetracker.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+/**
+ * Small in-process cache with a TTL and a size cap, kept coherent across instances by
+ * CacheInvalidationBus.
+ *
+ * A generation counter guards against the classic race where a load started before an
+ * invalidation finishes after it: such a value is returned to its caller but not cached.
+ * While the bus is disconnected the cache is disabled and every lookup goes to the loader,
+ * so a lost notification cannot leave a stale entry behind. Null values are not cached.
+ */
+public class LocalCache<V> {
+
+    private final String name;
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+    private final ConcurrentHashMap<String, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private volatile boolean enabled;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder bypassed = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public LocalCache(String name, int maxEntries, long ttlMillis) {
+        this(name, maxEntries, ttlMillis, System::nanoTime);
+    }
+
+    public LocalCache(String name, int maxEntries, long ttlMillis, LongSupplier nanoClock) {
+        this.name = name;
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttlMillis * 1_000_000L;
+        this.clock = nanoClock;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the cached value for the key, loading and caching it on a miss.
+     */
+    public V get(String key, Function<String, V> loader) {
+        return get(key, loader, value -> true);
+    }
+
+    /**
+     * As {@link #get(String, Function)}, but only caches loaded values accepted by the predicate
+     * (e.g. to keep very large results out of the cache).
+     */
+    public V get(String key, Function<String, V> loader, Predicate<V> cacheable) {
+        if (!enabled) {
+            bypassed.increment();
+            return loader.apply(key);
+        }
+        long now = clock.getAsLong();
+        Entry<V> entry = entries.get(key);
+        if (entry != null && now - entry.loadedAt < ttlNanos) {
+            hits.increment();
+            return entry.value;
+        }
+        misses.increment();
+        long generationBefore = generation.get();
+        V value = loader.apply(key);
+        if (value != null && enabled && generation.get() == generationBefore && cacheable.test(value)) {
+            if (entries.size() >= maxEntries) {
+                evictExpired(now);
+            }
+            if (entries.size() < maxEntries) {
+                Entry<V> loaded = new Entry<>(value, now);
+                entries.put(key, loaded);
+                // An invalidation that slipped in between the check and the put must still win
+                if (generation.get() != generationBefore) {
+                    entries.remove(key, loaded);
+                }
+            }
+        }
+        return value;
+    }
+
+    /**
+     * The cached value for the key, or null if it is absent, expired or the cache is disabled.
+     * Does not load and does not count as a hit or miss.
+     */
+    public V getIfPresent(String key) {
+        if (!enabled) {
+            return null;
+        }
+        Entry<V> entry = entries.get(key);
+        return entry != null && clock.getAsLong() - entry.loadedAt < ttlNanos ? entry.value : null;
+    }
+
+    public void invalidate(String key) {
+        generation.incrementAndGet();
+        entries.remove(key);
+        invalidations.increment();
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        entries.clear();
+        invalidations.increment();
+    }
+
+    /**
+     * Enables or disables the cache; disabling also drops every entry.
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        invalidateAll();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    private void evictExpired(long now) {
+        entries.values().removeIf(entry -> now - entry.loadedAt >= ttlNanos);
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("enabled", enabled);
+        snapshot.put("entries", entries.size());
+        snapshot.put("maxEntries", maxEntries);
+        snapshot.put("ttlMs", ttlNanos / 1_000_000L);
+        snapshot.put("hits", hits.sum());
+        snapshot.put("misses", misses.sum());
+        snapshot.put("bypassed", bypassed.sum());
+        snapshot.put("invalidations", invalidations.sum());
+        return snapshot;
+    }
+
+    private record Entry<V>(V value, long loadedAt) {
+    }
+}
@@ -0,0 +1,96 @@
+package org.learnspring.expensetracker.config;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+/**
+ * Case-insensitive prefix lookup over previously entered values, ranked by how often and how
+ * recently each was used.
+ *
+ * Values are kept in a sorted map, so the candidates for a prefix are one contiguous range.
+ * Each value carries an exponentially decayed use count: a use on day d adds 2^((d - today) / h)
+ * for half-life h, so a value used daily last month ranks below one used a few times this week.
+ * Not thread-safe.
+ */
+public class PrefixIndex {
+
+    private final TreeMap<String, Term> terms = new TreeMap<>();
+    private final double halfLifeDays;
+
+    public PrefixIndex(double halfLifeDays) {
+        this.halfLifeDays = halfLifeDays;
+    }
+
+    /**
+     * Records one use of the value on the given day (epoch day). Blank values are ignored; the
+     * spelling of the latest use is the one suggested.
+     */
+    public void add(String value, long epochDay) {
+        if (value == null || value.isBlank()) {
+            return;
+        }
+        String label = value.trim();
+        Term term = terms.computeIfAbsent(label.toLowerCase(Locale.ROOT), key -> new Term(label, epochDay));
+        if (epochDay >= term.lastDay) {
+            term.score = term.score * decay(epochDay - term.lastDay) + 1;
+            term.lastDay = epochDay;
+            term.label = label;
+        } else {
+            term.score += decay(term.lastDay - epochDay);
+        }
+    }
+
+    /**
+     * Up to limit values starting with the prefix (ignoring case), best ranked first. An empty
+     * prefix ranks every value.
+     */
+    public List<String> suggest(String prefix, int limit, long today) {
+        String from = prefix == null ? "" : prefix.trim().toLowerCase(Locale.ROOT);
+        Map<String, Term> range = from.isEmpty() ? terms : terms.subMap(from, true, from + Character.MAX_VALUE, false);
+        Comparator<Ranked> byRank = Comparator.comparingDouble(Ranked::rank)
+                .thenComparing(Ranked::label, String.CASE_INSENSITIVE_ORDER.reversed());
+        // Keep the best `limit` in a min-heap; ranges are small, so this is a single short pass
+        PriorityQueue<Ranked> best = new PriorityQueue<>(byRank);
+        for (Term term : range.values()) {
+            double rank = today >= term.lastDay ? term.score * decay(today - term.lastDay) : term.score;
+            best.add(new Ranked(term.label, rank));
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+        List<String> result = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            result.add(best.poll().label());
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    public int size() {
+        return terms.size();
+    }
+
+    private double decay(long days) {
+        return Math.pow(0.5, days / halfLifeDays);
+    }
+
+    private static final class Term {
+        String label;
+        double score;
+        long lastDay;
+
+        Term(String label, long lastDay) {
+            this.label = label;
+            this.lastDay = lastDay;
+        }
+    }
+
+    private record Ranked(String label, double rank) {
+    }
+}
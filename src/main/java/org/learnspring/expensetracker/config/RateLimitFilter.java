@@ -0,0 +1,106 @@
+package org.learnspring.expensetracker.config;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import org.learnspring.expensetracker.Service.RateLimiterService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Token-bucket rate limiting in the security filter chain, ahead of HTTP Basic authentication.
+ * Register/login draw from the auth budget up front; every other request draws from the API
+ * budget, and a 401 charges the auth budget afterwards so repeated bad credentials lock the
+ * caller out before more BCrypt work is done. The per-user API budget is checked up front but
+ * only charged once the credentials were accepted. Rejections get 429 with Retry-After.
+ *
+ * Not a Spring bean on purpose: it is added by SecurityConfig only, so it is not also
+ * registered as a plain servlet filter.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    private final RateLimiterService limiter;
+
+    public RateLimitFilter(RateLimiterService limiter) {
+        this.limiter = limiter;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!limiter.isEnabled()) {
+            chain.doFilter(request, response);
+            return;
+        }
+        String ip = request.getRemoteAddr();
+        String username = basicAuthUsername(request);
+
+        long waitMs;
+        if (isAuthEndpoint(request)) {
+            waitMs = limiter.acquireAuth(ip, username);
+        } else {
+            waitMs = username != null ? limiter.authLockout(ip, username) : 0;
+            if (waitMs == 0) {
+                waitMs = limiter.acquireApi(ip, username);
+            }
+        }
+        if (waitMs > 0) {
+            reject(response, waitMs, ip, username, request.getRequestURI());
+            return;
+        }
+
+        chain.doFilter(request, response);
+
+        if (username == null) {
+            return;
+        }
+        if (response.getStatus() == HttpStatus.UNAUTHORIZED.value()) {
+            limiter.recordAuthFailure(ip, username);
+        } else if (!isAuthEndpoint(request)) {
+            limiter.recordApiCall(username);
+        }
+    }
+
+    private static boolean isAuthEndpoint(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return path.equals("/register") || path.equals("/login");
+    }
+
+    private static String basicAuthUsername(HttpServletRequest request) {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.regionMatches(true, 0, "Basic ", 0, 6)) {
+            return null;
+        }
+        try {
+            String decoded = new String(Base64.getDecoder().decode(header.substring(6).trim()), StandardCharsets.UTF_8);
+            int colon = decoded.indexOf(':');
+            return colon > 0 ? decoded.substring(0, colon) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static void reject(HttpServletResponse response, long waitMs, String ip, String username, String path)
+            throws IOException {
+        long retryAfterSeconds = Math.max(1, (waitMs + 999) / 1000);
+        // Sampled: under attack this fires for every request
+        logger.info(SampledLogFilter.SAMPLED, "Rate limit exceeded for ip={} user={} on {}; retry after {}s",
+                ip, username, path, retryAfterSeconds);
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType("application/json");
+        response.getWriter().write("{\"error\":\"Too Many Requests\",\"message\":\"Rate limit exceeded, retry in "
+                + retryAfterSeconds + " seconds\"}");
+    }
+}
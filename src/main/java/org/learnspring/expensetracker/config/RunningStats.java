@@ -0,0 +1,74 @@
+package org.learnspring.expensetracker.config;
+
+/**
+ * Count, mean and sum of squared deviations (M2) of a stream of values, updated in O(1) per
+ * value with Welford's algorithm and mergeable with Chan et al.'s parallel formula, so the
+ * state is three numbers no matter how many values it has seen. Not thread-safe.
+ */
+public class RunningStats {
+
+    private long count;
+    private double mean;
+    private double m2;
+
+    public RunningStats() {
+    }
+
+    public RunningStats(long count, double mean, double m2) {
+        this.count = count;
+        this.mean = mean;
+        this.m2 = m2;
+    }
+
+    public void add(double value) {
+        count++;
+        double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+    }
+
+    /**
+     * Adds all values seen by {@code other} to this accumulator.
+     */
+    public void merge(RunningStats other) {
+        if (other.count == 0) {
+            return;
+        }
+        long total = count + other.count;
+        double delta = other.mean - mean;
+        mean += delta * other.count / total;
+        m2 += other.m2 + delta * delta * ((double) count * other.count / total);
+        count = total;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    public double getM2() {
+        return m2;
+    }
+
+    /**
+     * Sample standard deviation; 0 with fewer than two values.
+     */
+    public double getStdDev() {
+        return count > 1 ? Math.sqrt(m2 / (count - 1)) : 0.0;
+    }
+
+    /**
+     * How many standard deviations {@code value} lies from the mean; NaN while the spread is zero.
+     */
+    public double zScore(double value) {
+        double stdDev = getStdDev();
+        return stdDev > 0 ? (value - mean) / stdDev : Double.NaN;
+    }
+
+    public RunningStats copy() {
+        return new RunningStats(count, mean, m2);
+    }
+}
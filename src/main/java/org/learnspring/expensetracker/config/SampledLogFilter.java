@@ -0,0 +1,54 @@
+package org.learnspring.expensetracker.config;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.filter.Filter;
+import ch.qos.logback.core.spi.FilterReply;
+
+/**
+ * Logback filter that keeps only one in {@code rate} events tagged with {@link #SAMPLED}.
+ * Used for high-volume per-request lines; WARN and ERROR events are never sampled out.
+ */
+public class SampledLogFilter extends Filter<ILoggingEvent> {
+
+    /**
+     * Marker for log statements that may be sampled.
+     */
+    public static final Marker SAMPLED = MarkerFactory.getMarker("SAMPLED");
+
+    private final AtomicLong counter = new AtomicLong();
+    private int rate = 10;
+
+    public void setRate(int rate) {
+        this.rate = Math.max(1, rate);
+    }
+
+    public int getRate() {
+        return rate;
+    }
+
+    @Override
+    public FilterReply decide(ILoggingEvent event) {
+        if (rate <= 1 || event.getLevel().isGreaterOrEqual(Level.WARN) || !isSampled(event)) {
+            return FilterReply.NEUTRAL;
+        }
+        return counter.getAndIncrement() % rate == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    private static boolean isSampled(ILoggingEvent event) {
+        if (event.getMarkerList() == null) {
+            return false;
+        }
+        for (Marker marker : event.getMarkerList()) {
+            if (marker.contains(SAMPLED)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
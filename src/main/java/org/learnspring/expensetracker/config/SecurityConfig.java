@@ -1,7 +1,13 @@
 package org.learnspring.expensetracker.config;
 
+import org.learnspring.expensetracker.Service.IdempotencyService;
+import org.learnspring.expensetracker.Service.LoadSheddingService;
 import org.learnspring.expensetracker.Service.MyUserDetailService;
+import org.learnspring.expensetracker.Service.PasswordHashingCapacityException;
+import org.learnspring.expensetracker.Service.PasswordHashingService;
+import org.learnspring.expensetracker.Service.RateLimiterService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -12,8 +18,10 @@ import org.springframework.security.config.annotation.authentication.configurati
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.AuthorizationFilter;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 
 @Configuration
 @EnableWebSecurity
@@ -21,37 +29,98 @@ public class SecurityConfig {
 
     @Autowired
    private MyUserDetailService userDetailsService;
+
+    @Autowired
+    private RateLimiterService rateLimiterService;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private LoadSheddingService loadSheddingService;
+
+    // One cost for the whole deployment: hashes at another cost are re-hashed on login
+    @Value("${password-hashing.bcrypt.cost:12}")
+    private int bcryptCost;
+
+    // Only logs the cost matching the target time on this machine, as a hint for the above
+    @Value("${password-hashing.bcrypt.calibrate:false}")
+    private boolean bcryptCalibrate;
+
+    @Value("${password-hashing.bcrypt.target-ms:250}")
+    private long bcryptTargetMillis;
+
+    @Value("${password-hashing.bcrypt.min-cost:10}")
+    private int bcryptMinCost;
+
+    @Value("${password-hashing.bcrypt.max-cost:14}")
+    private int bcryptMaxCost;
+
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, AuthenticationProvider authenticationProvider)
+            throws Exception {
 
         return http
                 .csrf(customizer -> customizer.disable())
                 .cors(Customizer.withDefaults())
                 .authorizeHttpRequests(request -> request
-                        .requestMatchers("/register", "/login")
+                        .requestMatchers("/register", "/login", "/health/readiness")
                         .permitAll()
+                        .requestMatchers("/admin/**").hasRole("ADMIN")
                         .anyRequest().authenticated())
+                .exceptionHandling(exceptions -> exceptions
+                    .accessDeniedHandler((request, response, accessDeniedException) -> {
+                        response.setStatus(403);
+                        response.setContentType("application/json");
+                        response.getWriter().write("{\"error\":\"Forbidden\",\"message\":\"Admin role required\"}");
+                    }))
                 .httpBasic(httpBasic -> httpBasic
                     .authenticationEntryPoint((request, response, authException) -> {
+                        if (authException.getCause() instanceof PasswordHashingCapacityException overloaded) {
+                            // Hashing pool saturated: the credentials were never checked
+                            response.setStatus(503);
+                            response.setHeader("Retry-After", Long.toString(overloaded.getRetryAfterSeconds()));
+                            response.setContentType("application/json");
+                            response.getWriter().write("{\"error\":\"Service Unavailable\",\"message\":\"Server busy, please retry\"}");
+                            return;
+                        }
                         response.setStatus(401);
                         response.setContentType("application/json");
                         response.getWriter().write("{\"error\":\"Unauthorized\",\"message\":\"Authentication required\"}");
                     })
                 )
-                .authenticationProvider(authenticationProvider())
+                .addFilterBefore(new RateLimitFilter(rateLimiterService), BasicAuthenticationFilter.class)
+                // After authorization, right in front of the controllers: shed before any work
+                .addFilterAfter(new ConcurrencyLimitFilter(loadSheddingService), AuthorizationFilter.class)
+                // Keys belong to the authenticated user; shed requests never claim one
+                .addFilterAfter(new IdempotencyFilter(idempotencyService), ConcurrencyLimitFilter.class)
+                .authenticationProvider(authenticationProvider)
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .build();
     }
+    /**
+     * BCrypt at the configured cost. Hashes at any other cost (or without the {bcrypt} prefix)
+     * are re-hashed on the next successful login via MyUserDetailService. The cost is not
+     * calibrated per instance: instances on different hardware would each re-hash the other's
+     * hashes on every login.
+     */
     @Bean
-    public BCryptPasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(12);
+    public PasswordEncoder passwordEncoder() {
+        if (bcryptCalibrate) {
+            CalibratedBCryptPasswordEncoder.calibrate(bcryptTargetMillis, bcryptMinCost, bcryptMaxCost);
+        }
+        return CalibratedBCryptPasswordEncoder.delegating(new CalibratedBCryptPasswordEncoder(bcryptCost));
     }
 
+    /**
+     * Verification goes through the bounded hashing pool (see PasswordHashingService).
+     */
     @Bean
-    public AuthenticationProvider authenticationProvider(){
+    public AuthenticationProvider authenticationProvider(PasswordHashingService passwordHashingService){
         DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
-        provider.setPasswordEncoder(passwordEncoder());
+        provider.setPasswordEncoder(new BoundedPasswordEncoder(passwordHashingService));
         provider.setUserDetailsService(userDetailsService);
+        provider.setUserDetailsPasswordService(userDetailsService);
         return provider;
     }
     
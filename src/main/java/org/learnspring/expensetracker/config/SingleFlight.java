@@ -0,0 +1,111 @@
+package org.learnspring.expensetracker.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import org.springframework.dao.QueryTimeoutException;
+
+/**
+ * Coalesces identical concurrent loads: while a load for a key is running, further callers
+ * for the same key wait for it and get its result (or its exception) instead of running their
+ * own. Nothing is kept once the load finishes; caching is LocalCache's job.
+ *
+ * A waiter gives up after the timeout with a QueryTimeoutException, so a stuck load cannot
+ * hold its followers indefinitely. {@link #forget} detaches a running load from its key,
+ * for writers: callers arriving after a commit must not join a load that started before it.
+ */
+public class SingleFlight<V> {
+
+    private final String name;
+    private final long timeoutMillis;
+    private final ConcurrentHashMap<String, CompletableFuture<V>> calls = new ConcurrentHashMap<>();
+
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    public SingleFlight(String name, long timeoutMillis) {
+        this.name = name;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Runs the loader for the key, or waits for the run already in progress for it.
+     */
+    public V execute(String key, Supplier<V> loader) {
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> running = calls.putIfAbsent(key, mine);
+        if (running != null) {
+            coalesced.increment();
+            return await(key, running);
+        }
+        executions.increment();
+        try {
+            V value = loader.get();
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            failures.increment();
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            calls.remove(key, mine);
+        }
+    }
+
+    private V await(String key, CompletableFuture<V> running) {
+        try {
+            return running.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            timeouts.increment();
+            throw new QueryTimeoutException("Timed out after " + timeoutMillis + " ms waiting for " + name + " load of " + key);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for " + name + " load of " + key, e);
+        }
+    }
+
+    /**
+     * Lets the next caller for the key start a new load; callers already waiting still get
+     * the running one's result.
+     */
+    public void forget(String key) {
+        calls.remove(key);
+    }
+
+    public void forgetAll(Predicate<String> keys) {
+        calls.keySet().removeIf(keys);
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("inFlight", calls.size());
+        snapshot.put("executions", executions.sum());
+        snapshot.put("coalesced", coalesced.sum());
+        snapshot.put("timeouts", timeouts.sum());
+        snapshot.put("failures", failures.sum());
+        snapshot.put("timeoutMs", timeoutMillis);
+        return snapshot;
+    }
+}
@@ -0,0 +1,36 @@
+package org.learnspring.expensetracker.config;
+
+import java.util.Set;
+
+/**
+ * Work that used to block startup as a CommandLineRunner, run in the background by
+ * {@link StartupTaskRunner} once the application is up.
+ *
+ * Critical tasks keep /health/readiness at 503 until they complete; non-critical ones
+ * do not affect readiness. Run-once tasks are skipped on later startups when a completion
+ * marker for them exists in startup_task_marker.
+ */
+public interface StartupTask {
+
+    /**
+     * Unique name, used for dependencies, completion markers and the readiness report.
+     */
+    String getName();
+
+    /**
+     * Names of tasks that must complete successfully before this one starts.
+     */
+    default Set<String> getDependsOn() {
+        return Set.of();
+    }
+
+    default boolean isCritical() {
+        return false;
+    }
+
+    default boolean isRunOnce() {
+        return false;
+    }
+
+    void run() throws Exception;
+}
@@ -0,0 +1,277 @@
+package org.learnspring.expensetracker.config;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Runs the {@link StartupTask} beans in the background after the application is ready,
+ * each one as soon as its dependencies have completed, on a small internal pool.
+ *
+ * Records each task's status for /health/readiness, and persists a completion marker for
+ * run-once tasks so later startups skip them entirely. A failing critical task is retried with
+ * exponential backoff (startup.tasks.critical-attempts in all), since readiness, and with it
+ * the platform health check, stays down until it completes.
+ */
+@Component
+public class StartupTaskRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupTaskRunner.class);
+
+    public enum Status { PENDING, RUNNING, COMPLETED, SKIPPED, FAILED }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired(required = false)
+    private List<StartupTask> tasks = List.of();
+
+    @Value("${startup.tasks.threads:2}")
+    private int threads = 2;
+
+    @Value("${startup.tasks.critical-attempts:10}")
+    private int criticalAttempts = 10;
+
+    @Value("${startup.tasks.retry-backoff-ms:1000}")
+    private long retryBackoffMs = 1000;
+
+    @Value("${startup.tasks.max-retry-backoff-ms:60000}")
+    private long maxRetryBackoffMs = 60_000;
+
+    private final Map<String, TaskState> states = new LinkedHashMap<>();
+    private final Map<String, StartupTask> tasksByName = new LinkedHashMap<>();
+    private volatile CompletableFuture<Void> completion;
+
+    public StartupTaskRunner() {
+    }
+
+    public StartupTaskRunner(JdbcTemplate jdbcTemplate, List<StartupTask> tasks, int threads) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.tasks = tasks;
+        this.threads = threads;
+    }
+
+    public StartupTaskRunner(JdbcTemplate jdbcTemplate, List<StartupTask> tasks, int threads,
+                             int criticalAttempts, long retryBackoffMs) {
+        this(jdbcTemplate, tasks, threads);
+        this.criticalAttempts = criticalAttempts;
+        this.retryBackoffMs = retryBackoffMs;
+    }
+
+    /**
+     * Registers every task as PENDING (so readiness is 503 from the first request) and
+     * rejects unknown dependencies and cycles.
+     */
+    @PostConstruct
+    public void init() {
+        for (StartupTask task : tasks) {
+            if (tasksByName.putIfAbsent(task.getName(), task) != null) {
+                throw new IllegalStateException("Duplicate startup task name: " + task.getName());
+            }
+            states.put(task.getName(), new TaskState(task.isCritical()));
+        }
+        for (StartupTask task : tasks) {
+            for (String dependency : task.getDependsOn()) {
+                if (!tasksByName.containsKey(dependency)) {
+                    throw new IllegalStateException("Startup task " + task.getName()
+                            + " depends on unknown task " + dependency);
+                }
+            }
+            checkNoCycle(task.getName(), new HashSet<>(), new ArrayList<>());
+        }
+    }
+
+    private void checkNoCycle(String name, Set<String> done, List<String> path) {
+        if (path.contains(name)) {
+            path.add(name);
+            throw new IllegalStateException("Startup task dependency cycle: " + String.join(" -> ", path));
+        }
+        if (!done.add(name)) {
+            return;
+        }
+        path.add(name);
+        for (String dependency : tasksByName.get(name).getDependsOn()) {
+            checkNoCycle(dependency, done, path);
+        }
+        path.remove(path.size() - 1);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        start();
+    }
+
+    /**
+     * Starts all tasks; returns a future completing when every task has finished (in any state).
+     */
+    public synchronized CompletableFuture<Void> start() {
+        if (completion != null) {
+            return completion;
+        }
+        Set<String> completedMarkers = loadMarkers();
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, threads), runnable -> {
+            Thread thread = new Thread(runnable, "startup-task-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Map<String, CompletableFuture<Status>> futures = new LinkedHashMap<>();
+        for (StartupTask task : tasks) {
+            schedule(task, futures, completedMarkers, executor);
+        }
+        completion = CompletableFuture.allOf(futures.values().toArray(new CompletableFuture[0]))
+                .whenComplete((ignored, error) -> {
+                    executor.shutdown();
+                    logger.info("Startup tasks finished: {}", statusSummary());
+                });
+        return completion;
+    }
+
+    private CompletableFuture<Status> schedule(StartupTask task, Map<String, CompletableFuture<Status>> futures,
+                                               Set<String> completedMarkers, ExecutorService executor) {
+        CompletableFuture<Status> existing = futures.get(task.getName());
+        if (existing != null) {
+            return existing;
+        }
+        List<CompletableFuture<Status>> dependencies = new ArrayList<>();
+        for (String dependency : task.getDependsOn()) {
+            dependencies.add(schedule(tasksByName.get(dependency), futures, completedMarkers, executor));
+        }
+        CompletableFuture<Status> future = CompletableFuture
+                .allOf(dependencies.toArray(new CompletableFuture[0]))
+                .thenApplyAsync(ignored -> execute(task, completedMarkers), executor);
+        futures.put(task.getName(), future);
+        return future;
+    }
+
+    private Status execute(StartupTask task, Set<String> completedMarkers) {
+        TaskState state = states.get(task.getName());
+        for (String dependency : task.getDependsOn()) {
+            Status dependencyStatus = states.get(dependency).status;
+            if (dependencyStatus != Status.COMPLETED && dependencyStatus != Status.SKIPPED) {
+                state.status = Status.FAILED;
+                logger.warn("Startup task {} not run: dependency {} {}", task.getName(), dependency, dependencyStatus);
+                return state.status;
+            }
+        }
+        if (task.isRunOnce() && completedMarkers.contains(task.getName())) {
+            state.status = Status.SKIPPED;
+            logger.debug("Startup task {} already completed earlier, skipping", task.getName());
+            return state.status;
+        }
+
+        state.status = Status.RUNNING;
+        int attempts = task.isCritical() ? Math.max(1, criticalAttempts) : 1;
+        long backoffMs = retryBackoffMs;
+        for (int attempt = 1; ; attempt++) {
+            long start = System.nanoTime();
+            try {
+                task.run();
+                long durationMs = (System.nanoTime() - start) / 1_000_000;
+                state.status = Status.COMPLETED;
+                if (task.isRunOnce()) {
+                    saveMarker(task.getName(), durationMs);
+                }
+                logger.info("Startup task {} completed in {} ms", task.getName(), durationMs);
+                return state.status;
+            } catch (Exception e) {
+                long durationMs = (System.nanoTime() - start) / 1_000_000;
+                if (attempt >= attempts) {
+                    state.status = Status.FAILED;
+                    logger.error("Startup task {} failed after {} ms (attempt {} of {}): {}",
+                            task.getName(), durationMs, attempt, attempts, e.getMessage(), e);
+                    return state.status;
+                }
+                logger.warn("Startup task {} failed after {} ms (attempt {} of {}), retrying in {} ms: {}",
+                        task.getName(), durationMs, attempt, attempts, backoffMs, e.getMessage());
+            }
+            try {
+                Thread.sleep(backoffMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                state.status = Status.FAILED;
+                return state.status;
+            }
+            backoffMs = Math.min(backoffMs * 2, maxRetryBackoffMs);
+        }
+    }
+
+    private Set<String> loadMarkers() {
+        try {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS startup_task_marker ("
+                    + "task_name VARCHAR(100) PRIMARY KEY, completed_at TIMESTAMP NOT NULL, duration_ms BIGINT)");
+            return new HashSet<>(jdbcTemplate.queryForList("SELECT task_name FROM startup_task_marker", String.class));
+        } catch (Exception e) {
+            logger.warn("Could not read startup task markers, running all tasks: {}", e.getMessage());
+            return Set.of();
+        }
+    }
+
+    private void saveMarker(String name, long durationMs) {
+        try {
+            jdbcTemplate.update("INSERT INTO startup_task_marker (task_name, completed_at, duration_ms) VALUES (?, ?, ?)",
+                    name, new Timestamp(System.currentTimeMillis()), durationMs);
+        } catch (Exception e) {
+            logger.warn("Could not save completion marker for startup task {}: {}", name, e.getMessage());
+        }
+    }
+
+    /**
+     * Ready once every critical task has completed (or was skipped by its marker).
+     */
+    public boolean isReady() {
+        return states.values().stream()
+                .filter(state -> state.critical)
+                .allMatch(state -> state.status == Status.COMPLETED || state.status == Status.SKIPPED);
+    }
+
+    public Status getStatus(String taskName) {
+        TaskState state = states.get(taskName);
+        return state != null ? state.status : null;
+    }
+
+    /**
+     * Public (it backs /health/readiness): task names and states only, details are logged.
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("status", isReady() ? "UP" : "DOWN");
+        report.put("tasks", statusSummary());
+        return report;
+    }
+
+    private Map<String, Status> statusSummary() {
+        Map<String, Status> summary = new LinkedHashMap<>();
+        states.forEach((name, state) -> summary.put(name, state.status));
+        return summary;
+    }
+
+    private static final class TaskState {
+        private final boolean critical;
+        private volatile Status status = Status.PENDING;
+
+        private TaskState(boolean critical) {
+            this.critical = critical;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package org.learnspring.expensetracker.config;
+
+import java.lang.management.ManagementFactory;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aot.AotDetector;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+/**
+ * Summarises where startup time went, from the steps buffered by BufferingApplicationStartup
+ * (installed in ExpenseTrackerApplication.main): time to ready, top-level phases and the
+ * slowest bean instantiations. Logged once when the app is ready and served at GET /admin/startup.
+ *
+ * Bean timings are inclusive of the beans they pull in, so a slow dependency shows up under
+ * its dependents as well.
+ */
+@Component
+public class StartupTimingReport {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupTimingReport.class);
+    private static final int SLOWEST_BEANS = 15;
+
+    @Autowired
+    private ApplicationStartup applicationStartup;
+
+    private volatile Map<String, Object> report = Map.of("state", "STARTING");
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady(ApplicationReadyEvent event) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("timeToReadyMs", event.getTimeTaken() != null ? event.getTimeTaken().toMillis() : null);
+        result.put("jvmUptimeMs", ManagementFactory.getRuntimeMXBean().getUptime());
+        result.put("aotEnabled", AotDetector.useGeneratedArtifacts());
+        result.put("cdsArchive", ManagementFactory.getRuntimeMXBean().getInputArguments().stream()
+                .anyMatch(arg -> arg.startsWith("-XX:SharedArchiveFile")));
+
+        if (applicationStartup instanceof BufferingApplicationStartup buffering) {
+            List<StartupTimeline.TimelineEvent> events = buffering.getBufferedTimeline().getEvents();
+            Map<String, Long> phases = new LinkedHashMap<>();
+            for (StartupTimeline.TimelineEvent timelineEvent : events) {
+                if (timelineEvent.getStartupStep().getParentId() == null) {
+                    phases.merge(timelineEvent.getStartupStep().getName(), timelineEvent.getDuration().toMillis(), Long::sum);
+                }
+            }
+            result.put("phasesMs", phases);
+            result.put("slowestBeansMs", slowestBeans(events));
+            result.put("recordedSteps", events.size());
+        }
+        report = result;
+
+        logger.info("Ready in {} ms (JVM uptime {} ms, AOT {}, CDS {})", result.get("timeToReadyMs"),
+                result.get("jvmUptimeMs"), result.get("aotEnabled"), result.get("cdsArchive"));
+        if (result.containsKey("slowestBeansMs")) {
+            logger.info("Startup phases (ms): {}", result.get("phasesMs"));
+            logger.info("Slowest beans (ms, inclusive): {}", result.get("slowestBeansMs"));
+        }
+    }
+
+    private static Map<String, Long> slowestBeans(List<StartupTimeline.TimelineEvent> events) {
+        Map<String, Long> slowest = new LinkedHashMap<>();
+        events.stream()
+                .filter(e -> "spring.beans.instantiate".equals(e.getStartupStep().getName()))
+                .sorted(Comparator.comparing(StartupTimeline.TimelineEvent::getDuration).reversed())
+                .limit(SLOWEST_BEANS)
+                .forEach(e -> slowest.put(tag(e.getStartupStep(), "beanName"), e.getDuration().toMillis()));
+        return slowest;
+    }
+
+    private static String tag(StartupStep step, String key) {
+        for (StartupStep.Tag tag : step.getTags()) {
+            if (key.equals(tag.getKey())) {
+                return tag.getValue();
+            }
+        }
+        return "?";
+    }
+
+    public Map<String, Object> getReport() {
+        return report;
+    }
+}
@@ -0,0 +1,90 @@
+package org.learnspring.expensetracker.config;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Applies the current thread's statement timeout to every statement created on its
+ * connections, so one slow query cannot hold a pooled connection (and the request thread)
+ * for longer than its endpoint class allows. ConcurrencyLimitFilter sets the timeout for the
+ * duration of a request; threads without one (schedulers, the group-commit flusher, the
+ * invalidation listener) get no timeout, and code that sets its own with setQueryTimeout
+ * after creating the statement still wins.
+ */
+public class StatementTimeoutDataSource extends DelegatingDataSource implements AutoCloseable {
+
+    private static final ThreadLocal<Integer> TIMEOUT_SECONDS = new ThreadLocal<>();
+
+    public StatementTimeoutDataSource(DataSource target) {
+        super(target);
+    }
+
+    /**
+     * Statements created on this thread from now on time out after the given seconds
+     * (0 = none) until {@link #clearTimeout}.
+     */
+    public static void setTimeout(int seconds) {
+        TIMEOUT_SECONDS.set(seconds);
+    }
+
+    public static void clearTimeout() {
+        TIMEOUT_SECONDS.remove();
+    }
+
+    static int currentTimeout() {
+        Integer seconds = TIMEOUT_SECONDS.get();
+        return seconds == null ? 0 : seconds;
+    }
+
+    /**
+     * Closes the pool underneath, so it still shuts down with the application context.
+     */
+    @Override
+    public void close() throws Exception {
+        if (getTargetDataSource() instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    private static Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(StatementTimeoutDataSource.class.getClassLoader(),
+                new Class<?>[] {Connection.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        default:
+                            break;
+                    }
+                    Object result;
+                    try {
+                        result = method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                    if (result instanceof Statement statement) {
+                        // Also when 0: some drivers (H2) keep the last timeout per connection
+                        statement.setQueryTimeout(currentTimeout());
+                    }
+                    return result;
+                });
+    }
+}
@@ -0,0 +1,226 @@
+package org.learnspring.expensetracker.config;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free token-bucket limiter keyed by an arbitrary string (user name, client IP).
+ *
+ * Each bucket is a single {@link AtomicLong} packing the token count (in thousandths of a token)
+ * and the last refill time, updated with CAS, so acquiring never blocks. Buckets live in
+ * striped maps; idle buckets are evicted (an idle bucket is full, i.e. equivalent to no bucket)
+ * and each stripe is capped so memory stays bounded even under key floods.
+ */
+public class TokenBucketRateLimiter {
+
+    private static final int TOKEN_BITS = 24;
+    private static final long TOKEN_MASK = (1L << TOKEN_BITS) - 1;
+    private static final long MILLI = 1000;
+
+    private final String name;
+    private final long capacityMilli;
+    private final double refillMilliPerMs;
+    private final long idleEvictMillis;
+    private final int maxBucketsPerStripe;
+    private final LongSupplier clock;
+    private final long epoch;
+    private final ConcurrentHashMap<String, AtomicLong>[] stripes;
+
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+
+    public TokenBucketRateLimiter(String name, int capacity, double refillPerSecond,
+                                  int maxBuckets, long idleEvictMillis) {
+        this(name, capacity, refillPerSecond, 16, maxBuckets, idleEvictMillis, System::currentTimeMillis);
+    }
+
+    @SuppressWarnings("unchecked")
+    public TokenBucketRateLimiter(String name, int capacity, double refillPerSecond, int stripeCount,
+                                  int maxBuckets, long idleEvictMillis, LongSupplier clock) {
+        if (capacity < 1 || capacity * MILLI > TOKEN_MASK) {
+            throw new IllegalArgumentException("capacity must be between 1 and " + TOKEN_MASK / MILLI);
+        }
+        if (refillPerSecond <= 0) {
+            throw new IllegalArgumentException("refillPerSecond must be positive");
+        }
+        int stripesPow2 = Integer.highestOneBit(Math.max(1, stripeCount - 1) << 1);
+        this.name = name;
+        this.capacityMilli = capacity * MILLI;
+        this.refillMilliPerMs = refillPerSecond; // tokens/s == milli-tokens/ms
+        this.idleEvictMillis = idleEvictMillis;
+        this.maxBucketsPerStripe = Math.max(1, maxBuckets / stripesPow2);
+        this.clock = clock;
+        this.epoch = clock.getAsLong();
+        this.stripes = new ConcurrentHashMap[stripesPow2];
+        for (int i = 0; i < stripesPow2; i++) {
+            stripes[i] = new ConcurrentHashMap<>();
+        }
+    }
+
+    /**
+     * Takes one token for the key.
+     *
+     * @return 0 if the call is allowed, otherwise the number of milliseconds until a token is available
+     */
+    public long tryAcquire(String key) {
+        AtomicLong bucket = bucketFor(key);
+        long now = now();
+        while (true) {
+            long state = bucket.get();
+            long refilledState = refill(state, now);
+            long tokens = refilledState & TOKEN_MASK;
+            if (tokens < MILLI) {
+                rejected.increment();
+                return millisUntil(MILLI - tokens);
+            }
+            long next = (refilledState & ~TOKEN_MASK) | (tokens - MILLI);
+            if (bucket.compareAndSet(state, next)) {
+                allowed.increment();
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Checks whether the key has at least one token without consuming it.
+     *
+     * @return 0 if a token is available, otherwise the number of milliseconds until one is
+     */
+    public long peek(String key) {
+        AtomicLong bucket = stripeFor(key).get(key);
+        if (bucket == null) {
+            return 0;
+        }
+        long tokens = refill(bucket.get(), now()) & TOKEN_MASK;
+        return tokens >= MILLI ? 0 : millisUntil(MILLI - tokens);
+    }
+
+    private long refill(long state, long now) {
+        long tokens = state & TOKEN_MASK;
+        long last = state >>> TOKEN_BITS;
+        long elapsed = now - last;
+        if (elapsed <= 0 || tokens >= capacityMilli) {
+            return tokens >= capacityMilli ? pack(capacityMilli, now) : state;
+        }
+        long added = (long) (elapsed * refillMilliPerMs);
+        if (added == 0) {
+            return state;
+        }
+        if (tokens + added >= capacityMilli) {
+            return pack(capacityMilli, now);
+        }
+        // Advance the clock only by the time actually converted into tokens, so slow refill
+        // rates do not lose fractional progress
+        long consumedMs = (long) Math.ceil(added / refillMilliPerMs);
+        return pack(tokens + added, Math.min(now, last + consumedMs));
+    }
+
+    private long millisUntil(long missingMilli) {
+        return Math.max(1, (long) Math.ceil(missingMilli / refillMilliPerMs));
+    }
+
+    private long now() {
+        return clock.getAsLong() - epoch;
+    }
+
+    private static long pack(long tokens, long time) {
+        return (time << TOKEN_BITS) | tokens;
+    }
+
+    private AtomicLong bucketFor(String key) {
+        ConcurrentHashMap<String, AtomicLong> stripe = stripeFor(key);
+        AtomicLong bucket = stripe.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (stripe.size() >= maxBucketsPerStripe) {
+            makeRoom(stripe);
+        }
+        return stripe.computeIfAbsent(key, k -> new AtomicLong(pack(capacityMilli, now())));
+    }
+
+    private ConcurrentHashMap<String, AtomicLong> stripeFor(String key) {
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+        return stripes[h & (stripes.length - 1)];
+    }
+
+    /**
+     * Frees space in a full stripe: first idle buckets, then the least recently refilled one.
+     */
+    private void makeRoom(ConcurrentHashMap<String, AtomicLong> stripe) {
+        if (evictIdle(stripe, now()) > 0) {
+            return;
+        }
+        String oldestKey = null;
+        long oldest = Long.MAX_VALUE;
+        for (Map.Entry<String, AtomicLong> entry : stripe.entrySet()) {
+            long last = entry.getValue().get() >>> TOKEN_BITS;
+            if (last < oldest) {
+                oldest = last;
+                oldestKey = entry.getKey();
+            }
+        }
+        if (oldestKey != null && stripe.remove(oldestKey) != null) {
+            evicted.increment();
+        }
+    }
+
+    /**
+     * Removes buckets that have not been touched for the idle timeout.
+     *
+     * @return number of buckets removed
+     */
+    public int evictIdle() {
+        long now = now();
+        int removed = 0;
+        for (ConcurrentHashMap<String, AtomicLong> stripe : stripes) {
+            removed += evictIdle(stripe, now);
+        }
+        return removed;
+    }
+
+    private int evictIdle(ConcurrentHashMap<String, AtomicLong> stripe, long now) {
+        int removed = 0;
+        Iterator<AtomicLong> it = stripe.values().iterator();
+        while (it.hasNext()) {
+            long last = it.next().get() >>> TOKEN_BITS;
+            if (now - last >= idleEvictMillis) {
+                it.remove();
+                removed++;
+            }
+        }
+        evicted.add(removed);
+        return removed;
+    }
+
+    public int size() {
+        int size = 0;
+        for (ConcurrentHashMap<String, AtomicLong> stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("capacity", capacityMilli / MILLI);
+        stats.put("refillPerSecond", refillMilliPerMs);
+        stats.put("allowed", allowed.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("trackedKeys", size());
+        stats.put("maxKeys", (long) maxBucketsPerStripe * stripes.length);
+        stats.put("evicted", evicted.sum());
+        return stats;
+    }
+}
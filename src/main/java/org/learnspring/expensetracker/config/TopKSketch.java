@@ -0,0 +1,164 @@
+package org.learnspring.expensetracker.config;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Approximate heaviest keys of a stream of (key, weight) updates in fixed memory: a Count-Min
+ * sketch estimates every key's total weight and a small candidate list remembers the keys with
+ * the largest estimates seen so far.
+ *
+ * Error bound: with width w and depth d, every estimate is at least the true total and, with
+ * probability at least 1 - e^-d, at most the true total + (e / w) * N, where N is the sum of all
+ * weights added. A key whose true total exceeds that overcount plus the k-th largest total is
+ * therefore reported. Weights must be non-negative. Weight may be removed again, but only
+ * weight that was added for that key: then every counter still holds at least the true total
+ * of its keys and estimates keep their guarantees (N shrinks accordingly). Removal does not
+ * change the candidates, so a key that falls far enough can stay listed below new heavier
+ * keys until it is displaced. Not thread-safe.
+ */
+public class TopKSketch {
+
+    private final int width;
+    private final int depth;
+    private final int capacity;
+    private final long[][] counters;
+    private final Map<String, String> candidates = new HashMap<>();
+    private long total;
+
+    /**
+     * @param capacity how many candidate keys to keep; keep it somewhat above the k you query
+     */
+    public TopKSketch(int width, int depth, int capacity) {
+        if (width < 1 || depth < 1 || capacity < 1) {
+            throw new IllegalArgumentException("width, depth and capacity must be positive");
+        }
+        this.width = width;
+        this.depth = depth;
+        this.capacity = capacity;
+        this.counters = new long[depth][width];
+    }
+
+    /**
+     * Adds weight to the key. The key is compared as given; label is what {@link #top} reports
+     * for it (e.g. the original spelling of a normalized key).
+     */
+    public void add(String key, String label, long weight) {
+        if (weight < 0) {
+            throw new IllegalArgumentException("weight must not be negative");
+        }
+        total += weight;
+        long h1 = mix(key.hashCode());
+        long h2 = mix(h1) | 1;
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            long[] counts = counters[row];
+            int column = index(h1, h2, row);
+            counts[column] += weight;
+            estimate = Math.min(estimate, counts[column]);
+        }
+        if (candidates.containsKey(key) || candidates.size() < capacity) {
+            candidates.putIfAbsent(key, label);
+            return;
+        }
+        String smallest = null;
+        long smallestEstimate = Long.MAX_VALUE;
+        for (String candidate : candidates.keySet()) {
+            long candidateEstimate = estimate(candidate);
+            if (candidateEstimate < smallestEstimate) {
+                smallest = candidate;
+                smallestEstimate = candidateEstimate;
+            }
+        }
+        if (estimate > smallestEstimate) {
+            candidates.remove(smallest);
+            candidates.put(key, label);
+        }
+    }
+
+    /**
+     * Removes weight previously added to the key. Counters do not go below zero, so removing
+     * weight that was never added only costs accuracy.
+     */
+    public void remove(String key, long weight) {
+        if (weight < 0) {
+            throw new IllegalArgumentException("weight must not be negative");
+        }
+        total = Math.max(0, total - weight);
+        long h1 = mix(key.hashCode());
+        long h2 = mix(h1) | 1;
+        for (int row = 0; row < depth; row++) {
+            long[] counts = counters[row];
+            int column = index(h1, h2, row);
+            counts[column] = Math.max(0, counts[column] - weight);
+        }
+    }
+
+    /**
+     * Estimated total weight of the key; never below the true total.
+     */
+    public long estimate(String key) {
+        long h1 = mix(key.hashCode());
+        long h2 = mix(h1) | 1;
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters[row][index(h1, h2, row)]);
+        }
+        return estimate;
+    }
+
+    /**
+     * Up to k candidates with the largest estimates, largest first.
+     */
+    public List<Entry> top(int k) {
+        List<Entry> entries = new ArrayList<>(candidates.size());
+        candidates.forEach((key, label) -> entries.add(new Entry(key, label, estimate(key))));
+        entries.sort(Comparator.comparingLong(Entry::estimate).reversed().thenComparing(Entry::key));
+        return entries.size() > k ? List.copyOf(entries.subList(0, k)) : entries;
+    }
+
+    /**
+     * Sum of all weights added (N).
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * The overcount an estimate stays within with probability {@link #getConfidence()}.
+     */
+    public long getErrorBound() {
+        return (long) Math.ceil(Math.E / width * total);
+    }
+
+    public double getConfidence() {
+        return 1 - Math.exp(-depth);
+    }
+
+    /**
+     * Approximate heap footprint in bytes, independent of the number of updates.
+     */
+    public long getMemoryBytes() {
+        return (long) width * depth * Long.BYTES + (long) capacity * 64;
+    }
+
+    // Row i uses h1 + i * h2 (Kirsch-Mitzenmacher): d hash functions from two
+    private int index(long h1, long h2, int row) {
+        return (int) Long.remainderUnsigned(h1 + row * h2, width);
+    }
+
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    public record Entry(String key, String label, long estimate) {
+    }
+}
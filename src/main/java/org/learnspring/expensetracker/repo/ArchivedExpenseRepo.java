@@ -0,0 +1,19 @@
+package org.learnspring.expensetracker.repo;
+
+import java.util.List;
+
+import org.learnspring.expensetracker.Model.ArchivedExpense;
+import org.learnspring.expensetracker.Model.ExpenseView;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ArchivedExpenseRepo extends JpaRepository<ArchivedExpense, Integer> {
+
+    @Query("select new org.learnspring.expensetracker.Model.ExpenseView("
+            + "a.id, a.expense, a.expenseType, a.expenseAmount, a.paymentMethod, a.date) "
+            + "from ArchivedExpense a where a.userId = :userId and a.deletedAt is null")
+    List<ExpenseView> findViewsByUserId(@Param("userId") Integer userId);
+}
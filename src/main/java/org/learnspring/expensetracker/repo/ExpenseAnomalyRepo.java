@@ -0,0 +1,13 @@
+package org.learnspring.expensetracker.repo;
+
+import java.util.List;
+
+import org.learnspring.expensetracker.Model.ExpenseAnomaly;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ExpenseAnomalyRepo extends JpaRepository<ExpenseAnomaly, Integer> {
+    List<ExpenseAnomaly> findByUserIdOrderByIdDesc(int userId, Pageable pageable);
+}
@@ -1,11 +1,16 @@
 package org.learnspring.expensetracker.repo;
 
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.List;
 
 import org.learnspring.expensetracker.Model.Expense;
+import org.learnspring.expensetracker.Model.ExpenseView;
 import org.learnspring.expensetracker.Model.Users;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -13,4 +18,51 @@ public interface expenseRepo extends JpaRepository<Expense, Integer> {
     List<Expense> findByDateBetween(LocalDate start, LocalDate end);
     List<Expense> findByUser(Users user);
     List<Expense> findByUserAndDateBetween(Users user, LocalDate start, LocalDate end);
+
+    @Query("select new org.learnspring.expensetracker.Model.ExpenseView("
+            + "e.id, e.expense, e.expenseType, e.expenseAmount, e.paymentMethod, e.date) "
+            + "from Expense e where e.user.id = :userId")
+    List<ExpenseView> findViewsByUserId(@Param("userId") Integer userId);
+
+    @Query("select new org.learnspring.expensetracker.Model.ExpenseView("
+            + "e.id, e.expense, e.expenseType, e.expenseAmount, e.paymentMethod, e.date) "
+            + "from Expense e where e.user.id = :userId and e.date between :start and :end")
+    List<ExpenseView> findViewsByUserIdAndDateBetween(@Param("userId") Integer userId,
+                                                      @Param("start") LocalDate start,
+                                                      @Param("end") LocalDate end);
+
+    /**
+     * Spending per date_trunc bucket as rows of (bucket date, total, count), only non-empty
+     * buckets, oldest first. Amounts that are not plain decimals count as zero.
+     * Native (PostgreSQL) because JPQL has no date_trunc; {@code unit} is a date_trunc unit.
+     */
+    @Query(value = "SELECT CAST(date_trunc(:unit, CAST(e.date AS timestamp)) AS date) AS bucket, "
+            + "SUM(CASE WHEN e.expense_amount ~ '^(-|)[0-9]+([.][0-9]+|)$' "
+            + "THEN CAST(e.expense_amount AS numeric) ELSE 0 END) AS total, "
+            + "COUNT(*) AS expense_count "
+            + "FROM expenses e "
+            + "WHERE e.user_id = :userId AND e.date BETWEEN :start AND :end AND e.deleted_at IS NULL "
+            + "AND (CAST(:type AS varchar) IS NULL "
+            + "OR e.category_id = (SELECT c.id FROM categories c WHERE c.name = :type)) "
+            + "GROUP BY 1 ORDER BY 1", nativeQuery = true)
+    List<Object[]> sumByBucket(@Param("userId") Integer userId,
+                               @Param("unit") String unit,
+                               @Param("start") LocalDate start,
+                               @Param("end") LocalDate end,
+                               @Param("type") String type);
+
+    boolean existsByIdAndUser_Id(Integer id, Integer userId);
+
+    /**
+     * Undeletes the user's expense if it was deleted at or after {@code deletedSince}.
+     * Native because entity queries never see deleted rows.
+     *
+     * @return 1 if the expense was restored, otherwise 0
+     */
+    @Modifying(clearAutomatically = true)
+    @Query(value = "UPDATE expenses SET deleted_at = NULL "
+            + "WHERE id = :id AND user_id = :userId AND deleted_at >= :deletedSince", nativeQuery = true)
+    int restore(@Param("id") Integer id,
+                @Param("userId") Integer userId,
+                @Param("deletedSince") Instant deletedSince);
 }
@@ -0,0 +1,137 @@
+package org.learnspring.expensetracker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.learnspring.expensetracker.Model.MyUserPrincipal;
+import org.learnspring.expensetracker.Model.Users;
+import org.learnspring.expensetracker.Service.CacheInvalidationBus;
+import org.learnspring.expensetracker.Service.MyUserDetailService;
+import org.learnspring.expensetracker.Service.UserLookupService;
+import org.learnspring.expensetracker.repo.UserRepo;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Two application instances sharing one PostgreSQL: a write on one must evict the other's
+ * cached copy through LISTEN/NOTIFY, also after the listening connection has been killed.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class CacheInvalidationIntegrationTest {
+
+    private static final long PROPAGATION_TIMEOUT_MS = 5_000;
+
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+
+    @BeforeAll
+    static void startNodes() {
+        nodeA = start();
+        nodeB = start();
+        nodeA.getBean(UserRepo.class).save(new Users(null, "cached-user", "{noop}old", "USER"));
+        awaitTrue(() -> listening(nodeA) && listening(nodeB), "both listeners connected");
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        if (nodeA != null) {
+            nodeA.close();
+        }
+        if (nodeB != null) {
+            nodeB.close();
+        }
+    }
+
+    @Test
+    @DisplayName("A password change on one node should evict the cached user on the other")
+    void updatePassword_OnNodeB_ShouldEvictNodeACache() {
+        // Arrange: node A has the user cached
+        UserLookupService lookupA = nodeA.getBean(UserLookupService.class);
+        assertEquals("{noop}old", lookupA.findByUsername("cached-user").getPassword());
+        changePasswordBehindTheCache(nodeA, "{noop}not-seen");
+        assertEquals("{noop}old", lookupA.findByUsername("cached-user").getPassword(), "served from cache");
+
+        // Act
+        changePassword(nodeB, "{noop}new");
+
+        // Assert
+        awaitTrue(() -> "{noop}new".equals(lookupA.findByUsername("cached-user").getPassword()),
+                "node A sees the new password");
+    }
+
+    @Test
+    @DisplayName("After the listening connection is killed the node should resubscribe and keep evicting")
+    void listenerConnectionLost_ShouldResubscribe() {
+        // Arrange
+        UserLookupService lookupA = nodeA.getBean(UserLookupService.class);
+        assertNotNull(lookupA.findByUsername("cached-user"));
+
+        // Act: terminate every listening backend
+        new JdbcTemplate(nodeB.getBean(javax.sql.DataSource.class)).queryForList(
+                "SELECT pg_terminate_backend(pid) FROM pg_stat_activity "
+                        + "WHERE application_name = 'expense-tracker-cache-invalidation'");
+        awaitTrue(() -> !listening(nodeA), "node A noticed the lost connection");
+        awaitTrue(() -> listening(nodeA), "node A resubscribed");
+        awaitTrue(() -> listening(nodeB), "node B resubscribed");
+        assertNotNull(lookupA.findByUsername("cached-user"));
+        changePassword(nodeB, "{noop}after-reconnect");
+
+        // Assert
+        awaitTrue(() -> "{noop}after-reconnect".equals(lookupA.findByUsername("cached-user").getPassword()),
+                "node A sees the change made after reconnecting");
+    }
+
+    private static ConfigurableApplicationContext start() {
+        return new SpringApplication(ExpenseTrackerApplication.class).run(
+                "--spring.datasource.url=" + postgres.getJdbcUrl(),
+                "--spring.datasource.username=" + postgres.getUsername(),
+                "--spring.datasource.password=" + postgres.getPassword(),
+                "--server.port=0",
+                "--password-hashing.bcrypt.cost=4",
+                "--cache.invalidation.heartbeat-ms=500");
+    }
+
+    private static boolean listening(ConfigurableApplicationContext node) {
+        return node.getBean(CacheInvalidationBus.class).isListening();
+    }
+
+    private static void changePassword(ConfigurableApplicationContext node, String newHash) {
+        Users user = node.getBean(UserRepo.class).findByUsername("cached-user");
+        node.getBean(MyUserDetailService.class).updatePassword(new MyUserPrincipal(user), newHash);
+    }
+
+    // A write that bypasses the service layer: no eviction is sent
+    private static void changePasswordBehindTheCache(ConfigurableApplicationContext node, String newHash) {
+        new JdbcTemplate(node.getBean(javax.sql.DataSource.class))
+                .update("UPDATE users SET password = ? WHERE username = 'cached-user'", newHash);
+    }
+
+    private static void awaitTrue(BooleanSupplier condition, String description) {
+        long deadline = System.currentTimeMillis() + PROPAGATION_TIMEOUT_MS;
+        while (!condition.getAsBoolean()) {
+            assertFalse(System.currentTimeMillis() > deadline, "Timed out waiting until " + description);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+}
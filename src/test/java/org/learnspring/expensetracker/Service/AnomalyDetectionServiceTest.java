@@ -0,0 +1,158 @@
+package org.learnspring.expensetracker.Service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.learnspring.expensetracker.Model.Expense;
+import org.learnspring.expensetracker.Model.ExpenseAnomaly;
+import org.learnspring.expensetracker.Model.Users;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+class AnomalyDetectionServiceTest {
+
+    private final Users user = new Users(1, "alice", "secret", "USER");
+    private JdbcTemplate jdbcTemplate;
+    private AnomalyDetectionService service;
+    private int nextId;
+
+    @BeforeEach
+    void setUp() {
+        // No stored statistics: every user starts from an empty history
+        jdbcTemplate = mock(JdbcTemplate.class);
+        service = new AnomalyDetectionService(jdbcTemplate, 3.0, 8);
+    }
+
+    private ExpenseAnomaly observe(String category, String amount) {
+        Expense expense = new Expense();
+        expense.setId(++nextId);
+        expense.setExpenseType(category);
+        expense.setExpenseAmount(amount);
+        expense.setUser(user);
+        return service.observe(expense);
+    }
+
+    @Test
+    @DisplayName("Should flag an amount far above the category's history once enough samples exist")
+    void observe_WithOutlier_ShouldFlag() {
+        // Arrange
+        String[] usual = {"40", "45", "38", "52", "47", "41", "50", "44", "39", "48"};
+        for (String amount : usual) {
+            assertNull(observe("Food", amount));
+        }
+
+        // Act
+        ExpenseAnomaly anomaly = observe("Food", "900");
+
+        // Assert
+        assertNotNull(anomaly);
+        assertEquals("Food", anomaly.getCategory());
+        assertEquals(usual.length, anomaly.getSamples());
+        assertEquals(44.0, anomaly.getTypicalAmount(), 3.0);
+        assertEquals(1, anomaly.getUserId());
+    }
+
+    @Test
+    @DisplayName("Should not flag before the minimum sample count, nor low amounts or other categories")
+    void observe_WithoutEnoughHistory_ShouldNotFlag() {
+        // Arrange
+        for (int i = 0; i < 5; i++) {
+            observe("Food", "40");
+        }
+
+        // Act & Assert
+        assertNull(observe("Food", "5000"), "too few samples");
+        for (int i = 0; i < 10; i++) {
+            observe("Rent", String.valueOf(1000 + i));
+        }
+        assertNull(observe("Rent", "1"), "unusually low amounts are not flagged");
+        assertNull(observe("Travel", "5000"), "new category");
+        assertNull(observe("Food", "not a number"));
+    }
+
+    @Test
+    @DisplayName("Should merge pending increments on flush and keep them when the flush fails")
+    @SuppressWarnings("unchecked")
+    void flush_WhenDatabaseFails_ShouldRetryLater() {
+        // Arrange
+        observe("Food", "40");
+        observe("Food", "60");
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenThrow(new DataAccessResourceFailureException("down"))
+                .thenReturn(new int[] {1});
+
+        // Act
+        service.flush();
+        service.flush();
+        service.flush();
+
+        // Assert: the retried batch still carries both samples; the third flush has nothing to do
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), rows.capture());
+        Object[] row = rows.getValue().get(0);
+        assertEquals(2L, row[2]);
+        assertEquals(Math.log(40 * 60) / 2, (double) row[3], 1e-9);
+        assertEquals(1L, service.snapshot().get("flushFailures"));
+    }
+
+    @Test
+    @DisplayName("Should add an expense to the statistics only once its transaction commits")
+    @SuppressWarnings("unchecked")
+    void observe_InTransaction_ShouldApplyAfterCommit() {
+        // Arrange: a transaction that rolls back, then one that commits
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            observe("Food", "40");
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            observe("Food", "60");
+            TransactionSynchronizationUtils.triggerAfterCommit();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[] {1});
+
+        // Act
+        service.flush();
+
+        // Assert: only the committed sample is merged
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), rows.capture());
+        Object[] row = rows.getValue().get(0);
+        assertEquals(1L, row[2]);
+        assertEquals(Math.log(60), (double) row[3], 1e-9);
+    }
+
+    @Test
+    @DisplayName("Should drop unflushed increments before the backfill counts the same expenses")
+    void resetForBackfill_ShouldDiscardPendingIncrements() {
+        // Arrange
+        observe("Food", "40");
+
+        // Act
+        service.resetForBackfill();
+        service.flush();
+
+        // Assert
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+}
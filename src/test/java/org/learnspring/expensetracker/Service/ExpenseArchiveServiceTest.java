@@ -0,0 +1,133 @@
+package org.learnspring.expensetracker.Service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+class ExpenseArchiveServiceTest {
+
+    private static final LocalDate CUTOFF = LocalDate.of(2024, 1, 1);
+    private static final Instant NOW = Instant.parse("2025-06-01T00:00:00Z");
+    private static final Instant DELETED_BEFORE = NOW.minus(Duration.ofDays(30));
+
+    private JdbcTemplate jdbcTemplate;
+    private CacheInvalidationBus invalidationBus;
+    private ExpenseArchiveService service;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:archive;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE expenses (id INT PRIMARY KEY, user_id INT, expense VARCHAR(100), "
+                + "category_id INT, expense_amount VARCHAR(20), payment_method_id INT, date DATE, "
+                + "deleted_at TIMESTAMP WITH TIME ZONE)");
+        jdbcTemplate.execute("CREATE TABLE expenses_archive (id INT PRIMARY KEY, user_id INT, expense VARCHAR(100), "
+                + "category_id INT, expense_amount VARCHAR(20), payment_method_id INT, date DATE, "
+                + "deleted_at TIMESTAMP WITH TIME ZONE, archived_at TIMESTAMP WITH TIME ZONE NOT NULL)");
+        invalidationBus = mock(CacheInvalidationBus.class);
+        service = new ExpenseArchiveService(jdbcTemplate, new DataSourceTransactionManager(dataSource),
+                invalidationBus, 4, 0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP TABLE expenses");
+        jdbcTemplate.execute("DROP TABLE expenses_archive");
+    }
+
+    private void insert(int id, int userId, LocalDate date, Instant deletedAt) {
+        jdbcTemplate.update("INSERT INTO expenses (id, user_id, expense, category_id, expense_amount, "
+                        + "payment_method_id, date, deleted_at) VALUES (?, ?, ?, 1, '10', 2, ?, ?)",
+                id, userId, "expense " + id, Date.valueOf(date),
+                deletedAt != null ? Timestamp.from(deletedAt) : null);
+    }
+
+    @Test
+    @DisplayName("Should move old expenses and expired tombstones in batches and keep everything else")
+    void archive_ShouldMoveColdRows() throws Exception {
+        // Arrange: 10 old (user 1), 3 recent deleted long ago (user 2), 2 recently deleted, 5 recent
+        int id = 0;
+        for (int i = 0; i < 10; i++) {
+            insert(++id, 1, CUTOFF.minusDays(i + 1), null);
+        }
+        for (int i = 0; i < 3; i++) {
+            insert(++id, 2, CUTOFF.plusDays(10), DELETED_BEFORE.minus(Duration.ofDays(1)));
+        }
+        for (int i = 0; i < 2; i++) {
+            insert(++id, 2, CUTOFF.plusDays(10), NOW.minus(Duration.ofDays(1)));
+        }
+        for (int i = 0; i < 5; i++) {
+            insert(++id, 3, CUTOFF.plusDays(i), null);
+        }
+
+        // Act
+        int moved = service.archive(CUTOFF, DELETED_BEFORE);
+
+        // Assert
+        assertEquals(13, moved);
+        assertEquals(7, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM expenses", Integer.class));
+        assertEquals(13, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM expenses_archive", Integer.class));
+        assertEquals(3, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM expenses_archive WHERE deleted_at IS NOT NULL", Integer.class));
+        assertEquals(List.of("expense 1"), jdbcTemplate.queryForList(
+                "SELECT expense FROM expenses_archive WHERE id = 1 AND category_id = 1 AND payment_method_id = 2",
+                String.class));
+        assertNotNull(jdbcTemplate.queryForObject("SELECT MIN(archived_at) FROM expenses_archive", Timestamp.class));
+        assertEquals(13L, service.snapshot().get("archived"));
+        assertEquals(3L, service.snapshot().get("archivedDeleted"));
+        // Only user 1's cached list contained archived rows (invalidated once per batch)
+        verify(invalidationBus, atLeastOnce()).invalidate(expenseService.EXPENSES_CACHE, "1");
+        verify(invalidationBus, never()).invalidate(anyString(), eq("2"));
+        verify(invalidationBus, never()).invalidate(anyString(), eq("3"));
+    }
+
+    @Test
+    @DisplayName("Should do nothing when no row is cold")
+    void archive_WithNothingCold_ShouldMoveNothing() throws Exception {
+        // Arrange
+        insert(1, 1, CUTOFF.plusDays(1), null);
+
+        // Act
+        int moved = service.archive(CUTOFF, DELETED_BEFORE);
+
+        // Assert
+        assertEquals(0, moved);
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM expenses", Integer.class));
+    }
+
+    @Test
+    @DisplayName("Without a cut-off date only expired tombstones should be moved")
+    void archive_WithoutCutoff_ShouldMoveOnlyDeletedRows() throws Exception {
+        // Arrange
+        insert(1, 1, LocalDate.of(2001, 1, 1), null);
+        insert(2, 1, LocalDate.of(2001, 1, 2), DELETED_BEFORE.minus(Duration.ofDays(1)));
+
+        // Act
+        int moved = service.archive(null, DELETED_BEFORE);
+
+        // Assert
+        assertEquals(1, moved);
+        assertEquals(List.of(2), jdbcTemplate.queryForList("SELECT id FROM expenses_archive", Integer.class));
+        verify(invalidationBus, never()).invalidate(anyString(), anyString());
+    }
+}
@@ -0,0 +1,190 @@
+package org.learnspring.expensetracker.Service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.learnspring.expensetracker.Model.ExpenseView;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+class ExpenseEventHubTest {
+
+    private ExpenseEventHub hub;
+
+    @BeforeEach
+    void setUp() {
+        hub = new ExpenseEventHub(JsonMapper.builder().findAndAddModules().build(), 4, 3, 2);
+        hub.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        hub.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should deliver a change only to the owner's streams")
+    void onExpenseChanged_ShouldFanOutToOwnerOnly() throws Exception {
+        // Arrange
+        RecordingSink phone = new RecordingSink(2);
+        RecordingSink laptop = new RecordingSink(2);
+        RecordingSink otherUser = new RecordingSink(1);
+        hub.register(1, phone);
+        hub.register(1, laptop);
+        hub.register(2, otherUser);
+
+        // Act
+        hub.onExpenseChanged(new ExpenseChangeEvent(ExpenseChangeEvent.Type.CREATED, 1, 10,
+                new ExpenseView(10, "Coffee", "Food", "4.50", "Card", LocalDate.of(2025, 1, 5))));
+
+        // Assert
+        assertTrue(phone.received.await(5, TimeUnit.SECONDS));
+        assertTrue(laptop.received.await(5, TimeUnit.SECONDS));
+        assertTrue(phone.text().contains("event:expense-created"), phone.text());
+        assertTrue(phone.text().contains("\"expenseId\":10"), phone.text());
+        assertTrue(otherUser.received.await(5, TimeUnit.SECONDS));
+        assertEquals(1, otherUser.events.size(), "only the connected event");
+    }
+
+    @Test
+    @DisplayName("Should disconnect a subscriber whose buffer is full without blocking others")
+    void onExpenseChanged_WhenConsumerIsSlow_ShouldDropIt() throws Exception {
+        // Arrange: the slow sink blocks on its first write so its buffer fills up
+        CountDownLatch unblock = new CountDownLatch(1);
+        RecordingSink slow = new RecordingSink(1) {
+            @Override
+            public void send(Set<DataWithMediaType> event) throws java.io.IOException {
+                super.send(event);
+                try {
+                    unblock.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        RecordingSink fast = new RecordingSink(7);
+        hub.register(1, slow);
+        hub.register(1, fast);
+        assertTrue(slow.received.await(5, TimeUnit.SECONDS));
+
+        // Act: the fast sink keeps up with each event, the slow one overflows its 4 slots
+        for (int i = 0; i < 6; i++) {
+            hub.onExpenseChanged(new ExpenseChangeEvent(ExpenseChangeEvent.Type.DELETED, 1, i, null));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (fast.events.size() < i + 2 && System.nanoTime() < deadline) {
+                Thread.onSpinWait();
+            }
+        }
+        unblock.countDown();
+
+        // Assert
+        assertTrue(fast.received.await(5, TimeUnit.SECONDS));
+        assertTrue(slow.completed.await(5, TimeUnit.SECONDS));
+        assertEquals(1L, hub.snapshot().get("slowConsumersDropped"));
+        assertEquals(1, hub.getConnectionCount());
+    }
+
+    @Test
+    @DisplayName("Should drop a subscriber whose write blocks past the timeout and keep serving others")
+    void checkStalledWrites_WhenWriteBlocks_ShouldDropItAndFreeTheDispatcher() throws Exception {
+        // Arrange: one dispatch thread, stuck in the slow sink's first write
+        ExpenseEventHub singleThreaded = new ExpenseEventHub(JsonMapper.builder().findAndAddModules().build(), 4, 3, 1, 50);
+        singleThreaded.init();
+        CountDownLatch unblock = new CountDownLatch(1);
+        RecordingSink stuck = new RecordingSink(1) {
+            @Override
+            public void send(Set<DataWithMediaType> event) throws java.io.IOException {
+                super.send(event);
+                try {
+                    unblock.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        RecordingSink other = new RecordingSink(1);
+        try {
+            singleThreaded.register(1, stuck);
+            assertTrue(stuck.received.await(5, TimeUnit.SECONDS));
+            singleThreaded.register(2, other);
+            Thread.sleep(100);
+
+            // Act
+            singleThreaded.checkStalledWrites();
+
+            // Assert
+            assertTrue(other.received.await(5, TimeUnit.SECONDS));
+            assertEquals(1L, singleThreaded.snapshot().get("slowConsumersDropped"));
+            assertEquals(1, singleThreaded.snapshot().get("stalledWrites"));
+            assertEquals(1, singleThreaded.getConnectionCount());
+
+            // Act: the blocked write returns at last
+            unblock.countDown();
+
+            // Assert
+            assertTrue(stuck.completed.await(5, TimeUnit.SECONDS));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while ((int) singleThreaded.snapshot().get("stalledWrites") != 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(0, singleThreaded.snapshot().get("stalledWrites"));
+        } finally {
+            unblock.countDown();
+            singleThreaded.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject streams beyond the connection limit")
+    void register_BeyondLimit_ShouldReturnNull() {
+        for (int i = 0; i < 3; i++) {
+            assertNotNull(hub.register(i, new RecordingSink(1)));
+        }
+
+        assertNull(hub.register(99, new RecordingSink(1)));
+        assertEquals(1L, hub.snapshot().get("rejectedConnections"));
+    }
+
+    private static class RecordingSink implements ExpenseEventHub.Sink {
+        final List<Set<DataWithMediaType>> events = new CopyOnWriteArrayList<>();
+        final CountDownLatch received;
+        final CountDownLatch completed = new CountDownLatch(1);
+
+        RecordingSink(int expectedEvents) {
+            this.received = new CountDownLatch(expectedEvents);
+        }
+
+        @Override
+        public void send(Set<DataWithMediaType> event) throws java.io.IOException {
+            events.add(event);
+            received.countDown();
+        }
+
+        @Override
+        public void complete() {
+            completed.countDown();
+        }
+
+        String text() {
+            return events.stream()
+                    .flatMap(Set::stream)
+                    .map(item -> String.valueOf(item.getData()))
+                    .collect(Collectors.joining());
+        }
+    }
+}
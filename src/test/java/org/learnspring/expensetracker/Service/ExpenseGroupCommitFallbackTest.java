@@ -0,0 +1,80 @@
+package org.learnspring.expensetracker.Service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.learnspring.expensetracker.Model.Expense;
+import org.learnspring.expensetracker.Model.Users;
+import org.learnspring.expensetracker.repo.UserRepo;
+import org.learnspring.expensetracker.repo.expenseRepo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import({expenseService.class, DictionaryService.class})
+// The batch must really roll back before the fallback runs, as it does in production
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ExpenseGroupCommitFallbackTest {
+
+    @Autowired
+    private expenseService expenseService;
+
+    @Autowired
+    private expenseRepo expenseRepo;
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @MockitoBean
+    private CacheInvalidationBus invalidationBus;
+
+    @MockitoBean
+    private AnomalyDetectionService anomalyDetectionService;
+
+    private Users user;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepo.save(new Users(null, "batcher", "$2a$04$hash", "USER"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        expenseRepo.deleteAllInBatch();
+        userRepo.deleteAllInBatch();
+    }
+
+    private Expense expense(String name) {
+        return new Expense(0, name, "Food", "12.50", "Card", LocalDate.of(2025, 5, 1), user);
+    }
+
+    @Test
+    @DisplayName("After a failed batch the good expenses should be saved one by one as new rows")
+    void failedBatch_ShouldFallBackToSingleInserts() {
+        // Arrange: the name is too long for its column, so the batch flush fails
+        Expense good = expense("Lunch");
+        Expense bad = expense("x".repeat(101));
+
+        // Act: what GroupCommitter does with the batch and single writers
+        assertThrows(RuntimeException.class, () -> expenseService.addAllAndScore(List.of(good, bad)));
+        expenseService.AddedExpense saved = expenseService.addAndScore(good);
+        assertThrows(RuntimeException.class, () -> expenseService.addAndScore(bad));
+
+        // Assert
+        assertTrue(saved.expense().getId() > 0);
+        assertEquals(1, expenseRepo.count());
+        assertEquals("Lunch", expenseRepo.findById(saved.expense().getId()).orElseThrow().getExpense());
+    }
+}
@@ -1,26 +1,55 @@
 package org.learnspring.expensetracker.Service;
 
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.hibernate.Session;
 import org.learnspring.expensetracker.Model.Expense;
+import org.learnspring.expensetracker.Model.ExpenseAnomaly;
+import org.learnspring.expensetracker.Model.ExpenseView;
+import org.learnspring.expensetracker.Model.SpendingTrend;
+import org.learnspring.expensetracker.Model.TrendGranularity;
+import org.learnspring.expensetracker.Model.Users;
+import org.learnspring.expensetracker.repo.ExpenseAnomalyRepo;
 import org.learnspring.expensetracker.repo.expenseRepo;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import jakarta.persistence.EntityManager;
 
 @ExtendWith(MockitoExtension.class)
 class ExpenseServiceTest {
@@ -28,6 +57,27 @@ class ExpenseServiceTest {
     @Mock
     private expenseRepo expenseRepo;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private CacheInvalidationBus invalidationBus;
+
+    @Mock
+    private AnomalyDetectionService anomalyDetectionService;
+
+    @Mock
+    private ExpenseAnomalyRepo anomalyRepo;
+
+    @Mock
+    private DictionaryService dictionaryService;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private Session session;
+
     @InjectMocks
     private expenseService expenseService;
 
@@ -150,4 +200,179 @@ class ExpenseServiceTest {
             expenseService.addExpense(null);
         });
     }
-} 
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should invalidate the owner's cache and publish a change event when an expense is deleted")
+    void deleteExpenses_ShouldPublishChangeEvent() {
+        // Arrange
+        Users owner = new Users(7, "alice", "secret", "USER");
+        Expense expenseToDelete = new Expense();
+        expenseToDelete.setId(3);
+        expenseToDelete.setUser(owner);
+        ArgumentCaptor<ExpenseChangeEvent> event = ArgumentCaptor.forClass(ExpenseChangeEvent.class);
+
+        // Act
+        expenseService.deleteExpenses(expenseToDelete);
+
+        // Assert
+        verify(invalidationBus).invalidate(expenseService.EXPENSES_CACHE, "7");
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(ExpenseChangeEvent.Type.DELETED, event.getValue().type());
+        assertEquals(7, event.getValue().userId());
+        assertEquals(3, event.getValue().expenseId());
+    }
+
+    @Test
+    @DisplayName("Should restore a recently deleted expense and announce it as created")
+    void restoreExpense_WithinWindow_ShouldPublishCreated() {
+        // Arrange
+        Users owner = new Users(7, "alice", "secret", "USER");
+        testExpense.setUser(owner);
+        when(expenseRepo.restore(eq(1), eq(7), any())).thenReturn(1);
+        when(expenseRepo.findById(1)).thenReturn(Optional.of(testExpense));
+        ArgumentCaptor<ExpenseChangeEvent> event = ArgumentCaptor.forClass(ExpenseChangeEvent.class);
+
+        // Act
+        Expense restored = expenseService.restoreExpense(1, owner);
+
+        // Assert
+        assertEquals(testExpense, restored);
+        verify(invalidationBus).invalidate(expenseService.EXPENSES_CACHE, "7");
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(ExpenseChangeEvent.Type.CREATED, event.getValue().type());
+    }
+
+    @Test
+    @DisplayName("Should not restore an expense outside the restore window or owned by someone else")
+    void restoreExpense_WhenNothingRestored_ShouldReturnNull() {
+        // Arrange
+        Users owner = new Users(7, "alice", "secret", "USER");
+        when(expenseRepo.restore(eq(1), eq(7), any())).thenReturn(0);
+
+        // Act
+        Expense restored = expenseService.restoreExpense(1, owner);
+
+        // Assert
+        assertNull(restored);
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    @DisplayName("Should return one point per bucket, filling empty buckets with zero")
+    void getTrends_ShouldReturnDenseSeries() {
+        // Arrange
+        Users owner = new Users(7, "alice", "secret", "USER");
+        when(expenseRepo.sumByBucket(eq(7), eq("month"), any(), any(), isNull())).thenReturn(List.of(
+                new Object[] {Date.valueOf("2025-01-01"), new BigDecimal("12.50"), 2L},
+                new Object[] {Date.valueOf("2025-03-01"), new BigDecimal("40.00"), 1L}));
+
+        // Act
+        SpendingTrend trend = expenseService.getTrends(owner, LocalDate.of(2025, 1, 15), LocalDate.of(2025, 4, 2),
+                TrendGranularity.MONTH, null);
+
+        // Assert
+        assertFalse(trend.downsampled());
+        assertEquals(4, trend.points().size());
+        assertEquals(new SpendingTrend.Point(LocalDate.of(2025, 1, 1), new BigDecimal("12.50"), 2), trend.points().get(0));
+        assertEquals(new SpendingTrend.Point(LocalDate.of(2025, 2, 1), BigDecimal.ZERO, 0), trend.points().get(1));
+        assertEquals(LocalDate.of(2025, 4, 1), trend.points().get(3).bucket());
+    }
+
+    @Test
+    @DisplayName("Should coarsen the granularity when a range has too many buckets")
+    void getTrends_OverLongRange_ShouldDownsample() {
+        // Arrange: three years by day would be ~1100 points
+        Users owner = new Users(7, "alice", "secret", "USER");
+        when(expenseRepo.sumByBucket(eq(7), eq("week"), any(), any(), eq("Food"))).thenReturn(List.of());
+
+        // Act
+        SpendingTrend trend = expenseService.getTrends(owner, LocalDate.of(2022, 1, 1), LocalDate.of(2024, 12, 31),
+                TrendGranularity.DAY, "Food");
+
+        // Assert
+        assertTrue(trend.downsampled());
+        assertEquals(TrendGranularity.WEEK, trend.granularity());
+        assertTrue(trend.points().size() <= 366);
+        assertEquals(LocalDate.of(2021, 12, 27), trend.points().get(0).bucket());
+    }
+
+    @Test
+    @DisplayName("Should reject a range that ends before it starts")
+    void getTrends_WithInvertedRange_ShouldThrow() {
+        Users owner = new Users(7, "alice", "secret", "USER");
+
+        assertThrows(IllegalArgumentException.class, () -> expenseService.getTrends(owner,
+                LocalDate.of(2025, 2, 1), LocalDate.of(2025, 1, 1), TrendGranularity.MONTH, null));
+    }
+
+    @Test
+    @DisplayName("Should run one query for concurrent identical month reads")
+    void getByMonthForUser_Concurrently_ShouldQueryOnce() throws Exception {
+        // Arrange
+        when(invalidationBus.register(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        expenseService.init();
+        Users owner = new Users(7, "alice", "secret", "USER");
+        List<ExpenseView> rows = List.of(ExpenseView.from(testExpense));
+        CountDownLatch release = new CountDownLatch(1);
+        when(expenseRepo.findViewsByUserIdAndDateBetween(7, LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 31)))
+                .thenAnswer(invocation -> {
+                    release.await(5, TimeUnit.SECONDS);
+                    return rows;
+                });
+        int callers = 6;
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<List<ExpenseView>>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> expenseService.getByMonthForUser("2025-03", owner)));
+            }
+
+            // Act: let the query finish once every other caller has joined it
+            assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+                Map<?, ?> flight = (Map<?, ?>) expenseService.singleFlightSnapshot().get("expenses-by-month");
+                while ((long) flight.get("coalesced") < callers - 1) {
+                    Thread.sleep(5);
+                    flight = (Map<?, ?>) expenseService.singleFlightSnapshot().get("expenses-by-month");
+                }
+            }, "callers did not all join the running query");
+            release.countDown();
+
+            // Assert
+            for (Future<List<ExpenseView>> result : results) {
+                assertEquals(rows, result.get(5, TimeUnit.SECONDS));
+            }
+            verify(expenseRepo, times(1)).findViewsByUserIdAndDateBetween(any(), any(), any());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Should save a batch with one flush and score every expense")
+    void addAllAndScore_ShouldSaveBatchAndScoreEach() {
+        // Arrange
+        Users owner = new Users(7, "alice", "secret", "USER");
+        Expense first = new Expense(0, "Coffee", "Food", "4.50", "Card", LocalDate.of(2025, 3, 1), owner);
+        Expense second = new Expense(0, "Laptop", "Food", "4000", "Card", LocalDate.of(2025, 3, 2), owner);
+        when(entityManager.unwrap(Session.class)).thenReturn(session);
+        when(expenseRepo.saveAllAndFlush(List.of(first, second))).thenAnswer(invocation -> {
+            first.setId(11);
+            second.setId(12);
+            return List.of(first, second);
+        });
+        ExpenseAnomaly anomaly = new ExpenseAnomaly();
+        when(anomalyDetectionService.observe(any())).thenAnswer(invocation -> invocation.getArgument(0) == second ? anomaly : null);
+
+        // Act
+        List<expenseService.AddedExpense> added = expenseService.addAllAndScore(List.of(first, second));
+
+        // Assert
+        assertEquals(11, added.get(0).expense().getId());
+        assertNull(added.get(0).anomaly());
+        assertEquals(anomaly, added.get(1).anomaly());
+        verify(session).setJdbcBatchSize(2);
+        verify(anomalyRepo).saveAll(List.of(anomaly));
+        verify(eventPublisher, times(2)).publishEvent(any(ExpenseChangeEvent.class));
+    }
+}
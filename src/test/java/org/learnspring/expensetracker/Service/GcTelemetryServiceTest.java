@@ -0,0 +1,65 @@
+package org.learnspring.expensetracker.Service;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class GcTelemetryServiceTest {
+
+    private final GcTelemetryService service = new GcTelemetryService();
+
+    // Keeps the allocations below from being optimized away
+    private static volatile Object sink;
+
+    @BeforeEach
+    void setUp() {
+        service.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.stop();
+    }
+
+    private static void allocate(int megabytes) {
+        List<byte[]> chunks = new ArrayList<>();
+        for (int i = 0; i < megabytes; i++) {
+            chunks.add(new byte[1024 * 1024]);
+            if (chunks.size() == 16) {
+                sink = chunks;
+                chunks = new ArrayList<>();
+            }
+        }
+        sink = chunks;
+    }
+
+    @Test
+    @DisplayName("Should report GC pauses and a non-zero allocation rate after allocating")
+    @SuppressWarnings("unchecked")
+    void snapshot_AfterAllocationAndGc_ShouldReportPausesAndAllocationRate() throws Exception {
+        // Act: allocate, collect, and wait for the asynchronous GC notifications
+        allocate(256);
+        System.gc();
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (service.getPauseStats().getCount() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        allocate(64);
+        service.sampleAllocationRate();
+        Map<String, Object> snapshot = service.snapshot();
+
+        // Assert
+        Map<String, Object> pauses = (Map<String, Object>) snapshot.get("pauses");
+        assertTrue((long) pauses.get("count") > 0, "pauses recorded: " + pauses);
+        assertTrue(!((Map<String, Object>) snapshot.get("pausesByCollector")).isEmpty());
+        assertTrue((double) snapshot.get("allocationRateMbPerSec") > 0, "allocation rate: " + snapshot);
+        assertTrue(((Map<String, Object>) snapshot.get("heap")).containsKey("usedMb"));
+    }
+}
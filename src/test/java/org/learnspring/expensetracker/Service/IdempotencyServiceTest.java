@@ -0,0 +1,172 @@
+package org.learnspring.expensetracker.Service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.learnspring.expensetracker.Service.IdempotencyService.Claim;
+import org.learnspring.expensetracker.Service.IdempotencyService.Outcome;
+import org.learnspring.expensetracker.Service.IdempotencyService.StoredResponse;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+class IdempotencyServiceTest {
+
+    private static final StoredResponse CREATED = new StoredResponse("fp", 200, "application/json", "{\"id\":1}".getBytes());
+
+    private JdbcTemplate jdbcTemplate;
+    private IdempotencyService service;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:idempotency;DB_CLOSE_DELAY=-1", "sa", ""));
+        jdbcTemplate.execute("CREATE TABLE idempotency_keys (id VARCHAR(320) PRIMARY KEY, fingerprint VARCHAR(64) NOT NULL, "
+                + "status INT NOT NULL, content_type VARCHAR(100), response_body VARBINARY(65536), body VARCHAR(65536), "
+                + "created_at TIMESTAMP WITH TIME ZONE NOT NULL)");
+        service = new IdempotencyService(jdbcTemplate, 2000, 60_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP TABLE idempotency_keys");
+    }
+
+    @Test
+    @DisplayName("Should run a request once and replay its response to repeats")
+    void claim_AfterComplete_ShouldReplay() throws Exception {
+        // Arrange
+        assertEquals(Outcome.EXECUTE, service.claim("alice", "k1", "fp").outcome());
+        service.complete("alice", "k1", CREATED);
+
+        // Act
+        Claim repeat = service.claim("alice", "k1", "fp");
+        Claim otherUser = service.claim("bob", "k1", "fp");
+
+        // Assert
+        assertEquals(Outcome.REPLAY, repeat.outcome());
+        assertEquals(CREATED, repeat.response());
+        assertEquals(Outcome.EXECUTE, otherUser.outcome());
+    }
+
+    @Test
+    @DisplayName("Should refuse a key reused for a different request")
+    void claim_WithDifferentFingerprint_ShouldReportMismatch() throws Exception {
+        // Arrange
+        service.claim("alice", "k1", "fp");
+        service.complete("alice", "k1", CREATED);
+
+        // Act
+        Claim claim = service.claim("alice", "k1", "other");
+
+        // Assert
+        assertEquals(Outcome.MISMATCH, claim.outcome());
+        assertNull(claim.response());
+    }
+
+    @Test
+    @DisplayName("Should let concurrent repeats wait for the first request and replay it")
+    void claim_Concurrently_ShouldExecuteOnce() throws Exception {
+        // Arrange
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Outcome>> outcomes = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            outcomes.add(executor.submit(() -> {
+                start.await();
+                Claim claim = service.claim("alice", "k1", "fp");
+                if (claim.outcome() == Outcome.EXECUTE) {
+                    Thread.sleep(100);
+                    service.complete("alice", "k1", CREATED);
+                }
+                return claim.outcome();
+            }));
+        }
+
+        // Act
+        start.countDown();
+        int executed = 0;
+        int replayed = 0;
+        for (Future<Outcome> outcome : outcomes) {
+            Outcome result = outcome.get(10, TimeUnit.SECONDS);
+            executed += result == Outcome.EXECUTE ? 1 : 0;
+            replayed += result == Outcome.REPLAY ? 1 : 0;
+        }
+        executor.shutdown();
+
+        // Assert
+        assertEquals(1, executed);
+        assertEquals(threads - 1, replayed);
+    }
+
+    @Test
+    @DisplayName("Should wait for a request running on another instance, then replay it")
+    void claim_RunningOnOtherInstance_ShouldWaitThenReplay() throws Exception {
+        // Arrange
+        IdempotencyService other = new IdempotencyService(jdbcTemplate, 2000, 60_000);
+        assertEquals(Outcome.EXECUTE, other.claim("alice", "k1", "fp").outcome());
+        Thread completer = new Thread(() -> {
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                return;
+            }
+            other.complete("alice", "k1", CREATED);
+        });
+        completer.start();
+
+        // Act
+        Claim claim = service.claim("alice", "k1", "fp");
+        completer.join();
+
+        // Assert
+        assertEquals(Outcome.REPLAY, claim.outcome());
+        assertEquals(CREATED, claim.response());
+    }
+
+    @Test
+    @DisplayName("Should report a request still running elsewhere after the wait")
+    void claim_StillRunning_ShouldReportInProgress() throws Exception {
+        // Arrange
+        IdempotencyService impatient = new IdempotencyService(jdbcTemplate, 100, 60_000);
+        new IdempotencyService(jdbcTemplate, 100, 60_000).claim("alice", "k1", "fp");
+
+        // Act
+        Claim claim = impatient.claim("alice", "k1", "fp");
+
+        // Assert
+        assertEquals(Outcome.IN_PROGRESS, claim.outcome());
+    }
+
+    @Test
+    @DisplayName("Should run the request again after a server error or an abandoned claim")
+    void claim_AfterFailureOrExpiredLease_ShouldExecuteAgain() throws Exception {
+        // Arrange: a 500 is not stored
+        service.claim("alice", "k1", "fp");
+        service.complete("alice", "k1", new StoredResponse("fp", 500, "application/json", "{}".getBytes()));
+        // An instance died while running k2
+        jdbcTemplate.update("INSERT INTO idempotency_keys (id, fingerprint, status, created_at) VALUES (?, ?, 0, ?)",
+                "alice:k2", "fp", Timestamp.from(Instant.now().minusSeconds(120)));
+
+        // Act
+        Claim retry = service.claim("alice", "k1", "fp");
+        Claim takeover = service.claim("alice", "k2", "fp");
+
+        // Assert
+        assertEquals(Outcome.EXECUTE, retry.outcome());
+        assertEquals(Outcome.EXECUTE, takeover.outcome());
+    }
+}
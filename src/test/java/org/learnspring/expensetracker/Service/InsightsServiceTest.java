@@ -0,0 +1,193 @@
+package org.learnspring.expensetracker.Service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.learnspring.expensetracker.Model.ExpenseInsights;
+import org.learnspring.expensetracker.Model.ExpenseView;
+import org.learnspring.expensetracker.Model.Users;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+/**
+ * Compares the sketch answers with exact GROUP BY queries over a generated dataset in H2.
+ */
+class InsightsServiceTest {
+
+    private static final int MERCHANTS = 400;
+    private static final int ROWS = 20_000;
+
+    private final Users user = new Users(1, "alice", "secret", "USER");
+    private JdbcTemplate jdbcTemplate;
+    private InsightsService service;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:insights;DB_CLOSE_DELAY=-1", "sa", ""));
+        jdbcTemplate.execute("CREATE TABLE expenses (id INT PRIMARY KEY, user_id INT, expense VARCHAR(100), "
+                + "expense_amount VARCHAR(20), date DATE, deleted_at TIMESTAMP WITH TIME ZONE)");
+        service = new InsightsService(jdbcTemplate, 128, 4, 25);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP TABLE expenses");
+    }
+
+    // Zipf-distributed merchant names with log-normal amounts, dated over the last two years
+    private void generate(long seed) {
+        Random random = new Random(seed);
+        double[] cumulative = new double[MERCHANTS];
+        double sum = 0;
+        for (int i = 0; i < MERCHANTS; i++) {
+            sum += 1 / Math.pow(i + 1, 1.1);
+            cumulative[i] = sum;
+        }
+        LocalDate today = LocalDate.now();
+        List<Object[]> rows = new ArrayList<>(ROWS);
+        for (int id = 1; id <= ROWS; id++) {
+            double pick = random.nextDouble() * sum;
+            int merchant = 0;
+            while (cumulative[merchant] < pick) {
+                merchant++;
+            }
+            double median = 5 + (merchant * 37) % 200;
+            String amount = BigDecimal.valueOf(median * Math.exp(random.nextGaussian() * 0.6))
+                    .setScale(2, RoundingMode.HALF_UP).toPlainString();
+            LocalDate date = id % 10 == 0 ? today.withDayOfMonth(1 + random.nextInt(today.getDayOfMonth()))
+                    : today.minusDays(random.nextInt(730));
+            rows.add(new Object[] {id, id % 50 == 0 ? 2 : 1, "Merchant " + merchant, amount, Date.valueOf(date)});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO expenses (id, user_id, expense, expense_amount, date) VALUES (?, ?, ?, ?, ?)", rows);
+    }
+
+    private Map<String, long[]> exact(String where) {
+        Map<String, long[]> totals = new LinkedHashMap<>();
+        jdbcTemplate.query("SELECT expense, COUNT(*) AS n, SUM(CAST(expense_amount AS DECIMAL(14, 2))) AS amount "
+                + "FROM expenses WHERE user_id = 1" + where + " GROUP BY expense", rs -> {
+                    totals.put(rs.getString("expense"), new long[] {rs.getLong("n"),
+                            rs.getBigDecimal("amount").movePointRight(2).longValueExact()});
+                });
+        return totals;
+    }
+
+    private static List<String> exactTop(Map<String, long[]> totals, int column, int k) {
+        return totals.entrySet().stream()
+                .sorted((a, b) -> Long.compare(b.getValue()[column], a.getValue()[column]))
+                .limit(k)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    private static void assertMatchesExact(ExpenseInsights insights, Map<String, long[]> totals) {
+        long exactCount = totals.values().stream().mapToLong(t -> t[0]).sum();
+        long exactCents = totals.values().stream().mapToLong(t -> t[1]).sum();
+        assertEquals(exactCount, insights.expenses());
+        assertEquals(BigDecimal.valueOf(exactCents, 2), insights.total());
+        long amountBound = insights.amountErrorBound().movePointRight(2).longValueExact();
+
+        // Every estimate is an overcount within the documented bound
+        for (ExpenseInsights.Item item : insights.mostFrequent()) {
+            long trueCount = totals.get(item.name())[0];
+            assertTrue(item.count() >= trueCount && item.count() <= trueCount + insights.countErrorBound(),
+                    item.name() + ": " + item.count() + " vs exact " + trueCount);
+        }
+        for (ExpenseInsights.Item item : insights.mostExpensive()) {
+            long trueCents = totals.get(item.name())[1];
+            long cents = item.amount().movePointRight(2).longValueExact();
+            assertTrue(cents >= trueCents && cents <= trueCents + amountBound,
+                    item.name() + ": " + item.amount() + " vs exact " + BigDecimal.valueOf(trueCents, 2));
+        }
+
+        // The true heaviest names are all reported
+        List<String> frequent = insights.mostFrequent().stream().map(ExpenseInsights.Item::name).toList();
+        List<String> expensive = insights.mostExpensive().stream().map(ExpenseInsights.Item::name).toList();
+        assertTrue(frequent.containsAll(exactTop(totals, 0, 5)), "frequent " + frequent);
+        assertTrue(expensive.containsAll(exactTop(totals, 1, 5)), "expensive " + expensive);
+    }
+
+    @Test
+    @DisplayName("All-time top names should match exact SQL within the error bound")
+    void getTop_AllTime_ShouldMatchExactSql() {
+        // Arrange
+        generate(42);
+
+        // Act
+        ExpenseInsights insights = service.getTop(user, InsightsService.Period.ALL, 10);
+
+        // Assert
+        assertEquals(10, insights.mostFrequent().size());
+        assertMatchesExact(insights, exact(""));
+    }
+
+    @Test
+    @DisplayName("This month's top names should match exact SQL within the error bound")
+    void getTop_Month_ShouldMatchExactSql() {
+        // Arrange
+        generate(7);
+        LocalDate firstOfMonth = LocalDate.now().withDayOfMonth(1);
+
+        // Act
+        ExpenseInsights insights = service.getTop(user, InsightsService.Period.MONTH, 10);
+
+        // Assert
+        assertEquals(firstOfMonth, insights.from());
+        assertMatchesExact(insights, exact(" AND date >= DATE '" + firstOfMonth + "' AND date <= DATE '"
+                + firstOfMonth.plusMonths(1).minusDays(1) + "'"));
+    }
+
+    @Test
+    @DisplayName("Changes should be applied in place; only one without its previous state should rebuild")
+    void onExpenseChanged_ShouldUpdateInPlaceOrRebuild() {
+        // Arrange
+        LocalDate today = LocalDate.now();
+        ExpenseView coffee = new ExpenseView(1, "Coffee", "Food", "4.50", "Card", today);
+        jdbcTemplate.update("INSERT INTO expenses (id, user_id, expense, expense_amount, date) VALUES (1, 1, 'Coffee', '4.50', ?)", Date.valueOf(today));
+        assertEquals(1, service.getTop(user, InsightsService.Period.ALL, 5).expenses());
+
+        // Act: none of these are in the table, so only the in-place updates can count them
+        service.onExpenseChanged(new ExpenseChangeEvent(ExpenseChangeEvent.Type.CREATED, 1, 2,
+                new ExpenseView(2, " coffee ", "Food", "3.00", "Card", today)));
+        ExpenseInsights afterCreate = service.getTop(user, InsightsService.Period.MONTH, 5);
+        service.onExpenseChanged(new ExpenseChangeEvent(ExpenseChangeEvent.Type.UPDATED, 1, 1,
+                new ExpenseView(1, "Tea", "Food", "2.00", "Card", today), coffee));
+        ExpenseInsights afterUpdate = service.getTop(user, InsightsService.Period.MONTH, 5);
+        service.onExpenseChanged(new ExpenseChangeEvent(ExpenseChangeEvent.Type.DELETED, 1, 2, null,
+                new ExpenseView(2, "coffee", "Food", "3.00", "Card", today)));
+        ExpenseInsights afterDelete = service.getTop(user, InsightsService.Period.MONTH, 5);
+        service.onExpenseChanged(new ExpenseChangeEvent(ExpenseChangeEvent.Type.UPDATED, 1, 1, coffee));
+        ExpenseInsights afterRebuild = service.getTop(user, InsightsService.Period.MONTH, 5);
+
+        // Assert
+        assertEquals(new ExpenseInsights.Item("Coffee", 2, new BigDecimal("7.50")), afterCreate.mostFrequent().get(0));
+        assertEquals(2, afterUpdate.expenses());
+        assertEquals(new BigDecimal("5.00"), afterUpdate.total());
+        assertEquals(1, afterDelete.expenses());
+        assertEquals(new ExpenseInsights.Item("Tea", 1, new BigDecimal("2.00")), afterDelete.mostFrequent().get(0));
+        assertEquals(3L, service.snapshot().get("incrementalUpdates"));
+        assertEquals(1, afterRebuild.expenses(), "rebuilt from the table");
+        assertEquals(2L, service.snapshot().get("rowsScanned"));
+    }
+
+    @Test
+    @DisplayName("Should reject an unknown period")
+    void parsePeriod_WithUnknownValue_ShouldThrow() {
+        assertEquals(InsightsService.Period.YEAR, InsightsService.Period.parse(" Year "));
+        assertThrows(IllegalArgumentException.class, () -> InsightsService.Period.parse("week"));
+    }
+}
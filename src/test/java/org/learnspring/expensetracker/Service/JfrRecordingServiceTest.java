@@ -0,0 +1,61 @@
+package org.learnspring.expensetracker.Service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class JfrRecordingServiceTest {
+
+    private final JfrRecordingService service = new JfrRecordingService();
+
+    @AfterEach
+    void tearDown() {
+        service.closeCurrent();
+    }
+
+    @Test
+    @DisplayName("Should record and dump a non-empty .jfr file")
+    void startAndStop_ShouldProduceRecordingFile() throws Exception {
+        // Act
+        Map<String, Object> status = service.start("default");
+        Path file = service.stop();
+
+        // Assert
+        try {
+            assertEquals("RUNNING", status.get("state"));
+            assertTrue(Files.size(file) > 0);
+            assertEquals("NONE", service.status().get("state"));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject a second concurrent recording")
+    void start_ShouldFail_WhenAlreadyRunning() throws Exception {
+        service.start("default");
+
+        assertThrows(IllegalStateException.class, () -> service.start("default"));
+    }
+
+    @Test
+    @DisplayName("Should reject settings other than the built-in ones without starting")
+    void start_ShouldFail_WithUnknownSettings() {
+        assertThrows(IllegalArgumentException.class, () -> service.start("/etc/custom.jfc"));
+        assertEquals("NONE", service.status().get("state"));
+    }
+
+    @Test
+    @DisplayName("Should fail to stop when nothing was started")
+    void stop_ShouldFail_WhenNotStarted() {
+        assertThrows(IllegalStateException.class, service::stop);
+    }
+}
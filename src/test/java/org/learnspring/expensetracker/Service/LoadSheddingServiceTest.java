@@ -0,0 +1,60 @@
+package org.learnspring.expensetracker.Service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.learnspring.expensetracker.Service.LoadSheddingService.RequestClass;
+
+class LoadSheddingServiceTest {
+
+    private LoadSheddingService service;
+
+    @BeforeEach
+    void setUp() {
+        // Field defaults: limit 20, expensive reads up to 60% of it
+        service = new LoadSheddingService();
+        service.init();
+    }
+
+    @Test
+    @DisplayName("Should classify health and admin as critical and list reads as expensive")
+    void classify_ShouldMapEndpoints() {
+        assertEquals(RequestClass.CRITICAL, service.classify("/health"));
+        assertEquals(RequestClass.CRITICAL, service.classify("/health/readiness"));
+        assertEquals(RequestClass.CRITICAL, service.classify("/admin/jvm"));
+        assertEquals(RequestClass.EXPENSIVE, service.classify("/admin/stats"));
+        assertEquals(RequestClass.EXPENSIVE, service.classify("/all"));
+        assertEquals(RequestClass.EXPENSIVE, service.classify("/by-month/2025-03"));
+        assertEquals(RequestClass.EXPENSIVE, service.classify("/insights/top"));
+        assertEquals(RequestClass.STANDARD, service.classify("/add"));
+        assertEquals(RequestClass.STANDARD, service.classify("/suggest"));
+        assertEquals(15, service.statementTimeoutSeconds(RequestClass.EXPENSIVE));
+    }
+
+    @Test
+    @DisplayName("Should shed expensive reads first and never shed critical requests")
+    void tryAcquire_UnderLoad_ShouldPrioritise() {
+        // Arrange
+        for (int i = 0; i < 12; i++) {
+            assertTrue(service.tryAcquire(RequestClass.EXPENSIVE));
+        }
+
+        // Act & Assert
+        assertFalse(service.tryAcquire(RequestClass.EXPENSIVE));
+        for (int i = 0; i < 8; i++) {
+            assertTrue(service.tryAcquire(RequestClass.STANDARD));
+        }
+        assertFalse(service.tryAcquire(RequestClass.STANDARD));
+        assertTrue(service.tryAcquire(RequestClass.CRITICAL));
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> expensive = (Map<String, Object>) service.snapshot().get("expensive");
+        assertEquals(1L, expensive.get("shed"));
+    }
+}
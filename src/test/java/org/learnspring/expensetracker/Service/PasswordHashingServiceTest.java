@@ -0,0 +1,112 @@
+package org.learnspring.expensetracker.Service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+class PasswordHashingServiceTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private PasswordHashingService service;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        service.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should hash and verify on the pool and record latency")
+    void encodeAndMatches_ShouldUseDelegateAndRecordStats() {
+        // Arrange
+        service = new PasswordHashingService(new ReversingEncoder(null), 2, 4);
+        service.init();
+
+        // Act
+        String hash = service.encodeAsync("secret").join();
+        boolean matches = service.matches("secret", hash);
+        boolean mismatch = service.matches("other", hash);
+
+        // Assert
+        assertEquals("terces", hash);
+        assertTrue(matches);
+        assertFalse(mismatch);
+        Map<String, Object> snapshot = service.snapshot();
+        assertEquals(1L, ((Map<?, ?>) snapshot.get("encode")).get("count"));
+        assertEquals(2L, ((Map<?, ?>) snapshot.get("matches")).get("count"));
+        assertEquals(3L, ((Map<?, ?>) snapshot.get("queueWait")).get("count"));
+    }
+
+    @Test
+    @DisplayName("Should reject with capacity exception once the queue is full")
+    void encodeAsync_WhenQueueFull_ShouldFailFast() throws Exception {
+        // Arrange: one busy thread and a queue of one
+        service = new PasswordHashingService(new ReversingEncoder(release), 1, 1);
+        service.init();
+        CompletableFuture<String> running = service.encodeAsync("a");
+        waitUntilActive();
+        CompletableFuture<String> queued = service.encodeAsync("b");
+
+        // Act
+        CompletableFuture<String> rejected = service.encodeAsync("c");
+
+        // Assert
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> rejected.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(PasswordHashingCapacityException.class, failure.getCause());
+        assertThrows(PasswordHashingCapacityException.class, () -> service.matches("d", "d"));
+        assertEquals(2L, service.snapshot().get("rejected"));
+
+        release.countDown();
+        assertEquals("a", running.get(1, TimeUnit.SECONDS));
+        assertEquals("b", queued.get(1, TimeUnit.SECONDS));
+    }
+
+    private void waitUntilActive() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 1000;
+        while ((int) service.snapshot().get("activeThreads") == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    /**
+     * Stand-in for BCrypt: "hashes" by reversing, optionally blocking until released.
+     */
+    private static class ReversingEncoder implements PasswordEncoder {
+
+        private final CountDownLatch gate;
+
+        ReversingEncoder(CountDownLatch gate) {
+            this.gate = gate;
+        }
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            if (gate != null) {
+                try {
+                    gate.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return new StringBuilder(rawPassword).reverse().toString();
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encode(rawPassword).equals(encodedPassword);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package org.learnspring.expensetracker.Service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.learnspring.expensetracker.Model.PlatformStats;
+import org.learnspring.expensetracker.Model.TrendGranularity;
+import org.learnspring.expensetracker.config.Dictionary;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+class PlatformStatsServiceTest {
+
+    private static final LocalDate JAN = LocalDate.of(2025, 1, 1);
+    private static final LocalDate FEB = LocalDate.of(2025, 2, 1);
+
+    private JdbcTemplate jdbcTemplate;
+    private DictionaryService dictionaryService;
+    private PlatformStatsService service;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.getDataSource()).thenReturn(mock(DataSource.class));
+        when(jdbcTemplate.queryForMap(anyString()))
+                .thenReturn(Map.of("min_id", 1, "max_id", 100, "user_count", 90L));
+        Dictionary categories = mock(Dictionary.class);
+        when(categories.nameFor(1)).thenReturn("Food");
+        when(categories.nameFor(2)).thenReturn("Rent");
+        dictionaryService = mock(DictionaryService.class);
+        when(dictionaryService.categories()).thenReturn(categories);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Should split an id range into contiguous, non-overlapping slices")
+    void split_ShouldCoverRangeWithoutOverlap() {
+        for (int n : new int[] {1, 3, 8, 200}) {
+            // Act
+            List<long[]> slices = PlatformStatsService.split(5, 104, n);
+
+            // Assert
+            assertTrue(slices.size() <= n);
+            assertEquals(5, slices.get(0)[0]);
+            assertEquals(104, slices.get(slices.size() - 1)[1]);
+            for (int i = 1; i < slices.size(); i++) {
+                assertEquals(slices.get(i - 1)[1] + 1, slices.get(i)[0]);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should add up slice results per bucket and category")
+    void compute_ShouldMergeSlices() throws Exception {
+        // Arrange: every slice reports the same rows
+        service = new PlatformStatsService(jdbcTemplate, dictionaryService, 2, 4) {
+            @Override
+            List<Row> aggregate(long fromId, long toId, LocalDate from, LocalDate to, TrendGranularity granularity) {
+                return List.of(
+                        new Row(0, JAN, 1, 3, new BigDecimal("30"), 2),
+                        new Row(0, JAN, 2, 1, new BigDecimal("500"), 1),
+                        new Row(1, JAN, null, 4, new BigDecimal("530"), 2),
+                        new Row(0, FEB, 1, 2, new BigDecimal("15.50"), 1),
+                        new Row(1, FEB, null, 2, new BigDecimal("15.50"), 1),
+                        new Row(3, null, null, 6, new BigDecimal("545.50"), 3));
+            }
+        };
+
+        // Act
+        PlatformStats stats = service.compute(JAN, LocalDate.of(2025, 2, 28), TrendGranularity.MONTH);
+
+        // Assert
+        assertEquals(4, stats.partitions());
+        assertEquals(90, stats.users());
+        assertEquals(12, stats.activeUsers());
+        assertEquals(24, stats.expenses());
+        assertEquals(0, new BigDecimal("2182").compareTo(stats.total()));
+        assertEquals(2, stats.buckets().size());
+        PlatformStats.Bucket january = stats.buckets().get(0);
+        assertEquals(JAN, january.bucket());
+        assertEquals(8, january.activeUsers());
+        assertEquals(16, january.expenses());
+        assertEquals("Rent", january.categories().get(0).category());
+        assertEquals(0, new BigDecimal("2000").compareTo(january.categories().get(0).total()));
+        assertEquals(12, january.categories().get(1).expenses());
+        assertEquals(FEB, stats.buckets().get(1).bucket());
+    }
+
+    @Test
+    @DisplayName("Should aggregate every slice once with no more than the pool's threads at a time")
+    void compute_ShouldBoundConcurrency() throws Exception {
+        // Arrange
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<long[]> seen = Collections.synchronizedList(new ArrayList<>());
+        service = new PlatformStatsService(jdbcTemplate, dictionaryService, 2, 8) {
+            @Override
+            List<Row> aggregate(long fromId, long toId, LocalDate from, LocalDate to, TrendGranularity granularity) {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    running.decrementAndGet();
+                }
+                seen.add(new long[] {fromId, toId});
+                return List.of();
+            }
+        };
+
+        // Act
+        service.compute(JAN, LocalDate.of(2025, 12, 31), TrendGranularity.MONTH);
+
+        // Assert
+        assertEquals(8, seen.size());
+        assertTrue(maxRunning.get() <= 2, "max concurrent slices " + maxRunning.get());
+        assertEquals(100, seen.stream().mapToLong(slice -> slice[1] - slice[0] + 1).sum());
+    }
+
+    @Test
+    @DisplayName("Should reject ranges with more buckets than allowed")
+    void compute_WithTooManyBuckets_ShouldThrow() {
+        // Arrange
+        service = new PlatformStatsService(jdbcTemplate, dictionaryService, 2, 8);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> service.compute(JAN, LocalDate.of(2027, 1, 1), TrendGranularity.DAY));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.compute(FEB, JAN, TrendGranularity.MONTH));
+    }
+}
@@ -0,0 +1,53 @@
+package org.learnspring.expensetracker.Service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class RateLimiterServiceTest {
+
+    private RateLimiterService service;
+
+    @BeforeEach
+    void setUp() {
+        // Field defaults: auth 10 burst, api 60 burst
+        service = new RateLimiterService();
+        service.init();
+    }
+
+    @Test
+    @DisplayName("Failed logins from one IP should not lock the user out on other IPs")
+    void recordAuthFailure_ShouldLockOutOnlyThatIp() {
+        // Act
+        for (int i = 0; i < 10; i++) {
+            service.recordAuthFailure("10.0.0.1", "alice");
+        }
+
+        // Assert
+        assertTrue(service.authLockout("10.0.0.1", "alice") > 0);
+        assertEquals(0, service.authLockout("10.0.0.2", "alice"));
+    }
+
+    @Test
+    @DisplayName("Unauthenticated calls naming a user should not use up that user's API budget")
+    void acquireApi_ShouldChargeUserOnlyAfterAuthentication() {
+        // Act: plenty of calls that never authenticated, spread over IPs
+        for (int i = 0; i < 100; i++) {
+            service.acquireApi("10.0.1." + i, "bob");
+        }
+
+        // Assert
+        assertEquals(0, service.acquireApi("10.0.2.1", "bob"));
+
+        // Act: authenticated calls do count, across IPs
+        for (int i = 0; i < 60; i++) {
+            service.recordApiCall("bob");
+        }
+
+        // Assert
+        assertTrue(service.acquireApi("10.0.2.2", "bob") > 0);
+    }
+}
@@ -0,0 +1,121 @@
+package org.learnspring.expensetracker.Service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.learnspring.expensetracker.Model.ExpenseView;
+import org.learnspring.expensetracker.Model.Users;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+class SuggestionServiceTest {
+
+    private final Users user = new Users(1, "alice", "secret", "USER");
+    private JdbcTemplate jdbcTemplate;
+    private DictionaryService dictionaryService;
+    private SuggestionService service;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:suggest;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE categories (id INT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                + "name VARCHAR(50) NOT NULL UNIQUE)");
+        jdbcTemplate.execute("CREATE TABLE expenses (id INT PRIMARY KEY, user_id INT, expense VARCHAR(100), "
+                + "category_id INT, date DATE, deleted_at TIMESTAMP WITH TIME ZONE)");
+        dictionaryService = new DictionaryService(jdbcTemplate, new DataSourceTransactionManager(dataSource));
+        service = new SuggestionService(jdbcTemplate, dictionaryService, 30, 20);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP TABLE expenses");
+        jdbcTemplate.execute("DROP TABLE categories");
+    }
+
+    private void insert(int id, int userId, String expense, String type, LocalDate date) {
+        jdbcTemplate.update("INSERT INTO expenses (id, user_id, expense, category_id, date) VALUES (?, ?, ?, ?, ?)", id, userId, expense,
+                dictionaryService.categories().idFor(type), Date.valueOf(date));
+    }
+
+    @Test
+    @DisplayName("Should build the index from the user's rows and then serve from memory")
+    void suggest_ShouldBuildOnceFromTable() {
+        // Arrange
+        LocalDate today = LocalDate.now();
+        insert(1, 1, "Coffee", "Food", today);
+        insert(2, 1, "Coffee", "Food", today);
+        insert(3, 1, "Cake", "Food", today);
+        insert(4, 2, "Car wash", "Transport", today);
+
+        // Act
+        List<String> first = service.suggest(user, SuggestionService.Field.EXPENSE, "c", 10);
+        jdbcTemplate.update("DELETE FROM expenses");
+        List<String> second = service.suggest(user, SuggestionService.Field.EXPENSE_TYPE, "f", 10);
+
+        // Assert
+        assertEquals(List.of("Coffee", "Cake"), first, "other users' values are not suggested");
+        assertEquals(List.of("Food"), second, "served without reading the table again");
+    }
+
+    @Test
+    @DisplayName("Committed changes should be added to a built index; unbuilt users are left alone")
+    void onExpenseChanged_ShouldUpdateBuiltIndex() {
+        // Arrange
+        service.suggest(user, SuggestionService.Field.EXPENSE, "", 10);
+
+        // Act
+        service.onExpenseChanged(new ExpenseChangeEvent(ExpenseChangeEvent.Type.CREATED, 1, 5,
+                new ExpenseView(5, "Pharmacy", "Health", "12.00", "Card", LocalDate.now())));
+        service.onExpenseChanged(new ExpenseChangeEvent(ExpenseChangeEvent.Type.CREATED, 2, 6,
+                new ExpenseView(6, "Parking", "Transport", "3.00", "Card", LocalDate.now())));
+
+        // Assert
+        assertEquals(List.of("Pharmacy"), service.suggest(user, SuggestionService.Field.EXPENSE, "ph", 10));
+        assertEquals(List.of("Health"), service.suggest(user, SuggestionService.Field.EXPENSE_TYPE, "", 10));
+        assertEquals(1L, service.snapshot().get("incrementalUpdates"));
+        assertEquals(1, service.snapshot().get("cachedUsers"));
+    }
+
+    @Test
+    @DisplayName("Lookups over a large vocabulary should take well under a millisecond")
+    void suggest_ShouldAnswerQuickly() {
+        // Arrange
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            rows.add(new Object[] {i, 1, "Merchant " + (i % 2_000), dictionaryService.categories().idFor("Type " + (i % 40)),
+                    Date.valueOf(LocalDate.now().minusDays(i % 365))});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO expenses (id, user_id, expense, category_id, date) VALUES (?, ?, ?, ?, ?)", rows);
+        service.suggest(user, SuggestionService.Field.EXPENSE, "m", 10);
+
+        // Act
+        int calls = 20_000;
+        long start = System.nanoTime();
+        for (int i = 0; i < calls; i++) {
+            service.suggest(user, SuggestionService.Field.EXPENSE, "Merchant 1" + (i % 100), 10);
+        }
+        double averageMicros = (System.nanoTime() - start) / 1_000.0 / calls;
+
+        // Assert
+        assertTrue(averageMicros < 500, "average " + averageMicros + " us");
+    }
+
+    @Test
+    @DisplayName("Should reject an unknown field")
+    void parseField_WithUnknownValue_ShouldThrow() {
+        assertEquals(SuggestionService.Field.EXPENSE_TYPE, SuggestionService.Field.parse("expenseType"));
+        assertThrows(IllegalArgumentException.class, () -> SuggestionService.Field.parse("amount"));
+    }
+}
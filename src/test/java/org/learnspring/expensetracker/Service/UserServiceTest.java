@@ -0,0 +1,72 @@
+package org.learnspring.expensetracker.Service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.learnspring.expensetracker.Model.Users;
+import org.learnspring.expensetracker.repo.UserRepo;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@ExtendWith(MockitoExtension.class)
+class UserServiceTest {
+
+    @Mock
+    private UserRepo repo;
+
+    @Mock
+    private PasswordHashingService hashingService;
+
+    @Mock
+    private UserLookupService userLookupService;
+
+    @InjectMocks
+    private UserService userService;
+
+    @Test
+    @DisplayName("Registration should ignore a role and id sent by the client")
+    void registerAsync_ShouldAlwaysCreatePlainUser() throws Exception {
+        // Arrange
+        ReflectionTestUtils.setField(userService, "taskExecutor", (Executor) Runnable::run);
+        Users user = new ObjectMapper().readValue(
+                "{\"id\":1,\"username\":\"mallory\",\"password\":\"secret\",\"role\":\"ADMIN\"}", Users.class);
+        when(hashingService.encodeAsync("secret")).thenReturn(CompletableFuture.completedFuture("hash"));
+        when(repo.save(any(Users.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        Users saved = userService.registerAsync(user).get();
+
+        // Assert
+        assertNull(saved.getId());
+        assertEquals("USER", saved.getRole());
+        assertEquals("mallory", saved.getUsername());
+        assertEquals("hash", saved.getPassword());
+    }
+
+    @Test
+    @DisplayName("Role and id should still be serialized, the password never")
+    void users_ShouldSerializeRoleAndIdButNotPassword() throws Exception {
+        // Act
+        ObjectMapper mapper = new ObjectMapper();
+        JsonNode json = mapper.readTree(mapper.writeValueAsString(new Users(3, "alice", "hash", "USER")));
+
+        // Assert
+        assertEquals(3, json.get("id").asInt());
+        assertEquals("USER", json.get("role").asText());
+        assertFalse(json.has("password"));
+    }
+}
@@ -0,0 +1,56 @@
+package org.learnspring.expensetracker;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.learnspring.expensetracker.config.StartupTimingReport;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Starts the application the way main() does (with the buffering startup recorder) against a
+ * real PostgreSQL and fails if time-to-ready exceeds the threshold, printing the phase and
+ * slowest-bean breakdown so the regression can be located.
+ *
+ * The threshold defaults to 30 s and can be tightened per machine with -Dstartup.max-ready-ms.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class StartupTimeTest {
+
+    private static final long MAX_READY_MS = Long.getLong("startup.max-ready-ms", 30_000);
+
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Test
+    @DisplayName("Time to ready should stay under the threshold")
+    void timeToReady_ShouldNotRegress() {
+        SpringApplication application = new SpringApplication(ExpenseTrackerApplication.class);
+        application.setApplicationStartup(new BufferingApplicationStartup(4096));
+        String[] args = {
+                "--spring.datasource.url=" + postgres.getJdbcUrl(),
+                "--spring.datasource.username=" + postgres.getUsername(),
+                "--spring.datasource.password=" + postgres.getPassword(),
+                "--server.port=0",
+                "--password-hashing.bcrypt.cost=4"};
+
+        try (ConfigurableApplicationContext context = application.run(args)) {
+            Map<String, Object> report = context.getBean(StartupTimingReport.class).getReport();
+            Object readyMs = report.get("timeToReadyMs");
+            System.out.println("Startup report: " + report);
+
+            assertNotNull(readyMs, report.toString());
+            assertTrue(report.containsKey("slowestBeansMs"), "startup steps were not recorded");
+            assertTrue(((Number) readyMs).longValue() <= MAX_READY_MS,
+                    "Time to ready " + readyMs + " ms exceeds " + MAX_READY_MS + " ms: " + report);
+        }
+    }
+}
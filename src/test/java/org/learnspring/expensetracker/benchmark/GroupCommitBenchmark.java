@@ -0,0 +1,144 @@
+package org.learnspring.expensetracker.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.learnspring.expensetracker.config.GroupCommitter;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Inserts per second under concurrent adds: one transaction and commit per insert (today's
+ * POST /add) vs group commit (GroupCommitter, one batched insert and one commit per batch).
+ * Runs against a file-backed H2 database by default; H2 does not fsync on every commit, so
+ * point it at Postgres to see the full effect, e.g.
+ * {@code mvn test -Pbenchmark -Dtest=GroupCommitBenchmark -Dbenchmark.jdbc-url=jdbc:postgresql://localhost:5432/postgres -Dbenchmark.user=postgres -Dbenchmark.password=...}.
+ */
+@Tag("benchmark")
+class GroupCommitBenchmark {
+
+    private static final int THREADS = 32;
+    private static final int INSERTS_PER_THREAD = 200;
+    private static final String INSERT = "INSERT INTO bench_expenses (user_id, expense, expense_amount, date) VALUES (?, ?, ?, ?)";
+
+    private record Row(int userId, String expense, String amount, LocalDate date) {
+    }
+
+    @Test
+    @DisplayName("Inserts per second: commit per insert vs group commit")
+    void insertsPerSecond() throws Exception {
+        Path dir = Files.createTempDirectory("group-commit-bench");
+        String url = System.getProperty("benchmark.jdbc-url", "jdbc:h2:file:" + dir.resolve("bench"));
+        try (HikariDataSource dataSource = new HikariDataSource()) {
+            dataSource.setJdbcUrl(url);
+            dataSource.setUsername(System.getProperty("benchmark.user", "sa"));
+            dataSource.setPassword(System.getProperty("benchmark.password", ""));
+            // Same pool size as production
+            dataSource.setMaximumPoolSize(5);
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            TransactionTemplate tx = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+            jdbcTemplate.execute("DROP TABLE IF EXISTS bench_expenses");
+            jdbcTemplate.execute("CREATE TABLE bench_expenses (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                    + "user_id INT, expense VARCHAR(100), expense_amount VARCHAR(20), date DATE)");
+
+            Function<Row, Long> insertOne = row -> tx.execute(status -> insert(jdbcTemplate, List.of(row)).get(0));
+            Function<List<Row>, List<Long>> insertBatch = rows -> tx.execute(status -> insert(jdbcTemplate, rows));
+
+            // Warm up both paths
+            run(insertOne);
+            double perInsert = run(insertOne);
+            double grouped;
+            try (GroupCommitter<Row, Long> committer = new GroupCommitter<>("bench", 64, 5, 1000, insertBatch, insertOne)) {
+                run(committer::submit);
+                grouped = run(committer::submit);
+                System.out.printf("%nConcurrent inserts (%d threads x %d, pool of 5, %s)%n", THREADS, INSERTS_PER_THREAD, url);
+                System.out.printf("  commit per insert : %,10.0f inserts/s%n", perInsert);
+                System.out.printf("  group commit      : %,10.0f inserts/s (average batch %.1f)%n",
+                        grouped, committer.snapshot().get("averageBatch"));
+                System.out.printf("  speedup           : %10.1fx%n", grouped / perInsert);
+            }
+            assertEquals(4L * THREADS * INSERTS_PER_THREAD,
+                    jdbcTemplate.queryForObject("SELECT COUNT(DISTINCT id) FROM bench_expenses", Long.class));
+            jdbcTemplate.execute("DROP TABLE bench_expenses");
+        }
+    }
+
+    private static List<Long> insert(JdbcTemplate jdbcTemplate, List<Row> rows) {
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT, new String[] {"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Row row = rows.get(i);
+                        ps.setInt(1, row.userId());
+                        ps.setString(2, row.expense());
+                        ps.setString(3, row.amount());
+                        ps.setDate(4, Date.valueOf(row.date()));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return rows.size();
+                    }
+                }, keys);
+        List<Long> ids = new ArrayList<>(rows.size());
+        for (var key : keys.getKeyList()) {
+            ids.add(((Number) key.get("id")).longValue());
+        }
+        return ids;
+    }
+
+    /**
+     * @return inserts per second with THREADS threads inserting INSERTS_PER_THREAD rows each
+     */
+    private static double run(Function<Row, Long> insert) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        List<Future<?>> done = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int userId = t;
+            done.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < INSERTS_PER_THREAD; i++) {
+                    ids.add(insert.apply(new Row(userId, "expense " + i, "12.50", LocalDate.of(2025, 3, 1 + i % 28))));
+                }
+                return null;
+            }));
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : done) {
+            future.get();
+        }
+        double seconds = (System.nanoTime() - begin) / 1e9;
+        executor.shutdown();
+        // Every caller got its own id
+        assertEquals(THREADS * INSERTS_PER_THREAD, ids.size());
+        return THREADS * INSERTS_PER_THREAD / seconds;
+    }
+}
@@ -0,0 +1,151 @@
+package org.learnspring.expensetracker.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.learnspring.expensetracker.Model.Expense;
+import org.learnspring.expensetracker.Model.Users;
+import org.learnspring.expensetracker.config.SampledLogFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.logging.LoggingInitializationContext;
+import org.springframework.boot.logging.LoggingSystem;
+import org.springframework.core.env.StandardEnvironment;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.OutputStreamAppender;
+
+/**
+ * Measures logging cost per simulated POST /add request, comparing the old pipeline
+ * (System.out on authentication, synchronous appender, whole entities at INFO) with the
+ * current one, configured from logback-spring.xml with the prod profile (sampling filter,
+ * async appender, structured JSON encoder). Both write to the same temporary file, the
+ * current one through System.out as in production.
+ * Run with {@code mvn test -Pbenchmark -Dtest=LoggingOverheadBenchmark}.
+ */
+@Tag("benchmark")
+class LoggingOverheadBenchmark {
+
+    private static final int WARMUP = 20_000;
+    private static final int ITERATIONS = 100_000;
+
+    @Test
+    @DisplayName("Logging overhead per request: before vs after")
+    void loggingOverheadPerRequest() throws Exception {
+        Path sinkFile = Files.createTempFile("logging-bench", ".log");
+        PrintStream originalOut = System.out;
+        LoggingSystem loggingSystem = LoggingSystem.get(LoggingOverheadBenchmark.class.getClassLoader());
+        try (OutputStream sink = new FileOutputStream(sinkFile.toFile());
+             PrintStream stdout = new PrintStream(sink, true)) {
+            Expense expense = sampleExpense();
+
+            LoggerContext before = new LoggerContext();
+            Logger beforeLogger = syncLogger(before, sink);
+            Runnable beforeRequest = () -> {
+                // MyUserDetailService.loadUserByUsername
+                stdout.println("Loading user: alice");
+                stdout.println("User found: alice with encoded password");
+                // HomeController.addExpenses + expenseService.addExpense
+                beforeLogger.info("Adding new expense: {} for user: {}", expense, "alice");
+                beforeLogger.info("Successfully added expense with ID: {} for user: {}", expense.getId(), "alice");
+            };
+
+            // The console appender writes to whatever System.out is at the time
+            System.setOut(stdout);
+            Logger afterLogger = productionLogger(loggingSystem);
+            Runnable afterRequest = () -> {
+                afterLogger.trace("Loaded user: {}", "alice");
+                afterLogger.debug("Adding new expense of type {} for user: {}", expense.getExpenseType(), "alice");
+                afterLogger.info(SampledLogFilter.SAMPLED, "Successfully added expense with ID: {} for user: {}",
+                        expense.getId(), "alice");
+                afterLogger.atInfo().addMarker(SampledLogFilter.SAMPLED)
+                        .addKeyValue("method", "POST").addKeyValue("path", "/add")
+                        .addKeyValue("status", 200).addKeyValue("durationUs", 850L)
+                        .log("{} {} -> {} in {} us", "POST", "/add", 200, 850L);
+            };
+
+            double beforeNs = measure(beforeRequest);
+            double afterNs = measure(afterRequest);
+            before.stop();
+            // Drains the async queue before System.out is restored
+            loggingSystem.cleanUp();
+            ((LoggerContext) LoggerFactory.getILoggerFactory()).stop();
+            System.setOut(originalOut);
+
+            System.out.printf("%nLogging overhead per /add request (%d iterations)%n", ITERATIONS);
+            System.out.printf("  before (sync, System.out, entity at INFO)        : %,10.0f ns%n", beforeNs);
+            System.out.printf("  after  (logback-spring.xml, prod: async, sampled) : %,10.0f ns%n", afterNs);
+            System.out.printf("  speedup                                         : %10.1fx%n", beforeNs / afterNs);
+            System.out.printf("  log file: %,d bytes%n", Files.size(sinkFile));
+
+            assertTrue(afterNs > 0 && beforeNs > 0);
+        } finally {
+            System.setOut(originalOut);
+            Files.deleteIfExists(sinkFile);
+        }
+    }
+
+    private static double measure(Runnable request) {
+        for (int i = 0; i < WARMUP; i++) {
+            request.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            request.run();
+        }
+        return (System.nanoTime() - start) / (double) ITERATIONS;
+    }
+
+    private static Logger syncLogger(LoggerContext context, OutputStream sink) {
+        OutputStreamAppender<ILoggingEvent> appender = sinkAppender(context, sink,
+                "%d{HH:mm:ss.SSS} [%thread] %-5level %logger{36} - %msg%n");
+        ch.qos.logback.classic.Logger logger = context.getLogger("bench");
+        logger.setLevel(Level.INFO);
+        logger.addAppender(appender);
+        return logger;
+    }
+
+    /**
+     * Configures logging the way the application does at startup in production.
+     */
+    private static Logger productionLogger(LoggingSystem loggingSystem) {
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.setActiveProfiles("prod");
+        loggingSystem.beforeInitialize();
+        loggingSystem.initialize(new LoggingInitializationContext(environment), "classpath:logback-spring.xml", null);
+        return LoggerFactory.getLogger("org.learnspring.expensetracker.Controllers.HomeController");
+    }
+
+    private static OutputStreamAppender<ILoggingEvent> sinkAppender(LoggerContext context, OutputStream sink,
+            String pattern) {
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern(pattern);
+        encoder.start();
+
+        OutputStreamAppender<ILoggingEvent> appender = new OutputStreamAppender<>();
+        appender.setContext(context);
+        appender.setEncoder(encoder);
+        appender.setOutputStream(sink);
+        appender.setImmediateFlush(true);
+        appender.start();
+        return appender;
+    }
+
+    private static Expense sampleExpense() {
+        Users user = new Users(7, "alice", "$2a$12$abcdefghijklmnopqrstuv", "USER");
+        return new Expense(42, "Groceries", "Food", "54.20", "Card", LocalDate.of(2025, 3, 14), user);
+    }
+}
@@ -0,0 +1,101 @@
+package org.learnspring.expensetracker.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.learnspring.expensetracker.Model.ExpenseView;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * Compares payload size and encode/decode time of a 10k-row /all response in JSON
+ * (today's output), CBOR and Smile, raw and gzip-compressed.
+ * Run with {@code mvn test -Pbenchmark -Dtest=PayloadFormatBenchmark}.
+ */
+@Tag("benchmark")
+class PayloadFormatBenchmark {
+
+    private static final int ROWS = 10_000;
+    private static final int WARMUP = 50;
+    private static final int ITERATIONS = 200;
+
+    private static final String[] TYPES = {"Food", "Transport", "Rent", "Utilities", "Entertainment", "Health"};
+    private static final String[] METHODS = {"Card", "Cash", "UPI", "Bank Transfer"};
+
+    @Test
+    @DisplayName("Payload size and encode/decode time: JSON vs CBOR vs Smile")
+    void compareFormats() throws Exception {
+        List<ExpenseView> rows = sampleRows();
+
+        System.out.printf("%n%d-row expense list%n", ROWS);
+        System.out.printf("  %-6s %12s %12s %12s %12s%n", "format", "bytes", "gzip bytes", "encode us", "decode us");
+        report("JSON", mapper(null), rows);
+        report("CBOR", mapper(new CBORFactory()), rows);
+        report("Smile", mapper(new SmileFactory()), rows);
+    }
+
+    private static void report(String format, ObjectMapper mapper, List<ExpenseView> rows) throws Exception {
+        byte[] encoded = mapper.writeValueAsBytes(rows);
+        ExpenseView[] decoded = mapper.readValue(encoded, ExpenseView[].class);
+        assertEquals(rows, List.of(decoded));
+
+        for (int i = 0; i < WARMUP; i++) {
+            mapper.readValue(mapper.writeValueAsBytes(rows), ExpenseView[].class);
+        }
+        long encodeNs = 0;
+        long decodeNs = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            byte[] bytes = mapper.writeValueAsBytes(rows);
+            long mid = System.nanoTime();
+            mapper.readValue(bytes, ExpenseView[].class);
+            encodeNs += mid - start;
+            decodeNs += System.nanoTime() - mid;
+        }
+        System.out.printf("  %-6s %,12d %,12d %,12.0f %,12.0f%n", format, encoded.length, gzipSize(encoded),
+                encodeNs / 1000.0 / ITERATIONS, decodeNs / 1000.0 / ITERATIONS);
+    }
+
+    /**
+     * Same configuration Boot applies to the JSON mapper (and WebConfig to the binary ones).
+     */
+    private static ObjectMapper mapper(com.fasterxml.jackson.core.JsonFactory factory) {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        if (factory != null) {
+            builder.factory(factory);
+        }
+        return builder.build();
+    }
+
+    private static int gzipSize(byte[] bytes) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.size();
+    }
+
+    private static List<ExpenseView> sampleRows() {
+        List<ExpenseView> rows = new ArrayList<>(ROWS);
+        LocalDate start = LocalDate.of(2025, 1, 1);
+        for (int i = 0; i < ROWS; i++) {
+            String amount = String.format("%d.%02d", 5 + (i * 37) % 400, i % 100);
+            rows.add(new ExpenseView(i + 1, "Expense " + i, TYPES[i % TYPES.length], amount,
+                    METHODS[i % METHODS.length], start.plusDays(i % 365)));
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,110 @@
+package org.learnspring.expensetracker.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long MS = 1_000_000L;
+
+    /** Runs rounds of a full limit's worth of requests, all completing with the given latency. */
+    private static void saturate(AdaptiveConcurrencyLimiter limiter, int rounds, long latencyNanos) {
+        for (int round = 0; round < rounds; round++) {
+            int admitted = 0;
+            while (limiter.tryAcquire(1.0)) {
+                admitted++;
+            }
+            for (int i = 0; i < admitted; i++) {
+                limiter.release(latencyNanos, false);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject at once when the limit is in use")
+    void tryAcquire_AtLimit_ShouldReject() {
+        // Arrange
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 4, 1, 10, 1.5, 0.9);
+
+        // Act
+        for (int i = 0; i < 4; i++) {
+            assertTrue(limiter.tryAcquire(1.0));
+        }
+
+        // Assert
+        assertFalse(limiter.tryAcquire(1.0));
+        assertEquals(4, limiter.getInFlight());
+        assertEquals(1L, limiter.snapshot().get("rejected"));
+    }
+
+    @Test
+    @DisplayName("Should keep low-priority requests to their share of the limit")
+    void tryAcquire_WithShare_ShouldLeaveRoomForOthers() {
+        // Arrange
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 10, 1, 10, 1.5, 0.9);
+        for (int i = 0; i < 6; i++) {
+            assertTrue(limiter.tryAcquire(0.6));
+        }
+
+        // Act & Assert
+        assertFalse(limiter.tryAcquire(0.6));
+        assertTrue(limiter.tryAcquire(1.0));
+    }
+
+    @Test
+    @DisplayName("Should raise the limit while latency is steady and cut it when latency climbs")
+    void release_ShouldFollowLatency() {
+        // Arrange
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 10, 2, 100, 1.5, 0.9);
+
+        // Act
+        saturate(limiter, 20, 10 * MS);
+        int steady = limiter.getLimit();
+        saturate(limiter, 10, 100 * MS);
+        int slow = limiter.getLimit();
+
+        // Assert
+        assertTrue(steady > 10, "steady limit " + steady);
+        assertTrue(slow < steady / 2, "slow limit " + slow + " after " + steady);
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    @DisplayName("Should not raise the limit while most of it is unused")
+    void release_WhenUnderused_ShouldNotGrow() {
+        // Arrange
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 10, 2, 100, 1.5, 0.9);
+
+        // Act
+        for (int i = 0; i < 200; i++) {
+            limiter.tryAcquire(1.0);
+            limiter.release(10 * MS, false);
+        }
+
+        // Assert
+        assertEquals(10, limiter.getLimit());
+    }
+
+    @Test
+    @DisplayName("Should back off on dropped requests, but not below the minimum")
+    void release_Dropped_ShouldBackOff() {
+        // Arrange
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 10, 5, 100, 1.5, 0.5);
+
+        // Act
+        limiter.tryAcquire(1.0);
+        limiter.release(10 * MS, true);
+        int once = limiter.getLimit();
+        limiter.tryAcquire(1.0);
+        limiter.release(10 * MS, true);
+
+        // Assert
+        assertEquals(5, once);
+        assertEquals(5, limiter.getLimit());
+        assertEquals(2L, limiter.snapshot().get("dropped"));
+    }
+}
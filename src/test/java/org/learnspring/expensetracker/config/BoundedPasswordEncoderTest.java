@@ -0,0 +1,108 @@
+package org.learnspring.expensetracker.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.learnspring.expensetracker.Service.PasswordHashingCapacityException;
+import org.learnspring.expensetracker.Service.PasswordHashingService;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+class BoundedPasswordEncoderTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private PasswordHashingService hashingService;
+    private BoundedPasswordEncoder encoder;
+
+    @BeforeEach
+    void setUp() {
+        hashingService = new PasswordHashingService(new GatedEncoder(release), 1, 1);
+        hashingService.init();
+        encoder = new BoundedPasswordEncoder(hashingService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        hashingService.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should ask for the re-hash while the queue has room")
+    void upgradeEncoding_WithCapacity_ShouldDelegate() {
+        // Act & Assert
+        assertTrue(encoder.upgradeEncoding("stored"));
+    }
+
+    @Test
+    @DisplayName("Should skip the optional re-hash and fail encode as an auth service error when the queue is full")
+    void fullQueue_ShouldSkipUpgradeAndWrapEncode() throws Exception {
+        // Arrange: one busy thread and a queue of one
+        CompletableFuture<String> running = hashingService.encodeAsync("a");
+        waitUntilActive();
+        CompletableFuture<String> queued = hashingService.encodeAsync("b");
+
+        // Act
+        boolean upgrade = encoder.upgradeEncoding("stored");
+        InternalAuthenticationServiceException failure =
+                assertThrows(InternalAuthenticationServiceException.class, () -> encoder.encode("c"));
+
+        // Assert
+        assertFalse(upgrade);
+        assertInstanceOf(PasswordHashingCapacityException.class, failure.getCause());
+
+        release.countDown();
+        assertEquals("a", running.get(1, TimeUnit.SECONDS));
+        assertEquals("b", queued.get(1, TimeUnit.SECONDS));
+    }
+
+    private void waitUntilActive() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 1000;
+        while ((int) hashingService.snapshot().get("activeThreads") == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    /**
+     * Identity "hash" that blocks until released and always wants an upgrade.
+     */
+    private static class GatedEncoder implements PasswordEncoder {
+
+        private final CountDownLatch gate;
+
+        GatedEncoder(CountDownLatch gate) {
+            this.gate = gate;
+        }
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return rawPassword.toString();
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encode(rawPassword).equals(encodedPassword);
+        }
+
+        @Override
+        public boolean upgradeEncoding(String encodedPassword) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package org.learnspring.expensetracker.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+class CalibratedBCryptPasswordEncoderTest {
+
+    @Test
+    @DisplayName("Should pick the cost closest to the target time, within bounds")
+    void chooseCost_ShouldExtrapolateFromProbe() {
+        // 2 ms at cost 8 -> 256 ms at cost 15, 128 ms at cost 14
+        assertEquals(15, CalibratedBCryptPasswordEncoder.chooseCost(2.0, 8, 250, 10, 16));
+        assertEquals(14, CalibratedBCryptPasswordEncoder.chooseCost(2.0, 8, 250, 10, 14));
+        assertEquals(10, CalibratedBCryptPasswordEncoder.chooseCost(50.0, 8, 100, 10, 14));
+        assertEquals(12, CalibratedBCryptPasswordEncoder.chooseCost(16.0, 8, 250, 10, 14));
+    }
+
+    @Test
+    @DisplayName("Should request re-hash for hashes at a lower or higher cost")
+    void upgradeEncoding_ShouldFlagAnyOtherCost() {
+        CalibratedBCryptPasswordEncoder encoder = new CalibratedBCryptPasswordEncoder(5);
+
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("pw")));
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(6).encode("pw")));
+        assertFalse(encoder.upgradeEncoding(encoder.encode("pw")));
+        assertFalse(encoder.upgradeEncoding("not-a-bcrypt-hash"));
+    }
+
+    @Test
+    @DisplayName("Delegating encoder should verify and upgrade legacy unprefixed hashes")
+    void delegating_ShouldAcceptLegacyHashesAndPrefixNewOnes() {
+        PasswordEncoder encoder = CalibratedBCryptPasswordEncoder.delegating(new CalibratedBCryptPasswordEncoder(4));
+        String legacy = new BCryptPasswordEncoder(4).encode("pw");
+
+        String current = encoder.encode("pw");
+
+        assertTrue(encoder.matches("pw", legacy));
+        assertTrue(encoder.upgradeEncoding(legacy));
+        assertTrue(current.startsWith("{bcrypt}$2a$04$"));
+        assertTrue(encoder.matches("pw", current));
+        assertFalse(encoder.upgradeEncoding(current));
+    }
+
+    @Test
+    @DisplayName("Should read the cost from a BCrypt hash")
+    void costOf_ShouldParseHashPrefix() {
+        assertEquals(12, CalibratedBCryptPasswordEncoder.costOf("$2a$12$abcdefghijklmnopqrstuv"));
+        assertEquals(-1, CalibratedBCryptPasswordEncoder.costOf("{noop}pw"));
+        assertEquals(-1, CalibratedBCryptPasswordEncoder.costOf(null));
+    }
+}
@@ -0,0 +1,77 @@
+package org.learnspring.expensetracker.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.learnspring.expensetracker.Service.LoadSheddingService;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import jakarta.servlet.http.HttpServletResponse;
+
+class ConcurrencyLimitFilterTest {
+
+    @SuppressWarnings("unchecked")
+    private static int inFlight(LoadSheddingService service) {
+        return (int) ((Map<String, Object>) service.snapshot().get("limiter")).get("inFlight");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static long dropped(LoadSheddingService service) {
+        return (long) ((Map<String, Object>) service.snapshot().get("limiter")).get("dropped");
+    }
+
+    @Test
+    @DisplayName("Only overload should lower the limit, not other server errors")
+    void release_ShouldCountOnlyOverloadAsDrop() throws Exception {
+        // Arrange
+        LoadSheddingService service = new LoadSheddingService();
+        service.init();
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(service);
+
+        // Act: a plain 500, an unexpected exception, then a statement timeout
+        filter.doFilter(new MockHttpServletRequest("PUT", "/updateExpense"), new MockHttpServletResponse(),
+                (req, res) -> ((HttpServletResponse) res).setStatus(500));
+        assertThrows(IllegalStateException.class, () -> filter.doFilter(new MockHttpServletRequest("GET", "/all"),
+                new MockHttpServletResponse(), (req, res) -> {
+                    throw new IllegalStateException("bug");
+                }));
+        long afterErrors = dropped(service);
+        assertThrows(QueryTimeoutException.class, () -> filter.doFilter(new MockHttpServletRequest("GET", "/all"),
+                new MockHttpServletResponse(), (req, res) -> {
+                    throw new QueryTimeoutException("canceling statement due to statement timeout");
+                }));
+
+        // Assert
+        assertEquals(0, afterErrors);
+        assertEquals(1, dropped(service));
+        assertEquals(0, inFlight(service));
+    }
+
+    @Test
+    @DisplayName("An async request should keep its slot until its async processing completes")
+    void asyncRequest_ShouldReleaseOnCompletion() throws Exception {
+        // Arrange
+        LoadSheddingService service = new LoadSheddingService();
+        service.init();
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(service);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/all");
+        request.setAsyncSupported(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(request, response, (req, res) -> req.startAsync(req, res));
+        int whileAsync = inFlight(service);
+        ((MockAsyncContext) request.getAsyncContext()).complete();
+
+        // Assert
+        assertEquals(1, whileAsync);
+        assertEquals(0, inFlight(service));
+    }
+}
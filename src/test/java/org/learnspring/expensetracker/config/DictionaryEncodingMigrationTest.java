@@ -0,0 +1,88 @@
+package org.learnspring.expensetracker.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.learnspring.expensetracker.Service.DictionaryService;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+class DictionaryEncodingMigrationTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private DictionaryService dictionaryService;
+    private DictionaryEncodingMigration migration;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:encoding;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        // The schema after Hibernate's update on an existing database: old and new columns side by side
+        jdbcTemplate.execute("CREATE TABLE categories (id INT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                + "name VARCHAR(50) NOT NULL UNIQUE)");
+        jdbcTemplate.execute("CREATE TABLE payment_methods (id INT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                + "name VARCHAR(255) NOT NULL UNIQUE)");
+        jdbcTemplate.execute("CREATE TABLE expenses (id INT PRIMARY KEY, expense VARCHAR(100), "
+                + "expense_type VARCHAR(50) NOT NULL, payment_method VARCHAR(255), "
+                + "category_id INT, payment_method_id INT)");
+        dictionaryService = new DictionaryService(jdbcTemplate, new DataSourceTransactionManager(dataSource));
+        migration = new DictionaryEncodingMigration(jdbcTemplate, dictionaryService,
+                new ExpensePartitionMaintenance(jdbcTemplate, 3), 7, 0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP TABLE expenses");
+        jdbcTemplate.execute("DROP TABLE categories");
+        jdbcTemplate.execute("DROP TABLE payment_methods");
+    }
+
+    @Test
+    @DisplayName("Should encode every row in chunks, including sparse id ranges")
+    void run_ShouldEncodeAllRows() throws Exception {
+        // Arrange
+        String[] types = {"Food", "Rent", "Travel"};
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 1; i <= 100; i++) {
+            rows.add(new Object[] {i * 3, "e" + i, types[i % 3], i % 4 == 0 ? null : "Card"});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO expenses (id, expense, expense_type, payment_method) VALUES (?, ?, ?, ?)", rows);
+        // A row written by an instance already on ids
+        jdbcTemplate.update("INSERT INTO expenses (id, expense, expense_type, category_id) VALUES (1000, 'x', 'Food', ?)",
+                dictionaryService.categories().idFor("Food"));
+
+        // Act
+        migration.run();
+
+        // Assert
+        assertEquals(3, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM categories", Integer.class));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM payment_methods", Integer.class));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM expenses e "
+                + "LEFT JOIN categories c ON c.id = e.category_id WHERE c.name IS NULL OR c.name <> e.expense_type", Integer.class));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM expenses e LEFT JOIN payment_methods p "
+                + "ON p.id = e.payment_method_id WHERE (e.payment_method IS NULL) <> (p.name IS NULL)", Integer.class));
+        // New rows need not fill the old column any more
+        jdbcTemplate.update("INSERT INTO expenses (id, expense, category_id) VALUES (2000, 'y', 1)");
+    }
+
+    @Test
+    @DisplayName("Should do nothing on a fresh schema without the old columns")
+    void run_WithoutLegacyColumns_ShouldDoNothing() throws Exception {
+        // Arrange
+        jdbcTemplate.execute("ALTER TABLE expenses DROP COLUMN expense_type");
+        jdbcTemplate.execute("ALTER TABLE expenses DROP COLUMN payment_method");
+
+        // Act
+        migration.run();
+
+        // Assert
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM categories", Integer.class));
+    }
+}
@@ -0,0 +1,83 @@
+package org.learnspring.expensetracker.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+class DictionaryTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private DataSourceTransactionManager transactionManager;
+    private Dictionary dictionary;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:dictionary;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE categories (id INT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                + "name VARCHAR(50) NOT NULL UNIQUE)");
+        transactionManager = new DataSourceTransactionManager(dataSource);
+        dictionary = new Dictionary("categories", jdbcTemplate, transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP TABLE categories");
+    }
+
+    @Test
+    @DisplayName("Should create an id for a new name once and then answer from memory")
+    void idFor_ShouldCreateOnceAndCache() {
+        // Act
+        Integer food = dictionary.idFor("Food");
+        Integer again = dictionary.idFor("Food");
+        Integer rent = dictionary.idFor("Rent");
+
+        // Assert
+        assertEquals(food, again);
+        assertNotEquals(food, rent);
+        assertEquals("Food", dictionary.nameFor(food));
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM categories", Integer.class));
+        assertEquals(2L, dictionary.snapshot().get("inserts"));
+        assertEquals(2L, dictionary.snapshot().get("hits"));
+        assertEquals(0L, dictionary.snapshot().get("nestedInserts"));
+        assertNull(dictionary.idFor(null));
+    }
+
+    @Test
+    @DisplayName("Should resolve ids and names created by another instance")
+    void lookups_ShouldFallBackToTable() {
+        // Arrange
+        Integer id = new Dictionary("categories", jdbcTemplate, transactionManager).idFor("Travel");
+
+        // Act & Assert
+        assertEquals("Travel", dictionary.nameFor(id));
+        assertEquals(id, dictionary.idFor("Travel"));
+        assertEquals(0L, dictionary.snapshot().get("inserts"));
+        assertNull(dictionary.nameFor(id + 100));
+    }
+
+    @Test
+    @DisplayName("A new entry should survive a rollback of the caller's transaction")
+    void idFor_InRolledBackTransaction_ShouldKeepEntry() {
+        // Act
+        Integer id = new TransactionTemplate(transactionManager).execute(status -> {
+            Integer created = dictionary.idFor("Health");
+            status.setRollbackOnly();
+            return created;
+        });
+
+        // Assert
+        assertEquals("Health", new Dictionary("categories", jdbcTemplate, transactionManager).nameFor(id));
+        assertEquals(1L, dictionary.snapshot().get("nestedInserts"));
+    }
+}
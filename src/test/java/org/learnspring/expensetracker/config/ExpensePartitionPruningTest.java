@@ -0,0 +1,148 @@
+package org.learnspring.expensetracker.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Runs partition_expenses.sql against a real PostgreSQL and checks with EXPLAIN that
+ * the by-month query only touches the partition for that month.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class ExpensePartitionPruningTest {
+
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static final String BY_MONTH_QUERY =
+            "SELECT id, expense, category_id, expense_amount, payment_method_id, date FROM expenses "
+                    + "WHERE user_id = ? AND date BETWEEN ? AND ?";
+
+    private static JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void migrate() throws Exception {
+        // Single connection so session settings (plan_cache_mode) apply to the EXPLAIN that follows
+        SingleConnectionDataSource dataSource = new SingleConnectionDataSource(
+                postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword(), true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        // Schema as Hibernate creates it today
+        jdbcTemplate.execute("CREATE TABLE users (id INTEGER PRIMARY KEY, username VARCHAR(255), "
+                + "password VARCHAR(255), role VARCHAR(255))");
+        jdbcTemplate.execute("CREATE TABLE expenses (id INTEGER PRIMARY KEY, expense VARCHAR(100) NOT NULL, "
+                + "category_id INTEGER NOT NULL, expense_amount VARCHAR(20) NOT NULL, "
+                + "payment_method_id INTEGER, date DATE, user_id INTEGER REFERENCES users(id), "
+                + "deleted_at TIMESTAMP(6) WITH TIME ZONE)");
+        jdbcTemplate.update("INSERT INTO users VALUES (1, 'alice', 'x', 'USER')");
+        int id = 1;
+        for (int month = 1; month <= 6; month++) {
+            for (int day = 1; day <= 28; day += 3) {
+                jdbcTemplate.update("INSERT INTO expenses VALUES (?, 'Coffee', 1, '3.50', 2, ?, 1, NULL)",
+                        id++, Date.valueOf(LocalDate.of(2025, month, day)));
+            }
+        }
+
+        jdbcTemplate.execute(Files.readString(Path.of("partition_expenses.sql")));
+        jdbcTemplate.execute("ANALYZE expenses");
+    }
+
+    @Test
+    @DisplayName("Migration should keep every row and create monthly partitions")
+    void migration_ShouldPreserveRows() {
+        Integer rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM expenses", Integer.class);
+        Integer oldRows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM expenses_unpartitioned", Integer.class);
+
+        assertEquals(oldRows, rows);
+        assertTrue(new ExpensePartitionMaintenance(jdbcTemplate, 3).isPartitioned());
+        // Constraints of the old table are kept
+        assertEquals(List.of("NO"), jdbcTemplate.queryForList("SELECT is_nullable FROM information_schema.columns "
+                + "WHERE table_name = 'expenses' AND column_name = 'expense'", String.class));
+    }
+
+    @Test
+    @DisplayName("By-month query should scan only the matching partition")
+    void byMonthQuery_ShouldPruneToOnePartition() {
+        String plan = explain(LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 31));
+
+        assertTrue(plan.contains("expenses_p2025_03"), plan);
+        assertFalse(plan.contains("expenses_p2025_02"), plan);
+        assertFalse(plan.contains("expenses_p2025_04"), plan);
+        assertFalse(plan.contains("expenses_default"), plan);
+    }
+
+    @Test
+    @DisplayName("Generic prepared-statement plans should prune at executor startup")
+    void byMonthQuery_ShouldPruneWithGenericPlan() {
+        jdbcTemplate.execute("SET plan_cache_mode = force_generic_plan");
+        try {
+            String plan = explain(LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 31));
+
+            assertTrue(plan.contains("expenses_p2025_03"), plan);
+            assertFalse(plan.contains("expenses_p2025_02"), plan);
+            assertFalse(plan.contains("expenses_p2025_04"), plan);
+        } finally {
+            jdbcTemplate.execute("RESET plan_cache_mode");
+        }
+    }
+
+    @Test
+    @DisplayName("Maintenance should create upcoming monthly partitions idempotently")
+    void ensureUpcomingPartitions_ShouldCreateFuturePartitions() {
+        ExpensePartitionMaintenance maintenance = new ExpensePartitionMaintenance(jdbcTemplate, 3);
+        YearMonth farFuture = YearMonth.now().plusYears(2);
+
+        assertTrue(maintenance.ensurePartition(farFuture));
+        assertFalse(maintenance.ensurePartition(farFuture));
+
+        Integer exists = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM pg_class WHERE relname = ?",
+                Integer.class, ExpensePartitionMaintenance.partitionName(farFuture));
+        assertEquals(1, exists);
+    }
+
+    @Test
+    @DisplayName("Maintenance should move rows out of the default partition into a new month")
+    void ensurePartition_WithRowsInDefault_ShouldMoveThem() {
+        // Arrange: beyond the partitions created so far, so the row lands in the default partition
+        ExpensePartitionMaintenance maintenance = new ExpensePartitionMaintenance(jdbcTemplate, 3);
+        YearMonth month = YearMonth.now().plusYears(3);
+        jdbcTemplate.update("INSERT INTO expenses VALUES (9001, 'Flight', 1, '300', 2, ?, 1, NULL)",
+                Date.valueOf(month.atDay(15)));
+
+        try {
+            // Act
+            boolean created = maintenance.ensurePartition(month);
+
+            // Assert
+            assertTrue(created);
+            assertEquals(List.of(ExpensePartitionMaintenance.partitionName(month)), jdbcTemplate.queryForList(
+                    "SELECT tableoid::regclass::text FROM expenses WHERE id = 9001", String.class));
+            assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM expenses_default", Integer.class));
+        } finally {
+            // The other tests compare row counts with the old table
+            jdbcTemplate.update("DELETE FROM expenses WHERE id = 9001");
+        }
+    }
+
+    private static String explain(LocalDate start, LocalDate end) {
+        List<String> lines = jdbcTemplate.queryForList("EXPLAIN " + BY_MONTH_QUERY, String.class,
+                1, Date.valueOf(start), Date.valueOf(end));
+        return String.join("\n", lines);
+    }
+}
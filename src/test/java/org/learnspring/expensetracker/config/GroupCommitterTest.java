@@ -0,0 +1,170 @@
+package org.learnspring.expensetracker.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class GroupCommitterTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(32);
+    private final AtomicInteger nextId = new AtomicInteger();
+    private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private GroupCommitter<String, Integer> committer;
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        if (committer != null) {
+            committer.close();
+        }
+    }
+
+    private Integer writeOne(String item) {
+        if (item.startsWith("bad")) {
+            throw new IllegalArgumentException("rejected " + item);
+        }
+        return nextId.incrementAndGet();
+    }
+
+    /** Like a single transaction: all or nothing. Holds the flusher on "hold" until released. */
+    private List<Integer> writeAll(List<String> items) {
+        batchSizes.add(items.size());
+        if (items.contains("hold")) {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        for (String item : items) {
+            if (item.startsWith("bad")) {
+                throw new IllegalArgumentException("batch rejected");
+            }
+        }
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            ids.add(nextId.incrementAndGet());
+        }
+        return ids;
+    }
+
+    /**
+     * Submits the items concurrently while the flusher is busy, so they are all queued when it
+     * takes its next batch.
+     */
+    private List<Future<Integer>> submitTogether(List<String> items) throws Exception {
+        Future<Integer> held = executor.submit(() -> committer.submit("hold"));
+        while (batchSizes.isEmpty()) {
+            Thread.sleep(1);
+        }
+        List<Future<Integer>> results = new ArrayList<>();
+        for (String item : items) {
+            results.add(executor.submit(() -> committer.submit(item)));
+        }
+        while ((int) committer.snapshot().get("queued") < items.size()) {
+            Thread.sleep(1);
+        }
+        release.countDown();
+        held.get(5, TimeUnit.SECONDS);
+        batchSizes.remove(0);
+        return results;
+    }
+
+    @Test
+    @DisplayName("Should write concurrent submissions in shared batches and give each caller its own id")
+    void submit_Concurrently_ShouldBatch() throws Exception {
+        // Arrange
+        committer = new GroupCommitter<>("test", 64, 50, 100, this::writeAll, this::writeOne);
+        List<String> items = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            items.add("item " + i);
+        }
+
+        // Act
+        List<Future<Integer>> results = submitTogether(items);
+        Set<Integer> ids = ConcurrentHashMap.newKeySet();
+        for (Future<Integer> result : results) {
+            ids.add(result.get(5, TimeUnit.SECONDS));
+        }
+
+        // Assert
+        assertEquals(16, ids.size());
+        assertEquals(List.of(16), batchSizes);
+        assertEquals(17L, committer.snapshot().get("batchedItems"));
+    }
+
+    @Test
+    @DisplayName("Should never put more than maxBatch items in one batch")
+    void submit_ManyItems_ShouldRespectMaxBatch() throws Exception {
+        // Arrange
+        committer = new GroupCommitter<>("test", 4, 50, 100, this::writeAll, this::writeOne);
+        List<String> items = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            items.add("item " + i);
+        }
+
+        // Act
+        for (Future<Integer> result : submitTogether(items)) {
+            result.get(5, TimeUnit.SECONDS);
+        }
+
+        // Assert
+        assertEquals(List.of(4, 4, 4, 4), batchSizes);
+    }
+
+    @Test
+    @DisplayName("Should fail only the bad item when its batch fails")
+    void submit_WithBadItem_ShouldFailOnlyThatCaller() throws Exception {
+        // Arrange
+        committer = new GroupCommitter<>("test", 64, 50, 100, this::writeAll, this::writeOne);
+
+        // Act
+        List<Future<Integer>> results = submitTogether(List.of("a", "b", "bad", "c"));
+
+        // Assert
+        int succeeded = 0;
+        for (Future<Integer> result : results) {
+            try {
+                result.get(5, TimeUnit.SECONDS);
+                succeeded++;
+            } catch (ExecutionException e) {
+                assertEquals("rejected bad", e.getCause().getMessage());
+            }
+        }
+        assertEquals(3, succeeded);
+        assertEquals(1L, committer.snapshot().get("failures"));
+    }
+
+    @Test
+    @DisplayName("Should write directly after close")
+    void submit_AfterClose_ShouldWriteDirectly() {
+        // Arrange
+        committer = new GroupCommitter<>("test", 64, 5, 100, this::writeAll, this::writeOne);
+        committer.close();
+
+        // Act
+        Integer id = committer.submit("late");
+
+        // Assert
+        assertEquals(1, id);
+        assertEquals(1L, committer.snapshot().get("bypassed"));
+        assertThrows(IllegalArgumentException.class, () -> committer.submit("bad"));
+    }
+}
@@ -0,0 +1,144 @@
+package org.learnspring.expensetracker.config;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.learnspring.expensetracker.Service.IdempotencyService;
+import org.learnspring.expensetracker.Service.IdempotencyService.Claim;
+import org.learnspring.expensetracker.Service.IdempotencyService.Outcome;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.ServletResponse;
+
+class IdempotencyFilterTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private IdempotencyService service;
+    private IdempotencyFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:idempotency-filter;DB_CLOSE_DELAY=-1", "sa", ""));
+        jdbcTemplate.execute("CREATE TABLE idempotency_keys (id VARCHAR(320) PRIMARY KEY, fingerprint VARCHAR(64) NOT NULL, "
+                + "status INT NOT NULL, content_type VARCHAR(100), response_body VARBINARY(65536), body VARCHAR(65536), "
+                + "created_at TIMESTAMP WITH TIME ZONE NOT NULL)");
+        service = new IdempotencyService(jdbcTemplate, 100, 60_000);
+        filter = new IdempotencyFilter(service);
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                "alice", null, List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        jdbcTemplate.execute("DROP TABLE idempotency_keys");
+    }
+
+    @Test
+    @DisplayName("An async request should store the response written on its async dispatch, not an empty 200")
+    void asyncRequest_ShouldCompleteClaimOnAsyncDispatch() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/add");
+        request.addHeader(IdempotencyService.HEADER, "k1");
+        request.setContent("{}".getBytes());
+        request.setAsyncSupported(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act: the handler goes async without writing anything
+        filter.doFilter(request, response, (req, res) -> req.startAsync(req, res));
+        Claim whileAsync = service.claim("alice", "k1", IdempotencyFilter.fingerprint(request, "{}".getBytes()));
+
+        // Act: the async dispatch writes the result into the response given to startAsync
+        ServletResponse asyncResponse = request.getAsyncContext().getResponse();
+        request.setAsyncStarted(false);
+        request.setDispatcherType(DispatcherType.ASYNC);
+        filter.doFilter(request, asyncResponse, (req, res) -> {
+            res.setContentType("application/json");
+            res.getWriter().write("{\"id\":7}");
+        });
+        Claim afterDispatch = service.claim("alice", "k1", IdempotencyFilter.fingerprint(request, "{}".getBytes()));
+
+        // Assert
+        assertEquals(Outcome.IN_PROGRESS, whileAsync.outcome());
+        assertEquals(Outcome.REPLAY, afterDispatch.outcome());
+        assertEquals("{\"id\":7}", new String(afterDispatch.response().body()));
+        assertEquals("{\"id\":7}", response.getContentAsString());
+    }
+
+    private static MockHttpServletRequest post(String key, byte[] body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/add");
+        request.addHeader(IdempotencyService.HEADER, key);
+        request.setContent(body);
+        return request;
+    }
+
+    @Test
+    @DisplayName("Should replay a binary response byte for byte")
+    void repeat_WithBinaryResponse_ShouldReplaySameBytes() throws Exception {
+        // Arrange: CBOR-like payload with a NUL byte and bytes that are not valid UTF-8
+        byte[] payload = {(byte) 0xa1, 0x00, (byte) 0xff, 0x61, (byte) 0xc3};
+        filter.doFilter(post("k2", "{}".getBytes()), new MockHttpServletResponse(), (req, res) -> {
+            res.setContentType("application/cbor");
+            res.getOutputStream().write(payload);
+        });
+        MockHttpServletResponse replay = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(post("k2", "{}".getBytes()), replay, (req, res) -> {
+            throw new AssertionError("must not run again");
+        });
+
+        // Assert
+        assertEquals("true", replay.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertArrayEquals(payload, replay.getContentAsByteArray());
+    }
+
+    @Test
+    @DisplayName("Should refuse a request body above the limit before running the request")
+    void request_OverBodyLimit_ShouldGet413() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = post("k3", new byte[70_000]);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(request, response, (req, res) -> {
+            throw new AssertionError("must not run");
+        });
+
+        // Assert
+        assertEquals(413, response.getStatus());
+    }
+
+    @Test
+    @DisplayName("Should still send the response when storing it fails")
+    void store_WhenDatabaseFails_ShouldStillSendResponse() throws Exception {
+        // Arrange
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act: the table disappears while the request runs, so storing the response fails
+        try {
+            filter.doFilter(post("k4", "{}".getBytes()), response, (req, res) -> {
+                jdbcTemplate.execute("ALTER TABLE idempotency_keys RENAME TO idempotency_keys_gone");
+                res.getWriter().write("{\"id\":9}");
+            });
+        } finally {
+            jdbcTemplate.execute("ALTER TABLE idempotency_keys_gone RENAME TO idempotency_keys");
+        }
+
+        // Assert
+        assertEquals("{\"id\":9}", response.getContentAsString());
+    }
+}
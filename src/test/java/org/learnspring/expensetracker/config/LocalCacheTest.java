@@ -0,0 +1,84 @@
+package org.learnspring.expensetracker.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class LocalCacheTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicInteger loads = new AtomicInteger();
+    private LocalCache<String> cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new LocalCache<>("test", 2, 1000, clock::get);
+        cache.setEnabled(true);
+    }
+
+    private String load(String key) {
+        return key + "-" + loads.incrementAndGet();
+    }
+
+    @Test
+    @DisplayName("Should serve cached values until invalidated or expired")
+    void get_ShouldCacheUntilInvalidatedOrExpired() {
+        // Act & Assert
+        assertEquals("a-1", cache.get("a", this::load));
+        assertEquals("a-1", cache.get("a", this::load));
+
+        cache.invalidate("a");
+        assertEquals("a-2", cache.get("a", this::load));
+
+        clock.addAndGet(1_000_000_000L);
+        assertEquals("a-3", cache.get("a", this::load));
+    }
+
+    @Test
+    @DisplayName("Should not cache a value whose load overlapped an invalidation")
+    void get_WhenInvalidatedDuringLoad_ShouldNotCache() {
+        // Arrange: the loader reads the old value, then a writer commits and invalidates
+        String loaded = cache.get("a", key -> {
+            String value = load(key);
+            cache.invalidate(key);
+            return value;
+        });
+
+        // Act
+        String next = cache.get("a", this::load);
+
+        // Assert
+        assertEquals("a-1", loaded);
+        assertEquals("a-2", next);
+    }
+
+    @Test
+    @DisplayName("Should bypass the cache while disabled")
+    void get_WhenDisabled_ShouldAlwaysLoad() {
+        cache.get("a", this::load);
+
+        cache.setEnabled(false);
+
+        assertEquals("a-2", cache.get("a", this::load));
+        assertEquals("a-3", cache.get("a", this::load));
+        assertEquals(2L, cache.snapshot().get("bypassed"));
+    }
+
+    @Test
+    @DisplayName("Should respect the size cap and the cacheable predicate")
+    void get_ShouldRespectSizeCapAndPredicate() {
+        cache.get("a", this::load);
+        cache.get("b", this::load);
+        cache.get("c", this::load);
+        cache.get("big", this::load, value -> false);
+
+        assertEquals(2, cache.snapshot().get("entries"));
+        assertEquals("c-5", cache.get("c", this::load));
+        assertEquals("big-6", cache.get("big", this::load));
+    }
+}
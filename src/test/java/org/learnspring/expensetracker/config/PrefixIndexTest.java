@@ -0,0 +1,68 @@
+package org.learnspring.expensetracker.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class PrefixIndexTest {
+
+    private static final long TODAY = 20_000;
+
+    @Test
+    @DisplayName("Should match prefixes case-insensitively and rank by number of uses, then alphabetically")
+    void suggest_ShouldMatchPrefixAndRankByUses() {
+        // Arrange
+        PrefixIndex index = new PrefixIndex(30);
+        index.add("Coffee", TODAY);
+        index.add("Cinema", TODAY);
+        index.add("coffee beans", TODAY);
+        index.add("Cinema", TODAY);
+        index.add("Rent", TODAY);
+
+        // Act & Assert
+        assertEquals(List.of("Cinema", "Coffee", "coffee beans"), index.suggest("c", 10, TODAY));
+        assertEquals(List.of("Coffee", "coffee beans"), index.suggest(" COF", 10, TODAY));
+        assertEquals(List.of("Cinema"), index.suggest("", 1, TODAY));
+        assertTrue(index.suggest("x", 10, TODAY).isEmpty());
+        assertEquals(4, index.size());
+    }
+
+    @Test
+    @DisplayName("Recent uses should outrank older, more frequent ones")
+    void suggest_ShouldFavourRecentUses() {
+        // Arrange: three uses two half-lives ago (worth 0.75 now) versus one use today
+        PrefixIndex index = new PrefixIndex(30);
+        for (int i = 0; i < 3; i++) {
+            index.add("Gym", TODAY - 60);
+        }
+        index.add("Groceries", TODAY);
+
+        // Act
+        List<String> suggestions = index.suggest("g", 10, TODAY);
+
+        // Assert
+        assertEquals(List.of("Groceries", "Gym"), suggestions);
+    }
+
+    @Test
+    @DisplayName("Uses recorded out of order should count the same and keep the latest spelling")
+    void add_OutOfOrder_ShouldAccumulate() {
+        // Arrange
+        PrefixIndex inOrder = new PrefixIndex(30);
+        PrefixIndex outOfOrder = new PrefixIndex(30);
+        inOrder.add("taxi", TODAY - 10);
+        inOrder.add("Taxi", TODAY);
+        inOrder.add("bus", TODAY - 4);
+        outOfOrder.add("Taxi", TODAY);
+        outOfOrder.add("taxi", TODAY - 10);
+        outOfOrder.add("bus", TODAY - 4);
+
+        // Act & Assert
+        assertEquals(inOrder.suggest("", 10, TODAY), outOfOrder.suggest("", 10, TODAY));
+        assertEquals("Taxi", outOfOrder.suggest("t", 1, TODAY).get(0));
+    }
+}
@@ -0,0 +1,75 @@
+package org.learnspring.expensetracker.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class RunningStatsTest {
+
+    @Test
+    @DisplayName("Streaming mean and variance should match a two-pass calculation")
+    void add_ShouldMatchTwoPassCalculation() {
+        // Arrange
+        double[] values = new Random(42).doubles(1_000, 1_000_000, 1_000_010).toArray();
+        RunningStats stats = new RunningStats();
+
+        // Act
+        for (double value : values) {
+            stats.add(value);
+        }
+
+        // Assert
+        double mean = 0;
+        for (double value : values) {
+            mean += value;
+        }
+        mean /= values.length;
+        double m2 = 0;
+        for (double value : values) {
+            m2 += (value - mean) * (value - mean);
+        }
+        assertEquals(values.length, stats.getCount());
+        assertEquals(mean, stats.getMean(), 1e-6);
+        assertEquals(m2, stats.getM2(), 1e-6 * m2);
+    }
+
+    @Test
+    @DisplayName("Merging two partial statistics should equal adding every value to one")
+    void merge_ShouldEqualSequentialAdds() {
+        // Arrange
+        RunningStats left = new RunningStats();
+        RunningStats right = new RunningStats();
+        RunningStats all = new RunningStats();
+        Random random = new Random(7);
+        for (int i = 0; i < 300; i++) {
+            double value = random.nextGaussian() * 5 + 20;
+            (i < 100 ? left : right).add(value);
+            all.add(value);
+        }
+
+        // Act
+        left.merge(right);
+
+        // Assert
+        assertEquals(all.getCount(), left.getCount());
+        assertEquals(all.getMean(), left.getMean(), 1e-9);
+        assertEquals(all.getM2(), left.getM2(), 1e-6);
+        assertEquals(all.getStdDev(), left.getStdDev(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Merging into empty statistics should copy the other side")
+    void merge_IntoEmpty_ShouldCopy() {
+        RunningStats empty = new RunningStats();
+        RunningStats other = new RunningStats(4, 2.5, 5.0);
+
+        empty.merge(other);
+
+        assertEquals(4, empty.getCount());
+        assertEquals(2.5, empty.getMean());
+        assertEquals(5.0, empty.getM2());
+    }
+}
@@ -0,0 +1,150 @@
+package org.learnspring.expensetracker.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+
+class SingleFlightTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Starts {@code callers} identical calls while the first one's loader is blocked on
+     * {@code release}, and returns once all of them are running or waiting.
+     */
+    private List<Future<String>> startBlocked(SingleFlight<String> flight, int callers, AtomicInteger loads,
+                                              CountDownLatch release, RuntimeException failure) throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+        results.add(executor.submit(() -> flight.execute("k", () -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            await(release);
+            if (failure != null) {
+                throw failure;
+            }
+            return "value";
+        })));
+        loading.await(5, TimeUnit.SECONDS);
+        for (int i = 1; i < callers; i++) {
+            results.add(executor.submit(() -> flight.execute("k", () -> {
+                loads.incrementAndGet();
+                return "other";
+            })));
+        }
+        while ((long) flight.snapshot().get("coalesced") < callers - 1) {
+            Thread.sleep(5);
+        }
+        return results;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    @DisplayName("Should run one load for concurrent identical calls and give all of them its result")
+    void execute_Concurrently_ShouldLoadOnce() throws Exception {
+        // Arrange
+        SingleFlight<String> flight = new SingleFlight<>("test", 5000);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<String>> results = startBlocked(flight, 8, loads, release, null);
+
+        // Act
+        release.countDown();
+
+        // Assert
+        for (Future<String> result : results) {
+            assertEquals("value", result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.get());
+        assertEquals(1L, flight.snapshot().get("executions"));
+        assertEquals(7L, flight.snapshot().get("coalesced"));
+        assertEquals(0, flight.snapshot().get("inFlight"));
+    }
+
+    @Test
+    @DisplayName("Should give every waiting caller the load's exception")
+    void execute_WhenLoadFails_ShouldFailAllCallers() throws Exception {
+        // Arrange
+        SingleFlight<String> flight = new SingleFlight<>("test", 5000);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<String>> results = startBlocked(flight, 3, new AtomicInteger(), release,
+                new IllegalStateException("boom"));
+
+        // Act
+        release.countDown();
+
+        // Assert
+        for (Future<String> result : results) {
+            ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertEquals(IllegalStateException.class, e.getCause().getClass());
+        }
+        assertEquals(1L, flight.snapshot().get("failures"));
+    }
+
+    @Test
+    @DisplayName("Should stop waiting for a slow load after the timeout")
+    void execute_WhenLoadIsSlow_ShouldTimeOutWaiters() throws Exception {
+        // Arrange
+        SingleFlight<String> flight = new SingleFlight<>("test", 50);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<String>> results = startBlocked(flight, 2, new AtomicInteger(), release, null);
+
+        // Act
+        ExecutionException e = assertThrows(ExecutionException.class, () -> results.get(1).get(5, TimeUnit.SECONDS));
+        release.countDown();
+
+        // Assert
+        assertEquals(QueryTimeoutException.class, e.getCause().getClass());
+        assertEquals("value", results.get(0).get(5, TimeUnit.SECONDS));
+        assertEquals(1L, flight.snapshot().get("timeouts"));
+    }
+
+    @Test
+    @DisplayName("Should load again once the previous load finished or was forgotten")
+    void execute_AfterCompletionOrForget_ShouldLoadAgain() throws Exception {
+        // Arrange
+        SingleFlight<String> flight = new SingleFlight<>("test", 5000);
+        AtomicInteger loads = new AtomicInteger();
+        flight.execute("k", () -> "v" + loads.incrementAndGet());
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<String>> blocked = startBlocked(flight, 1, new AtomicInteger(), release, null);
+
+        // Act
+        String afterCompletion = flight.execute("other", () -> "v" + loads.incrementAndGet());
+        flight.forget("k");
+        String afterForget = flight.execute("k", () -> "v" + loads.incrementAndGet());
+        release.countDown();
+
+        // Assert
+        assertEquals("v2", afterCompletion);
+        assertEquals("v3", afterForget);
+        assertEquals("value", blocked.get(0).get(5, TimeUnit.SECONDS));
+        assertEquals(0, flight.snapshot().get("inFlight"));
+    }
+}
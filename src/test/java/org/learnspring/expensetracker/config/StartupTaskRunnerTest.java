@@ -0,0 +1,174 @@
+package org.learnspring.expensetracker.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.learnspring.expensetracker.config.StartupTaskRunner.Status;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+class StartupTaskRunnerTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private final List<String> executed = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:startup-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1", "sa", ""));
+    }
+
+    @Test
+    @DisplayName("Should run dependencies first and become ready when critical tasks complete")
+    void start_ShouldRespectDependenciesAndGateReadiness() throws Exception {
+        // Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        StartupTaskRunner runner = runner(
+                new TestTask("migrate", true, false, Set.of("seed"), () -> {
+                    release.await();
+                    executed.add("migrate");
+                }),
+                new TestTask("seed", false, false, Set.of(), () -> executed.add("seed")));
+
+        // Act
+        assertFalse(runner.isReady());
+        var completion = runner.start();
+        assertFalse(runner.isReady());
+        release.countDown();
+        completion.get(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertEquals(List.of("seed", "migrate"), executed);
+        assertTrue(runner.isReady());
+        assertEquals(Status.COMPLETED, runner.getStatus("migrate"));
+    }
+
+    @Test
+    @DisplayName("Should skip run-once tasks that have a completion marker")
+    void start_ShouldSkipTasksWithMarker() throws Exception {
+        // Arrange: first startup writes the marker
+        runner(new TestTask("seed", true, true, Set.of(), () -> executed.add("seed"))).start().get(5, TimeUnit.SECONDS);
+        StartupTaskRunner secondStart = runner(new TestTask("seed", true, true, Set.of(), () -> executed.add("seed")));
+
+        // Act
+        secondStart.start().get(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertEquals(List.of("seed"), executed);
+        assertEquals(Status.SKIPPED, secondStart.getStatus("seed"));
+        assertTrue(secondStart.isReady());
+    }
+
+    @Test
+    @DisplayName("Should stay not ready and skip dependents when a critical task keeps failing")
+    void start_WhenTaskFails_ShouldReportFailureAndNotWriteMarker() throws Exception {
+        // Arrange
+        StartupTaskRunner runner = retryingRunner(
+                new TestTask("migrate", true, true, Set.of(), () -> {
+                    executed.add("migrate");
+                    throw new IllegalStateException("boom");
+                }),
+                new TestTask("after", false, false, Set.of("migrate"), () -> executed.add("after")),
+                new TestTask("independent", false, false, Set.of(), () -> executed.add("independent")));
+
+        // Act
+        runner.start().get(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertFalse(runner.isReady());
+        assertEquals(Status.FAILED, runner.getStatus("migrate"));
+        assertEquals(Status.FAILED, runner.getStatus("after"));
+        assertEquals(3, executed.stream().filter("migrate"::equals).count());
+        assertFalse(executed.contains("after"));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM startup_task_marker", Integer.class));
+    }
+
+    @Test
+    @DisplayName("Should retry a failing critical task and become ready once it succeeds")
+    void start_WhenCriticalTaskFailsOnce_ShouldRetry() throws Exception {
+        // Arrange
+        StartupTaskRunner runner = retryingRunner(
+                new TestTask("migrate", true, false, Set.of(), () -> {
+                    executed.add("migrate");
+                    if (executed.size() == 1) {
+                        throw new IllegalStateException("database not up yet");
+                    }
+                }));
+
+        // Act
+        runner.start().get(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertEquals(List.of("migrate", "migrate"), executed);
+        assertTrue(runner.isReady());
+        assertEquals(Map.of("migrate", Status.COMPLETED), runner.snapshot().get("tasks"));
+    }
+
+    @Test
+    @DisplayName("Should reject dependency cycles")
+    void init_WithCycle_ShouldThrow() {
+        StartupTaskRunner runner = new StartupTaskRunner(jdbcTemplate, List.of(
+                new TestTask("a", false, false, Set.of("b"), () -> { }),
+                new TestTask("b", false, false, Set.of("a"), () -> { })), 2);
+
+        assertThrows(IllegalStateException.class, runner::init);
+    }
+
+    private StartupTaskRunner runner(StartupTask... tasks) {
+        StartupTaskRunner runner = new StartupTaskRunner(jdbcTemplate, List.of(tasks), 2);
+        runner.init();
+        return runner;
+    }
+
+    private StartupTaskRunner retryingRunner(StartupTask... tasks) {
+        StartupTaskRunner runner = new StartupTaskRunner(jdbcTemplate, List.of(tasks), 2, 3, 10);
+        runner.init();
+        return runner;
+    }
+
+    @FunctionalInterface
+    private interface Body {
+        void run() throws Exception;
+    }
+
+    private record TestTask(String name, boolean critical, boolean runOnce, Set<String> dependsOn, Body body)
+            implements StartupTask {
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public Set<String> getDependsOn() {
+            return dependsOn;
+        }
+
+        @Override
+        public boolean isCritical() {
+            return critical;
+        }
+
+        @Override
+        public boolean isRunOnce() {
+            return runOnce;
+        }
+
+        @Override
+        public void run() throws Exception {
+            body.run();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package org.learnspring.expensetracker.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+class StatementTimeoutDataSourceTest {
+
+    private final StatementTimeoutDataSource dataSource = new StatementTimeoutDataSource(
+            new DriverManagerDataSource("jdbc:h2:mem:statement-timeout;DB_CLOSE_DELAY=-1", "sa", ""));
+
+    @AfterEach
+    void tearDown() {
+        StatementTimeoutDataSource.clearTimeout();
+    }
+
+    @Test
+    @DisplayName("Statements should get the current thread's timeout")
+    void createStatement_WithTimeout_ShouldApplyIt() throws Exception {
+        // Arrange
+        StatementTimeoutDataSource.setTimeout(3);
+
+        // Act & Assert
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             PreparedStatement prepared = connection.prepareStatement("SELECT 1")) {
+            assertEquals(3, statement.getQueryTimeout());
+            assertEquals(3, prepared.getQueryTimeout());
+        }
+    }
+
+    @Test
+    @DisplayName("Statements should get no timeout outside a request")
+    void createStatement_WithoutTimeout_ShouldLeaveDefault() throws Exception {
+        // Act & Assert
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            assertEquals(0, statement.getQueryTimeout());
+        }
+    }
+
+    @Test
+    @DisplayName("The timeout should follow the thread, not the connection")
+    void createStatement_AfterClear_ShouldUseNewTimeout() throws Exception {
+        // Act & Assert
+        try (Connection connection = dataSource.getConnection()) {
+            StatementTimeoutDataSource.setTimeout(15);
+            try (Statement statement = connection.createStatement()) {
+                assertEquals(15, statement.getQueryTimeout());
+            }
+            StatementTimeoutDataSource.clearTimeout();
+            try (Statement statement = connection.createStatement()) {
+                assertEquals(0, statement.getQueryTimeout());
+            }
+        }
+    }
+}
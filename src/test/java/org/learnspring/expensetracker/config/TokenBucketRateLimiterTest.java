@@ -0,0 +1,110 @@
+package org.learnspring.expensetracker.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class TokenBucketRateLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+
+    private TokenBucketRateLimiter limiter(int capacity, double refillPerSecond, int maxKeys) {
+        return new TokenBucketRateLimiter("test", capacity, refillPerSecond, 4, maxKeys, 60_000, clock::get);
+    }
+
+    @Test
+    @DisplayName("Should allow a burst up to capacity and then report the wait time")
+    void tryAcquire_ShouldRejectAfterBurst() {
+        TokenBucketRateLimiter limiter = limiter(3, 1.0, 100);
+
+        assertEquals(0, limiter.tryAcquire("alice"));
+        assertEquals(0, limiter.tryAcquire("alice"));
+        assertEquals(0, limiter.tryAcquire("alice"));
+        long wait = limiter.tryAcquire("alice");
+
+        assertEquals(1000, wait);
+        assertEquals(0, limiter.tryAcquire("bob"));
+    }
+
+    @Test
+    @DisplayName("Should refill tokens over time, including slow fractional rates")
+    void tryAcquire_ShouldRefill() {
+        TokenBucketRateLimiter limiter = limiter(1, 1.0 / 60, 100); // one per minute
+        assertEquals(0, limiter.tryAcquire("alice"));
+        assertTrue(limiter.tryAcquire("alice") > 0);
+
+        // Many small steps must not lose fractional progress
+        for (int i = 0; i < 60; i++) {
+            clock.addAndGet(1000);
+            limiter.peek("alice");
+        }
+
+        assertEquals(0, limiter.tryAcquire("alice"));
+    }
+
+    @Test
+    @DisplayName("Peek should not consume tokens")
+    void peek_ShouldNotConsume() {
+        TokenBucketRateLimiter limiter = limiter(1, 1.0, 100);
+
+        assertEquals(0, limiter.peek("alice"));
+        assertEquals(0, limiter.peek("alice"));
+        assertEquals(0, limiter.tryAcquire("alice"));
+        assertTrue(limiter.peek("alice") > 0);
+    }
+
+    @Test
+    @DisplayName("Should evict idle buckets and keep memory bounded under key floods")
+    void evictIdle_ShouldBoundMemory() {
+        TokenBucketRateLimiter limiter = limiter(5, 1.0, 40);
+        for (int i = 0; i < 1000; i++) {
+            limiter.tryAcquire("ip-" + i);
+        }
+        assertTrue(limiter.size() <= 40, "size " + limiter.size());
+
+        clock.addAndGet(60_000);
+        limiter.evictIdle();
+        assertEquals(0, limiter.size());
+    }
+
+    @Test
+    @DisplayName("Concurrent callers should never get more tokens than the capacity")
+    void tryAcquire_ShouldBeExactUnderContention() throws Exception {
+        TokenBucketRateLimiter limiter = limiter(100, 0.001, 100);
+        AtomicInteger granted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                for (int i = 0; i < 1000; i++) {
+                    if (limiter.tryAcquire("shared") == 0) {
+                        granted.incrementAndGet();
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(100, granted.get());
+        assertEquals(100L, limiter.snapshot().get("allowed"));
+        assertEquals(7900L, limiter.snapshot().get("rejected"));
+    }
+}
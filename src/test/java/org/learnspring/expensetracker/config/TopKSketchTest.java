@@ -0,0 +1,102 @@
+package org.learnspring.expensetracker.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class TopKSketchTest {
+
+    @Test
+    @DisplayName("Should be exact when every key fits in its own counter")
+    void top_WithFewKeys_ShouldBeExact() {
+        // Arrange
+        TopKSketch sketch = new TopKSketch(1024, 4, 8);
+
+        // Act
+        sketch.add("coffee", "Coffee", 5);
+        sketch.add("rent", "Rent", 1200);
+        sketch.add("coffee", "coffee", 4);
+
+        // Assert
+        List<TopKSketch.Entry> top = sketch.top(2);
+        assertEquals("Rent", top.get(0).label());
+        assertEquals(1200, top.get(0).estimate());
+        assertEquals("Coffee", top.get(1).label(), "the first label seen is kept");
+        assertEquals(9, top.get(1).estimate());
+        assertEquals(1209, sketch.getTotal());
+    }
+
+    @Test
+    @DisplayName("Should replace the smallest candidate when a heavier key arrives")
+    void add_WhenFull_ShouldKeepHeaviestCandidates() {
+        // Arrange
+        TopKSketch sketch = new TopKSketch(1024, 4, 2);
+        sketch.add("a", "a", 1);
+        sketch.add("b", "b", 2);
+
+        // Act
+        sketch.add("c", "c", 5);
+        sketch.add("d", "d", 1);
+
+        // Assert
+        List<TopKSketch.Entry> top = sketch.top(5);
+        assertEquals(2, top.size());
+        assertEquals("c", top.get(0).key());
+        assertEquals("b", top.get(1).key());
+    }
+
+    @Test
+    @DisplayName("Estimates should never undercount and should respect the error bound")
+    void estimate_ShouldStayWithinErrorBound() {
+        // Arrange: far more keys than counters, so collisions are certain
+        TopKSketch sketch = new TopKSketch(64, 4, 8);
+        for (int i = 0; i < 2_000; i++) {
+            sketch.add("key-" + i, "key-" + i, 1 + i % 3);
+        }
+
+        // Assert
+        int withinBound = 0;
+        for (int i = 0; i < 2_000; i++) {
+            long estimate = sketch.estimate("key-" + i);
+            assertTrue(estimate >= 1 + i % 3);
+            if (estimate <= 1 + i % 3 + sketch.getErrorBound()) {
+                withinBound++;
+            }
+        }
+        assertTrue(withinBound >= 2_000 * sketch.getConfidence() - 20, "within bound: " + withinBound);
+    }
+
+    @Test
+    @DisplayName("Removing added weight should keep estimates from undercounting")
+    void remove_ShouldSubtractWithoutUndercounting() {
+        // Arrange: collisions certain, as above
+        TopKSketch sketch = new TopKSketch(64, 4, 8);
+        for (int i = 0; i < 2_000; i++) {
+            sketch.add("key-" + i, "key-" + i, 3);
+        }
+
+        // Act: take two of the three units back from every even key
+        for (int i = 0; i < 2_000; i += 2) {
+            sketch.remove("key-" + i, 2);
+        }
+
+        // Assert
+        assertEquals(4_000, sketch.getTotal());
+        for (int i = 0; i < 2_000; i++) {
+            assertTrue(sketch.estimate("key-" + i) >= (i % 2 == 0 ? 1 : 3));
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject negative weights")
+    void add_WithNegativeWeight_ShouldThrow() {
+        TopKSketch sketch = new TopKSketch(16, 2, 4);
+
+        assertThrows(IllegalArgumentException.class, () -> sketch.add("a", "a", -1));
+    }
+}
@@ -0,0 +1,504 @@
+package org.learnspring.expensetracker.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Closed-loop load generator for a locally started app: N workers repeatedly pick a scenario
+ * by weight, a user from the generated population (Zipf-skewed, like the data) and send the
+ * request. After a warmup it records every latency per scenario and writes a JSON and Markdown
+ * report with throughput, error counts and p50/p99/p999, optionally compared with a baseline.
+ *
+ * Scenarios: all (GET /all), by-month (GET /by-month/{month}), trends (GET /trends), add
+ * (POST /add) and auth (GET /test-auth, i.e. only the cost of authenticating). Every request
+ * authenticates with HTTP Basic, as the frontend does. all, by-month and trends are also
+ * served by the reactive-read-api module, so the same read mix can be run against either stack.
+ *
+ * With loadtest.jvm-url set (an /admin/jvm endpoint of the app under test), its heap and live
+ * thread count are sampled during the measured window and the peaks added to the report.
+ *
+ * Being closed-loop, a slow server also slows the arrival rate, so tail latencies understate
+ * what an open stream of users would see; compare runs with the same settings only.
+ *
+ * See LOAD_TESTING.md. Options are system properties:
+ * <pre>
+ * loadtest.base-url        http://localhost:8080
+ * loadtest.users           100000   population created by SyntheticDataGenerator
+ * loadtest.user-prefix     loaduser
+ * loadtest.password        loadtest123
+ * loadtest.zipf-exponent   1.1
+ * loadtest.concurrency     32
+ * loadtest.warmup-seconds  15
+ * loadtest.duration-seconds 60
+ * loadtest.think-ms        0
+ * loadtest.mix             all:40,by-month:35,add:20,auth:5
+ * loadtest.label           run
+ * loadtest.output-dir      target/loadtest
+ * loadtest.baseline        (optional) earlier report .json to compare against
+ * loadtest.jvm-url         (optional) e.g. http://localhost:8080/admin/jvm
+ * loadtest.jvm-credentials admin user:password for loadtest.jvm-url
+ * loadtest.jvm-sample-ms   500
+ * </pre>
+ */
+public class LoadTestHarness {
+
+    private static final double[] PERCENTILES = {50, 99, 99.9};
+
+    private final Options options;
+    private final HttpClient client;
+    private final double[] userCumulative;
+    private final String[] scenarioNames;
+    private final double[] scenarioCumulative;
+
+    public LoadTestHarness(Options options) {
+        this.options = options;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.userCumulative = SyntheticDataGenerator.zipfCumulative(options.users, options.zipfExponent);
+        this.scenarioNames = options.mix.keySet().toArray(new String[0]);
+        this.scenarioCumulative = new double[scenarioNames.length];
+        double sum = 0;
+        for (int i = 0; i < scenarioNames.length; i++) {
+            sum += options.mix.get(scenarioNames[i]);
+            scenarioCumulative[i] = sum;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.fromSystemProperties();
+        Map<String, Object> report = new LoadTestHarness(options).run();
+        Report.write(report, options);
+    }
+
+    public Map<String, Object> run() throws Exception {
+        System.out.printf("Load test '%s' against %s: %d workers, %ds warmup, %ds measured, mix %s%n",
+                options.label, options.baseUrl, options.concurrency, options.warmupSeconds,
+                options.durationSeconds, options.mix);
+
+        long warmupEnd = System.nanoTime() + options.warmupSeconds * 1_000_000_000L;
+        long end = warmupEnd + options.durationSeconds * 1_000_000_000L;
+        List<Worker> workers = new ArrayList<>();
+        CountDownLatch done = new CountDownLatch(options.concurrency);
+        for (int i = 0; i < options.concurrency; i++) {
+            Worker worker = new Worker(warmupEnd, end, done);
+            workers.add(worker);
+            Thread thread = new Thread(worker, "load-worker-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+        JvmSampler sampler = options.jvmUrl != null ? new JvmSampler(warmupEnd, end) : null;
+        Thread samplerThread = null;
+        if (sampler != null) {
+            samplerThread = new Thread(sampler, "load-jvm-sampler");
+            samplerThread.setDaemon(true);
+            samplerThread.start();
+        }
+        done.await();
+        if (samplerThread != null) {
+            samplerThread.join();
+        }
+
+        Map<String, Object> scenarios = new LinkedHashMap<>();
+        for (String scenario : scenarioNames) {
+            ScenarioStats merged = new ScenarioStats();
+            for (Worker worker : workers) {
+                merged.merge(worker.stats.get(scenario));
+            }
+            scenarios.put(scenario, merged.summary(options.durationSeconds));
+        }
+        ScenarioStats total = new ScenarioStats();
+        for (Worker worker : workers) {
+            worker.stats.values().forEach(total::merge);
+        }
+        scenarios.put("total", total.summary(options.durationSeconds));
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("label", options.label);
+        report.put("timestamp", LocalDateTime.now().toString());
+        report.put("settings", options.toMap());
+        report.put("scenarios", scenarios);
+        if (sampler != null) {
+            report.put("jvm", sampler.summary());
+        }
+        return report;
+    }
+
+    private HttpRequest request(String scenario, int userNumber) {
+        String credentials = options.userPrefix + userNumber + ":" + options.password;
+        HttpRequest.Builder builder = HttpRequest.newBuilder()
+                .timeout(Duration.ofSeconds(30))
+                .header("Authorization", "Basic "
+                        + Base64.getEncoder().encodeToString(credentials.getBytes(StandardCharsets.UTF_8)));
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        switch (scenario) {
+            case "all":
+                return builder.uri(URI.create(options.baseUrl + "/all")).GET().build();
+            case "by-month":
+                YearMonth month = YearMonth.now().minusMonths(random.nextInt(12));
+                return builder.uri(URI.create(options.baseUrl + "/by-month/" + month)).GET().build();
+            case "trends":
+                return builder.uri(URI.create(options.baseUrl + "/trends")).GET().build();
+            case "add":
+                int category = random.nextInt(SyntheticDataGenerator.CATEGORIES.length);
+                String body = String.format("{\"expense\":\"%s\",\"expenseType\":\"%s\",\"expenseAmount\":\"%d.%02d\","
+                                + "\"paymentMethod\":\"%s\",\"date\":\"%s\"}",
+                        SyntheticDataGenerator.DESCRIPTIONS[random.nextInt(SyntheticDataGenerator.DESCRIPTIONS.length)],
+                        SyntheticDataGenerator.CATEGORIES[category], 1 + random.nextInt(200), random.nextInt(100),
+                        SyntheticDataGenerator.PAYMENT_METHODS[random.nextInt(SyntheticDataGenerator.PAYMENT_METHODS.length)],
+                        LocalDate.now().minusDays(random.nextInt(30)));
+                return builder.uri(URI.create(options.baseUrl + "/add"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(body))
+                        .build();
+            case "auth":
+                return builder.uri(URI.create(options.baseUrl + "/test-auth")).GET().build();
+            default:
+                throw new IllegalArgumentException("Unknown scenario: " + scenario);
+        }
+    }
+
+    private static int pick(double[] cumulative) {
+        double r = ThreadLocalRandom.current().nextDouble() * cumulative[cumulative.length - 1];
+        int index = Arrays.binarySearch(cumulative, r);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    private class Worker implements Runnable {
+        private final long warmupEnd;
+        private final long end;
+        private final CountDownLatch done;
+        private final Map<String, ScenarioStats> stats = new LinkedHashMap<>();
+
+        Worker(long warmupEnd, long end, CountDownLatch done) {
+            this.warmupEnd = warmupEnd;
+            this.end = end;
+            this.done = done;
+            for (String scenario : scenarioNames) {
+                stats.put(scenario, new ScenarioStats());
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                long now;
+                while ((now = System.nanoTime()) < end) {
+                    String scenario = scenarioNames[pick(scenarioCumulative)];
+                    HttpRequest request = request(scenario, 1 + pick(userCumulative));
+                    int status;
+                    long start = System.nanoTime();
+                    try {
+                        status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                    } catch (Exception e) {
+                        status = -1;
+                    }
+                    long latency = System.nanoTime() - start;
+                    if (now >= warmupEnd) {
+                        stats.get(scenario).record(latency, status);
+                    }
+                    if (options.thinkMs > 0) {
+                        Thread.sleep(options.thinkMs);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                done.countDown();
+            }
+        }
+    }
+
+    /**
+     * Polls the app's /admin/jvm during the measured window and keeps the peaks: heap in use,
+     * heap committed (what the process actually holds) and live threads (a thread per request
+     * on the servlet stack, a fixed few on the reactive one).
+     */
+    private class JvmSampler implements Runnable {
+        private final long start;
+        private final long end;
+        private final ObjectMapper mapper = new ObjectMapper();
+        private long samples;
+        private long failedSamples;
+        private long peakHeapUsedMb;
+        private long peakHeapCommittedMb;
+        private long peakThreads;
+
+        JvmSampler(long start, long end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public void run() {
+            String credentials = Base64.getEncoder().encodeToString(
+                    options.jvmCredentials.getBytes(StandardCharsets.UTF_8));
+            HttpRequest request = HttpRequest.newBuilder(URI.create(options.jvmUrl))
+                    .timeout(Duration.ofSeconds(5))
+                    .header("Authorization", "Basic " + credentials)
+                    .GET()
+                    .build();
+            try {
+                while (System.nanoTime() < end) {
+                    if (System.nanoTime() >= start) {
+                        sample(request);
+                    }
+                    Thread.sleep(options.jvmSampleMs);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void sample(HttpRequest request) {
+            try {
+                HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                if (response.statusCode() != 200) {
+                    failedSamples++;
+                    return;
+                }
+                JsonNode jvm = mapper.readTree(response.body());
+                samples++;
+                peakHeapUsedMb = Math.max(peakHeapUsedMb, jvm.path("heap").path("usedMb").asLong());
+                peakHeapCommittedMb = Math.max(peakHeapCommittedMb, jvm.path("heap").path("committedMb").asLong());
+                peakThreads = Math.max(peakThreads, jvm.path("threads").asLong());
+            } catch (Exception e) {
+                failedSamples++;
+            }
+        }
+
+        Map<String, Object> summary() {
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("samples", samples);
+            summary.put("failedSamples", failedSamples);
+            summary.put("peakHeapUsedMb", peakHeapUsedMb);
+            summary.put("peakHeapCommittedMb", peakHeapCommittedMb);
+            summary.put("peakThreads", peakThreads);
+            return summary;
+        }
+    }
+
+    /**
+     * Every latency of one scenario on one worker; merged after the run and sorted for exact percentiles.
+     */
+    static class ScenarioStats {
+        private long[] latencies = new long[1024];
+        private int count;
+        private long errors;
+        private long rejected;
+
+        void record(long latencyNanos, int status) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latencyNanos;
+            if (status == 429 || status == 503) {
+                rejected++;
+            } else if (status < 200 || status >= 400) {
+                errors++;
+            }
+        }
+
+        void merge(ScenarioStats other) {
+            if (count + other.count > latencies.length) {
+                latencies = Arrays.copyOf(latencies, Math.max(latencies.length * 2, count + other.count));
+            }
+            System.arraycopy(other.latencies, 0, latencies, count, other.count);
+            count += other.count;
+            errors += other.errors;
+            rejected += other.rejected;
+        }
+
+        Map<String, Object> summary(long durationSeconds) {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("requests", count);
+            summary.put("throughputPerSec", round(count / (double) Math.max(1, durationSeconds)));
+            summary.put("errors", errors);
+            summary.put("rejected", rejected);
+            for (double p : PERCENTILES) {
+                summary.put("p" + formatPercentile(p) + "Ms", round(percentile(sorted, p) / 1e6));
+            }
+            summary.put("maxMs", round(count == 0 ? 0 : sorted[count - 1] / 1e6));
+            return summary;
+        }
+    }
+
+    /**
+     * Nearest-rank percentile of an ascending array; 0 when empty.
+     */
+    static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        // Epsilon guards against 99.9/100*n landing just above an integer
+        int rank = (int) Math.ceil(percentile * sorted.length / 100.0 - 1e-9);
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+    }
+
+    static String formatPercentile(double p) {
+        return p == Math.rint(p) ? String.valueOf((long) p) : String.valueOf(p).replace(".", "");
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    /**
+     * Writes the JSON report (machine-comparable) and a Markdown table, with deltas against
+     * the baseline report when one is given.
+     */
+    static class Report {
+
+        static void write(Map<String, Object> report, Options options) throws Exception {
+            ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+            Path dir = Path.of(options.outputDir);
+            Files.createDirectories(dir);
+            String stem = options.label + "-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+            Path json = dir.resolve(stem + ".json");
+            mapper.writeValue(json.toFile(), report);
+
+            JsonNode baseline = options.baseline != null ? mapper.readTree(Path.of(options.baseline).toFile()) : null;
+            String markdown = markdown(mapper.valueToTree(report), baseline);
+            Files.writeString(dir.resolve(stem + ".md"), markdown);
+            System.out.println(markdown);
+            System.out.println("Report written to " + json);
+        }
+
+        static String markdown(JsonNode report, JsonNode baseline) {
+            StringBuilder md = new StringBuilder();
+            md.append("# Load test: ").append(report.get("label").asText()).append("\n\n");
+            md.append("Settings: `").append(report.get("settings")).append("`\n\n");
+            if (baseline != null) {
+                md.append("Compared with baseline `").append(baseline.get("label").asText()).append("` (")
+                        .append(baseline.get("timestamp").asText()).append(")\n\n");
+            }
+            md.append("| scenario | req/s | p50 ms | p99 ms | p99.9 ms | max ms | errors | rejected |\n");
+            md.append("|---|---:|---:|---:|---:|---:|---:|---:|\n");
+            report.get("scenarios").fields().forEachRemaining(entry -> {
+                JsonNode s = entry.getValue();
+                JsonNode b = baseline != null ? baseline.path("scenarios").path(entry.getKey()) : null;
+                md.append("| ").append(entry.getKey())
+                        .append(" | ").append(cell(s, b, "throughputPerSec"))
+                        .append(" | ").append(cell(s, b, "p50Ms"))
+                        .append(" | ").append(cell(s, b, "p99Ms"))
+                        .append(" | ").append(cell(s, b, "p999Ms"))
+                        .append(" | ").append(cell(s, b, "maxMs"))
+                        .append(" | ").append(s.get("errors").asLong())
+                        .append(" | ").append(s.get("rejected").asLong())
+                        .append(" |\n");
+            });
+            JsonNode jvm = report.get("jvm");
+            if (jvm != null) {
+                JsonNode b = baseline != null ? baseline.get("jvm") : null;
+                md.append("\n| jvm | peak heap used MB | peak heap committed MB | peak threads | samples |\n");
+                md.append("|---|---:|---:|---:|---:|\n");
+                md.append("| ").append(report.path("settings").path("baseUrl").asText())
+                        .append(" | ").append(cell(jvm, b, "peakHeapUsedMb"))
+                        .append(" | ").append(cell(jvm, b, "peakHeapCommittedMb"))
+                        .append(" | ").append(cell(jvm, b, "peakThreads"))
+                        .append(" | ").append(jvm.get("samples").asLong())
+                        .append(" |\n");
+            }
+            return md.toString();
+        }
+
+        private static String cell(JsonNode scenario, JsonNode baseline, String field) {
+            double value = scenario.get(field).asDouble();
+            String text = String.format("%.2f", value);
+            if (baseline == null || !baseline.has(field) || baseline.get(field).asDouble() == 0) {
+                return text;
+            }
+            double change = (value - baseline.get(field).asDouble()) / baseline.get(field).asDouble() * 100;
+            return String.format("%s (%+.0f%%)", text, change);
+        }
+    }
+
+    public static class Options {
+        String baseUrl = "http://localhost:8080";
+        int users = 100_000;
+        String userPrefix = "loaduser";
+        String password = "loadtest123";
+        double zipfExponent = 1.1;
+        int concurrency = 32;
+        long warmupSeconds = 15;
+        long durationSeconds = 60;
+        long thinkMs = 0;
+        Map<String, Double> mix = parseMix("all:40,by-month:35,add:20,auth:5");
+        String label = "run";
+        String outputDir = "target/loadtest";
+        String baseline;
+        String jvmUrl;
+        String jvmCredentials = "admin:admin";
+        long jvmSampleMs = 500;
+
+        static Options fromSystemProperties() {
+            Options o = new Options();
+            o.baseUrl = System.getProperty("loadtest.base-url", o.baseUrl);
+            o.users = Integer.getInteger("loadtest.users", o.users);
+            o.userPrefix = System.getProperty("loadtest.user-prefix", o.userPrefix);
+            o.password = System.getProperty("loadtest.password", o.password);
+            o.zipfExponent = Double.parseDouble(System.getProperty("loadtest.zipf-exponent", String.valueOf(o.zipfExponent)));
+            o.concurrency = Integer.getInteger("loadtest.concurrency", o.concurrency);
+            o.warmupSeconds = Long.getLong("loadtest.warmup-seconds", o.warmupSeconds);
+            o.durationSeconds = Long.getLong("loadtest.duration-seconds", o.durationSeconds);
+            o.thinkMs = Long.getLong("loadtest.think-ms", o.thinkMs);
+            if (System.getProperty("loadtest.mix") != null) {
+                o.mix = parseMix(System.getProperty("loadtest.mix"));
+            }
+            o.label = System.getProperty("loadtest.label", o.label);
+            o.outputDir = System.getProperty("loadtest.output-dir", o.outputDir);
+            o.baseline = System.getProperty("loadtest.baseline");
+            o.jvmUrl = System.getProperty("loadtest.jvm-url");
+            o.jvmCredentials = System.getProperty("loadtest.jvm-credentials", o.jvmCredentials);
+            o.jvmSampleMs = Long.getLong("loadtest.jvm-sample-ms", o.jvmSampleMs);
+            return o;
+        }
+
+        static Map<String, Double> parseMix(String mix) {
+            Map<String, Double> weights = new LinkedHashMap<>();
+            for (String part : mix.split(",")) {
+                String[] kv = part.trim().split(":");
+                weights.put(kv[0].trim(), Double.parseDouble(kv[1].trim()));
+            }
+            return weights;
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("baseUrl", baseUrl);
+            map.put("users", users);
+            map.put("zipfExponent", zipfExponent);
+            map.put("concurrency", concurrency);
+            map.put("warmupSeconds", warmupSeconds);
+            map.put("durationSeconds", durationSeconds);
+            map.put("thinkMs", thinkMs);
+            map.put("mix", mix);
+            return map;
+        }
+    }
+}
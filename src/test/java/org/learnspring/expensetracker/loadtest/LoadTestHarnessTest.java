@@ -0,0 +1,88 @@
+package org.learnspring.expensetracker.loadtest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class LoadTestHarnessTest {
+
+    @Test
+    @DisplayName("Percentiles should use the nearest rank")
+    void percentile_ShouldUseNearestRank() {
+        long[] sorted = new long[1000];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = i + 1;
+        }
+
+        assertEquals(500, LoadTestHarness.percentile(sorted, 50));
+        assertEquals(990, LoadTestHarness.percentile(sorted, 99));
+        assertEquals(999, LoadTestHarness.percentile(sorted, 99.9));
+        assertEquals(0, LoadTestHarness.percentile(new long[0], 99));
+    }
+
+    @Test
+    @DisplayName("Merged stats should count errors and rejections separately")
+    void scenarioStats_ShouldMergeAndSummarise() {
+        LoadTestHarness.ScenarioStats a = new LoadTestHarness.ScenarioStats();
+        LoadTestHarness.ScenarioStats b = new LoadTestHarness.ScenarioStats();
+        for (int i = 1; i <= 2000; i++) {
+            a.record(i * 1_000_000L, 200);
+        }
+        b.record(5_000_000_000L, 500);
+        b.record(1_000_000L, 429);
+
+        a.merge(b);
+        Map<String, Object> summary = a.summary(10);
+
+        assertEquals(2002, summary.get("requests"));
+        assertEquals(200.2, summary.get("throughputPerSec"));
+        assertEquals(1L, summary.get("errors"));
+        assertEquals(1L, summary.get("rejected"));
+        assertEquals(5000.0, summary.get("maxMs"));
+        assertTrue((double) summary.get("p50Ms") >= 999.0 && (double) summary.get("p50Ms") <= 1001.0);
+    }
+
+    @Test
+    @DisplayName("The report should show sampled JVM peaks against the baseline's")
+    void markdown_WithJvmSamples_ShouldCompareJvmPeaks() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        String run = "{\"label\":\"%s\",\"timestamp\":\"t\",\"settings\":{\"baseUrl\":\"%s\"},"
+                + "\"scenarios\":{},\"jvm\":{\"samples\":10,\"peakHeapUsedMb\":%d,"
+                + "\"peakHeapCommittedMb\":512,\"peakThreads\":%d}}";
+        JsonNode servlet = mapper.readTree(String.format(run, "servlet", "http://localhost:8080", 400, 240));
+        JsonNode reactive = mapper.readTree(String.format(run, "reactive", "http://localhost:8081", 200, 30));
+
+        String markdown = LoadTestHarness.Report.markdown(reactive, servlet);
+
+        assertTrue(markdown.contains("| http://localhost:8081 | 200.00 (-50%) | 512.00 (+0%) | 30.00 (-88%) | 10 |"), markdown);
+    }
+
+    @Test
+    @DisplayName("Generated expenses should be skewed towards the heaviest users")
+    void generator_ShouldProduceZipfSkewedUsers() {
+        SyntheticDataGenerator.Options options = new SyntheticDataGenerator.Options();
+        options.users = 1000;
+        SyntheticDataGenerator generator = new SyntheticDataGenerator(options);
+
+        int topTen = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (generator.pickUserIndex() < 10) {
+                topTen++;
+            }
+        }
+        StringBuilder row = new StringBuilder();
+        generator.appendExpense(row, 7, 100);
+
+        // With exponent 1.1 the top 1% of users hold roughly 40% of the expenses
+        assertTrue(topTen > 3000 && topTen < 5000, "top-10 share " + topTen);
+        assertTrue(row.toString().matches("7,[A-Za-z ]+,\\d+,\\d+\\.\\d{2},\\d+,\\d{4}-\\d{2}-\\d{2},\\d+\\n"),
+                row.toString());
+    }
+}
@@ -0,0 +1,271 @@
+package org.learnspring.expensetracker.loadtest;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.learnspring.expensetracker.config.CalibratedBCryptPasswordEncoder;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+
+/**
+ * Bulk-loads synthetic users and expenses into PostgreSQL with COPY, for load testing.
+ *
+ * Expenses per user follow a Zipf distribution (a few heavy users, a long tail), categories
+ * and payment methods are weighted, amounts are log-normal around a per-category median and
+ * dates are spread over the last N months. Every user gets the same password, hashed once.
+ * The schema must exist (start the app once against the database first); ids continue after
+ * the current maximum and the Hibernate sequences are moved past the loaded rows. Categories
+ * and payment methods are added to their lookup tables if missing, and expenses reference
+ * them by id.
+ *
+ * See LOAD_TESTING.md. Options are system properties:
+ * <pre>
+ * loadtest.db.url          jdbc:postgresql://localhost:5432/postgres
+ * loadtest.db.user         postgres
+ * loadtest.db.password     0000
+ * loadtest.users           100000
+ * loadtest.expenses        5000000
+ * loadtest.zipf-exponent   1.1      skew of expenses per user (0 = uniform)
+ * loadtest.months          24       date range, ending today
+ * loadtest.amount-sigma    0.8      spread of the log-normal amount distribution
+ * loadtest.seed            42
+ * loadtest.user-prefix     loaduser
+ * loadtest.password        loadtest123
+ * loadtest.bcrypt-cost     10
+ * </pre>
+ */
+public class SyntheticDataGenerator {
+
+    static final String[] CATEGORIES = {"Food", "Groceries", "Transport", "Rent", "Utilities",
+            "Entertainment", "Health", "Shopping", "Travel", "Education"};
+    static final double[] CATEGORY_WEIGHTS = {25, 18, 15, 3, 6, 10, 5, 10, 4, 4};
+    static final double[] CATEGORY_MEDIAN_AMOUNT = {15, 60, 8, 1200, 90, 25, 40, 50, 300, 100};
+    static final String[] PAYMENT_METHODS = {"Card", "Cash", "UPI", "Bank Transfer"};
+    static final double[] PAYMENT_WEIGHTS = {50, 15, 30, 5};
+    static final String[] DESCRIPTIONS = {"Coffee", "Lunch", "Dinner", "Taxi", "Bus pass", "Electricity",
+            "Internet", "Movie", "Pharmacy", "Books", "Flight", "Hotel", "Supermarket", "Clothes", "Gym"};
+
+    private static final int COPY_BATCH_ROWS = 1_000_000;
+    private static final int BUFFER_BYTES = 1 << 20;
+
+    private final Options options;
+    private final Random random;
+    private final double[] userCumulative;
+    private final double[] categoryCumulative;
+    private final double[] paymentCumulative;
+    private final int[] categoryIds = new int[CATEGORIES.length];
+    private final int[] paymentMethodIds = new int[PAYMENT_METHODS.length];
+    private final LocalDate today = LocalDate.now();
+
+    public SyntheticDataGenerator(Options options) {
+        this.options = options;
+        this.random = new Random(options.seed);
+        this.userCumulative = zipfCumulative(options.users, options.zipfExponent);
+        this.categoryCumulative = cumulative(CATEGORY_WEIGHTS);
+        this.paymentCumulative = cumulative(PAYMENT_WEIGHTS);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.fromSystemProperties();
+        try (Connection connection = DriverManager.getConnection(options.dbUrl, options.dbUser, options.dbPassword)) {
+            new SyntheticDataGenerator(options).load(connection);
+        }
+    }
+
+    public void load(Connection connection) throws Exception {
+        CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+        if (userExists(connection, options.userPrefix + 1)) {
+            throw new IllegalStateException("Users named " + options.userPrefix + "N already exist; "
+                    + "use another -Dloadtest.user-prefix or a fresh database");
+        }
+        resolveIds(connection, "categories", CATEGORIES, categoryIds);
+        resolveIds(connection, "payment_methods", PAYMENT_METHODS, paymentMethodIds);
+        int firstUserId = maxId(connection, "users") + 1;
+        int firstExpenseId = maxId(connection, "expenses") + 1;
+
+        long start = System.nanoTime();
+        String passwordHash = CalibratedBCryptPasswordEncoder
+                .delegating(new CalibratedBCryptPasswordEncoder(options.bcryptCost))
+                .encode(options.password);
+        loadUsers(copyManager, firstUserId, passwordHash);
+        System.out.printf("Loaded %,d users in %,d ms%n", options.users, (System.nanoTime() - start) / 1_000_000);
+
+        start = System.nanoTime();
+        long loaded = 0;
+        while (loaded < options.expenses) {
+            int batch = (int) Math.min(COPY_BATCH_ROWS, options.expenses - loaded);
+            loadExpenses(copyManager, firstExpenseId + loaded, batch, firstUserId);
+            loaded += batch;
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("Loaded %,d / %,d expenses (%,.0f rows/s)%n", loaded, options.expenses, loaded / seconds);
+        }
+
+        try (Statement statement = connection.createStatement()) {
+            // Hibernate's pooled sequences hand out blocks of 50 below the returned value
+            statement.execute("SELECT setval('users_seq', (SELECT MAX(id) FROM users) + 50)");
+            statement.execute("SELECT setval('expenses_seq', (SELECT MAX(id) FROM expenses) + 50)");
+            statement.execute("ANALYZE users");
+            statement.execute("ANALYZE expenses");
+        }
+        System.out.printf("Done. Users %s%d..%s%d, password '%s'%n", options.userPrefix, 1,
+                options.userPrefix, options.users, options.password);
+    }
+
+    private void loadUsers(CopyManager copyManager, int firstId, String passwordHash) throws Exception {
+        CopyIn copy = copyManager.copyIn("COPY users (id, username, password, role) FROM STDIN WITH (FORMAT csv)");
+        StringBuilder buffer = new StringBuilder(BUFFER_BYTES);
+        for (int i = 1; i <= options.users; i++) {
+            buffer.append(firstId + i - 1).append(',').append(options.userPrefix).append(i).append(',')
+                    .append(passwordHash).append(",USER\n");
+            flushIfFull(copy, buffer);
+        }
+        flush(copy, buffer);
+        copy.endCopy();
+    }
+
+    private void loadExpenses(CopyManager copyManager, long firstId, int rows, int firstUserId) throws Exception {
+        CopyIn copy = copyManager.copyIn("COPY expenses (id, expense, category_id, expense_amount, "
+                + "payment_method_id, date, user_id) FROM STDIN WITH (FORMAT csv)");
+        StringBuilder buffer = new StringBuilder(BUFFER_BYTES);
+        for (int i = 0; i < rows; i++) {
+            appendExpense(buffer, firstId + i, firstUserId);
+            flushIfFull(copy, buffer);
+        }
+        flush(copy, buffer);
+        copy.endCopy();
+    }
+
+    /**
+     * One CSV row: id, description, category id, amount, payment method id, date, user id.
+     */
+    void appendExpense(StringBuilder buffer, long id, int firstUserId) {
+        int category = pick(categoryCumulative);
+        double amount = CATEGORY_MEDIAN_AMOUNT[category] * Math.exp(options.amountSigma * random.nextGaussian());
+        long cents = Math.round(Math.max(0.5, Math.min(amount, 99_999.99)) * 100);
+        buffer.append(id).append(',')
+                .append(DESCRIPTIONS[random.nextInt(DESCRIPTIONS.length)]).append(',')
+                .append(categoryIds[category]).append(',')
+                .append(cents / 100).append('.').append(cents % 100 < 10 ? "0" : "").append(cents % 100).append(',')
+                .append(paymentMethodIds[pick(paymentCumulative)]).append(',')
+                .append(today.minusDays(random.nextInt(Math.max(1, options.months * 30)))).append(',')
+                .append(firstUserId + pick(userCumulative)).append('\n');
+    }
+
+    /**
+     * Index of a user drawn from the Zipf distribution (0 = heaviest user).
+     */
+    int pickUserIndex() {
+        return pick(userCumulative);
+    }
+
+    private int pick(double[] cumulativeWeights) {
+        double r = random.nextDouble() * cumulativeWeights[cumulativeWeights.length - 1];
+        int index = Arrays.binarySearch(cumulativeWeights, r);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    private static void flushIfFull(CopyIn copy, StringBuilder buffer) throws Exception {
+        if (buffer.length() >= BUFFER_BYTES) {
+            flush(copy, buffer);
+        }
+    }
+
+    private static void flush(CopyIn copy, StringBuilder buffer) throws Exception {
+        if (buffer.length() > 0) {
+            byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+            copy.writeToCopy(bytes, 0, bytes.length);
+            buffer.setLength(0);
+        }
+    }
+
+    private static void resolveIds(Connection connection, String table, String[] names, int[] ids) throws Exception {
+        try (var insert = connection.prepareStatement("INSERT INTO " + table + " (name) VALUES (?) ON CONFLICT (name) DO NOTHING");
+             var select = connection.prepareStatement("SELECT id FROM " + table + " WHERE name = ?")) {
+            for (int i = 0; i < names.length; i++) {
+                insert.setString(1, names[i]);
+                insert.executeUpdate();
+                select.setString(1, names[i]);
+                try (ResultSet rs = select.executeQuery()) {
+                    rs.next();
+                    ids[i] = rs.getInt(1);
+                }
+            }
+        }
+    }
+
+    private static boolean userExists(Connection connection, String username) throws Exception {
+        try (var statement = connection.prepareStatement("SELECT 1 FROM users WHERE username = ?")) {
+            statement.setString(1, username);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    private static int maxId(Connection connection, String table) throws Exception {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM " + table)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    static double[] zipfCumulative(int n, double exponent) {
+        double[] cumulative = new double[n];
+        double sum = 0;
+        for (int k = 1; k <= n; k++) {
+            sum += 1.0 / Math.pow(k, exponent);
+            cumulative[k - 1] = sum;
+        }
+        return cumulative;
+    }
+
+    private static double[] cumulative(double[] weights) {
+        double[] cumulative = new double[weights.length];
+        double sum = 0;
+        for (int i = 0; i < weights.length; i++) {
+            sum += weights[i];
+            cumulative[i] = sum;
+        }
+        return cumulative;
+    }
+
+    public static class Options {
+        String dbUrl = "jdbc:postgresql://localhost:5432/postgres";
+        String dbUser = "postgres";
+        String dbPassword = "0000";
+        int users = 100_000;
+        long expenses = 5_000_000;
+        double zipfExponent = 1.1;
+        int months = 24;
+        double amountSigma = 0.8;
+        long seed = 42;
+        String userPrefix = "loaduser";
+        String password = "loadtest123";
+        int bcryptCost = 10;
+
+        static Options fromSystemProperties() {
+            Options o = new Options();
+            o.dbUrl = System.getProperty("loadtest.db.url", o.dbUrl);
+            o.dbUser = System.getProperty("loadtest.db.user", o.dbUser);
+            o.dbPassword = System.getProperty("loadtest.db.password", o.dbPassword);
+            o.users = Integer.getInteger("loadtest.users", o.users);
+            o.expenses = Long.getLong("loadtest.expenses", o.expenses);
+            o.zipfExponent = Double.parseDouble(System.getProperty("loadtest.zipf-exponent", String.valueOf(o.zipfExponent)));
+            o.months = Integer.getInteger("loadtest.months", o.months);
+            o.amountSigma = Double.parseDouble(System.getProperty("loadtest.amount-sigma", String.valueOf(o.amountSigma)));
+            o.seed = Long.getLong("loadtest.seed", o.seed);
+            o.userPrefix = System.getProperty("loadtest.user-prefix", o.userPrefix);
+            o.password = System.getProperty("loadtest.password", o.password);
+            o.bcryptCost = Integer.getInteger("loadtest.bcrypt-cost", o.bcryptCost);
+            return o;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package org.learnspring.expensetracker.repo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.learnspring.expensetracker.Model.Expense;
+import org.learnspring.expensetracker.Model.ExpenseView;
+import org.learnspring.expensetracker.Model.Users;
+import org.learnspring.expensetracker.Service.DictionaryService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+// Expense's category and payment method converters look names up through it
+@Import(DictionaryService.class)
+class ExpenseViewSerializationTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private expenseRepo expenseRepo;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private Users user;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        user = entityManager.persist(new Users(null, "alice", "$2a$12$secret-hash", "USER"));
+        entityManager.persist(new Expense(0, "Groceries", "Food", "54.20", "Card", LocalDate.of(2025, 3, 14), user));
+        entityManager.persist(new Expense(0, "Bus pass", "Transport", "30.00", "Cash", LocalDate.of(2025, 3, 2), user));
+        entityManager.persist(new Expense(0, "Rent", "Housing", "900.00", "Transfer", LocalDate.of(2025, 4, 1), user));
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    @DisplayName("Projection read and serialization should run one query and load no entities")
+    void findViews_ShouldNotLoadEntitiesDuringSerialization() throws Exception {
+        // Act
+        List<ExpenseView> views = expenseRepo.findViewsByUserIdAndDateBetween(
+                user.getId(), LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 31));
+        String json = objectMapper.writeValueAsString(views);
+
+        // Assert
+        assertEquals(2, views.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(0, statistics.getEntityFetchCount());
+        assertFalse(json.contains("password"));
+        assertFalse(json.contains("secret-hash"));
+        assertTrue(json.contains("\"expenseType\":\"Food\""));
+    }
+
+    @Test
+    @DisplayName("Serializing an Expense entity should not initialize its lazy user")
+    void serializeEntity_ShouldNotTouchLazyUser() throws Exception {
+        // Arrange
+        Expense expense = expenseRepo.findViewsByUserId(user.getId()).stream()
+                .map(view -> entityManager.find(Expense.class, view.id()))
+                .findFirst()
+                .orElseThrow();
+        statistics.clear();
+
+        // Act
+        String json = objectMapper.writeValueAsString(expense);
+
+        // Assert
+        assertEquals(0, statistics.getEntityFetchCount());
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertFalse(json.contains("\"user\""));
+        assertFalse(json.contains("secret-hash"));
+    }
+}